@@ -7,6 +7,7 @@ import PostShow from './Post/PostShow';
 import PostEdit from './Post/PostEdit';
 import UserRegister from './User/UserRegister';
 import UserLogin from './User/UserLogin';
+import UserPosts from './User/UserPosts';
 import { useUser } from './contexts/UserContext'
 import { useEffect } from 'react';
 import Header from './components/Header';
@@ -42,6 +43,7 @@ function App() {
                 <Route path={ROUTES.POST_EDIT()} element={<PostEdit />} />
                 <Route path={ROUTES.USER_REGISTER} element={<UserRegister />} />
                 <Route path={ROUTES.USER_LOGIN} element={<UserLogin />} />
+                <Route path={ROUTES.USER_POSTS()} element={<UserPosts />} />
 
                 {/* 不正なURLが入力された場合、投稿一覧画面に遷移させる */}
                 <Route path={ROUTES.NOT_MATCH} element={<Navigate to={ROUTES.POST_INDEX} />} />
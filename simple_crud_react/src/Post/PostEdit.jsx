@@ -25,6 +25,10 @@ function PostEdit() {
         content: '',
         userId: '',
     });
+    // 取得した時点の投稿の版（ETag）。更新時に If-Match に指定し、他のユーザーの更新を上書きしないようにする
+    const [etag, setEtag] = useState(null);
+    // 投稿を読み込み直すためのカウンター（値が変わると投稿を取得し直す）
+    const [reloadCount, setReloadCount] = useState(0);
     const blockIfNotLoggedIn = useBlockIfNotLoggedIn();
     const blockIfNotCreater = useBlockIfNotCreater();
     const createErrorFromResponse = useCreateErrorFromResponse();
@@ -64,9 +68,11 @@ function PostEdit() {
                 `${API_BASE_URL}${APIS.POST_EDIT(id)}`,
                 {
                     method: 'PUT',
+                    credentials: 'include', // 書き込み直後の読み取りを最新のDBから行わせるためのクッキーを送受信する
                     headers:
                     {
-                        'Content-Type': 'application/json'
+                        'Content-Type': 'application/json',
+                        ...(etag ? { 'If-Match': etag } : {})
                     },
                     body: JSON.stringify(post)
                 }
@@ -82,6 +88,11 @@ function PostEdit() {
                     // 更新対象の投稿が見つからなかった（削除された可能性がある）。投稿一覧に遷移する。
                     alert(MESSAGES.POST_NOT_FOUND);
                     navigate(ROUTES.POST_INDEX);
+                } else if (response.status === HTTP_STATUS_CODES.PRECONDITION_FAILED
+                    || response.status === HTTP_STATUS_CODES.CONFLICT) {
+                    // 編集中に他のユーザーが更新した。上書きせず、最新の内容を読み込み直す。
+                    alert(MESSAGES.POST_UPDATE_CONFLICT);
+                    setReloadCount(count => count + 1);
                 } else {
                     // 想定外のエラーが発生した。
                     throw await createErrorFromResponse();
@@ -110,7 +121,7 @@ function PostEdit() {
         const fetchPost = async () => {
             try {
                 // API を呼び出して投稿データを取得する
-                const response = await fetch(`${API_BASE_URL}${APIS.POST_GET_BY_ID(id)}`);
+                const response = await fetch(`${API_BASE_URL}${APIS.POST_GET_BY_ID(id)}`, { credentials: 'include' });
                 if (response.ok) {
                     // 投稿の取得に成功した場合
                     const data = await response.json();
@@ -121,6 +132,7 @@ function PostEdit() {
                     }
 
                     setPost(data)
+                    setEtag(response.headers.get('ETag'));
                 } else {
                     // 投稿の取得に失敗した場合
                     if (response.status === HTTP_STATUS_CODES.NOT_FOUND) {
@@ -138,7 +150,7 @@ function PostEdit() {
         };
 
         fetchPost();
-    }, [blockIfNotLoggedIn, blockIfNotCreater,createErrorFromResponse, showErrorMessage , id, navigate, userInfo]);
+    }, [blockIfNotLoggedIn, blockIfNotCreater,createErrorFromResponse, showErrorMessage , id, navigate, userInfo, reloadCount]);
 
 
     return (
@@ -1,4 +1,4 @@
-import { useCallback, useContext, useEffect, useState } from 'react';
+import { useCallback, useContext, useEffect, useRef, useState } from 'react';
 import { Link } from 'react-router-dom';
 import { UserContext } from '../contexts/UserContext';
 import { API_BASE_URL, APIS, MESSAGES, ROUTES } from '../config/Constant';
@@ -14,23 +14,37 @@ import './PostIndex.css';
 function PostIndex() {
     const { userInfo } = useContext(UserContext);
     const [posts, setPosts] = useState([]);
+    // 次のページを取得するためのカーソル（nullの場合、次のページは存在しない）
+    const [nextCursor, setNextCursor] = useState(null);
+    // 検索フォームに入力中のキーワード
+    const [keyword, setKeyword] = useState('');
+    // 現在表示している検索結果のキーワード（空文字の場合は検索せず、新しい順に表示する）
+    const [searchedKeyword, setSearchedKeyword] = useState('');
+    // 投稿の変更の通知を受け取った時点の検索キーワードを参照するためのRef
+    const searchedKeywordRef = useRef('');
     const deletePost = useDeletePost(useCallback(() => { getPosts(); }, []));
     const createErrorFromResponse = useCreateErrorFromResponse();
     const showErrorMessage = useShowErrorMessage();
 
     /**
-     * 投稿一覧をAPI経由で取得してStateに格納する関数
+     * 投稿一覧をAPI経由で1ページ分取得してStateに格納する関数
      * fetchの成功可否をチェックし、失敗時にはエラーを通知する
+     *
+     * @param {string|null} cursor - 続きから取得する場合のカーソル（nullの場合は1ページ目を取得し、一覧を置き換える）
+     * @param {string} query - 検索キーワード（空文字の場合は検索せず、新しい順に取得する）
      */
-    const getPosts = async () => {
+    const getPosts = async (cursor = null, query = '') => {
         try {
-            // セッションに紐づいたユーザー情報を取得するAPIを呼び出す
-            const res = await fetch(`${API_BASE_URL}${APIS.POST_ALL}`);
+            // 投稿一覧（1ページ分）を取得するAPIを呼び出す（キーワードがある場合は検索APIを呼び出す）
+            const url = query ? APIS.POST_SEARCH(query, cursor) : APIS.POST_PAGE(cursor);
+            // ※書き込み直後の読み取りを最新のDBから行わせるためのクッキーを送信する
+            const res = await fetch(`${API_BASE_URL}${url}`, { credentials: 'include' });
 
             if (res.ok) {
-                // 投稿一覧データ（JSON）を取得して状態にセット
-                const resultPosts = await res.json();
-                setPosts(resultPosts);
+                // 投稿一覧データ（JSON）を取得して状態にセット（続きの場合は末尾に追加する）
+                const resultPage = await res.json();
+                setPosts(prevPosts => cursor ? [...prevPosts, ...resultPage.items] : resultPage.items);
+                setNextCursor(resultPage.nextCursor);
             } else {
                 // 想定外のステータスコード（4xx/5xxなど）
                 throw await createErrorFromResponse(res);
@@ -39,8 +53,11 @@ function PostIndex() {
             // ネットワークエラーまたはthrowされたErrorをキャッチ
             showErrorMessage(error, MESSAGES.POST_GET_FAILED);
 
-            // 投稿を空にする
-            setPosts([]);
+            // 1ページ目の取得に失敗した場合は投稿を空にする
+            if (!cursor) {
+                setPosts([]);
+                setNextCursor(null);
+            }
         }
     }
 
@@ -50,6 +67,47 @@ function PostIndex() {
         getPosts();
     }, []);
 
+    // 投稿の作成・更新・削除の通知をサーバーから受け取り、一覧を取得し直さずに反映する
+    // ※接続が切れた場合、EventSourceは最後に受け取った通知のIDを送って自動で再接続する
+    useEffect(() => {
+        const eventSource = new EventSource(`${API_BASE_URL}${APIS.POST_STREAM}`, { withCredentials: true });
+
+        eventSource.addEventListener('post', (e) => {
+            const change = JSON.parse(e.data);
+            if (change.type === 'CREATED') {
+                // 検索結果の表示中は、検索条件に一致するか判定できないため追加しない
+                if (!searchedKeywordRef.current) {
+                    setPosts(prevPosts => [change.post, ...prevPosts.filter(post => post.id !== change.postId)]);
+                }
+            } else if (change.type === 'UPDATED') {
+                setPosts(prevPosts => prevPosts.map(post => post.id === change.postId ? change.post : post));
+            } else if (change.type === 'DELETED') {
+                setPosts(prevPosts => prevPosts.filter(post => post.id !== change.postId));
+            }
+        });
+
+        // 通知を取りこぼした場合は一覧を取得し直す
+        eventSource.addEventListener('resync', () => {
+            getPosts(null, searchedKeywordRef.current);
+        });
+
+        return () => eventSource.close();
+    }, []);
+
+    /**
+     * 検索ボタン押下時に呼ばれる関数
+     * 入力されたキーワードで検索し、一覧を検索結果に置き換える（キーワードが空の場合は新しい順の一覧に戻す）
+     *
+     * @param {Event} e - フォーム送信イベント
+     */
+    const handleSearch = (e) => {
+        e.preventDefault();
+        const query = keyword.trim();
+        setSearchedKeyword(query);
+        searchedKeywordRef.current = query;
+        getPosts(null, query);
+    }
+
     /**
      * 削除ボタン押下時に呼ばれる関数
      * 指定IDの投稿を削除した後、投稿一覧を再取得して画面を更新する
@@ -66,9 +124,15 @@ function PostIndex() {
             <Link to={`/posts/new`} className='common_button posts_create_button'>新規作成</Link>
             <h2>投稿一覧</h2>
 
+            {/* 検索フォーム */}
+            <form onSubmit={handleSearch} className='posts_search_form'>
+                <input type='text' value={keyword} onChange={(e) => setKeyword(e.target.value)} placeholder='キーワードで検索' className='posts_search_input' />
+                <button type='submit' className='common_button posts_search_button'>検索</button>
+            </form>
+
             {/* 投稿が存在しない場合のメッセージ表示 */}
             {posts.length === 0 ? (
-                <p>投稿がまだありません</p>
+                <p>{searchedKeyword ? '該当する投稿がありません' : '投稿がまだありません'}</p>
             ) : (
                 <ul>
                     {posts.map(post => {
@@ -78,9 +142,9 @@ function PostIndex() {
 
                         return (
                             <div className="posts_simple_view_post">
-                                <p className="posts_simple_view_user">ユーザー名：{post.user.userName}</p>
+                                <p className="posts_simple_view_user">ユーザー名：<Link to={ROUTES.USER_POSTS(post.user.id)}>{post.user.userName}</Link></p>
                                 <h3 className="posts_simple_view_title">{post.title}</h3>
-                                <p>{post.content}</p>
+                                <p>{post.excerpt}</p>
                                 <Link to={ROUTES.POST_SHOW(post.id)} className="common_button posts_simple_view_button posts_simple_view_detail_button">詳細</Link>
                                 <Link to={ROUTES.POST_EDIT(post.id)} className={`common_button posts_simple_view_button posts_simple_view_edit_button ${editButtonClass}`}>編集</Link>
                                 <button  onClick={() => handleDelete(post.id)} className={`common_button posts_simple_view_button posts_simple_view_delete_button ${editButtonClass}`}>削除</button>
@@ -90,6 +154,11 @@ function PostIndex() {
                     })}
                 </ul>
             )}
+
+            {/* 次のページが存在する場合のみ、続きを読み込むボタンを表示する */}
+            {nextCursor && (
+                <button onClick={() => getPosts(nextCursor, searchedKeyword)} className='common_button'>もっと見る</button>
+            )}
         </div>
     );
 }
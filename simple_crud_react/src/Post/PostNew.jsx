@@ -72,6 +72,7 @@ function PostNew() {
                 `${API_BASE_URL}${APIS.POST_CREATE}`,
                 {
                     method: 'POST',
+                    credentials: 'include', // 書き込み直後の読み取りを最新のDBから行わせるためのクッキーを送受信する
                     headers:
                     {
                         'Content-Type': 'application/json',
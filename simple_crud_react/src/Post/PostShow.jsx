@@ -27,7 +27,7 @@ function PostShow() {
     const getPost = async () => {
         try {
             // 投稿詳細の取得APIを呼び出す
-            const res = await fetch(`${API_BASE_URL}${APIS.POST_GET_BY_ID(id)}`);
+            const res = await fetch(`${API_BASE_URL}${APIS.POST_GET_BY_ID(id)}`, { credentials: 'include' });
 
             if (res.ok) {
                 // 正常なレスポンスの場合、JSONデータを取得してstateにセット
@@ -0,0 +1,107 @@
+import { useEffect, useState } from 'react';
+import { Link, useNavigate, useParams } from 'react-router-dom';
+import { API_BASE_URL, APIS, HTTP_STATUS_CODES, MESSAGES, ROUTES } from '../config/Constant';
+import { useCreateErrorFromResponse } from '../hooks/CreateErrorFromResponse';
+import { useShowErrorMessage } from '../hooks/ShowErrorMessage';
+import '../Post/PostIndex.css';
+
+/**
+ * ユーザーごとの投稿一覧画面
+ * ユーザー名・投稿数と、そのユーザーの投稿を新しい順に表示する
+ * @returns ユーザーごとの投稿一覧画面
+ */
+function UserPosts() {
+    const { id } = useParams();
+    const [profile, setProfile] = useState(null);
+    const [posts, setPosts] = useState([]);
+    // 次のページを取得するためのカーソル（nullの場合、次のページは存在しない）
+    const [nextCursor, setNextCursor] = useState(null);
+    const navigate = useNavigate();
+    const createErrorFromResponse = useCreateErrorFromResponse();
+    const showErrorMessage = useShowErrorMessage();
+
+    /**
+     * ユーザーのプロフィール（ユーザー名・投稿数）をAPI経由で取得してStateに格納する関数
+     * ユーザーが存在しない場合は、その旨を表示して投稿一覧画面に遷移する
+     */
+    const getProfile = async () => {
+        try {
+            // ※書き込み直後の読み取りを最新のDBから行わせるためのクッキーを送信する
+            const res = await fetch(`${API_BASE_URL}${APIS.USER_PROFILE(id)}`, { credentials: 'include' });
+
+            if (res.ok) {
+                setProfile(await res.json());
+            } else {
+                if (res.status === HTTP_STATUS_CODES.NOT_FOUND) {
+                    alert(MESSAGES.USER_NOT_FOUND);
+                    navigate(ROUTES.POST_INDEX);
+                    return;
+                }
+
+                // 想定外のステータスコード（4xx/5xxなど）
+                throw await createErrorFromResponse(res);
+            }
+        } catch (error) {
+            // ネットワークエラーまたはthrowされたErrorをキャッチ
+            showErrorMessage(error, MESSAGES.USER_INFO_GET_FAILED);
+        }
+    }
+
+    /**
+     * ユーザーの投稿をAPI経由で1ページ分取得してStateに格納する関数
+     *
+     * @param {string|null} cursor - 続きから取得する場合のカーソル（nullの場合は1ページ目を取得し、一覧を置き換える）
+     */
+    const getPosts = async (cursor = null) => {
+        try {
+            const res = await fetch(`${API_BASE_URL}${APIS.USER_POSTS(id, cursor)}`, { credentials: 'include' });
+
+            if (res.ok) {
+                // 投稿一覧データ（JSON）を取得して状態にセット（続きの場合は末尾に追加する）
+                const resultPage = await res.json();
+                setPosts(prevPosts => cursor ? [...prevPosts, ...resultPage.items] : resultPage.items);
+                setNextCursor(resultPage.nextCursor);
+            } else {
+                throw await createErrorFromResponse(res);
+            }
+        } catch (error) {
+            showErrorMessage(error, MESSAGES.POST_GET_FAILED);
+        }
+    }
+
+    // 初回レンダリング時と、表示するユーザーが変わった時にプロフィールと投稿を取得する
+    useEffect(() => {
+        getProfile();
+        getPosts();
+    }, [id]);
+
+    return (
+        <div className='common_container'>
+            {profile && (
+                <h2>{profile.userName} さんの投稿（{profile.postCount}件）</h2>
+            )}
+
+            {/* 投稿が存在しない場合のメッセージ表示 */}
+            {posts.length === 0 ? (
+                <p>投稿がまだありません</p>
+            ) : (
+                <ul>
+                    {posts.map(post => (
+                        <div key={post.id} className="posts_simple_view_post">
+                            <h3 className="posts_simple_view_title">{post.title}</h3>
+                            <p>{post.excerpt}</p>
+                            <Link to={ROUTES.POST_SHOW(post.id)} className="common_button posts_simple_view_button posts_simple_view_detail_button">詳細</Link>
+                        </div>
+                    ))}
+                </ul>
+            )}
+
+            {/* 次のページが存在する場合のみ、続きを読み込むボタンを表示する */}
+            {nextCursor && (
+                <button onClick={() => getPosts(nextCursor)} className='common_button'>もっと見る</button>
+            )}
+        </div>
+    );
+}
+
+export default UserPosts;
@@ -26,6 +26,7 @@ function UserRegister() {
         try {
             const response = await fetch(`${API_BASE_URL}${APIS.USER_REGISTER}`, {
                 method: 'POST',
+                credentials: 'include', // 書き込み直後の読み取りを最新のDBから行わせるためのクッキーを送受信する
                 headers: {
                     'Content-Type': 'application/json',
                 },
@@ -25,7 +25,8 @@ function Header() {
                             ? (
                                 // ログイン済みの場合：ユーザー情報とログアウトボタンを表示する
                                 <>
-                                    <p>{userInfo.userName}</p>
+                                    {/* ユーザー名から自分の投稿一覧へ移動できるようにする */}
+                                    <Link to={ROUTES.USER_POSTS(userInfo.id)}>{userInfo.userName}</Link>
                                     <button onClick={handleLogout} className="common_button_to_link">ログアウト</button>
                                 </>
                             )
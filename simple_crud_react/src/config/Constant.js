@@ -9,6 +9,7 @@ export const ROUTES = {
     POST_EDIT : (id = ':id') => `/posts/edit/${id}`,
     USER_REGISTER : '/users/register',
     USER_LOGIN : '/users/login',
+    USER_POSTS : (id = ':id') => `/users/${id}/posts`,
     NOT_MATCH : '*',
 };
 
@@ -28,12 +29,14 @@ export const MESSAGES = {
     DONT_HAVE_PROMISSION : '対象の投稿に対しこの操作を行う権限がありません',
 
     USER_INFO_GET_FAILED : 'ユーザー情報の取得に失敗しました',
+    USER_NOT_FOUND : 'ユーザーが見つかりません',
 
     // 投稿関係
     POST_CREATE_SUCCESSED: '投稿の作成に成功しました',
     POST_CREATE_FAILED: '投稿の作成に失敗しました',
     POST_UPDATE_SUCCESSED: '投稿の更新に成功しました',
     POST_UPDATE_FAILED: '投稿の更新に失敗しました',
+    POST_UPDATE_CONFLICT: '編集中に他のユーザーが投稿を更新しました。最新の内容を読み込み直します',
     
     POST_GET_FAILED: '投稿の取得に失敗しました',
     POST_NOT_FOUND: "投稿が見つかりません（削除された可能性があります）",
@@ -53,9 +56,15 @@ export const APIS={
     USER_GET_CURRENT: '/api/users/me',
     USER_REGISTER: '/api/users/register',
     USER_LOGOUT: '/logout',
+    USER_PROFILE : (id = ':id') => `/api/users/${id}`,
+    USER_POSTS : (id = ':id', cursor = null) => `/api/users/${id}/posts` + (cursor ? `?cursor=${encodeURIComponent(cursor)}` : ''),
 
     // 投稿関係
     POST_ALL : '/api/posts/all',
+    // 1ページ目はサーバーのメモリ上に保持している最新の投稿一覧から取得し、2ページ目以降はDBから取得する
+    POST_PAGE : (cursor = null) => cursor ? `/api/posts?cursor=${encodeURIComponent(cursor)}` : '/api/posts/latest',
+    POST_SEARCH : (query, cursor = null) => `/api/posts/search?q=${encodeURIComponent(query)}` + (cursor ? `&cursor=${encodeURIComponent(cursor)}` : ''),
+    POST_STREAM : '/api/posts/stream',
     POST_CREATE : '/api/posts',
     POST_EDIT : (id = ':id') => `/api/posts/${id}`,
     POST_GET_BY_ID : (id = ':id') => `/api/posts/${id}`,
@@ -68,4 +77,6 @@ export const HTTP_STATUS_CODES = {
     BAD_REQUEST: 400, 
     UNAUTHORIZED: 401,
     NOT_FOUND: 404,
+    CONFLICT: 409,
+    PRECONDITION_FAILED: 412,
 }
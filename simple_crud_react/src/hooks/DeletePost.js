@@ -41,7 +41,7 @@ export const useDeletePost = (onSuccess = () => { }) => {
         // 投稿を取得する
         try {
             // 投稿詳細の取得APIを呼び出す
-            const res = await fetch(`${API_BASE_URL}${APIS.POST_GET_BY_ID(id)}`);
+            const res = await fetch(`${API_BASE_URL}${APIS.POST_GET_BY_ID(id)}`, { credentials: 'include' });
 
             if (res.ok) {
                 // 正常なレスポンスの場合、JSONデータを取得する
@@ -82,6 +82,7 @@ export const useDeletePost = (onSuccess = () => { }) => {
             // 指定IDの投稿に対して DELETE リクエストを送信する
             const res = await fetch(`${API_BASE_URL}${APIS.POST_DELETE(id)}`, {
                 method: 'DELETE',
+                credentials: 'include', // 書き込み直後の読み取りを最新のDBから行わせるためのクッキーを送受信する
             });
 
             if (res.ok) {
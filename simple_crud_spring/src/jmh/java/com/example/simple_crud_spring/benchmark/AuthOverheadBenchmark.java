@@ -0,0 +1,98 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.Filter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.example.simple_crud_spring.dto.TokenResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * ログイン済みのリクエスト（/api/users/me）の認証にかかる時間を計測するベンチマーク
+ * HTTPセッションで認証する場合（session）と、アクセストークンの署名を検証して認証する場合（token）を比較する
+ * ※MockMvcで実行するため、ネットワーク・セッションストアへのアクセスの時間は含まない
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AuthOverheadBenchmark {
+
+	private static final String EMAIL = "auth@example.com";
+
+	/** 計測用の秘密鍵（32バイトをBase64で表したもの） */
+	private static final String SECRET = "MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=";
+
+	@Param({ "session", "token" })
+	public String mode;
+
+	private ConfigurableApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	private MockHttpServletRequestBuilder request;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		boolean token = mode.equals("token");
+		context = BenchmarkApplication.start("auth_" + mode,
+				"--app.security.token.enabled=" + token,
+				"--app.security.token.secret=" + SECRET,
+				"--app.rate-limit.enabled=false");
+		BenchmarkApplication.createUser(context, EMAIL);
+		mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+				.addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+				.build();
+
+		MvcResult login = mockMvc.perform(MockMvcRequestBuilders.post("/login")
+				.param("username", EMAIL)
+				.param("password", BenchmarkApplication.PASSWORD))
+				.andReturn();
+		request = MockMvcRequestBuilders.get("/api/users/me");
+		if (token) {
+			TokenResponseDto tokens = context.getBean(ObjectMapper.class)
+					.readValue(login.getResponse().getContentAsString(), TokenResponseDto.class);
+			request.header("Authorization", "Bearer " + tokens.accessToken());
+		} else {
+			request.session((MockHttpSession) login.getRequest().getSession());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int me() throws Exception {
+		int status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+		if (status != 200) {
+			throw new IllegalStateException("unexpected status: " + status);
+		}
+		return status;
+	}
+}
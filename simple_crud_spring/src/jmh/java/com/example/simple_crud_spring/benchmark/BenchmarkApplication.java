@@ -0,0 +1,104 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.simple_crud_spring.SimpleCrudSpringApplication;
+import com.example.simple_crud_spring.dto.PostRequestDto;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.UserRepository;
+import com.example.simple_crud_spring.service.PostWriteService;
+
+/**
+ * ベンチマークで使用するアプリケーションの起動と、計測用データの登録を行うクラス
+ * アプリは benchmark プロファイル（H2のインメモリDB）で起動する
+ */
+final class BenchmarkApplication {
+
+	/** 計測用に登録するユーザーのパスワード */
+	static final String PASSWORD = "password";
+
+	private BenchmarkApplication() {
+	}
+
+	/**
+	 * アプリケーションを起動する
+	 *
+	 * @param databaseName 使用するインメモリDBの名前（ベンチマークごとに別のDBを使用する）
+	 * @return 起動したアプリケーションのコンテキスト（計測後に close すること）
+	 */
+	static ConfigurableApplicationContext start(String databaseName) {
+		return start(databaseName, new String[0]);
+	}
+
+	/**
+	 * 設定を追加してアプリケーションを起動する
+	 *
+	 * @param databaseName 使用するインメモリDBの名前（ベンチマークごとに別のDBを使用する）
+	 * @param args         追加する設定（例: "--app.security.token.enabled=true"）
+	 * @return 起動したアプリケーションのコンテキスト（計測後に close すること）
+	 */
+	static ConfigurableApplicationContext start(String databaseName, String... args) {
+		String[] allArgs = Arrays.copyOf(args, args.length + 1);
+		allArgs[args.length] = "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+		return new SpringApplicationBuilder(SimpleCrudSpringApplication.class)
+				.profiles("benchmark")
+				.run(allArgs);
+	}
+
+	/**
+	 * 計測用のユーザーを登録する
+	 *
+	 * @param context アプリケーションのコンテキスト
+	 * @param email   ユーザーのメールアドレス
+	 * @return 登録したユーザー
+	 */
+	static User createUser(ConfigurableApplicationContext context, String email) {
+		User user = new User();
+		user.setUserName("benchmark");
+		user.setEmail(email);
+		user.setPassword(context.getBean(PasswordEncoder.class).encode(PASSWORD));
+		return context.getBean(UserRepository.class).save(user);
+	}
+
+	/**
+	 * 計測用の投稿を登録する
+	 * ※一括作成（JDBCのバッチ）で、1回のリクエストで処理できる最大件数ずつ登録する
+	 *
+	 * @param context アプリケーションのコンテキスト
+	 * @param user    投稿者
+	 * @param count   登録する件数
+	 */
+	static void createPosts(ConfigurableApplicationContext context, User user, int count) {
+		PostWriteService postWriteService = context.getBean(PostWriteService.class);
+		int maxItems = context.getEnvironment().getRequiredProperty("app.posts.batch-max-items", Integer.class);
+
+		for (int from = 0; from < count; from += maxItems) {
+			List<PostRequestDto> requests = new ArrayList<>();
+			for (int i = from; i < Math.min(from + maxItems, count); i++) {
+				requests.add(postRequest(user, i));
+			}
+			postWriteService.createAll(requests);
+		}
+	}
+
+	/**
+	 * 計測用の投稿データを生成する
+	 *
+	 * @param user  投稿者
+	 * @param index 投稿の番号（タイトルに使用する）
+	 * @return 投稿データ
+	 */
+	static PostRequestDto postRequest(User user, int index) {
+		PostRequestDto request = new PostRequestDto();
+		request.title = "ベンチマーク用の投稿 " + index;
+		request.content = "これはベンチマーク用の投稿の本文です。".repeat(10);
+		request.userId = user.getId();
+		return request;
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.example.simple_crud_spring.model.User;
+
+/**
+ * エラーになるリクエストの処理時間を、正常なリクエストと比較するベンチマーク
+ * クライアントが存在しない userId で投稿の作成を繰り返す場合（404）と、正常に作成する場合（200）を比較する
+ * ※エラーの処理（例外の生成・件数の記録）が、正常なリクエストより重くなっていないことを確認する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ErrorPathBenchmark {
+
+	private ConfigurableApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	private String validBody;
+
+	private String unknownUserBody;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("error_path", "--app.rate-limit.enabled=false");
+		mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+		User user = BenchmarkApplication.createUser(context, "error@example.com");
+		validBody = "{\"title\":\"title\",\"content\":\"content\",\"userId\":" + user.getId() + "}";
+		unknownUserBody = "{\"title\":\"title\",\"content\":\"content\",\"userId\":" + Long.MAX_VALUE + "}";
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int create() throws Exception {
+		return create(validBody, 200);
+	}
+
+	@Benchmark
+	public int createWithUnknownUser() throws Exception {
+		return create(unknownUserBody, 404);
+	}
+
+	private int create(String body, int expected) throws Exception {
+		int status = mockMvc.perform(MockMvcRequestBuilders.post("/api/posts")
+				.contentType("application/json")
+				.content(body))
+				.andReturn().getResponse().getStatus();
+		if (status != expected) {
+			throw new IllegalStateException("unexpected status: " + status);
+		}
+		return status;
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.simple_crud_spring.dto.PostCursor;
+import com.example.simple_crud_spring.dto.PostPageResponseDto;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.dto.UserResponseDto;
+import com.example.simple_crud_spring.model.Post;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * APIのレスポンス（投稿・投稿一覧の1ページ・ユーザー情報）をJSONに変換する時間を計測するベンチマーク
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonSerializationBenchmark {
+
+	/** 投稿一覧の1ページあたりの件数（APIの既定値と同じ） */
+	private static final int PAGE_SIZE = 20;
+
+	private ObjectMapper objectMapper;
+
+	private PostSummaryDto post;
+
+	private PostPageResponseDto page;
+
+	private UserResponseDto user;
+
+	@Setup
+	public void setUp() {
+		// Spring Boot が構成する ObjectMapper と同じく、日時をISO-8601形式の文字列で出力する
+		objectMapper = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+
+		LocalDateTime now = LocalDateTime.now();
+		String excerpt = Post.excerptOf("これはベンチマーク用の投稿の本文です。".repeat(10));
+		List<PostSummaryDto> posts = new ArrayList<>();
+		for (long id = 1; id <= PAGE_SIZE; id++) {
+			posts.add(new PostSummaryDto(id, "ベンチマーク用の投稿 " + id, excerpt, 1L, "benchmark", now, now));
+		}
+		post = posts.get(0);
+		page = new PostPageResponseDto(posts, new PostCursor(now, (long) PAGE_SIZE).encode());
+		user = new UserResponseDto(1L, "benchmark@example.com", "benchmark");
+	}
+
+	@Benchmark
+	public byte[] post() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(post);
+	}
+
+	@Benchmark
+	public byte[] page() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public byte[] user() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(user);
+	}
+}
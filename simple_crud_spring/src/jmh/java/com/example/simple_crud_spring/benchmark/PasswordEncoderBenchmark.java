@@ -0,0 +1,50 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.simple_crud_spring.config.StrengthAwareBCryptPasswordEncoder;
+
+/**
+ * パスワードの照合（BCrypt）にかかる時間を、強度ごとに計測するベンチマーク
+ * app.security.bcrypt-strength を決める際の参考にする（ログイン1回あたり、この時間だけCPUを使用する）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PasswordEncoderBenchmark {
+
+	/** BCryptの強度 */
+	@Param({ "4", "8", "10", "12" })
+	int strength;
+
+	private PasswordEncoder passwordEncoder;
+
+	private String encodedPassword;
+
+	@Setup
+	public void setUp() {
+		passwordEncoder = new StrengthAwareBCryptPasswordEncoder(strength);
+		encodedPassword = passwordEncoder.encode(BenchmarkApplication.PASSWORD);
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return passwordEncoder.matches(BenchmarkApplication.PASSWORD, encodedPassword);
+	}
+}
@@ -0,0 +1,142 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.simple_crud_spring.dto.PostDetailDto;
+import com.example.simple_crud_spring.dto.PostRequestDto;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
+import com.example.simple_crud_spring.service.PostWriteService;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * 投稿一覧の1ページ（2ページ目以降。キャッシュされない）の取得にかかる時間を、
+ * 本文の代わりに抜粋を読む場合（現在の一覧のクエリ）と、本文を読む場合（変更前の一覧のクエリ）で比較するベンチマーク
+ * 1ページで読み込む文字数は、計測の開始前に標準出力へ出力する。
+ * ※H2ではTEXT型の列を別のページに保存しないため、MySQL（InnoDB）で本文を読まないことによるI/Oの削減は
+ * この結果よりも大きくなる。MySQLで確認する場合は、各クエリの実行前後の SHOW SESSION STATUS LIKE 'Innodb_buffer_pool_read%'
+ * の差や、EXPLAIN ANALYZE の結果を比較する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PostListBodyBenchmark {
+
+	/** 1ページあたりの件数（APIの既定値と同じ） */
+	private static final int PAGE_SIZE = 20;
+
+	/** 変更前の一覧のクエリ（本文を読む） */
+	private static final String SELECT_PAGE_WITH_CONTENT = """
+			SELECT new com.example.simple_crud_spring.dto.PostDetailDto(
+			    p.id, p.title, p.content, u.id, u.userName, p.createdAt, p.updatedAt, p.version)
+			FROM Post p JOIN p.user u
+			WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)
+			ORDER BY p.createdAt DESC, p.id DESC
+			""";
+
+	/** 登録しておく投稿の件数 */
+	@Param({ "20000" })
+	int rows;
+
+	/** 本文の長さ（文字数） */
+	@Param({ "200", "5000" })
+	int contentLength;
+
+	private ConfigurableApplicationContext context;
+
+	private PostRepository postRepository;
+
+	private EntityManager entityManager;
+
+	private TransactionTemplate readOnlyTransaction;
+
+	/** 一覧の中ほどのページを取得するためのカーソル */
+	private LocalDateTime cursorCreatedAt;
+
+	private Long cursorId;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("post_list_body");
+		User user = BenchmarkApplication.createUser(context, "list-body@example.com");
+		createPosts(user);
+
+		postRepository = context.getBean(PostRepository.class);
+		entityManager = context.getBean(EntityManager.class);
+		readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		readOnlyTransaction.setReadOnly(true);
+
+		PostSummaryDto middle = postRepository.findLatest(Limit.of(rows / 2)).get(rows / 2 - 1);
+		cursorCreatedAt = middle.createdAt();
+		cursorId = middle.id();
+
+		System.out.printf("%n[chars] contentLength=%d summary=%d withContent=%d (per page)%n", contentLength,
+				summary().stream().mapToInt(post -> post.title().length() + post.excerpt().length()).sum(),
+				withContent().stream().mapToInt(post -> post.title().length() + post.content().length()).sum());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<PostSummaryDto> summary() {
+		return postRepository.findOlderThan(cursorCreatedAt, cursorId, Limit.of(PAGE_SIZE + 1));
+	}
+
+	@Benchmark
+	public List<PostDetailDto> withContent() {
+		return readOnlyTransaction.execute(status -> entityManager
+				.createQuery(SELECT_PAGE_WITH_CONTENT, PostDetailDto.class)
+				.setParameter("createdAt", cursorCreatedAt)
+				.setParameter("id", cursorId)
+				.setMaxResults(PAGE_SIZE + 1)
+				.getResultList());
+	}
+
+	/**
+	 * 指定した長さの本文の投稿を登録する
+	 */
+	private void createPosts(User user) {
+		PostWriteService postWriteService = context.getBean(PostWriteService.class);
+		int maxItems = context.getEnvironment().getRequiredProperty("app.posts.batch-max-items", Integer.class);
+		String content = "これはベンチマーク用の投稿の本文です。".repeat(contentLength / 19 + 1).substring(0, contentLength);
+
+		for (int from = 0; from < rows; from += maxItems) {
+			List<PostRequestDto> requests = new ArrayList<>();
+			for (int i = from; i < Math.min(from + maxItems, rows); i++) {
+				PostRequestDto request = BenchmarkApplication.postRequest(user, i);
+				request.content = content;
+				requests.add(request);
+			}
+			postWriteService.createAll(requests);
+		}
+	}
+}
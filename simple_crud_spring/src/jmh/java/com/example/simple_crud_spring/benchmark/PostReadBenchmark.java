@@ -0,0 +1,129 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import com.example.simple_crud_spring.config.CacheConfig;
+import com.example.simple_crud_spring.controller.PostController;
+import com.example.simple_crud_spring.dto.PostPageResponseDto;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.service.LatestPostsTimeline;
+import com.example.simple_crud_spring.service.PostCollectionVersionService;
+
+/**
+ * 投稿の全件取得（{@link PostController#getAll}）にかかる時間を、投稿の件数ごとに計測するベンチマーク
+ * 通常のリクエストと、前回から変更がない場合の条件付きリクエスト（If-None-Match。304を返す）を比較する
+ * また、トップページの1ページ目を、DBから取得する場合（{@link PostController#getPage}）と、
+ * メモリ上の最新の投稿一覧から取得する場合（{@link PostController#getLatest}）を比較する
+ * （1ページ目のキャッシュに当たるとDBを読まないため、{@link #getFirstPage} では呼び出しごとにキャッシュを空にする）
+ * ※HTTPの処理やJSONへの変換は含まず、コントローラーのメソッドを直接呼び出す
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PostReadBenchmark {
+
+	/** 登録しておく投稿の件数 */
+	@Param({ "1000", "100000" })
+	int rows;
+
+	private ConfigurableApplicationContext context;
+
+	private PostController postController;
+
+	/** 現在の投稿全体の版を表すETag */
+	private String etag;
+
+	/** 一覧の1ページ目のキャッシュ */
+	private Cache firstPages;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("post_read");
+		User user = BenchmarkApplication.createUser(context, "read@example.com");
+		BenchmarkApplication.createPosts(context, user, rows);
+		postController = context.getBean(PostController.class);
+		etag = context.getBean(PostCollectionVersionService.class).current().etag();
+		firstPages = context.getBean(CacheManager.class).getCache(CacheConfig.POST_FIRST_PAGES);
+		// 起動後に登録した投稿を、最新の投稿一覧に読み込む
+		context.getBean(LatestPostsTimeline.class).reconcile();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<PostSummaryDto> getAll() {
+		return postController.getAll(request(null)).getBody();
+	}
+
+	@Benchmark
+	public List<PostSummaryDto> getAllNotModified() {
+		return postController.getAll(request(etag)).getBody();
+	}
+
+	@Benchmark
+	public PostPageResponseDto getFirstPage(FirstPageCacheEvicted evicted) {
+		return postController.getPage(null, 20, request(null)).getBody();
+	}
+
+	@Benchmark
+	public PostPageResponseDto getLatest() {
+		return postController.getLatest(20).getBody();
+	}
+
+	/**
+	 * 呼び出しのたびに一覧の1ページ目のキャッシュを空にし、DBから取得する場合の時間を計測するための状態
+	 * ※キャッシュを空にする処理は計測の対象外
+	 */
+	@State(Scope.Thread)
+	public static class FirstPageCacheEvicted {
+
+		@Setup(Level.Invocation)
+		public void evict(PostReadBenchmark benchmark) {
+			benchmark.firstPages.clear();
+		}
+	}
+
+	/**
+	 * 投稿一覧を取得するリクエストを生成する
+	 *
+	 * @param ifNoneMatch If-None-Match ヘッダーに指定するETag（nullの場合は指定しない）
+	 * @return リクエスト
+	 */
+	private static WebRequest request(String ifNoneMatch) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts/all");
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		return new ServletWebRequest(request, new MockHttpServletResponse());
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.simple_crud_spring.controller.PostController;
+import com.example.simple_crud_spring.dto.PostRequestDto;
+import com.example.simple_crud_spring.dto.PostDetailDto;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
+
+/**
+ * 投稿の作成（{@link PostController#create}）・更新（{@link PostController#update}）のスループットを計測するベンチマーク
+ * ※HTTPの処理やJSONへの変換は含まず、コントローラーのメソッドを直接呼び出す
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PostWriteBenchmark {
+
+	/** 更新対象として登録しておく投稿の件数 */
+	private static final int POST_COUNT = 1_000;
+
+	private ConfigurableApplicationContext context;
+
+	private PostController postController;
+
+	private PostRequestDto request;
+
+	private List<Long> postIds;
+
+	private int nextIndex;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("post_write");
+		User user = BenchmarkApplication.createUser(context, "write@example.com");
+		BenchmarkApplication.createPosts(context, user, POST_COUNT);
+		postController = context.getBean(PostController.class);
+		request = BenchmarkApplication.postRequest(user, 0);
+		postIds = context.getBean(PostRepository.class).findAll().stream().map(post -> post.getId()).toList();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public PostDetailDto create() {
+		return postController.create(request).getBody();
+	}
+
+	@Benchmark
+	public PostDetailDto update() {
+		// 同じ投稿ばかり更新しないよう、登録済みの投稿を順番に更新する
+		Long id = postIds.get(nextIndex++ % postIds.size());
+		return postController.update(id, request, null).getBody();
+	}
+}
@@ -0,0 +1,108 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.UserRepository;
+import com.example.simple_crud_spring.service.EmailExistenceFilter;
+
+/**
+ * 新規登録（/api/users/register）のスループットを計測するベンチマーク
+ * 登録済みのメールアドレスのフィルタを使用する場合（true）と、使用しない場合（false）を比較する
+ * ・registerNew: 未登録のアドレスでの登録（フィルタを使用する場合は、DBでの存在確認を省略する）
+ * ・registerDuplicate: 登録済みのアドレスでの登録（どちらの場合もDBで確認し、ハッシュ化の前に409を返す）
+ * ※パスワードのハッシュ化の時間で差が見えなくならないよう、BCryptの強度を最小（4）にして計測する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RegistrationBenchmark {
+
+	/** 事前に登録しておくユーザー数 */
+	private static final int USER_COUNT = 10_000;
+
+	@Param({ "true", "false" })
+	public boolean filter;
+
+	private ConfigurableApplicationContext context;
+
+	private MockMvc mockMvc;
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("registration_" + filter,
+				"--app.users.email-filter.enabled=" + filter,
+				"--app.security.bcrypt-strength=4",
+				"--app.rate-limit.enabled=false");
+		mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+		List<User> users = new ArrayList<>(USER_COUNT);
+		for (int i = 0; i < USER_COUNT; i++) {
+			User user = new User();
+			user.setUserName("existing");
+			user.setEmail("existing" + i + "@example.com");
+			user.setPassword(BenchmarkApplication.PASSWORD);
+			users.add(user);
+		}
+		context.getBean(UserRepository.class).saveAll(users);
+		if (filter) {
+			// 起動後に登録したユーザーを読み込み直す
+			context.getBean(EmailExistenceFilter.class).load();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int registerNew() throws Exception {
+		return register("new" + sequence.incrementAndGet() + "@example.com", 200);
+	}
+
+	@Benchmark
+	public int registerDuplicate() throws Exception {
+		return register("existing" + (sequence.incrementAndGet() % USER_COUNT) + "@example.com", 409);
+	}
+
+	private int register(String email, int expected) throws Exception {
+		int status = mockMvc.perform(MockMvcRequestBuilders.post("/api/users/register")
+				.contentType("application/json")
+				.content("{\"userName\":\"benchmark\",\"email\":\"" + email + "\",\"password\":\"password\"}"))
+				.andReturn().getResponse().getStatus();
+		if (status != expected) {
+			throw new IllegalStateException("unexpected status: " + status);
+		}
+		return status;
+	}
+}
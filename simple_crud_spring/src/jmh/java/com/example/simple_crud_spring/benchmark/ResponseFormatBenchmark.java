@@ -0,0 +1,126 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.simple_crud_spring.dto.PostDetailDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * 本文を含む投稿のリストを各形式（JSON・CBOR・Smile）に変換する時間と、変換後のサイズを比較するベンチマーク
+ * gzipで圧縮する場合（server.compression が有効で、クライアントが Accept-Encoding: gzip を指定した場合）の時間も計測する。
+ * 変換後のサイズ（圧縮前・圧縮後）は、計測の開始前に標準出力へ出力する。
+ * ※APIが返すのはエンティティ（Post）ではなくDTOのため、本文を含む PostDetailDto のリストで計測する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ResponseFormatBenchmark {
+
+	/** 変換後の形式 */
+	@Param({ "json", "cbor", "smile" })
+	public String format;
+
+	/** 投稿の件数（一覧の1ページの既定値・上限） */
+	@Param({ "20", "100" })
+	public int size;
+
+	/** 本文の長さ（文字数） */
+	@Param({ "200", "5000" })
+	public int contentLength;
+
+	/** 本文に使用する文（実際の投稿に近い圧縮率になるよう、投稿ごとに異なる順序で組み合わせる） */
+	private static final String[] SENTENCES = {
+			"今日は新しいライブラリを試してみました。",
+			"設定ファイルの書き方で少し迷いましたが、ドキュメントを読んで解決しました。",
+			"Spring Boot 3.4 では構成の自動化がさらに進んでいます。",
+			"明日はテストコードを追加する予定です。",
+			"パフォーマンスの計測結果は後日まとめます。",
+			"The quick brown fox jumps over the lazy dog.",
+			"レスポンスのサイズを小さくすると、モバイル回線での表示が速くなります。",
+			"コメントや質問があれば気軽にどうぞ。",
+	};
+
+	private ObjectMapper objectMapper;
+
+	private List<PostDetailDto> posts;
+
+	@Setup
+	public void setUp() throws IOException {
+		// Spring Boot が構成する ObjectMapper と同じく、日時をISO-8601形式の文字列で出力する
+		objectMapper = Jackson2ObjectMapperBuilder.json()
+				.factory(factory(format))
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+
+		Random random = new Random(42);
+		LocalDateTime now = LocalDateTime.now();
+		posts = new ArrayList<>(size);
+		for (long id = 1; id <= size; id++) {
+			posts.add(new PostDetailDto(id, "ベンチマーク用の投稿 " + id, content(random), id % 10,
+					"benchmark" + id % 10, now.minusMinutes(id), now.minusSeconds(id), 0));
+		}
+
+		System.out.printf("%n[size] format=%s posts=%d contentLength=%d raw=%d bytes gzip=%d bytes%n",
+				format, size, contentLength, encode().length, encodeGzip().length);
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return objectMapper.writeValueAsBytes(posts);
+	}
+
+	@Benchmark
+	public byte[] encodeGzip() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			objectMapper.writeValue(gzip, posts);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * 文をランダムに組み合わせて、指定した長さの本文を生成する
+	 */
+	private String content(Random random) {
+		StringBuilder content = new StringBuilder(contentLength + 64);
+		while (content.length() < contentLength) {
+			content.append(SENTENCES[random.nextInt(SENTENCES.length)]).append(random.nextInt(1000));
+		}
+		return content.substring(0, contentLength);
+	}
+
+	private static JsonFactory factory(String format) {
+		return switch (format) {
+		case "cbor" -> new CBORFactory();
+		case "smile" -> new SmileFactory();
+		default -> new JsonFactory();
+		};
+	}
+}
@@ -0,0 +1,46 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.simple_crud_spring.SimpleCrudSpringApplication;
+
+/**
+ * アプリケーションを起動し、リクエストを受け付けられる状態になるまでの時間とメモリ使用量を出力して終了するクラス
+ * {@link StartupBenchmark} が、計測ごとに別のJVMで実行する
+ * ※出力の形式: STARTUP readyMillis=（JVMの起動からの経過時間） rssKb=（常駐メモリ量。Linux以外は-1）
+ */
+public class StartupProbe {
+
+	public static void main(String[] args) {
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(SimpleCrudSpringApplication.class)
+				.run(args);
+		long readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+		System.out.println("STARTUP readyMillis=" + readyMillis + " rssKb=" + residentSetKb());
+		context.close();
+		System.exit(0);
+	}
+
+	/**
+	 * このプロセスの常駐メモリ量（RSS）を返す
+	 *
+	 * @return 常駐メモリ量（KB）。取得できない場合は-1
+	 */
+	private static long residentSetKb() {
+		try {
+			for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+				if (line.startsWith("VmRSS:")) {
+					return Long.parseLong(line.replaceAll("[^0-9]", ""));
+				}
+			}
+		} catch (IOException | NumberFormatException ex) {
+			// Linux以外では取得できない
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,67 @@
+package com.example.simple_crud_spring.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.CachingUserDetailsService;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.simple_crud_spring.service.CustomUserDetailsService;
+
+/**
+ * ログイン時のユーザー情報の取得（loadUserByUsername）にかかる時間を計測するベンチマーク
+ * DBから取得する場合と、ログイン処理と同じくキャッシュを経由して取得する場合を比較する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserDetailsBenchmark {
+
+	private static final String EMAIL = "login@example.com";
+
+	private ConfigurableApplicationContext context;
+
+	private CustomUserDetailsService customUserDetailsService;
+
+	private CachingUserDetailsService cachingUserDetailsService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkApplication.start("user_details");
+		BenchmarkApplication.createUser(context, EMAIL);
+		customUserDetailsService = context.getBean(CustomUserDetailsService.class);
+		cachingUserDetailsService = new CachingUserDetailsService(customUserDetailsService);
+		cachingUserDetailsService.setUserCache(context.getBean(UserCache.class));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public UserDetails loadUserByUsername() {
+		return customUserDetailsService.loadUserByUsername(EMAIL);
+	}
+
+	@Benchmark
+	public UserDetails loadUserByUsernameCached() {
+		return cachingUserDetailsService.loadUserByUsername(EMAIL);
+	}
+}
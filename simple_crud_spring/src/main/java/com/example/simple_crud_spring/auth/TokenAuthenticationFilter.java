@@ -0,0 +1,82 @@
+package com.example.simple_crud_spring.auth;
+
+import com.example.simple_crud_spring.dto.ErrorResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authorization: Bearer ヘッダーのアクセストークンを検証し、リクエストを認証済みにするフィルター
+ * トークンの署名と有効期限を検証するだけで、DBやHTTPセッションにはアクセスしない。
+ * ヘッダーがないリクエストはそのまま（未ログインとして）処理し、トークンが不正な場合は401を返す。
+ * ※トークン認証が有効な場合のみ、{@code WebConfig} で Spring Security のフィルタチェーンに追加する
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    /** Authorization ヘッダーの値の接頭辞 */
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * コンストラクタ
+     *
+     * @param tokenService アクセストークンの検証に使用する
+     * @param objectMapper トークンが不正な場合のレスポンス（JSON）の生成に使用する
+     */
+    public TokenAuthenticationFilter(TokenService tokenService, ObjectMapper objectMapper) {
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TokenPrincipal principal;
+        try {
+            principal = tokenService.authenticate(header.substring(BEARER_PREFIX.length()).trim());
+        } catch (JwtException ex) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(response.getOutputStream(), List.of(new ErrorResponseDto("token",
+                    "アクセストークンが無効です。トークンを更新するか、再度ログインしてください")));
+            return;
+        }
+
+        // このリクエストの間だけ認証済みにする（セッションには保存しない）
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(principal, null,
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+        SecurityContextHolder.setContext(context);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.simple_crud_spring.auth;
+
+import com.example.simple_crud_spring.repository.RefreshTokenRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * トークン認証に使用するBeanを定義する設定クラス
+ * app.security.token.enabled=true の場合のみ有効になる（無効の場合はHTTPセッションでログイン状態を保持する）
+ * ※フィルター（{@link TokenAuthenticationFilter}）はサーブレットのフィルターとして自動登録されないよう、Beanにはせず
+ * {@code WebConfig} で Spring Security のフィルタチェーンに追加する
+ */
+@Configuration
+@EnableConfigurationProperties(TokenProperties.class)
+@ConditionalOnProperty(name = "app.security.token.enabled", havingValue = "true")
+public class TokenConfig {
+
+    /**
+     * ログアウトにより無効にしたアクセストークンの一覧をBeanとして定義する
+     *
+     * @return 無効にしたアクセストークンの一覧
+     */
+    @Bean
+    public TokenRevocationList tokenRevocationList() {
+        return new TokenRevocationList();
+    }
+
+    /**
+     * トークンの発行・検証・無効化を行うサービスをBeanとして定義する
+     *
+     * @param properties             トークン認証に関する設定
+     * @param refreshTokenRepository リフレッシュトークンの保存・削除に使用するリポジトリ
+     * @param userRepository         トークンの更新時に、ユーザーの最新の情報を取得するリポジトリ
+     * @param tokenRevocationList    無効にしたアクセストークンの一覧
+     * @return トークンの発行・検証・無効化を行うサービス
+     */
+    @Bean
+    public TokenService tokenService(TokenProperties properties, RefreshTokenRepository refreshTokenRepository,
+            UserRepository userRepository, TokenRevocationList tokenRevocationList) {
+        return new TokenService(properties, refreshTokenRepository, userRepository, tokenRevocationList);
+    }
+}
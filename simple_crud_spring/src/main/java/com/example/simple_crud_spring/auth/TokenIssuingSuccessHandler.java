@@ -0,0 +1,47 @@
+package com.example.simple_crud_spring.auth;
+
+import com.example.simple_crud_spring.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+
+import java.io.IOException;
+
+/**
+ * トークン認証が有効な場合に、フォームログイン（/login）の成功時にトークンを発行してレスポンスとして返すハンドラー
+ */
+public class TokenIssuingSuccessHandler implements AuthenticationSuccessHandler {
+
+    private final TokenService tokenService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * コンストラクタ
+     *
+     * @param tokenService トークンの発行に使用する
+     * @param objectMapper レスポンス（JSON）の生成に使用する
+     */
+    public TokenIssuingSuccessHandler(TokenService tokenService, ObjectMapper objectMapper) {
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * ログインしたユーザーにトークンを発行し、ステータスコード200で返す
+     */
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+            Authentication authentication) throws IOException {
+        User user = (User) authentication.getPrincipal();
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), tokenService.issue(user));
+    }
+}
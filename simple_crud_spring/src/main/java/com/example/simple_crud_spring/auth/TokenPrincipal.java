@@ -0,0 +1,27 @@
+package com.example.simple_crud_spring.auth;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.time.Instant;
+
+/**
+ * アクセストークンで認証されたユーザー
+ * トークンのクレームだけから生成するため、リクエストのたびにDBからユーザーを読み込まない
+ *
+ * @param id        ユーザーID（uid クレーム）
+ * @param email     メールアドレス（sub クレーム）
+ * @param userName  ユーザー名（name クレーム）
+ * @param tokenId   アクセストークンのID（jti クレーム。ログアウト時の無効化に使用する）
+ * @param expiresAt アクセストークンの有効期限
+ */
+public record TokenPrincipal(Long id, String email, String userName, String tokenId, Instant expiresAt)
+        implements AuthenticatedPrincipal {
+
+    /**
+     * 認証されたユーザーの名前（フォームログインと同じくメールアドレス）を返す
+     */
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.simple_crud_spring.auth;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * トークン認証に関する設定（application.properties の app.security.token.*）
+ *
+ * @param enabled         トークン認証を有効にするか（無効の場合はこれまでどおりHTTPセッションでログイン状態を保持する）
+ * @param secret          アクセストークンの署名（HMAC-SHA256）に使用する秘密鍵（Base64。32バイト以上）
+ * @param issuer          アクセストークンの発行者（iss クレーム）
+ * @param accessTokenTtl  アクセストークンの有効期間
+ * @param refreshTokenTtl リフレッシュトークンの有効期間
+ * @param purgeCron       期限切れのリフレッシュトークンを削除する時刻（cron形式）
+ */
+@ConfigurationProperties("app.security.token")
+public record TokenProperties(
+        @DefaultValue("false") boolean enabled,
+        String secret,
+        @DefaultValue("simple-crud-spring") String issuer,
+        @DefaultValue("5m") Duration accessTokenTtl,
+        @DefaultValue("14d") Duration refreshTokenTtl,
+        @DefaultValue("0 30 * * * *") String purgeCron) {
+}
@@ -0,0 +1,71 @@
+package com.example.simple_crud_spring.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * ログアウトにより無効にしたアクセストークンのID（jti）を保持するクラス
+ * 各IDは元のトークンの有効期限が切れた時点で自動的に削除される（期限切れのトークンは署名の検証で拒否されるため）。
+ * アクセストークンの有効期間は短いため、保持するIDの数は「有効期間内にログアウトした回数」程度に収まる。
+ *
+ * ※アプリのメモリ上に保持するため、アプリを複数台で動かしている場合は、ログアウトしたサーバー以外では
+ * アクセストークンの期限が切れるまで（最大で app.security.token.access-token-ttl の間）使用できる。
+ * リフレッシュトークンはDBで管理しているため、ログアウト後に新しいアクセストークンを発行されることはない
+ */
+public class TokenRevocationList {
+
+    /** 無効にしたトークンのIDと、元のトークンの有効期限 */
+    private final Cache<String, Instant> revoked = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, Instant>() {
+                @Override
+                public long expireAfterCreate(String tokenId, Instant expiresAt, long currentTime) {
+                    return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(String tokenId, Instant expiresAt, long currentTime,
+                        long currentDuration) {
+                    return expireAfterCreate(tokenId, expiresAt, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String tokenId, Instant expiresAt, long currentTime,
+                        long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    /**
+     * アクセストークンを無効にする
+     *
+     * @param tokenId   無効にするトークンのID
+     * @param expiresAt 元のトークンの有効期限
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        revoked.put(tokenId, expiresAt);
+    }
+
+    /**
+     * アクセストークンが無効にされているかを判定する
+     *
+     * @param tokenId トークンのID
+     * @return 無効にされている場合は true
+     */
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.getIfPresent(tokenId) != null;
+    }
+
+    /**
+     * 保持しているIDの数を返す（期限切れで削除される前のものを含む概算）
+     *
+     * @return 保持しているIDの数
+     */
+    public long size() {
+        return revoked.estimatedSize();
+    }
+}
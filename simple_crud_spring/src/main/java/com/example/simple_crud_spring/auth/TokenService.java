@@ -0,0 +1,223 @@
+package com.example.simple_crud_spring.auth;
+
+import com.example.simple_crud_spring.dto.TokenResponseDto;
+import com.example.simple_crud_spring.exception.UnauthorizedException;
+import com.example.simple_crud_spring.model.RefreshToken;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.RefreshTokenRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * トークン認証のトークンを発行・検証・無効化するサービスクラス
+ * ・アクセストークン … ユーザーID・メールアドレス・ユーザー名を含む、有効期間の短いJWT（HMAC-SHA256で署名する）。
+ *   署名と有効期限を検証するだけで認証できるため、リクエストのたびにDBやHTTPセッションを参照しない。
+ * ・リフレッシュトークン … ランダムな文字列。ハッシュ値をDBに保存し、1回使うと新しいトークンに置き換える（ローテーション）。
+ *   盗まれたトークンが使われた場合でも、正規の利用者が次に更新した時点で（またはその逆で）一方が使えなくなる。
+ */
+public class TokenService {
+
+    /** トークンの種類 */
+    private static final String TOKEN_TYPE = "Bearer";
+
+    /** アクセストークンに含めるクレームの名前（ユーザーID・ユーザー名） */
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_USER_NAME = "name";
+
+    /** リフレッシュトークンのバイト数 */
+    private static final int REFRESH_TOKEN_BYTES = 32;
+
+    /** 署名に使用する秘密鍵の最小バイト数（HMAC-SHA256 の出力長） */
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final TokenProperties properties;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final TokenRevocationList revocationList;
+    private final JwtEncoder encoder;
+    private final JwtDecoder decoder;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * 設定された秘密鍵で、トークンの発行・検証を行うサービスを生成する
+     *
+     * @param properties             トークン認証に関する設定
+     * @param refreshTokenRepository リフレッシュトークンの保存・削除に使用するリポジトリ
+     * @param userRepository         トークンの更新時に、ユーザーの最新の情報を取得するリポジトリ
+     * @param revocationList         ログアウトにより無効にしたアクセストークンの一覧
+     * @throws IllegalStateException 秘密鍵が設定されていない、または短すぎる場合
+     */
+    public TokenService(TokenProperties properties, RefreshTokenRepository refreshTokenRepository,
+            UserRepository userRepository, TokenRevocationList revocationList) {
+        this.properties = properties;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.revocationList = revocationList;
+
+        SecretKey key = secretKey(properties.secret());
+        this.encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+        NimbusJwtDecoder nimbusDecoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
+        // 署名・有効期限・発行者に加えて、ログアウトにより無効にしたトークンでないことを検証する
+        nimbusDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefaultWithIssuer(properties.issuer()),
+                jwt -> revocationList.isRevoked(jwt.getId())
+                        ? OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_token", "トークンは無効にされています", null))
+                        : OAuth2TokenValidatorResult.success()));
+        this.decoder = nimbusDecoder;
+    }
+
+    /**
+     * ログインしたユーザーにアクセストークンとリフレッシュトークンを発行する
+     *
+     * @param user ログインしたユーザー
+     * @return 発行したトークン
+     */
+    @Transactional
+    public TokenResponseDto issue(User user) {
+        Instant now = Instant.now();
+        Instant accessExpiresAt = now.plus(properties.accessTokenTtl());
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(properties.issuer())
+                .subject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_USER_NAME, user.getUserName())
+                .id(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiresAt(accessExpiresAt)
+                .build();
+        String accessToken = encoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+                .getTokenValue();
+
+        byte[] bytes = new byte[REFRESH_TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime created = LocalDateTime.now();
+        refreshTokenRepository.save(new RefreshToken(hash(refreshToken), user.getId(), created,
+                created.plus(properties.refreshTokenTtl())));
+
+        return new TokenResponseDto(accessToken, refreshToken, TOKEN_TYPE, properties.accessTokenTtl().toSeconds());
+    }
+
+    /**
+     * アクセストークンを検証し、トークンに含まれるユーザーを返す
+     * ※署名と有効期限を検証するだけで、DBにはアクセスしない
+     *
+     * @param accessToken アクセストークン
+     * @return 認証されたユーザー
+     * @throws JwtException トークンが不正な場合（署名が一致しない、期限切れ、無効にされているなど）
+     */
+    public TokenPrincipal authenticate(String accessToken) {
+        Jwt jwt = decoder.decode(accessToken);
+        Number userId = jwt.getClaim(CLAIM_USER_ID);
+        return new TokenPrincipal(userId == null ? null : userId.longValue(), jwt.getSubject(),
+                jwt.getClaimAsString(CLAIM_USER_NAME), jwt.getId(), jwt.getExpiresAt());
+    }
+
+    /**
+     * リフレッシュトークンを使用済みにして、新しいアクセストークンとリフレッシュトークンを発行する
+     * ※ユーザー名の変更などを反映するため、ユーザーの最新の情報をDBから取得して発行する
+     *
+     * @param refreshToken ログイン・前回の更新で発行されたリフレッシュトークン
+     * @return 新しく発行したトークン
+     * @throws UnauthorizedException トークンが存在しない、使用済み、期限切れ、またはユーザーが削除されている場合（401）
+     */
+    @Transactional
+    public TokenResponseDto refresh(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        RefreshToken stored = refreshTokenRepository.findById(tokenHash)
+                .orElseThrow(TokenService::invalidRefreshToken);
+        if (refreshTokenRepository.consume(tokenHash, LocalDateTime.now()) == 0) {
+            throw invalidRefreshToken();
+        }
+        User user = userRepository.findById(stored.getUserId())
+                .orElseThrow(TokenService::invalidRefreshToken);
+        return issue(user);
+    }
+
+    /**
+     * ログアウトする（リフレッシュトークンを削除し、アクセストークンを無効にする）
+     *
+     * @param refreshToken 削除するリフレッシュトークン
+     * @param principal    無効にするアクセストークンで認証されたユーザー（アクセストークンを指定しなかった場合はnull）
+     */
+    @Transactional
+    public void revoke(String refreshToken, TokenPrincipal principal) {
+        refreshTokenRepository.deleteById(hash(refreshToken));
+        if (principal != null && principal.tokenId() != null) {
+            revocationList.revoke(principal.tokenId(), principal.expiresAt());
+        }
+    }
+
+    /**
+     * 有効期限が切れたリフレッシュトークンを定期的に削除する
+     *
+     * @return 削除した件数
+     */
+    @Scheduled(cron = "${app.security.token.purge-cron:0 30 * * * *}")
+    public int purgeExpired() {
+        return refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    /**
+     * リフレッシュトークンが不正な場合の例外を生成する
+     */
+    private static UnauthorizedException invalidRefreshToken() {
+        return new UnauthorizedException("リフレッシュトークンが無効です。再度ログインしてください");
+    }
+
+    /**
+     * 設定された秘密鍵（Base64）から、署名に使用する鍵を生成する
+     */
+    private static SecretKey secretKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("app.security.token.secret が設定されていません");
+        }
+        byte[] bytes = Base64.getDecoder().decode(secret.trim());
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("app.security.token.secret は " + MIN_SECRET_BYTES + " バイト以上にしてください");
+        }
+        return new SecretKeySpec(bytes, "HmacSHA256");
+    }
+
+    /**
+     * リフレッシュトークンのハッシュ値（SHA-256、16進数の文字列）を求める
+     */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
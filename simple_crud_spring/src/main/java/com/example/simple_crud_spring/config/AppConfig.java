@@ -1,26 +1,79 @@
 package com.example.simple_crud_spring.config;
 
+import com.example.simple_crud_spring.service.CustomUserDetailsService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.security.authentication.CachingUserDetailsService;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * アプリケーション全体で使用する共通のBean定義を行う設定クラス
- * 主にセキュリティ関連（パスワードの暗号化設定）を構成する
+ * 主にセキュリティ関連（パスワードの暗号化設定、ログイン時のユーザー情報の取得方法）を構成する
  */
 @Configuration // このクラスが設定クラスであることをSpringに伝えるアノテーション
+@EnableAsync // @Async を付けたメソッドを別スレッドで実行できるようにする（仮想スレッド有効時は仮想スレッドで実行される）
+@EnableScheduling // @Scheduled を付けたメソッドを定期的に実行できるようにする
 public class AppConfig {
 
     /**
      * パスワードの暗号化に使用するエンコーダーをBeanとして定義する
      * Spring Securityがユーザー認証時に自動で使用するようになる
+     * ※強度を変更した場合、既存ユーザーのパスワードは次回ログイン成功時に新しい強度でハッシュし直される
+     * ※ハッシュ化・照合にかかった時間は app.security.password のメトリクスとして記録される
      *
+     * @param strength      BCryptの強度（application.properties の app.security.bcrypt-strength で指定する）
+     * @param meterRegistry 処理時間を記録するレジストリ
      * @return BCryptアルゴリズムを使用したパスワードエンコーダー
      */
     @Bean // このメソッドの戻り値をSpringコンテナに登録し、他の場所で使えるようにする
-    public PasswordEncoder passwordEncoder() {
-        // パスワードをハッシュ化するエンコーダーを生成する
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength}") int strength,
+            MeterRegistry meterRegistry) {
+        // パスワードをハッシュ化するエンコーダーを生成し、処理時間を計測するエンコーダーで包む
+        return new MeteredPasswordEncoder(new StrengthAwareBCryptPasswordEncoder(strength), meterRegistry);
+    }
+
+    /**
+     * ログイン済みユーザー情報のキャッシュをBeanとして定義する
+     * メールアドレスをキーとして、{@link CacheConfig#USERS_BY_EMAIL} のキャッシュに保持する
+     *
+     * @param cacheManager キャッシュマネージャー
+     * @return ユーザー情報のキャッシュ
+     */
+    @Bean
+    public UserCache userCache(CacheManager cacheManager) {
+        return new SpringCacheBasedUserCache(cacheManager.getCache(CacheConfig.USERS_BY_EMAIL));
+    }
+
+    /**
+     * フォームログイン（/login）で使用する認証処理をBeanとして定義する
+     * ユーザー情報はキャッシュを経由して取得するため、キャッシュにあればDBにはアクセスしない。
+     * また、パスワードの強度が設定値と異なる場合はログイン成功時にハッシュし直して保存する。
+     *
+     * @param customUserDetailsService DBからユーザー情報を取得し、パスワードを更新するサービス
+     * @param passwordEncoder          パスワードの照合に使用するエンコーダー
+     * @param userCache                ユーザー情報のキャッシュ
+     * @return 認証処理を行うプロバイダー
+     */
+    @Bean
+    public DaoAuthenticationProvider authenticationProvider(CustomUserDetailsService customUserDetailsService,
+            PasswordEncoder passwordEncoder, UserCache userCache) {
+        // DBからの取得をキャッシュで包む
+        CachingUserDetailsService cachingUserDetailsService = new CachingUserDetailsService(customUserDetailsService);
+        cachingUserDetailsService.setUserCache(userCache);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(cachingUserDetailsService);
+        provider.setUserDetailsPasswordService(customUserDetailsService);
+        return provider;
     }
 }
@@ -0,0 +1,107 @@
+package com.example.simple_crud_spring.config;
+
+import com.example.simple_crud_spring.dto.PostDetailDto;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collection;
+
+/**
+ * 読み取り結果のキャッシュを構成する設定クラス
+ * アプリ内（プロセス内）のメモリに、件数または概算サイズの上限と有効期限を持つキャッシュを用意する。
+ * ※Spring のキャッシュ抽象化（@Cacheable / @CacheEvict）を使用しているため、
+ * spring.cache.type を指定すれば Redis などの別のキャッシュ実装に差し替えることができる
+ */
+@Configuration
+@EnableCaching // @Cacheable / @CacheEvict を有効にする
+public class CacheConfig {
+
+    /** 投稿ID → 投稿 のキャッシュ */
+    public static final String POSTS = "posts";
+
+    /** ページサイズ → 投稿一覧の1ページ目 のキャッシュ */
+    public static final String POST_FIRST_PAGES = "postFirstPages";
+
+    /** ユーザーID → ユーザー のキャッシュ */
+    public static final String USERS_BY_ID = "usersById";
+
+    /** メールアドレス → ログイン用のユーザー情報（UserDetails） のキャッシュ */
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+
+    /** 投稿1件あたりの文字列以外の部分（IDや日時など）の概算サイズ */
+    private static final int POST_BASE_WEIGHT = 128;
+
+    /**
+     * Caffeineを使用したキャッシュマネージャーをBeanとして定義する
+     * 各キャッシュの上限・有効期限は application.properties の app.cache.spec.* で調整できる
+     * ※spring.cache.type に caffeine 以外を指定した場合は定義せず、Spring Boot の自動構成に任せる
+     *
+     * @param postsSpec          投稿キャッシュの設定
+     * @param postFirstPagesSpec 投稿一覧1ページ目キャッシュの設定
+     * @param usersByIdSpec      ユーザー（ID）キャッシュの設定
+     * @param usersByEmailSpec   ユーザー（メールアドレス）キャッシュの設定
+     * @return キャッシュマネージャー
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine", matchIfMissing = true)
+    public CacheManager cacheManager(
+            @Value("${app.cache.spec.posts}") String postsSpec,
+            @Value("${app.cache.spec.post-first-pages}") String postFirstPagesSpec,
+            @Value("${app.cache.spec.users-by-id}") String usersByIdSpec,
+            @Value("${app.cache.spec.users-by-email}") String usersByEmailSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+
+        // 投稿は本文の長さによってサイズが大きく異なるため、件数ではなく概算サイズで上限を設ける
+        cacheManager.registerCustomCache(POSTS,
+                Caffeine.from(postsSpec).weigher((Object key, Object value) -> weigh(value)).build());
+        cacheManager.registerCustomCache(POST_FIRST_PAGES,
+                Caffeine.from(postFirstPagesSpec).weigher((Object key, Object value) -> weigh(value)).build());
+
+        // ユーザーはサイズがほぼ一定のため、件数で上限を設ける
+        cacheManager.registerCustomCache(USERS_BY_ID, Caffeine.from(usersByIdSpec).build());
+        cacheManager.registerCustomCache(USERS_BY_EMAIL, Caffeine.from(usersByEmailSpec).build());
+
+        return cacheManager;
+    }
+
+    /**
+     * キャッシュする値の概算サイズ（バイト数）を求める
+     *
+     * @param value キャッシュする値（投稿、または投稿のリスト）
+     * @return 概算サイズ
+     */
+    private static int weigh(Object value) {
+        if (value instanceof PostSummaryDto post) {
+            // Javaの文字列は1文字あたり最大2バイトとして見積もる
+            int textLength = length(post.title()) + length(post.excerpt()) + length(post.user().userName());
+            return POST_BASE_WEIGHT + textLength * 2;
+        }
+        if (value instanceof PostDetailDto post) {
+            int textLength = length(post.title()) + length(post.content()) + length(post.user().userName());
+            return POST_BASE_WEIGHT + textLength * 2;
+        }
+        if (value instanceof Collection<?> collection) {
+            int weight = 0;
+            for (Object element : collection) {
+                weight += weigh(element);
+            }
+            return Math.max(weight, 1);
+        }
+        return 1;
+    }
+
+    /**
+     * null を考慮して文字列の長さを返す
+     */
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
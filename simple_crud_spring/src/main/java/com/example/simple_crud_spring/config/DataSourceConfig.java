@@ -0,0 +1,102 @@
+package com.example.simple_crud_spring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * 読み取りをレプリカへ振り分けるデータソースを構成する設定クラス
+ * app.datasource.replica.enabled=true の場合のみ有効になり、次の2つの接続プールを用意する。
+ * ・プライマリ: spring.datasource.*（接続プールの設定は spring.datasource.hikari.*）
+ * ・レプリカ: app.datasource.replica.*（接続プールの設定は app.datasource.replica.hikari.*）
+ * 無効の場合は Spring Boot の自動構成により、spring.datasource.* の接続プールだけを使用する。
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    /**
+     * プライマリの接続プールをBeanとして定義する
+     *
+     * @param properties spring.datasource.* の設定
+     * @return プライマリの接続プール
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * レプリカの接続プールをBeanとして定義する
+     *
+     * @param url      レプリカのURL
+     * @param username レプリカに接続するユーザー名
+     * @param password レプリカに接続するパスワード
+     * @return レプリカの接続プール（読み取り専用の接続を払い出す）
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username}") String username,
+            @Value("${app.datasource.replica.password}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    /**
+     * アプリ全体で使用するデータソースをBeanとして定義する
+     * トランザクションが読み取り専用かどうかを見て、プライマリとレプリカを切り替える
+     *
+     * @param primary      プライマリの接続プール
+     * @param replica      レプリカの接続プール
+     * @param windowMillis 書き込み後、そのクライアントの読み取りをプライマリで行う時間（ミリ秒）
+     * @return 接続先を切り替えるデータソース
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${app.datasource.replica.read-your-writes-window-millis}") long windowMillis) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary, replica,
+                new ReadYourWritesTracker(windowMillis));
+        routingDataSource.afterPropertiesSet();
+
+        // 接続の取得を最初のSQLの実行まで遅らせ、読み取り専用かどうかが確定してから接続先を決める
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Hibernateが接続を保持する期間を、トランザクションの終了までに変更する
+     * 既定ではセッション（Open Session in View が有効な場合はリクエスト全体）の間、同じ接続を保持し続けるため、
+     * 読み取り専用のトランザクションでレプリカに接続した後の書き込みまでレプリカで行われてしまう。
+     * トランザクションごとに接続を返却し、次のトランザクションで接続先を選び直せるようにする。
+     *
+     * @return Hibernateの設定を変更するカスタマイザー
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
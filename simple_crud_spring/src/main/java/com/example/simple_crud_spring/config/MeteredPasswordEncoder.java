@@ -0,0 +1,59 @@
+package com.example.simple_crud_spring.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * パスワードのハッシュ化・照合にかかった時間を計測するエンコーダー
+ * 処理自体は委譲先のエンコーダーに任せ、処理時間を app.security.password のタイマー（operation タグで処理を区別する）に記録する
+ * ※ログイン1回あたりの処理時間のうち、BCryptの計算が占める時間を確認するために使用する
+ */
+public class MeteredPasswordEncoder implements PasswordEncoder {
+
+    /** タイマーの名前 */
+    static final String METRIC_NAME = "app.security.password";
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    /**
+     * 指定したエンコーダーの処理時間を計測するエンコーダーを生成する
+     *
+     * @param delegate 実際にハッシュ化・照合を行うエンコーダー
+     * @param registry 処理時間を記録するレジストリ
+     */
+    public MeteredPasswordEncoder(PasswordEncoder delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.encodeTimer = timer(registry, "encode");
+        this.matchesTimer = timer(registry, "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * 処理ごとのタイマーを生成する（パーセンタイルを求められるよう、ヒストグラムを記録する）
+     */
+    private static Timer timer(MeterRegistry registry, String operation) {
+        return Timer.builder(METRIC_NAME)
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.simple_crud_spring.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * アプリ独自のメトリクスを構成する設定クラス
+ * 次のメトリクスは Spring Boot が自動で記録するため、ここでは定義しない（application.properties で記録内容を調整する）
+ * ・http.server.requests … エンドポイント（URI・HTTPメソッド）ごとの処理時間
+ * ・hikaricp.connections.* … DB接続プールの接続数・接続の取得待ち時間
+ * ・hibernate.* … Hibernateの統計情報（発行したSQLの数、エンティティの読み込み数、キャッシュのヒット数など）
+ * ・cache.* … キャッシュのヒット数・ミス数
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * HQL（JPQL）のクエリごとの実行回数・実行時間を記録するメトリクスをBeanとして定義する
+     * ※hibernate.generate_statistics が有効な場合のみ記録される
+     *
+     * @param entityManagerFactory 計測対象のエンティティマネージャーファクトリー
+     * @return クエリごとのメトリクス（hibernate.query.*）
+     */
+    @Bean
+    public MeterBinder hibernateQueryMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateQueryMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory",
+                Tags.empty());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.simple_crud_spring.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+/**
+ * トランザクションの種類によって接続先を切り替えるデータソース
+ * 読み取り専用のトランザクション（@Transactional(readOnly = true)）はレプリカへ、それ以外はプライマリへ接続する。
+ * ただし書き込みを行ったクライアントの直後の読み取りは、{@link ReadYourWritesTracker} によりプライマリへ接続する。
+ * トランザクションの外での読み取り（キャッシュに入れる結果の読み取りなど）もプライマリへ接続する。
+ *
+ * ※トランザクションの開始時点では読み取り専用かどうかが確定していないため、
+ * LazyConnectionDataSourceProxy で包み、最初のSQLを実行する時点で接続先を決めること
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * 接続先
+     */
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    /**
+     * プライマリとレプリカを指定して生成する
+     *
+     * @param primary               書き込み（と書き込み直後の読み取り）に使用するデータソース
+     * @param replica               読み取り専用のトランザクションに使用するデータソース
+     * @param readYourWritesTracker 書き込み直後のクライアントを判定するクラス
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica,
+            ReadYourWritesTracker readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // トランザクション外（起動時のスキーマ作成、キャッシュに入れる結果の読み取りなど）はプライマリを使用する
+            return Target.PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWritesTracker.onWriteTransaction();
+            return Target.PRIMARY;
+        }
+        return readYourWritesTracker.shouldReadFromPrimary() ? Target.PRIMARY : Target.REPLICA;
+    }
+}
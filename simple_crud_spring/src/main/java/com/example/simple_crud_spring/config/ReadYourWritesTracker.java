@@ -0,0 +1,115 @@
+package com.example.simple_crud_spring.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * 書き込みを行ったクライアントが、直後の読み取りでその書き込み結果を確実に参照できるようにするクラス
+ * レプリカへの反映には遅れ（レプリケーション遅延）があるため、書き込みのトランザクションがコミットされてから
+ * 一定時間は、そのクライアントの読み取りをレプリカではなくプライマリで行わせる。
+ *
+ * ※クライアントの識別にはクッキー（いつまでプライマリで読み取るか）を使用するため、アプリを複数台で動かしても機能する。
+ * 同じリクエストの中で書き込み後に読み取る場合は、リクエストの属性で判定する
+ */
+public class ReadYourWritesTracker {
+
+    /** プライマリで読み取る期限（エポックミリ秒）を保持するクッキーの名前 */
+    public static final String COOKIE_NAME = "primary_read_until";
+
+    /** 同じリクエストの中で書き込みを行ったことを表すリクエストの属性名 */
+    private static final String WRITTEN_ATTRIBUTE = ReadYourWritesTracker.class.getName() + ".WRITTEN";
+
+    private final long windowMillis;
+
+    /**
+     * 書き込み後にプライマリで読み取る時間を指定して生成する
+     *
+     * @param windowMillis 書き込み後にプライマリで読み取る時間（ミリ秒。想定するレプリケーション遅延より長くする）
+     */
+    public ReadYourWritesTracker(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * 書き込みのトランザクションが始まったことを記録する
+     * トランザクションのコミット後に、このクライアントの読み取りをしばらくプライマリで行うよう設定する
+     * （ロールバックされた場合は何もしない）
+     */
+    public void onWriteTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markWritten();
+                }
+            });
+        }
+    }
+
+    /**
+     * 現在のリクエストの読み取りをプライマリで行うべきかを判定する
+     *
+     * @return 同じリクエストの中で書き込み済みの場合、またはクッキーの期限内の場合は true
+     */
+    public boolean shouldReadFromPrimary() {
+        ServletRequestAttributes attributes = currentRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        if (attributes.getAttribute(WRITTEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return true;
+        }
+
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 書き込みを行ったことを、リクエストの属性とクッキーに記録する
+     */
+    private void markWritten() {
+        ServletRequestAttributes attributes = currentRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        attributes.setAttribute(WRITTEN_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+
+        // レスポンスの送信が始まっている場合（ストリーミングなど）はヘッダーを追加できない
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(System.currentTimeMillis() + windowMillis));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.ceil(windowMillis / 1000.0));
+            response.addCookie(cookie);
+        }
+    }
+
+    /**
+     * 現在のスレッドで処理中のリクエストを返す（リクエストの処理中でない場合はnull）
+     */
+    private static ServletRequestAttributes currentRequestAttributes() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes
+                : null;
+    }
+}
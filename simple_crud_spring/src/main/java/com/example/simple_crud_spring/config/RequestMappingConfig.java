@@ -0,0 +1,43 @@
+package com.example.simple_crud_spring.config;
+
+import com.example.simple_crud_spring.controller.PreferenceRequestCondition;
+import com.example.simple_crud_spring.controller.RequirePreference;
+
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+
+/**
+ * リクエストを処理するメソッドの選択に、独自の条件を追加する設定クラス
+ * {@link RequirePreference} を付けたメソッドは、Prefer ヘッダーに指定した処理の希望が含まれるリクエストだけを処理する
+ */
+@Configuration
+public class RequestMappingConfig {
+
+    /**
+     * {@link RequirePreference} の条件を判定するハンドラーマッピングを、Spring MVC の既定のものと差し替える
+     *
+     * @return Spring Boot がSpring MVCを構成する際に使用する登録内容
+     */
+    @Bean
+    public WebMvcRegistrations preferenceAwareWebMvcRegistrations() {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+                return new RequestMappingHandlerMapping() {
+                    @Override
+                    protected RequestCondition<?> getCustomMethodCondition(Method method) {
+                        RequirePreference preference =
+                                AnnotatedElementUtils.findMergedAnnotation(method, RequirePreference.class);
+                        return preference == null ? null : new PreferenceRequestCondition(preference.value());
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.simple_crud_spring.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * APIのレスポンスをJSON以外のバイナリ形式でも返せるようにする設定クラス
+ * Acceptヘッダーに次の形式を指定した場合、その形式でレスポンスを返す（指定しない場合はこれまでどおりJSONで返す）。
+ * ・application/cbor … CBOR（RFC 8949）
+ * ・application/x-jackson-smile … Smile（JSONと同じデータモデルのバイナリ形式）
+ * どちらもフィールド名・数値・日時をJSONより短いバイト列で表すため、特に投稿一覧のように同じフィールド名が繰り返される
+ * レスポンスのサイズが小さくなる。また、リクエストの本文も同じ形式で送信できる（Content-Type で指定する）。
+ * ※圧縮（gzip）は application.properties の server.compression.* で設定する
+ */
+@Configuration
+public class ResponseFormatConfig {
+
+    /**
+     * CBOR形式の変換を行うコンバーターをBeanとして定義する
+     * ※Spring Boot が構成する ObjectMapper と同じ設定（日時をISO-8601形式で出力するなど）で変換する
+     *
+     * @param builder Spring Boot の設定を反映した ObjectMapper のビルダー
+     * @return CBOR形式のコンバーター
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Smile形式の変換を行うコンバーターをBeanとして定義する
+     * ※Spring Boot が構成する ObjectMapper と同じ設定（日時をISO-8601形式で出力するなど）で変換する
+     *
+     * @param builder Spring Boot の設定を反映した ObjectMapper のビルダー
+     * @return Smile形式のコンバーター
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
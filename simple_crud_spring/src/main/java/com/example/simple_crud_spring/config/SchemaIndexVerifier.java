@@ -0,0 +1,94 @@
+package com.example.simple_crud_spring.config;
+
+import com.example.simple_crud_spring.model.Post;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+/**
+ * 起動時に、クエリの性能に必要なインデックスがDBに存在するかを確認するクラス
+ * マイグレーションの適用漏れなどでインデックスがない場合、そのまま起動すると投稿の一覧・検索が
+ * テーブル全体の走査になり、データが増えてから遅くなるため、起動を失敗させて早い段階で気づけるようにする。
+ * ※ddl-auto=validate はテーブル・列の定義しか確認しないため、インデックスはこのクラスで確認する
+ * ※app.schema.verify-indexes=false の場合は確認しない（起動時間を短くする fast-startup プロファイルなど）
+ */
+@Component
+@ConditionalOnProperty(name = "app.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class SchemaIndexVerifier implements SmartInitializingSingleton {
+
+    private final DataSource dataSource;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param dataSource 確認対象のDBのデータソース
+     */
+    public SchemaIndexVerifier(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * すべてのBeanの生成後（マイグレーション・テーブル作成の後）に、インデックスを確認する
+     *
+     * @throws IllegalStateException 必要なインデックスが存在しない場合
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+
+            List<String> expected = new ArrayList<>(List.of(
+                    Post.INDEX_DELETED_AT_CREATED_AT,
+                    Post.INDEX_USER_ID_DELETED_AT_CREATED_AT));
+            // 全文検索はMySQLのFULLTEXTインデックスを使用するため、MySQLの場合のみ確認する
+            if (metaData.getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql")) {
+                expected.add(Post.INDEX_FULLTEXT_TITLE_CONTENT);
+            }
+
+            Set<String> actual = indexNames(connection, metaData, "posts");
+            List<String> missing = expected.stream()
+                    .filter(name -> !actual.contains(name.toLowerCase(Locale.ROOT)))
+                    .toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalStateException("posts テーブルに必要なインデックスがありません: " + missing
+                        + "（マイグレーション（db/migration）が適用されているか確認してください）");
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("インデックスの確認に失敗しました", ex);
+        }
+    }
+
+    /**
+     * 指定したテーブルのインデックス名の一覧を返す（小文字に揃える）
+     */
+    private static Set<String> indexNames(Connection connection, DatabaseMetaData metaData, String table)
+            throws SQLException {
+        // H2などは、引用符で囲まれていない識別子を大文字で保持している
+        String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+
+        Set<String> names = new HashSet<>();
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                tableName, false, true)) {
+            while (indexes.next()) {
+                String name = indexes.getString("INDEX_NAME");
+                if (name != null) {
+                    names.add(name.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.simple_crud_spring.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Beanの遅延生成（spring.main.lazy-initialization=true。fast-startup プロファイル）に関する設定クラス
+ * 遅延生成を有効にすると、使用されるまで生成されないBeanは、定期実行の登録や起動時の処理も行われなくなる。
+ * そのため、次のBeanは遅延生成の対象外とし、これまでどおり起動時に生成する
+ * ・@Scheduled を付けたメソッドを持つBean（アーカイブ、非同期作成の書き込み、ハートビートなど）
+ * ・起動時にデータを読み込むBean（SmartInitializingSingleton。メールアドレスのフィルタ、最新の投稿一覧など）
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * 遅延生成の対象外とするBeanを判定するフィルタをBeanとして定義する
+     * ※他のBeanの生成より前に使用されるため、static メソッドで定義する
+     *
+     * @return 遅延生成の対象外とするBeanを判定するフィルタ
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (SmartInitializingSingleton.class.isAssignableFrom(beanType) || hasScheduledMethod(beanType));
+    }
+
+    /**
+     * 指定したクラスが @Scheduled を付けたメソッドを持つかどうかを判定する
+     */
+    private static boolean hasScheduledMethod(Class<?> beanType) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType,
+                method -> found.set(true),
+                method -> !found.get() && AnnotatedElementUtils.hasAnnotation(method, Scheduled.class));
+        return found.get();
+    }
+}
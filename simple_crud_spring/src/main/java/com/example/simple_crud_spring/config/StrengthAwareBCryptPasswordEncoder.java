@@ -0,0 +1,49 @@
+package com.example.simple_crud_spring.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 保存済みハッシュの強度（コスト）が設定値と異なる場合に、再ハッシュが必要と判定するBCryptエンコーダー
+ * 標準の {@link BCryptPasswordEncoder} は強度を上げた場合にしか再ハッシュしないが、
+ * ログイン処理の負荷を下げるために強度を下げた場合にも、ログイン時に新しい強度でハッシュし直せるようにする。
+ * ※再ハッシュ自体は Spring Security がログイン成功時に UserDetailsPasswordService を通じて行う
+ */
+public class StrengthAwareBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    /** BCryptハッシュの形式（$2a$10$... の "10" の部分が強度） */
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength;
+
+    /**
+     * 指定した強度でハッシュするエンコーダーを生成する
+     *
+     * @param strength ハッシュの強度（4～31。1上げるごとに計算時間は約2倍になる）
+     */
+    public StrengthAwareBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * 保存済みのハッシュを現在の強度でハッシュし直す必要があるかを判定する
+     *
+     * @param encodedPassword 保存済みのハッシュ
+     * @return ハッシュの強度が設定値と異なる場合は true
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            // BCrypt形式でない場合の判定は標準の処理に任せる
+            return super.upgradeEncoding(encodedPassword);
+        }
+        return Integer.parseInt(matcher.group(1)) != strength;
+    }
+}
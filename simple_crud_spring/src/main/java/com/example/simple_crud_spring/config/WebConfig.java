@@ -1,9 +1,30 @@
 package com.example.simple_crud_spring.config;
 
+import com.example.simple_crud_spring.auth.TokenAuthenticationFilter;
+import com.example.simple_crud_spring.auth.TokenIssuingSuccessHandler;
+import com.example.simple_crud_spring.auth.TokenService;
+import com.example.simple_crud_spring.ratelimit.DatabaseLoadMonitor;
+import com.example.simple_crud_spring.ratelimit.RateLimitFilter;
+import com.example.simple_crud_spring.ratelimit.RateLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -18,6 +39,9 @@ import org.springframework.security.config.Customizer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    /** 監視用のエンドポイントにアクセスできるロール */
+    private static final String ACTUATOR_ROLE = "ACTUATOR";
+
     /**
      * CORS（Cross-Origin Resource Sharing）の設定を追加する
      * React（http://localhost:3000）からのAPI通信を許可するための構成
@@ -34,25 +58,82 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns("http://localhost:3000")
 
                 // 許可するHTTPメソッド（すべて）
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
 
                 // すべてのヘッダーを許可する
                 .allowedHeaders("*")
 
+                // 条件付きリクエストに使用するヘッダーと、リクエスト数の制限時に再送までの秒数を返すヘッダーを
+                // Reactアプリから参照できるようにする
+                .exposedHeaders("ETag", "Last-Modified", "Retry-After")
+
                 // 認証情報（Cookie等）の送信を許可する
                 .allowCredentials(true);
     }
 
+    /**
+     * 監視用のエンドポイント（/actuator/**）のSpring Securityのフィルタチェーンを定義する
+     * /actuator/health だけを誰でも参照できるようにし、それ以外（キャッシュの破棄、メトリクス、マイグレーションの履歴など）は
+     * 監視用のアカウント（app.management.username・password）でのBasic認証を必須にする
+     * ※パスワードを設定しない場合、/actuator/health 以外には誰もアクセスできない
+     * ※アプリのユーザーは監視用のロールを持たないため、ログインしてもアクセスできない
+     *
+     * @param http            HttpSecurityの設定用オブジェクト
+     * @param username        監視用のアカウントのユーザー名
+     * @param password        監視用のアカウントのパスワード（空の場合はアカウントを作成しない）
+     * @param passwordEncoder パスワードのハッシュ化・照合に使用するエンコーダー
+     * @return 設定済みのSecurityFilterChainオブジェクト
+     * @throws Exception セキュリティ設定中に発生する可能性のある例外
+     */
+    @Bean
+    @Order(1) // アプリ全体のフィルタチェーン（すべてのリクエストが対象）より先に判定する
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http,
+            @Value("${app.management.username}") String username,
+            @Value("${app.management.password:}") String password,
+            PasswordEncoder passwordEncoder) throws Exception {
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .anyRequest().hasRole(ACTUATOR_ROLE))
+                .httpBasic(Customizer.withDefaults());
+
+        if (!password.isEmpty()) {
+            InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(User.withUsername(username)
+                    .password(passwordEncoder.encode(password))
+                    .roles(ACTUATOR_ROLE)
+                    .build());
+            DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+            provider.setUserDetailsService(users);
+            http.authenticationProvider(provider);
+        }
+        return http.build();
+    }
+
     /**
      * Spring Securityのフィルタチェーンを定義する
-     * 認証・認可、ログイン、ログアウト、CORS、CSRFの設定をまとめて行う
+     * 認証・認可、ログイン、ログアウト、CORS、CSRF、リクエスト数の制限の設定をまとめて行う
+     * ※トークン認証が有効な場合（app.security.token.enabled=true）は、HTTPセッションを使用しない。
+     * ログインの成功時にアクセストークン・リフレッシュトークンを返し、以降のリクエストは
+     * Authorization: Bearer ヘッダーのアクセストークンで認証する
      *
-     * @param http HttpSecurityの設定用オブジェクト
+     * @param http                HttpSecurityの設定用オブジェクト
+     * @param rateLimitProperties リクエスト数の制限に関する設定
+     * @param databaseLoadMonitor DBの負荷の判定に使用する
+     * @param meterRegistry       制限により拒否したリクエスト数を記録するレジストリ
+     * @param objectMapper        制限により拒否した場合・トークンを発行した場合のレスポンスの生成に使用する
+     * @param tokenService        トークンの発行・検証に使用する（トークン認証が無効な場合は存在しない）
      * @return 設定済みのSecurityFilterChainオブジェクト
      * @throws Exception セキュリティ設定中に発生する可能性のある例外
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, RateLimitProperties rateLimitProperties,
+            DatabaseLoadMonitor databaseLoadMonitor, MeterRegistry meterRegistry, ObjectMapper objectMapper,
+            ObjectProvider<TokenService> tokenService) throws Exception {
+        TokenService tokens = tokenService.getIfAvailable();
+
         http
                 // CORSを有効化（↑で定義したCORS設定が使われるようにする）
                 .cors(Customizer.withDefaults())
@@ -76,6 +157,22 @@ public class WebConfig implements WebMvcConfigurer {
                         .logoutUrl("/logout")// ログアウトのリクエストパス
                         .logoutSuccessHandler((req, res, auth) -> res.setStatus(200))); // ログアウト成功時はHTTP 200
 
+        // トークン認証の場合は、HTTPセッションを作成せず、ログインの成功時にトークンを返す
+        if (tokens != null) {
+            http
+                    .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .formLogin(form -> form.successHandler(new TokenIssuingSuccessHandler(tokens, objectMapper)))
+                    .addFilterBefore(new TokenAuthenticationFilter(tokens, objectMapper),
+                            UsernamePasswordAuthenticationFilter.class);
+        }
+
+        // 書き込み・ログインのリクエスト数を制限する（ログイン済みのユーザーを参照できるよう、ログイン処理の前に実行する）
+        // ※トークン認証の場合は、同じ位置に先に追加したトークンの検証の後に実行される
+        if (rateLimitProperties.enabled()) {
+            http.addFilterBefore(new RateLimitFilter(rateLimitProperties, databaseLoadMonitor, meterRegistry,
+                    objectMapper), UsernamePasswordAuthenticationFilter.class);
+        }
+
         // 最終的にSecurityFilterChainを返す
         return http.build();
     }
@@ -0,0 +1,65 @@
+package com.example.simple_crud_spring.controller;
+
+import com.example.simple_crud_spring.auth.TokenPrincipal;
+import com.example.simple_crud_spring.auth.TokenService;
+import com.example.simple_crud_spring.dto.TokenRefreshRequestDto;
+import com.example.simple_crud_spring.dto.TokenResponseDto;
+
+import jakarta.validation.Valid;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * トークン認証のトークンの更新・ログアウトを提供するRESTコントローラ
+ * ※トークンの発行（ログイン）はフォームログイン（/login）で行う
+ * ※app.security.token.enabled=true の場合のみ有効になる
+ */
+@RestController
+@RequestMapping("/api/auth")
+@ConditionalOnProperty(name = "app.security.token.enabled", havingValue = "true")
+public class AuthTokenController {
+
+    private final TokenService tokenService;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param tokenService トークンの更新・無効化に使用するサービス
+     */
+    public AuthTokenController(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    /**
+     * リフレッシュトークンを使用して、新しいアクセストークンとリフレッシュトークンを発行する
+     * ※使用したリフレッシュトークンは以降使えなくなるため、レスポンスのリフレッシュトークンに置き換えること
+     *
+     * @param request リフレッシュトークン
+     * @return 新しく発行したトークン（ステータスコード200）。リフレッシュトークンが無効な場合は401
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponseDto> refresh(@Valid @RequestBody TokenRefreshRequestDto request) {
+        return ResponseEntity.ok(tokenService.refresh(request.refreshToken()));
+    }
+
+    /**
+     * ログアウトする
+     * リフレッシュトークンを削除し、Authorization ヘッダーに指定したアクセストークンを無効にする
+     *
+     * @param request        削除するリフレッシュトークン
+     * @param authentication アクセストークンで認証されたユーザー（アクセストークンを指定しなかった場合はnull）
+     * @return ステータスコード204
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody TokenRefreshRequestDto request,
+            Authentication authentication) {
+        TokenPrincipal principal = (authentication != null && authentication.getPrincipal() instanceof TokenPrincipal p)
+                ? p
+                : null;
+        tokenService.revoke(request.refreshToken(), principal);
+        return ResponseEntity.noContent().build();
+    }
+}
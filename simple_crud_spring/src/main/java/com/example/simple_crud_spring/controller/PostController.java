@@ -1,123 +1,408 @@
 package com.example.simple_crud_spring.controller;
 
+import com.example.simple_crud_spring.config.CacheConfig;
+import com.example.simple_crud_spring.dto.BatchDeleteResponseDto;
+import com.example.simple_crud_spring.dto.PostBatchUpdateRequestDto;
+import com.example.simple_crud_spring.dto.PostCollectionVersion;
+import com.example.simple_crud_spring.dto.PostCursor;
+import com.example.simple_crud_spring.dto.PostDetailDto;
+import com.example.simple_crud_spring.dto.PostPageResponseDto;
+import com.example.simple_crud_spring.dto.PostPatchRequestDto;
+import com.example.simple_crud_spring.dto.PostPatchResult;
 import com.example.simple_crud_spring.dto.PostRequestDto;
-import com.example.simple_crud_spring.model.Post;
-import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.event.PostChangedEvent;
+import com.example.simple_crud_spring.event.PostEventHub;
 import com.example.simple_crud_spring.repository.PostRepository;
-import com.example.simple_crud_spring.repository.UserRepository;
+import com.example.simple_crud_spring.service.LatestPostsTimeline;
+import com.example.simple_crud_spring.service.PostCollectionVersionService;
+import com.example.simple_crud_spring.service.PostSearchService;
+import com.example.simple_crud_spring.service.PostStreamService;
+import com.example.simple_crud_spring.service.PostWriteService;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
  * 投稿に関するAPIを提供するコントローラ
  * 投稿の作成、取得、更新、削除（CRUD）を行う
+ * ※一覧（全件・ページ・検索・ユーザーごと）では本文の代わりに抜粋を返し、本文はID指定の取得でのみ返す
+ * ※投稿の取得では ETag・Last-Modified を返し、条件付きリクエスト（If-None-Match・If-Modified-Since）で
+ * 前回から変更がなければ本文を返さずに304を返す
+ * ※投稿の更新では If-Match に取得時のETagを指定すると、他のユーザーが先に更新していた場合に上書きせず412を返す。
+ * 同時に更新された場合（If-Match を指定しない場合を含む）は、後から書き込んだ側が409となる
+ * ※投稿を変更した場合は {@link PostChangedEvent} を発行し、/api/posts/stream を購読中のクライアントへ通知する
+ * ※レスポンスはAcceptヘッダーに応じてJSON・CBOR・Smileのいずれかの形式で返し、一定以上の大きさであればgzipで圧縮する
+ * （{@code ResponseFormatConfig}、application.properties の server.compression.* を参照）
  */
 @RestController
 @RequestMapping("/api/posts")
 public class PostController {
 
+    /** 1ページあたりの件数の既定値 */
+    static final int DEFAULT_PAGE_SIZE = 20;
+
+    /** 1ページあたりの件数の上限（大きすぎる値を指定されてもこの件数までしか返さない） */
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final PostRepository postRepository;
-    private final UserRepository userRepository;
+    private final PostCollectionVersionService postCollectionVersionService;
+    private final PostStreamService postStreamService;
+    private final PostWriteService postWriteService;
+    private final PostSearchService postSearchService;
+    private final PostEventHub postEventHub;
+    private final LatestPostsTimeline latestPostsTimeline;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * PostControllerのコンストラクタ
      * 
-     * @param postRepository 投稿データへのアクセスを提供するリポジトリ
+     * @param postRepository               投稿データへのアクセスを提供するリポジトリ
+     * @param postCollectionVersionService 一覧の変更の有無の判定に使用する、投稿全体の版を取得するサービス
+     * @param postStreamService            投稿をNDJSON形式で逐次書き出すサービス
+     * @param postWriteService             投稿の作成・更新・削除、一括作成・更新・削除を行うサービス
+     * @param postSearchService            投稿の全文検索を行うサービス
+     * @param postEventHub                 投稿の変更をクライアントへ配信するクラス
+     * @param latestPostsTimeline          最新の投稿をメモリ上に保持するクラス
+     * @param eventPublisher               投稿の変更を通知するイベントの発行に使用する
      */
-    public PostController(PostRepository postRepository, UserRepository userRepository) {
+    public PostController(PostRepository postRepository,
+            PostCollectionVersionService postCollectionVersionService,
+            PostStreamService postStreamService, PostWriteService postWriteService,
+            PostSearchService postSearchService, PostEventHub postEventHub,
+            LatestPostsTimeline latestPostsTimeline, ApplicationEventPublisher eventPublisher) {
         this.postRepository = postRepository;
-        this.userRepository = userRepository;
+        this.postCollectionVersionService = postCollectionVersionService;
+        this.postStreamService = postStreamService;
+        this.postWriteService = postWriteService;
+        this.postSearchService = postSearchService;
+        this.postEventHub = postEventHub;
+        this.latestPostsTimeline = latestPostsTimeline;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * すべての投稿を取得する
+     * すべての投稿を新しい順に取得する
+     * ※全件をメモリに読み込むため、投稿数が多い環境では {@link #getPage} または {@link #streamAll} を使用すること
      *
-     * @return 投稿のリストを含む HTTP レスポンス（ステータスコード 200）
+     * @param request 条件付きリクエストの判定に使用するリクエスト
+     * @return 投稿のリストを含む HTTP レスポンス（ステータスコード 200）。前回から変更がなければ304
      */
     @GetMapping("/all")
-    public ResponseEntity<List<Post>> getAll() {
-        List<Post> postList = postRepository.findAll();
-        return ResponseEntity.ok(postList);
+    public ResponseEntity<List<PostSummaryDto>> getAll(WebRequest request) {
+        // 投稿を読み込む前に、投稿全体の版で変更の有無を判定する
+        PostCollectionVersion version = postCollectionVersionService.current();
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return notModified();
+        }
+
+        List<PostSummaryDto> postList = postRepository.findAllSummaries();
+        return revalidated(postList);
+    }
+
+    /**
+     * 投稿を新しい順に1ページ分取得する（キーセットページング）
+     * 次のページを取得する場合は、レスポンスの nextCursor を cursor に指定して再度呼び出す
+     *
+     * ※ページの内容は投稿全体の版が変わらない限り変わらないため、投稿全体の版で変更の有無を判定する
+     * （版は主キーで1行読むだけで取得できるため、変更がなければ投稿は読み込まない）
+     *
+     * @param cursor  前ページのレスポンスで返されたカーソル（1ページ目の場合は指定しない）
+     * @param size    1ページあたりの件数（1～100、既定値20）
+     * @param request 条件付きリクエストの判定に使用するリクエスト
+     * @return 投稿のリストと次ページのカーソルを含む HTTP レスポンス（ステータスコード 200）。前回から変更がなければ304
+     */
+    @GetMapping
+    public ResponseEntity<PostPageResponseDto> getPage(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size, WebRequest request) {
+        int pageSize = pageSize(size);
+
+        PostCollectionVersion version = postCollectionVersionService.current();
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return notModified();
+        }
+
+        // 次ページの有無を判定するため、1件多く取得する
+        Limit limit = Limit.of(pageSize + 1);
+        List<PostSummaryDto> posts;
+        if (cursor == null || cursor.isEmpty()) {
+            posts = postRepository.findLatest(limit);
+        } else {
+            PostCursor after = PostCursor.decode(cursor);
+            posts = postRepository.findOlderThan(after.createdAt(), after.id(), limit);
+        }
+        return revalidated(PostPageResponseDto.of(posts, pageSize));
+    }
+
+    /**
+     * 最新の投稿を新しい順に1ページ分取得する（トップページ用）
+     * メモリ上に保持している一覧から返すため、DBにはアクセスしない
+     * 次のページを取得する場合は、レスポンスの nextCursor を {@link #getPage} の cursor に指定して呼び出す
+     * ※他のサーバーでの変更は、最大 app.posts.timeline.reconcile-interval 遅れて反映される（{@link LatestPostsTimeline}）
+     *
+     * @param size 1ページあたりの件数（1～100、既定値20）
+     * @return 投稿のリストと次ページのカーソルを含む HTTP レスポンス（ステータスコード 200）
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<PostPageResponseDto> getLatest(
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = pageSize(size);
+
+        // 次ページの有無を判定するため、1件多く取得する
+        return ResponseEntity.ok(PostPageResponseDto.of(latestPostsTimeline.latest(pageSize + 1), pageSize));
+    }
+
+    /**
+     * タイトル・本文に検索キーワードを含む投稿を、関連度の高い順に1ページ分取得する
+     * 次のページを取得する場合は、レスポンスの nextCursor を cursor に指定して再度呼び出す
+     *
+     * @param q      検索キーワード（空白区切りで複数指定できる）
+     * @param cursor 前ページのレスポンスで返されたカーソル（1ページ目の場合は指定しない）
+     * @param size   1ページあたりの件数（1～100、既定値20）
+     * @return 検索結果のリストと次ページのカーソルを含む HTTP レスポンス（ステータスコード 200）
+     */
+    @GetMapping("/search")
+    public ResponseEntity<PostPageResponseDto> search(@RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(postSearchService.search(q, cursor, pageSize(size)));
+    }
+
+    /**
+     * すべての投稿を新しい順にNDJSON形式（1行1件のJSON）で逐次返す
+     * Acceptヘッダーに application/x-ndjson を指定した場合のみ呼び出される
+     * ※DBから読み込んだ行をその場で書き出すため、投稿の件数に関わらずメモリ使用量は一定である
+     *
+     * @param response 投稿を書き出すHTTPレスポンス
+     * @throws IOException 書き出しに失敗した場合（クライアントが切断した場合など）
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAll(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        postStreamService.writeAllAsNdjson(response.getOutputStream());
+    }
+
+    /**
+     * 投稿の作成・更新・削除をServer-Sent Eventsで受け取る
+     * 変更のたびに post イベント（{@link PostChangedEvent} のJSON）が送信される。
+     * 受信が追いつかなかった場合や、再接続までに時間が空いた場合は resync イベントが送信されるため、一覧を取得し直すこと。
+     * ※接続が切れた場合、ブラウザ（EventSource）は最後に受信したイベントのIDを Last-Event-ID に指定して自動で再接続する
+     *
+     * @param lastEventId 最後に受信したイベントのID（再接続の場合のみ指定される）
+     * @return イベントを送信するエミッター
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return postEventHub.subscribe(lastEventId);
     }
 
     /**
      * 新しい投稿を作成する。
      * ※バリデーションに引っかかるなどすると例外が発生するが、グローバルエラーハンドラーで処理できるためtry-catchは不要である。
+     * ※新しい投稿は一覧の先頭に並ぶため、一覧の1ページ目のキャッシュを破棄する
+     * ※投稿者の投稿数を1増やす
      *
      * @param post クライアントから送信された投稿データ（バリデーション付き）
-     * @return 保存された投稿データを含む HTTP レスポンス（ステータスコード 200）
+     * @return 保存された投稿データ（本文を含む）を含む HTTP レスポンス（ステータスコード 200）
      */
     @PostMapping
-    public ResponseEntity<Post> create(@RequestBody PostRequestDto dto) {
-        User user = userRepository.findById(dto.userId)
-                .orElseThrow(() -> new IllegalArgumentException("ユーザーが存在しません"));
-
-        Post post = new Post();
-        post.setTitle(dto.title);
-        post.setContent(dto.content);
-        post.setUser(user);
-
-        Post savedPost = postRepository.save(post);
+    @CacheEvict(cacheNames = CacheConfig.POST_FIRST_PAGES, allEntries = true)
+    public ResponseEntity<PostDetailDto> create(@RequestBody PostRequestDto dto) {
+        PostDetailDto savedPost = postWriteService.create(dto);
+        eventPublisher.publishEvent(PostChangedEvent.created(savedPost.toSummary()));
         return ResponseEntity.ok(savedPost);
     }
 
     /**
-     * 指定されたIDの投稿を取得する
+     * 指定されたIDの投稿を、本文を含めて取得する
+     * ※投稿はキャッシュから取得するため、変更の有無の判定にDBへのアクセスは発生しない（キャッシュにない場合を除く）
      *
-     * @param id 取得対象の投稿ID
-     * @return 該当する投稿が存在すればステータス200で投稿を返し、存在しなければ404を返す HTTP レスポンス
+     * @param id      取得対象の投稿ID
+     * @param request 条件付きリクエストの判定に使用するリクエスト
+     * @return 該当する投稿が存在すればステータス200で投稿を返し、存在しなければ404を返す HTTP レスポンス。
+     *         前回から変更がなければ304
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Post> getById(@PathVariable Long id) {
-        return postRepository.findById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<PostDetailDto> getById(@PathVariable Long id, WebRequest request) {
+        return postRepository.findDetailById(id)
+                .map(post -> request.checkNotModified(post.etag(), post.lastModified())
+                        ? PostController.<PostDetailDto>notModified()
+                        : revalidated(post))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
      * 指定されたIDの投稿を更新する
      * ※バリデーションに引っかかるなどすると例外が発生するが、グローバルエラーハンドラーで処理できるためtry-catchは不要である。
+     * ※更新した投稿のキャッシュと、一覧の1ページ目のキャッシュを破棄する
      *
      * @param id          更新対象の投稿ID
      * @param updatedPost 新しい投稿データ（バリデーション付き）
-     * @return 更新後の投稿データを含む HTTP レスポンス。該当IDが存在しない場合は404を返す
+     * @param ifMatch     取得時のETag（指定した場合、その後に他のユーザーが更新していれば412を返す）
+     * @return 更新後の投稿データ（本文を含む）と新しいETagを含む HTTP レスポンス。該当IDが存在しない場合は404を返す。
+     *         同時に他のユーザーが更新した場合は409を返す
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Post> update(@PathVariable Long id, @Valid @RequestBody PostRequestDto updatedPost) {
-        // 指定IDの投稿を検索する
-        return postRepository.findById(id)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.POST_FIRST_PAGES, allEntries = true)
+    })
+    public ResponseEntity<PostDetailDto> update(@PathVariable Long id, @Valid @RequestBody PostRequestDto updatedPost,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // 指定IDの投稿のタイトルと本文を新しい値に更新する
+        return postWriteService.update(id, updatedPost, PostDetailDto.versionFromIfMatch(id, ifMatch))
                 .map(post -> {
-                    // タイトルと本文を新しい値に更新
-                    post.setTitle(updatedPost.title);
-                    post.setContent(updatedPost.content);
-
-                    // 更新された投稿を保存して返す
-                    Post savedPost = postRepository.save(post);
-                    return ResponseEntity.ok(savedPost);
+                    eventPublisher.publishEvent(PostChangedEvent.updated(post.toSummary()));
+                    return ResponseEntity.ok().eTag(post.etag()).body(post);
                 })
                 // 該当投稿が存在しなければ 404 を返す
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * 指定されたIDの投稿のタイトル・本文のうち、指定された項目だけを更新する（部分更新）
+     * 投稿を読み込まずに1回のUPDATE文で更新する。If-Match を指定しない場合、同時の更新は失敗せずに順に適用される
+     * ※更新した投稿のキャッシュと、一覧の1ページ目のキャッシュを破棄する
+     *
+     * @param id      更新対象の投稿ID
+     * @param request 更新内容（指定しない項目は変更しない）
+     * @param ifMatch 取得時のETag（指定した場合、その後に他のユーザーが更新していれば412を返す）
+     * @return 更新後の投稿（本文の代わりに抜粋を持つ）と新しいETagを含む HTTP レスポンス。該当IDが存在しない場合は404を返す
+     */
+    @PatchMapping("/{id}")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.POST_FIRST_PAGES, allEntries = true)
+    })
+    public ResponseEntity<PostSummaryDto> patch(@PathVariable Long id, @Valid @RequestBody PostPatchRequestDto request,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return postWriteService.patch(id, request, PostDetailDto.versionFromIfMatch(id, ifMatch))
+                .map((PostPatchResult result) -> {
+                    eventPublisher.publishEvent(PostChangedEvent.updated(result.post()));
+                    return ResponseEntity.ok().eTag(result.etag()).body(result.post());
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * 指定されたIDの投稿を削除する。
+     * ※削除した投稿のキャッシュと、一覧の1ページ目のキャッシュを破棄する
+     * ※投稿者の投稿数を1減らす
      * 
      * @param id 削除対象の投稿ID
      * @return 削除成功時は204 No Content、存在しない場合は404 Not Found を返す HTTP レスポンス
      *         ※削除成功時、「消えたから返すものがない」という意味で204 No Contentを返す(そのためステータス200ではない)
      */
     @DeleteMapping("/{id}")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.POSTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.POST_FIRST_PAGES, allEntries = true)
+    })
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        if (!postRepository.existsById(id)) {
+        // 投稿をID指定で削除（存在しない場合は何もしない）
+        if (!postWriteService.delete(id)) {
             return ResponseEntity.notFound().build();
         }
-
-        // 投稿をID指定で削除
-        postRepository.deleteById(id);
+        eventPublisher.publishEvent(PostChangedEvent.deleted(id));
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * 複数の投稿をまとめて作成する
+     * すべての投稿を検証した上で、1つのトランザクションの中でJDBCのバッチにより書き込む
+     * ※一覧の1ページ目のキャッシュを破棄する
+     *
+     * @param requests 作成する投稿のリスト
+     * @return 作成した投稿のリストを含む HTTP レスポンス（ステータスコード 200）。
+     *         不正なデータが含まれていた場合は何も作成せず、エラー内容のリストを返す（ステータスコード 400）
+     */
+    @PostMapping("/batch")
+    @CacheEvict(cacheNames = CacheConfig.POST_FIRST_PAGES, allEntries = true)
+    public ResponseEntity<List<PostSummaryDto>> createBatch(@RequestBody List<PostRequestDto> requests) {
+        List<PostSummaryDto> created = postWriteService.createAll(requests);
+        created.forEach(post -> eventPublisher.publishEvent(PostChangedEvent.created(post)));
+        return ResponseEntity.ok(created);
+    }
+
+    /**
+     * 複数の投稿のタイトル・本文をまとめて更新する
+     * ※投稿のキャッシュと一覧の1ページ目のキャッシュを破棄する
+     *
+     * @param requests 更新内容のリスト
+     * @return 更新後の投稿のリストを含む HTTP レスポンス（ステータスコード 200）。
+     *         不正なデータや存在しない投稿が含まれていた場合は何も更新せず、エラー内容のリストを返す（ステータスコード 400）
+     */
+    @PutMapping("/batch")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.POSTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.POST_FIRST_PAGES, allEntries = true)
+    })
+    public ResponseEntity<List<PostSummaryDto>> updateBatch(@RequestBody List<PostBatchUpdateRequestDto> requests) {
+        List<PostSummaryDto> updated = postWriteService.updateAll(requests);
+        updated.forEach(post -> eventPublisher.publishEvent(PostChangedEvent.updated(post)));
+        return ResponseEntity.ok(updated);
+    }
+
+    /**
+     * 複数の投稿をまとめて削除する（1回のUPDATE文で論理削除する）
+     * ※投稿のキャッシュと一覧の1ページ目のキャッシュを破棄する
+     *
+     * @param ids 削除対象の投稿IDのリスト
+     * @return 削除した件数を含む HTTP レスポンス（ステータスコード 200）
+     */
+    @DeleteMapping("/batch")
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.POSTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.POST_FIRST_PAGES, allEntries = true)
+    })
+    public ResponseEntity<BatchDeleteResponseDto> deleteBatch(@RequestBody List<Long> ids) {
+        int deletedCount = postWriteService.deleteAll(ids);
+        // 削除済み・存在しない投稿のIDも含まれるが、クライアントは一覧にない投稿の削除通知を無視できる
+        ids.forEach(id -> eventPublisher.publishEvent(PostChangedEvent.deleted(id)));
+        return ResponseEntity.ok(new BatchDeleteResponseDto(deletedCount));
+    }
+
+    /**
+     * 指定された1ページあたりの件数を、1～上限の範囲に収める
+     *
+     * @param size 指定された1ページあたりの件数
+     * @return 1ページあたりの件数
+     */
+    static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * 本文を返すレスポンスを生成する
+     * 利用者のブラウザに保存はさせるが、使用する前に毎回変更の有無を問い合わせさせる（Cache-Control: no-cache）
+     * ※ETag・Last-Modified は WebRequest#checkNotModified によりレスポンスに設定済みである
+     * ※Acceptヘッダーにより形式が変わるため、キャッシュがAcceptヘッダーごとに保存されるようにする（Vary: Accept）
+     */
+    private static <T> ResponseEntity<T> revalidated(T body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+
+    /**
+     * 前回から変更がないことを表すレスポンス（ステータスコード 304、本文なし）を生成する
+     */
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT).build();
+    }
 }
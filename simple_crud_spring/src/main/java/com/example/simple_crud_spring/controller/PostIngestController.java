@@ -0,0 +1,66 @@
+package com.example.simple_crud_spring.controller;
+
+import com.example.simple_crud_spring.dto.PostIngestStatusDto;
+import com.example.simple_crud_spring.dto.PostRequestDto;
+import com.example.simple_crud_spring.ingest.PostIngestService;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+/**
+ * 投稿を非同期に作成するAPIを提供するコントローラ（app.posts.ingest.enabled=true の場合のみ有効）
+ * POST /api/posts の Prefer ヘッダーに respond-async を含めた場合（Prefer: respond-async, wait=5 なども可）、投稿をログに記録した時点で202を返し、
+ * DBへの書き込みは後からまとめて行う（ヘッダーを指定しない場合は、これまでどおり {@link PostController} で同期的に作成する）
+ */
+@RestController
+@RequestMapping("/api/posts")
+@ConditionalOnProperty(name = "app.posts.ingest.enabled", havingValue = "true")
+public class PostIngestController {
+
+    /** 非同期の処理を希望するリクエストの Prefer ヘッダーの値 */
+    static final String RESPOND_ASYNC = "respond-async";
+
+    private final PostIngestService postIngestService;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param postIngestService 投稿を非同期に作成するサービス
+     */
+    public PostIngestController(PostIngestService postIngestService) {
+        this.postIngestService = postIngestService;
+    }
+
+    /**
+     * 投稿を受け付ける（DBへの書き込みは後から行う）
+     *
+     * @param dto クライアントから送信された投稿データ
+     * @return 追跡IDを含む HTTP レスポンス（ステータスコード 202）。Location ヘッダーに作成の状況を問い合わせるURLを設定する。
+     *         不正なデータの場合はエラー内容のリストを返す（ステータスコード 400）
+     */
+    @PostMapping
+    @RequirePreference(RESPOND_ASYNC)
+    public ResponseEntity<PostIngestStatusDto> createAsync(@RequestBody PostRequestDto dto) {
+        PostIngestStatusDto status = postIngestService.accept(dto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/posts/ingest/" + status.trackingId()))
+                .header("Preference-Applied", RESPOND_ASYNC)
+                .body(status);
+    }
+
+    /**
+     * 受け付けた投稿の作成の状況を取得する
+     *
+     * @param trackingId 受け付け時に返された追跡ID
+     * @return 作成の状況を含む HTTP レスポンス（ステータスコード 200）。追跡IDが見つからない場合は404
+     */
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<PostIngestStatusDto> getStatus(@PathVariable String trackingId) {
+        return postIngestService.status(trackingId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.simple_crud_spring.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Prefer ヘッダー（RFC 7240）に、指定した処理の希望が含まれるリクエストに一致する条件
+ * Prefer ヘッダーはカンマ区切りで複数の希望を指定でき（ヘッダーを複数回指定してもよい）、
+ * 各希望には値（wait=5）やパラメーター（; foo=bar）が付くため、希望の名前だけを取り出して比較する。
+ * ※条件を持つメソッドは、同じURL・HTTPメソッドの条件を持たないメソッドより優先される
+ */
+public final class PreferenceRequestCondition implements RequestCondition<PreferenceRequestCondition> {
+
+    /** 処理の希望を指定するヘッダーの名前 */
+    static final String PREFER = "Prefer";
+
+    private final String preference;
+
+    /**
+     * 条件を生成する
+     *
+     * @param preference 一致させる処理の希望の名前（大文字・小文字は区別しない）
+     */
+    public PreferenceRequestCondition(String preference) {
+        this.preference = preference.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * クラスとメソッドの条件を組み合わせる（メソッドにだけ付けるため、メソッドの条件を使う）
+     */
+    @Override
+    public PreferenceRequestCondition combine(PreferenceRequestCondition other) {
+        return other;
+    }
+
+    /**
+     * リクエストの Prefer ヘッダーに処理の希望が含まれていれば、この条件を返す
+     * ※CORSのプリフライトリクエストには Prefer ヘッダーが付かないため、常に一致させる
+     *
+     * @return 一致した場合はこの条件、一致しない場合は null
+     */
+    @Override
+    public PreferenceRequestCondition getMatchingCondition(HttpServletRequest request) {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return this;
+        }
+        for (String header : Collections.list(request.getHeaders(PREFER))) {
+            if (preferences(header).contains(preference)) {
+                return this;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int compareTo(PreferenceRequestCondition other, HttpServletRequest request) {
+        return 0;
+    }
+
+    /**
+     * Prefer ヘッダーの値から、処理の希望の名前を取り出す
+     *
+     * @param header Prefer ヘッダーの値（例: "respond-async, wait=5"）
+     * @return 小文字にそろえた希望の名前（例: respond-async, wait）
+     */
+    static Set<String> preferences(String header) {
+        return Arrays.stream(header.split(","))
+                // 名前の後ろの値（=5）とパラメーター（; foo=bar）を取り除く
+                .map(preference -> preference.split("[=;]", 2)[0].trim().toLowerCase(Locale.ROOT))
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public String toString() {
+        return "[" + PREFER + ": " + preference + "]";
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.simple_crud_spring.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Prefer ヘッダー（RFC 7240）に、指定した処理の希望が含まれるリクエストだけを処理するメソッドに付ける
+ * （@RequestMapping の headers 属性はヘッダーの値全体と比較するため、"respond-async, wait=5" のように
+ * 複数の希望を指定したリクエストには一致しない。{@link PreferenceRequestCondition} で希望ごとに分けて判定する）
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequirePreference {
+
+    /**
+     * 処理の希望の名前（例: respond-async）
+     *
+     * @return 大文字・小文字を区別せずに比較する名前
+     */
+    String value();
+}
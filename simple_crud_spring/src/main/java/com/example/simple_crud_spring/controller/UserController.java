@@ -1,23 +1,39 @@
 package com.example.simple_crud_spring.controller;
 
+import com.example.simple_crud_spring.auth.TokenPrincipal;
+import com.example.simple_crud_spring.config.CacheConfig;
+import com.example.simple_crud_spring.dto.PostCursor;
+import com.example.simple_crud_spring.dto.PostPageResponseDto;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.dto.UserProfileDto;
 import com.example.simple_crud_spring.dto.UserResponseDto;
+import com.example.simple_crud_spring.exception.DuplicateEmailException;
 import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
 import com.example.simple_crud_spring.repository.UserRepository;
+import com.example.simple_crud_spring.service.EmailExistenceFilter;
 
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * ユーザー関連の操作を提供するRESTコントローラ
  * 下記の機能を持つ
  * ・新規ユーザー登録
  * ・ログイン中のユーザー情報取得
+ * ・ユーザーのプロフィール（投稿数を含む）取得
+ * ・ユーザーごとの投稿一覧取得
  * ※ログイン機能はSpring Security の機能（/login）に任せるので特別なコードは不要
  */
 @RestController
@@ -25,33 +41,51 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final PostRepository postRepository;
     private final PasswordEncoder passwordEncoder;
+    private final EmailExistenceFilter emailExistenceFilter;
 
     @Autowired
-    public UserController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserController(UserRepository userRepository, PostRepository postRepository,
+            PasswordEncoder passwordEncoder, EmailExistenceFilter emailExistenceFilter) {
         this.userRepository = userRepository;
+        this.postRepository = postRepository;
         this.passwordEncoder = passwordEncoder;
+        this.emailExistenceFilter = emailExistenceFilter;
     }
 
     /**
      * 新しいユーザーを登録する。
      * すでに登録されたメールアドレスが存在する場合は登録を拒否する。
+     * ※重複の判定は users.email の一意制約で行う（同時に同じアドレスで登録された場合も、1件だけが登録される）
+     * ※登録済みのアドレスのフィルタで「登録されているかもしれない」と判定した場合のみ、
+     *   パスワードのハッシュ化（時間がかかる）の前にDBで確認し、重複していればすぐに拒否する
+     * ※登録したメールアドレスのキャッシュを破棄する（ログイン時に古い情報が使われないようにするため）
      *
      * @param user 登録対象のユーザー情報（バリデーション付き）
      * @return 登録されたユーザーのIDとメールアドレスを含むレスポンス（ステータスコード200）
-     * @throws IllegalArgumentException メールアドレスが既に登録されている場合
+     * @throws DuplicateEmailException メールアドレスが既に登録されている場合（ステータスコード409）
      */
     @PostMapping("/register")
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#user.email")
     public ResponseEntity<UserResponseDto> register(@Valid @RequestBody User user) {
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new IllegalArgumentException("このメールアドレスは既に使われています");
+        String email = user.getEmail();
+        if (emailExistenceFilter.mightExist(email) && userRepository.existsByEmail(email)) {
+            throw new DuplicateEmailException();
         }
 
         // パスワードをハッシュ化する
         user.setPassword(passwordEncoder.encode(user.getPassword())); // パスワードをハッシュ化
 
-        // 保存を実行する
-        User savedUser = userRepository.save(user);
+        // 保存を実行する（事前の確認の後に同じアドレスで登録された場合は、一意制約の違反になる）
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException ex) {
+            emailExistenceFilter.add(email);
+            throw new DuplicateEmailException(ex);
+        }
+        emailExistenceFilter.add(email);
         UserResponseDto userResponse = new UserResponseDto(savedUser.getId(), savedUser.getEmail(),
                 savedUser.getUserName());
 
@@ -72,6 +106,11 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
+        // トークン認証の場合は、トークンに含まれるユーザー情報をそのまま返す（DBにはアクセスしない）
+        if (authentication.getPrincipal() instanceof TokenPrincipal principal) {
+            return ResponseEntity.ok(new UserResponseDto(principal.id(), principal.email(), principal.userName()));
+        }
+
         // 認証されている場合は、認証情報からログインユーザー（Userオブジェクト）を取得する
         User user = (User) authentication.getPrincipal();
 
@@ -80,4 +119,50 @@ public class UserController {
         UserResponseDto response = new UserResponseDto(user.getId(), user.getEmail(), user.getUserName());
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * 指定されたIDのユーザーのプロフィールを取得する
+     * ※投稿数は users テーブルに保持している値を返すため、投稿の件数を数えるクエリは発行しない
+     *
+     * @param id 取得対象のユーザーID
+     * @return ユーザー名と投稿数を含むレスポンス（ステータスコード200）。該当するユーザーが存在しなければ404
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<UserProfileDto> getProfile(@PathVariable Long id) {
+        return userRepository.findProfileById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 指定されたユーザーの投稿を新しい順に1ページ分取得する（キーセットページング）
+     * 次のページを取得する場合は、レスポンスの nextCursor を cursor に指定して再度呼び出す
+     *
+     * @param id     投稿者のユーザーID
+     * @param cursor 前ページのレスポンスで返されたカーソル（1ページ目の場合は指定しない）
+     * @param size   1ページあたりの件数（1～100、既定値20）
+     * @return 投稿のリストと次ページのカーソルを含むレスポンス（ステータスコード200）。該当するユーザーが存在しなければ404
+     */
+    @GetMapping("/{id}/posts")
+    public ResponseEntity<PostPageResponseDto> getPosts(@PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PostController.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = PostController.pageSize(size);
+
+        // 次ページの有無を判定するため、1件多く取得する
+        Limit limit = Limit.of(pageSize + 1);
+        List<PostSummaryDto> posts;
+        if (cursor == null || cursor.isEmpty()) {
+            posts = postRepository.findLatestByUserId(id, limit);
+        } else {
+            PostCursor after = PostCursor.decode(cursor);
+            posts = postRepository.findOlderThanByUserId(id, after.createdAt(), after.id(), limit);
+        }
+
+        // 投稿が1件もない場合のみ、ユーザー自体が存在するかを確認する
+        if (posts.isEmpty() && !userRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(PostPageResponseDto.of(posts, pageSize));
+    }
 }
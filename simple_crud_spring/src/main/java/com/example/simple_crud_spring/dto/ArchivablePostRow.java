@@ -0,0 +1,14 @@
+package com.example.simple_crud_spring.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * アーカイブ対象の投稿（ネイティブクエリの結果1行）を受け取るプロジェクション
+ * ※論理削除された投稿は @SQLRestriction によりJPQLでは取得できないため、ネイティブクエリで取得する
+ */
+public interface ArchivablePostRow {
+
+    Long getId();
+
+    LocalDateTime getDeletedAt();
+}
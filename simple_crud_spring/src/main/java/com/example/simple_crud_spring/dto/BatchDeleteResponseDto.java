@@ -0,0 +1,9 @@
+package com.example.simple_crud_spring.dto;
+
+/**
+ * 一括削除の結果を表すレスポンスDTO
+ *
+ * @param deletedCount 削除した件数（既に削除されていた・存在しなかったものは含まない）
+ */
+public record BatchDeleteResponseDto(int deletedCount) {
+}
@@ -0,0 +1,11 @@
+package com.example.simple_crud_spring.dto;
+
+/**
+ * 投稿のレスポンスに含める投稿者の情報
+ * パスワードやメールアドレスなど、投稿の表示に不要なユーザー情報は含めない
+ *
+ * @param id       ユーザーID
+ * @param userName ユーザー名（表示名）
+ */
+public record PostAuthorDto(Long id, String userName) {
+}
@@ -0,0 +1,16 @@
+package com.example.simple_crud_spring.dto;
+
+/**
+ * 投稿の一括更新時にクライアントから送られてくる、1件分の更新内容を受け取るDTO
+ * ※PostRequestDto と同様、Entity に値を格納した後にバリデーションを行うため、ここではバリデーションを設定しない
+ */
+public class PostBatchUpdateRequestDto {
+    /** 更新対象の投稿ID */
+    public Long id;
+
+    /** 投稿のタイトル */
+    public String title;
+
+    /** 投稿の本文 */
+    public String content;
+}
@@ -0,0 +1,39 @@
+package com.example.simple_crud_spring.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 投稿全体の版（投稿が変更された回数と、最後に変更された日時）
+ * 投稿が作成・更新・削除されるたびに回数が増えるため、一覧のレスポンスが変わったかどうかの判定に使用する
+ * ※post_collection_versions テーブルの1行を主キーで読むだけで求められるため、投稿の件数に関わらず低コストで判定できる
+ *
+ * @param version       投稿が変更された回数
+ * @param lastUpdatedAt 最後に投稿が変更された日時（まだ1回も変更されていない場合はnull）
+ */
+public record PostCollectionVersion(long version, LocalDateTime lastUpdatedAt) {
+
+    /** まだ1回も投稿が変更されていない状態の版 */
+    public static final PostCollectionVersion INITIAL = new PostCollectionVersion(0, null);
+
+    /**
+     * 版を表すETagを返す
+     * ※同じ版でもJSON・CBORなどの形式や圧縮の有無によりレスポンスのバイト列は異なるため、弱いETag（W/）とする
+     * （強いETagを返すと、Tomcatはレスポンスを圧縮しない）
+     * ※DBを作り直して回数が0から数え直された場合も以前のETagと一致しないよう、変更日時も含める
+     *
+     * @return ETag（例: W/"posts-120-1718000000000000"）
+     */
+    public String etag() {
+        return "W/\"posts-" + version + "-" + PostSummaryDto.toEpochMicros(lastUpdatedAt) + "\"";
+    }
+
+    /**
+     * Last-Modified ヘッダーに設定する日時を返す
+     *
+     * @return 最後に投稿が変更された日時（エポックミリ秒）。まだ1回も変更されていない場合は-1
+     */
+    public long lastModified() {
+        return lastUpdatedAt == null ? -1 : lastUpdatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
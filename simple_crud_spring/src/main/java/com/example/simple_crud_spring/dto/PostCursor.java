@@ -0,0 +1,48 @@
+package com.example.simple_crud_spring.dto;
+
+import com.example.simple_crud_spring.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 投稿一覧のキーセットページングで使用するカーソル
+ * 前ページ最後の投稿の作成日時とIDを保持し、クライアントには不透明な文字列（Base64URL）として渡す
+ *
+ * @param createdAt 前ページ最後の投稿の作成日時
+ * @param id        前ページ最後の投稿のID
+ */
+public record PostCursor(LocalDateTime createdAt, Long id) {
+
+    /** 作成日時とIDの区切り文字 */
+    private static final String SEPARATOR = "_";
+
+    /**
+     * カーソルをクライアントに返す文字列に変換する
+     *
+     * @return Base64URLでエンコードされたカーソル文字列
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * クライアントから受け取ったカーソル文字列を復元する
+     *
+     * @param cursor {@link #encode()} で生成されたカーソル文字列
+     * @return 復元したカーソル
+     * @throws InvalidRequestException カーソルの形式が不正な場合（ステータスコード400）
+     */
+    public static PostCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            return new PostCursor(LocalDateTime.parse(raw.substring(0, index)), Long.valueOf(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new InvalidRequestException("cursor", "カーソルの形式が正しくありません");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.simple_crud_spring.dto;
+
+import com.example.simple_crud_spring.exception.PreconditionFailedException;
+import com.example.simple_crud_spring.model.Post;
+
+import org.springframework.http.ETag;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * 投稿の詳細のレスポンス（本文を含む）
+ * ID指定の取得と、投稿の作成・更新の結果で返す。一覧では本文を含まない {@link PostSummaryDto} を返す
+ *
+ * @param id        投稿ID
+ * @param title     タイトル
+ * @param content   本文
+ * @param user      投稿者
+ * @param createdAt 作成日時
+ * @param updatedAt 更新日時
+ * @param version   版（更新のたびに1増える。ETagに使用する）
+ */
+public record PostDetailDto(Long id, String title, String content, PostAuthorDto user,
+        LocalDateTime createdAt, LocalDateTime updatedAt, long version) {
+
+    /**
+     * JPQLのコンストラクタ式から呼び出すためのコンストラクタ
+     * （コンストラクタ式ではネストしたオブジェクトを直接生成できないため、投稿者の項目を個別に受け取る）
+     *
+     * @param id        投稿ID
+     * @param title     タイトル
+     * @param content   本文
+     * @param userId    投稿者のユーザーID
+     * @param userName  投稿者のユーザー名
+     * @param createdAt 作成日時
+     * @param updatedAt 更新日時
+     * @param version   版
+     */
+    public PostDetailDto(Long id, String title, String content, Long userId, String userName,
+            LocalDateTime createdAt, LocalDateTime updatedAt, long version) {
+        this(id, title, content, new PostAuthorDto(userId, userName), createdAt, updatedAt, version);
+    }
+
+    /**
+     * 投稿エンティティからレスポンスを生成する
+     *
+     * @param post 変換元の投稿エンティティ
+     * @return 投稿の詳細のレスポンス
+     */
+    public static PostDetailDto from(Post post) {
+        return new PostDetailDto(post.getId(), post.getTitle(), post.getContent(),
+                post.getUser().getId(), post.getUser().getUserName(),
+                post.getCreatedAt(), post.getUpdatedAt(), post.getVersion());
+    }
+
+    /**
+     * 一覧と同じ形式（本文の代わりに抜粋を持つ）のレスポンスに変換する
+     * ※投稿の変更の通知（/api/posts/stream）は一覧の更新に使用するため、この形式で送信する
+     *
+     * @return 投稿一覧の1件分のレスポンス
+     */
+    public PostSummaryDto toSummary() {
+        return new PostSummaryDto(id, title, Post.excerptOf(content), user, createdAt, updatedAt);
+    }
+
+    /**
+     * 投稿の版を表すETagを返す
+     * 投稿IDと版から生成するため、投稿が更新されると値が変わる。
+     * 更新時に If-Match に指定すると、取得した時点から他のリクエストに更新されていない場合のみ更新される
+     * ※形式や圧縮の有無によらず同じ値とするため、弱いETag（W/）とする（{@link PostCollectionVersion#etag()} を参照）
+     *
+     * @return ETag（例: W/"post-1-3"）
+     */
+    public String etag() {
+        return etag(id, version);
+    }
+
+    /**
+     * 投稿IDと版から、投稿のETagを生成する
+     *
+     * @param id      投稿ID
+     * @param version 版
+     * @return ETag（例: W/"post-1-3"）
+     */
+    public static String etag(Long id, long version) {
+        return "W/\"post-" + id + "-" + version + "\"";
+    }
+
+    /**
+     * If-Match ヘッダーの値から、更新の条件とする版を取り出す
+     * カンマ区切りで複数のETagが指定された場合は、この投稿のETagのうち最新の版を条件とする
+     * （実際の版がそれより古い指定と一致していても412になるが、他のリクエストの更新を上書きすることはない）
+     * ※RFC 9110 では If-Match は強い比較を行う（弱いETagは一致しない）と定めているが、このアプリでは意図的に異なる扱いとする。
+     * このETagは投稿IDと版だけから生成し、版が同じであれば投稿の内容も同じである。W/ を付けているのは
+     * 形式（JSON・CBOR など）や圧縮によってバイト列が異なるためで、内容の同一性は強いETagと変わらないため、
+     * 弱いETagも強いETagと同じく版の比較に使用する
+     *
+     * @param id      更新対象の投稿ID
+     * @param ifMatch If-Match ヘッダーの値（指定されていない場合はnull）
+     * @return 更新の条件とする版。If-Match が指定されていない、または * を含む場合はnull（版を確認しない）
+     * @throws PreconditionFailedException この投稿のETagが含まれていない場合（412）
+     */
+    public static Long versionFromIfMatch(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        List<ETag> tags = ETag.parse(ifMatch);
+        if (tags.stream().anyMatch(ETag::isWildcard)) {
+            return null;
+        }
+        String prefix = "post-" + id + "-";
+        Long version = null;
+        for (ETag tag : tags) {
+            if (!tag.tag().startsWith(prefix)) {
+                continue;
+            }
+            try {
+                long candidate = Long.parseLong(tag.tag().substring(prefix.length()));
+                version = version == null ? candidate : Math.max(version, candidate);
+            } catch (NumberFormatException ex) {
+                // 形式が不正な場合は、一致しないETagとして扱う
+            }
+        }
+        if (version == null) {
+            throw new PreconditionFailedException("指定されたETagはこの投稿のものではありません");
+        }
+        return version;
+    }
+
+    /**
+     * Last-Modified ヘッダーに設定する日時を返す
+     *
+     * @return 更新日時（エポックミリ秒）。更新日時がない場合は-1
+     */
+    public long lastModified() {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.simple_crud_spring.dto;
+
+/**
+ * 非同期作成のために受け付けた投稿の、作成の状況のレスポンス
+ *
+ * @param trackingId 追跡ID
+ * @param status     作成の状況
+ * @param postId     作成した投稿のID（作成済みの場合のみ）
+ */
+public record PostIngestStatusDto(String trackingId, Status status, Long postId) {
+
+    /**
+     * 作成の状況
+     */
+    public enum Status {
+        /** 受け付け済み（まだDBに書き込まれていない） */
+        PENDING,
+        /** 作成済み */
+        CREATED,
+        /** 作成できなかった（受け付けた後に投稿者が削除された場合など） */
+        REJECTED
+    }
+
+    /**
+     * 受け付け済みであることを表すレスポンスを生成する
+     *
+     * @param trackingId 追跡ID
+     * @return 作成の状況のレスポンス
+     */
+    public static PostIngestStatusDto pending(String trackingId) {
+        return new PostIngestStatusDto(trackingId, Status.PENDING, null);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.simple_crud_spring.dto;
+
+import java.util.List;
+
+/**
+ * 投稿一覧の1ページ分のレスポンス
+ *
+ * @param items      このページに含まれる投稿のリスト
+ * @param nextCursor 次のページを取得するためのカーソル（最後のページの場合はnull）
+ */
+public record PostPageResponseDto(List<PostSummaryDto> items, String nextCursor) {
+
+    /**
+     * 1ページの件数より1件多く取得した投稿から、1ページ分のレスポンスを生成する
+     * 余分な1件があれば次のページが存在するため、このページ最後の投稿を次ページのカーソルとする
+     *
+     * @param posts    新しい順に並んだ投稿のリスト（最大で pageSize + 1 件）
+     * @param pageSize 1ページあたりの件数
+     * @return 1ページ分のレスポンス
+     */
+    public static PostPageResponseDto of(List<PostSummaryDto> posts, int pageSize) {
+        if (posts.size() <= pageSize) {
+            return new PostPageResponseDto(posts, null);
+        }
+        List<PostSummaryDto> page = posts.subList(0, pageSize);
+        PostSummaryDto last = page.get(pageSize - 1);
+        return new PostPageResponseDto(page, new PostCursor(last.createdAt(), last.id()).encode());
+    }
+}
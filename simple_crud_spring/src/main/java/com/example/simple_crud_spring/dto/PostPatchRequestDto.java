@@ -0,0 +1,20 @@
+package com.example.simple_crud_spring.dto;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * 投稿の部分更新（PATCH）時にクライアントから送られてくるデータを受け取るDTO
+ * 指定された項目だけを更新し、null（指定なし）の項目は変更しない
+ * ※エンティティを読み込まずに更新するため、PostRequestDto と異なりここでバリデーションを行う
+ * （値がnullの場合、各アノテーションの検証は行われない）
+ */
+public class PostPatchRequestDto {
+    /** 投稿のタイトル（変更しない場合はnull） */
+    @Pattern(regexp = "(?s).*\\S.*", message = "タイトルの長さを0文字にはできません")
+    @Size(max = 255, message = "タイトルは255文字以内で入力してください")
+    public String title;
+
+    /** 投稿の本文（変更しない場合はnull） */
+    public String content;
+}
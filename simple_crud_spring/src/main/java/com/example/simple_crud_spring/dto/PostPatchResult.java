@@ -0,0 +1,19 @@
+package com.example.simple_crud_spring.dto;
+
+/**
+ * 投稿の部分更新の結果
+ *
+ * @param post    更新後の投稿（本文の代わりに抜粋を持つ）
+ * @param version 更新後の版
+ */
+public record PostPatchResult(PostSummaryDto post, long version) {
+
+    /**
+     * 更新後の投稿のETagを返す（{@link PostDetailDto#etag()} と同じ値になる）
+     *
+     * @return ETag
+     */
+    public String etag() {
+        return PostDetailDto.etag(post.id(), version);
+    }
+}
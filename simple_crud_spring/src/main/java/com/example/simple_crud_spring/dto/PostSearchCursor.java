@@ -0,0 +1,48 @@
+package com.example.simple_crud_spring.dto;
+
+import com.example.simple_crud_spring.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 全文検索結果のキーセットページングで使用するカーソル
+ * 前ページ最後の投稿の関連度とIDを保持し、クライアントには不透明な文字列（Base64URL）として渡す
+ *
+ * @param score 前ページ最後の投稿の関連度
+ * @param id    前ページ最後の投稿のID
+ */
+public record PostSearchCursor(double score, Long id) {
+
+    /** 関連度とIDの区切り文字 */
+    private static final String SEPARATOR = "_";
+
+    /**
+     * カーソルをクライアントに返す文字列に変換する
+     * ※関連度はDBが返した値と完全に一致させる必要があるため、丸めずに16進数表記で保持する
+     *
+     * @return Base64URLでエンコードされたカーソル文字列
+     */
+    public String encode() {
+        String raw = Double.toHexString(score) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * クライアントから受け取ったカーソル文字列を復元する
+     *
+     * @param cursor {@link #encode()} で生成されたカーソル文字列
+     * @return 復元したカーソル
+     * @throws InvalidRequestException カーソルの形式が不正な場合（ステータスコード400）
+     */
+    public static PostSearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            return new PostSearchCursor(Double.parseDouble(raw.substring(0, index)),
+                    Long.valueOf(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new InvalidRequestException("cursor", "カーソルの形式が正しくありません");
+        }
+    }
+}
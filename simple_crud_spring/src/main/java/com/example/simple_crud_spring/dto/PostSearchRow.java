@@ -0,0 +1,38 @@
+package com.example.simple_crud_spring.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 全文検索（ネイティブクエリ）の結果1行を受け取るプロジェクション
+ * ネイティブクエリではJPQLのコンストラクタ式が使えないため、列の別名と同じ名前のゲッターで値を受け取る
+ */
+public interface PostSearchRow {
+
+    Long getId();
+
+    String getTitle();
+
+    /** 本文の抜粋（検索結果の一覧では本文を読まない） */
+    String getExcerpt();
+
+    Long getUserId();
+
+    String getUserName();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    /** 検索語との関連度（大きいほど関連が強い） */
+    Double getScore();
+
+    /**
+     * 投稿のレスポンスに変換する
+     *
+     * @return 投稿のレスポンス
+     */
+    default PostSummaryDto toSummary() {
+        return new PostSummaryDto(getId(), getTitle(), getExcerpt(), getUserId(), getUserName(),
+                getCreatedAt(), getUpdatedAt());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.simple_crud_spring.dto;
+
+import com.example.simple_crud_spring.model.Post;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 投稿一覧の1件分のレスポンス
+ * エンティティをそのまま返すと投稿者のパスワードなども含まれてしまうため、表示に必要な項目だけを持つ
+ * ※投稿一覧では投稿と投稿者を結合した1回のクエリで直接このDTOを生成する（投稿者ごとの追加クエリを発生させない）
+ * ※本文（TEXT型）は読まずに抜粋だけを返す。本文は投稿の詳細（{@link PostDetailDto}）で返す
+ *
+ * @param id        投稿ID
+ * @param title     タイトル
+ * @param excerpt   本文の抜粋（先頭 {@link Post#EXCERPT_LENGTH} 文字）
+ * @param user      投稿者
+ * @param createdAt 作成日時
+ * @param updatedAt 更新日時
+ */
+public record PostSummaryDto(Long id, String title, String excerpt, PostAuthorDto user,
+        LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    /**
+     * JPQLのコンストラクタ式から呼び出すためのコンストラクタ
+     * （コンストラクタ式ではネストしたオブジェクトを直接生成できないため、投稿者の項目を個別に受け取る）
+     *
+     * @param id        投稿ID
+     * @param title     タイトル
+     * @param excerpt   本文の抜粋
+     * @param userId    投稿者のユーザーID
+     * @param userName  投稿者のユーザー名
+     * @param createdAt 作成日時
+     * @param updatedAt 更新日時
+     */
+    public PostSummaryDto(Long id, String title, String excerpt, Long userId, String userName,
+            LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, title, excerpt, new PostAuthorDto(userId, userName), createdAt, updatedAt);
+    }
+
+    /**
+     * 投稿エンティティからレスポンスを生成する
+     *
+     * @param post 変換元の投稿エンティティ
+     * @return 投稿のレスポンス
+     */
+    public static PostSummaryDto from(Post post) {
+        return new PostSummaryDto(post.getId(), post.getTitle(), post.getExcerpt(),
+                post.getUser().getId(), post.getUser().getUserName(),
+                post.getCreatedAt(), post.getUpdatedAt());
+    }
+
+    /**
+     * 日時をエポックからのマイクロ秒に変換する（DBに保存される日時の精度に合わせる）
+     *
+     * @param dateTime 変換する日時
+     * @return エポックからのマイクロ秒。日時がnullの場合は0
+     */
+    static long toEpochMicros(LocalDateTime dateTime) {
+        return dateTime == null ? 0
+                : ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), dateTime);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.simple_crud_spring.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * トークンの更新・ログアウトのリクエスト
+ *
+ * @param refreshToken ログイン・前回の更新で発行されたリフレッシュトークン
+ */
+public record TokenRefreshRequestDto(@NotBlank(message = "リフレッシュトークンを指定してください") String refreshToken) {
+}
@@ -0,0 +1,12 @@
+package com.example.simple_crud_spring.dto;
+
+/**
+ * トークン認証でログイン・トークンの更新に成功した場合のレスポンス
+ *
+ * @param accessToken  APIの呼び出しで Authorization: Bearer ヘッダーに指定するアクセストークン
+ * @param refreshToken アクセストークンの期限が切れた場合に、新しいトークンの発行（/api/auth/refresh）に使用するトークン
+ * @param tokenType    トークンの種類（常に "Bearer"）
+ * @param expiresIn    アクセストークンの有効期間（秒）
+ */
+public record TokenResponseDto(String accessToken, String refreshToken, String tokenType, long expiresIn) {
+}
@@ -0,0 +1,11 @@
+package com.example.simple_crud_spring.dto;
+
+/**
+ * ユーザーのプロフィール（公開情報）のレスポンス
+ *
+ * @param id        ユーザーID
+ * @param userName  ユーザー名
+ * @param postCount 投稿数（論理削除された投稿を除く）
+ */
+public record UserProfileDto(Long id, String userName, long postCount) {
+}
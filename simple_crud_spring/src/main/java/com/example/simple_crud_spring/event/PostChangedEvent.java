@@ -0,0 +1,52 @@
+package com.example.simple_crud_spring.event;
+
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+
+/**
+ * 投稿が作成・更新・削除されたことを通知するイベント
+ * 書き込みが完了した後に ApplicationEventPublisher で発行し、{@link PostEventHub} が購読中のクライアントへ配信する
+ * ※クライアントへはこのままJSONに変換して送信する
+ *
+ * @param type   変更の種類
+ * @param postId 変更された投稿のID
+ * @param post   変更後の投稿（削除の場合はnull）
+ */
+public record PostChangedEvent(Type type, Long postId, PostSummaryDto post) {
+
+    /**
+     * 変更の種類
+     */
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    /**
+     * 投稿が作成されたことを表すイベントを生成する
+     *
+     * @param post 作成された投稿
+     * @return イベント
+     */
+    public static PostChangedEvent created(PostSummaryDto post) {
+        return new PostChangedEvent(Type.CREATED, post.id(), post);
+    }
+
+    /**
+     * 投稿が更新されたことを表すイベントを生成する
+     *
+     * @param post 更新後の投稿
+     * @return イベント
+     */
+    public static PostChangedEvent updated(PostSummaryDto post) {
+        return new PostChangedEvent(Type.UPDATED, post.id(), post);
+    }
+
+    /**
+     * 投稿が削除されたことを表すイベントを生成する
+     *
+     * @param postId 削除された投稿のID
+     * @return イベント
+     */
+    public static PostChangedEvent deleted(Long postId) {
+        return new PostChangedEvent(Type.DELETED, postId, null);
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.simple_crud_spring.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 投稿の変更（{@link PostChangedEvent}）を、購読中のクライアントへServer-Sent Eventsで配信するクラス
+ *
+ * ・接続はサーブレットの非同期処理で保持するため、待機中の接続がスレッドを占有することはない。
+ * 送信は少数の配信用スレッドでまとめて行う。
+ * ・クライアントごとに上限付きの送信待ちキューを持つ。受信が追いつかず上限を超えた場合は溜まっているイベントを捨て、
+ * 代わりに resync イベントを送って一覧の再取得を促す（遅いクライアントのためにメモリを使い続けないようにする）。
+ * resync イベントを送信できないうちに再び上限を超えた場合は、購読を終了する。
+ * ・1回の送信が一定時間内に終わらない（クライアントが受信しない）場合は、購読を終了して送信中のスレッドに割り込む。
+ * 割り込んでも送信から戻らない場合に備え、戻るまでの間は配信用スレッドを1つ追加し、他のクライアントへの送信を止めない。
+ * ・直近のイベントを履歴として保持する。再接続時に Last-Event-ID を受け取った場合は、それ以降のイベントを再送する。
+ * 履歴に残っていないほど古い場合は resync イベントを送る。
+ * ・一定間隔でコメント行（ハートビート）を送信し、切断されたクライアントを検出する。
+ */
+@Component
+public class PostEventHub {
+
+    /** 投稿の変更を通知するイベントの名前 */
+    static final String EVENT_POST = "post";
+
+    /** 一覧の再取得を促すイベントの名前 */
+    static final String EVENT_RESYNC = "resync";
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Deque<StreamEvent> history = new ArrayDeque<>();
+    private final ThreadPoolExecutor dispatcher;
+    private final Supplier<SseEmitter> emitterFactory;
+    private final Counter droppedCounter;
+    private final Counter overflowCounter;
+    private final Counter stalledCounter;
+    private final int bufferSize;
+    private final int historySize;
+    private final long sendTimeoutNanos;
+
+    /**
+     * 最後に発行したイベントのID（履歴 history のロックを取得して更新する）
+     * ※アプリを再起動した場合に、再起動前と同じIDを発行しないよう、起動時刻をもとにした値から始める
+     */
+    private long lastEventId = System.currentTimeMillis() * 1000;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param meterRegistry     購読数・破棄したイベント数を記録するレジストリ
+     * @param timeoutMillis     1回の接続を維持する時間（ミリ秒。経過後はクライアントが再接続する）
+     * @param bufferSize        クライアントごとの送信待ちキューの上限
+     * @param historySize       再送用に保持するイベントの件数
+     * @param dispatcherThreads 送信に使用するスレッド数
+     * @param sendTimeoutMillis 1回の送信を待つ時間（ミリ秒。超えた場合は購読を終了する）
+     */
+    @Autowired
+    public PostEventHub(MeterRegistry meterRegistry,
+            @Value("${app.posts.stream.timeout-millis}") long timeoutMillis,
+            @Value("${app.posts.stream.buffer-size}") int bufferSize,
+            @Value("${app.posts.stream.history-size}") int historySize,
+            @Value("${app.posts.stream.dispatcher-threads}") int dispatcherThreads,
+            @Value("${app.posts.stream.send-timeout-millis}") long sendTimeoutMillis) {
+        this(() -> new SseEmitter(timeoutMillis), meterRegistry, bufferSize, historySize, dispatcherThreads,
+                sendTimeoutMillis);
+    }
+
+    /**
+     * エミッターの生成処理を指定して生成する
+     *
+     * @param emitterFactory    購読ごとのエミッターを生成する処理
+     * @param meterRegistry     購読数・破棄したイベント数を記録するレジストリ
+     * @param bufferSize        クライアントごとの送信待ちキューの上限
+     * @param historySize       再送用に保持するイベントの件数
+     * @param dispatcherThreads 送信に使用するスレッド数
+     * @param sendTimeoutMillis 1回の送信を待つ時間（ミリ秒）
+     */
+    PostEventHub(Supplier<SseEmitter> emitterFactory, MeterRegistry meterRegistry, int bufferSize, int historySize,
+            int dispatcherThreads, long sendTimeoutMillis) {
+        this.emitterFactory = emitterFactory;
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatcherThreads, dispatcherThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "post-stream-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.droppedCounter = Counter.builder("app.posts.stream.dropped")
+                .description("Post change events dropped because a subscriber could not keep up")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("app.posts.stream.disconnected")
+                .description("Subscribers disconnected by the server")
+                .tag("reason", "overflow")
+                .register(meterRegistry);
+        this.stalledCounter = Counter.builder("app.posts.stream.disconnected")
+                .description("Subscribers disconnected by the server")
+                .tag("reason", "stalled")
+                .register(meterRegistry);
+        meterRegistry.gauge("app.posts.stream.subscribers", subscribers, Set::size);
+    }
+
+    /**
+     * 投稿の変更の購読を開始する
+     *
+     * @param lastEventId 再接続の場合、最後に受信したイベントのID（初回の接続の場合はnull）
+     * @return イベントを送信するエミッター
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = emitterFactory.get();
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        // 再送するイベントを積んでから購読を開始し、その間に発行されたイベントを取りこぼさないようにする
+        synchronized (history) {
+            if (lastEventId != null && lastEventId != this.lastEventId) {
+                StreamEvent oldest = history.peekFirst();
+                if (lastEventId > this.lastEventId || oldest == null || oldest.id() > lastEventId + 1
+                        || this.lastEventId - lastEventId > bufferSize) {
+                    // 再送すべきイベントが履歴に残っていない（またはアプリの再起動前のIDである）か、
+                    // 送信待ちキューに収まらないほど多い
+                    subscriber.requestResync();
+                } else {
+                    history.stream().filter(event -> event.id() > lastEventId).forEach(subscriber::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * 投稿の変更を購読中のすべてのクライアントへ配信する
+     * ※送信は配信用スレッドで行うため、イベントを発行したスレッド（リクエストの処理）を待たせない
+     *
+     * @param event 投稿の変更
+     */
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        StreamEvent streamEvent;
+        synchronized (history) {
+            streamEvent = new StreamEvent(++lastEventId, event);
+            history.addLast(streamEvent);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.offer(streamEvent)) {
+                schedule(subscriber);
+            } else {
+                // resync イベントも送信できないまま、再び上限を超えた（受信が止まっている）
+                disconnect(subscriber, overflowCounter);
+            }
+        }
+    }
+
+    /**
+     * 購読中のすべてのクライアントへハートビートを送信する
+     * ※送信に失敗したクライアント（切断済み）は購読を終了する
+     */
+    @Scheduled(fixedRateString = "${app.posts.stream.heartbeat-interval-millis}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestHeartbeat();
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * 送信が一定時間内に終わらないクライアントの購読を終了する
+     * ※送信中のスレッドには割り込み、送信から戻った時点でエミッターを完了する
+     * （エミッターの完了は送信と同じロックを取得するため、このスレッドでは行わない）
+     */
+    @Scheduled(fixedRateString = "${app.posts.stream.send-timeout-millis}")
+    public void disconnectStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.abortIfStalled(now)) {
+                subscribers.remove(subscriber);
+                stalledCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * アプリの終了時に、すべての購読を終了する
+     */
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * クライアントの購読を終了する（送信中の場合は、送信から戻った時点でエミッターを完了する）
+     */
+    private void disconnect(Subscriber subscriber, Counter reason) {
+        if (subscribers.remove(subscriber)) {
+            reason.increment();
+        }
+        subscriber.close();
+        schedule(subscriber);
+    }
+
+    /**
+     * 配信用スレッドの数を増減する（送信から戻らないスレッドの代わりを追加する場合に使用する）
+     */
+    private void resizeDispatcher(int delta) {
+        synchronized (dispatcher) {
+            int size = dispatcher.getMaximumPoolSize() + delta;
+            if (delta > 0) {
+                dispatcher.setMaximumPoolSize(size);
+                dispatcher.setCorePoolSize(size);
+            } else {
+                dispatcher.setCorePoolSize(size);
+                dispatcher.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    /**
+     * クライアントの送信待ちキューの送信を配信用スレッドに依頼する（既に送信中の場合は何もしない）
+     */
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * クライアントの送信待ちキューが空になるまで送信する
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            Object item;
+            while (!subscriber.isClosed() && (item = subscriber.poll()) != null) {
+                subscriber.beginSend();
+                try {
+                    subscriber.emitter.send(toSseEvent(item));
+                } finally {
+                    subscriber.endSend();
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            // 切断済み、完了済み、または送信が止まり割り込まれたクライアント
+            subscriber.close();
+        } finally {
+            subscriber.draining.set(false);
+        }
+
+        if (subscriber.isClosed()) {
+            subscribers.remove(subscriber);
+            subscriber.complete();
+            return;
+        }
+        // 送信の終了と入れ違いにキューに積まれたイベントを送信する
+        if (subscriber.hasPending()) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * 送信待ちキューの要素をSSEのイベントに変換する
+     */
+    private static SseEmitter.SseEventBuilder toSseEvent(Object item) {
+        if (item instanceof StreamEvent event) {
+            return SseEmitter.event()
+                    .id(String.valueOf(event.id()))
+                    .name(EVENT_POST)
+                    .data(event.payload(), MediaType.APPLICATION_JSON);
+        }
+        if (item == Subscriber.RESYNC) {
+            return SseEmitter.event().name(EVENT_RESYNC).data("");
+        }
+        return SseEmitter.event().comment("heartbeat");
+    }
+
+    /**
+     * 配信するイベント
+     *
+     * @param id      イベントのID（発行順の連番。クライアントが再接続時に Last-Event-ID として送信する）
+     * @param payload 投稿の変更
+     */
+    private record StreamEvent(long id, PostChangedEvent payload) {
+    }
+
+    /**
+     * 購読中のクライアント1件分の状態
+     */
+    private final class Subscriber {
+
+        /** 送信待ちキューに積む、一覧の再取得を促す印 */
+        static final Object RESYNC = new Object();
+
+        /** 送信待ちキューに積む、ハートビートの印 */
+        static final Object HEARTBEAT = new Object();
+
+        final SseEmitter emitter;
+
+        /** 送信中かどうか（同じクライアントへの送信が複数のスレッドで同時に行われないようにする） */
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        private final Deque<StreamEvent> queue = new ArrayDeque<>();
+        /** エミッターを完了したかどうか（完了を1回だけ行う） */
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private boolean resyncPending;
+        private boolean heartbeatPending;
+        private boolean closed;
+
+        /** 送信中のスレッド（送信中でなければnull）と、送信を開始した時刻 */
+        private Thread sender;
+        private long sendStartedNanos;
+
+        /** 送信から戻らないスレッドの代わりに、配信用スレッドを追加しているかどうか */
+        private boolean spareThreadAdded;
+
+        /** キューに積んだ最後のイベントのID（再送と配信で同じイベントを重複して積まないようにする） */
+        private long lastQueuedId;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * イベントを送信待ちキューに積む
+         * ※上限を超えた場合は溜まっているイベントを捨て、一覧の再取得を促す（再取得すれば捨てたイベントは不要になる）
+         *
+         * @return 再取得を促す印をまだ送信できていないうちに再び上限を超えた場合はfalse（購読を終了する）
+         */
+        synchronized boolean offer(StreamEvent event) {
+            if (event.id() <= lastQueuedId) {
+                return true;
+            }
+            lastQueuedId = event.id();
+            if (queue.size() >= bufferSize) {
+                droppedCounter.increment(queue.size());
+                queue.clear();
+                if (resyncPending) {
+                    return false;
+                }
+                resyncPending = true;
+            }
+            queue.addLast(event);
+            return true;
+        }
+
+        synchronized void requestResync() {
+            resyncPending = true;
+        }
+
+        synchronized void requestHeartbeat() {
+            heartbeatPending = true;
+        }
+
+        /**
+         * 次に送信する要素を取り出す（再取得の印 → イベント → ハートビートの順）
+         *
+         * @return 送信する要素。送信するものがなければnull
+         */
+        synchronized Object poll() {
+            if (resyncPending) {
+                resyncPending = false;
+                return RESYNC;
+            }
+            StreamEvent event = queue.pollFirst();
+            if (event != null) {
+                // イベントを送信する場合、ハートビートは不要
+                heartbeatPending = false;
+                return event;
+            }
+            if (heartbeatPending) {
+                heartbeatPending = false;
+                return HEARTBEAT;
+            }
+            return null;
+        }
+
+        synchronized boolean hasPending() {
+            return resyncPending || heartbeatPending || !queue.isEmpty();
+        }
+
+        synchronized void close() {
+            closed = true;
+            queue.clear();
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        synchronized void beginSend() {
+            sender = Thread.currentThread();
+            sendStartedNanos = System.nanoTime();
+        }
+
+        /**
+         * 送信の終了を記録する（割り込まれていた場合は、割り込みの状態と追加した配信用スレッドを元に戻す）
+         */
+        synchronized void endSend() {
+            sender = null;
+            if (spareThreadAdded) {
+                spareThreadAdded = false;
+                Thread.interrupted();
+                resizeDispatcher(-1);
+            }
+        }
+
+        /**
+         * 送信が一定時間内に終わっていない場合、購読を終了し、送信中のスレッドに割り込む
+         * ※送信中の場合だけ割り込むよう、endSend と同じロックの中で行う
+         *
+         * @param now 現在の時刻（System.nanoTime）
+         * @return 購読を終了した場合はtrue
+         */
+        synchronized boolean abortIfStalled(long now) {
+            if (sender == null || spareThreadAdded || now - sendStartedNanos < sendTimeoutNanos) {
+                return false;
+            }
+            closed = true;
+            queue.clear();
+            spareThreadAdded = true;
+            resizeDispatcher(1);
+            sender.interrupt();
+            return true;
+        }
+
+        /**
+         * エミッターを完了する（2回目以降は何もしない）
+         */
+        void complete() {
+            if (completed.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+    }
+}
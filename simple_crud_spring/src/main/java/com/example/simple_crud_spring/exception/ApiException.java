@@ -0,0 +1,48 @@
+package com.example.simple_crud_spring.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * クライアントの誤りなど、想定されたエラーを表す例外の基底クラス
+ * 例外ごとにレスポンスのステータスコードと、エラーの対象のフィールド名を持つ。
+ * ※想定されたエラーのため、スタックトレースを取得しない（生成時の負荷を抑え、エラーが集中しても処理が重くならないようにする）
+ */
+public abstract class ApiException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final String field;
+
+    /**
+     * 例外を生成する
+     *
+     * @param status  レスポンスのステータスコード
+     * @param field   エラーの対象のフィールド名（リクエスト全体の場合は "request"）
+     * @param message クライアントに返すエラーメッセージ
+     */
+    protected ApiException(HttpStatus status, String field, String message) {
+        this(status, field, message, null);
+    }
+
+    /**
+     * 原因となった例外を指定して例外を生成する
+     *
+     * @param status  レスポンスのステータスコード
+     * @param field   エラーの対象のフィールド名（リクエスト全体の場合は "request"）
+     * @param message クライアントに返すエラーメッセージ
+     * @param cause   原因となった例外
+     */
+    protected ApiException(HttpStatus status, String field, String message, Throwable cause) {
+        // スタックトレースを取得せず、抑制された例外も保持しない
+        super(message, cause, false, false);
+        this.status = status;
+        this.field = field;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.simple_crud_spring.exception;
+
+import com.example.simple_crud_spring.dto.ErrorResponseDto;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/**
+ * 一括処理のリクエストに不正な内容が含まれていた場合にスローされる例外
+ * 1件でも不正なデータがあれば全体を処理しないため、すべてのエラー内容をまとめて保持する（ステータスコード400）
+ */
+public class BatchValidationException extends ApiException {
+
+    private final List<ErrorResponseDto> errors;
+
+    /**
+     * エラー内容を指定して例外を生成する
+     *
+     * @param errors 各データのエラー内容（field には "[インデックス].フィールド名" を設定する）
+     */
+    public BatchValidationException(List<ErrorResponseDto> errors) {
+        super(HttpStatus.BAD_REQUEST, "request", "一括処理のリクエストに不正な内容が含まれています");
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<ErrorResponseDto> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.simple_crud_spring.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 新規登録時に、メールアドレスが既に登録されていた場合にスローされる例外（ステータスコード409）
+ */
+public class DuplicateEmailException extends ApiException {
+
+    private static final String MESSAGE = "このメールアドレスは既に使われています";
+
+    /**
+     * 例外を生成する
+     */
+    public DuplicateEmailException() {
+        super(HttpStatus.CONFLICT, "email", MESSAGE);
+    }
+
+    /**
+     * 一意制約の違反を原因として例外を生成する
+     *
+     * @param cause 一意制約の違反を表す例外
+     */
+    public DuplicateEmailException(Throwable cause) {
+        super(HttpStatus.CONFLICT, "email", MESSAGE, cause);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.simple_crud_spring.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * リクエストの内容が不正な場合にスローされる例外（ステータスコード400）
+ * ※リクエストボディのバリデーションは @Valid で行い、それ以外（パラメータの形式など）の確認で使用する
+ */
+public class InvalidRequestException extends ApiException {
+
+    /**
+     * 例外を生成する
+     *
+     * @param field   不正な値が指定されたフィールド・パラメータ名（リクエスト全体の場合は "request"）
+     * @param message クライアントに返すエラーメッセージ
+     */
+    public InvalidRequestException(String field, String message) {
+        super(HttpStatus.BAD_REQUEST, field, message);
+    }
+}
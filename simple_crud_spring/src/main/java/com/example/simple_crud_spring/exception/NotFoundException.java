@@ -0,0 +1,19 @@
+package com.example.simple_crud_spring.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * リクエストで指定されたデータが存在しない場合にスローされる例外（ステータスコード404）
+ */
+public class NotFoundException extends ApiException {
+
+    /**
+     * 例外を生成する
+     *
+     * @param field   存在しないデータを指定したフィールド名
+     * @param message クライアントに返すエラーメッセージ
+     */
+    public NotFoundException(String field, String message) {
+        super(HttpStatus.NOT_FOUND, field, message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.simple_crud_spring.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * If-Match で指定された版が、現在のデータの版と一致しない場合にスローされる例外（ステータスコード412）
+ */
+public class PreconditionFailedException extends ApiException {
+
+    /**
+     * 例外を生成する
+     *
+     * @param message クライアントに返すエラーメッセージ
+     */
+    public PreconditionFailedException(String message) {
+        super(HttpStatus.PRECONDITION_FAILED, "request", message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.simple_crud_spring.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 指定されたトークンなどの認証情報が無効な場合にスローされる例外（ステータスコード401）
+ */
+public class UnauthorizedException extends ApiException {
+
+    /**
+     * 例外を生成する
+     *
+     * @param message クライアントに返すエラーメッセージ
+     */
+    public UnauthorizedException(String message) {
+        super(HttpStatus.UNAUTHORIZED, "request", message);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.simple_crud_spring.handler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * エラーの件数を記録し、予期しないエラーをログに出力するクラス
+ * ・すべてのエラーを、例外の種類・ステータスコードごとに app.errors のメトリクスとして数える
+ * ・予期しないエラーは、スタックトレースを含めて別スレッドでログに出力する（リクエストを処理するスレッドを待たせない）
+ * ・同じ種類の例外のログは app.errors.log-interval ごとに1回までとし、出力しなかった件数を次のログに含める
+ *   （同じエラーが大量に発生しても、ログの出力が処理の大半を占めないようにする）
+ * ※ログの出力待ちが app.errors.log-queue-capacity 件を超えた場合は、そのログを破棄して件数だけを記録する
+ */
+@Component
+public class ErrorReporter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorReporter.class);
+
+    /**
+     * 例外の種類ごとの、ログを出力する間隔の管理
+     */
+    private static final class LogWindow {
+
+        /** 次にログを出力できる時刻（System.nanoTime() の値） */
+        private final AtomicLong nextLogAt = new AtomicLong(Long.MIN_VALUE);
+
+        /** 前回のログ以降に出力しなかった件数 */
+        private final AtomicLong suppressed = new AtomicLong();
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final long intervalNanos;
+    private final ThreadPoolExecutor executor;
+
+    private final ConcurrentHashMap<String, Counter> errorCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, LogWindow> logWindows = new ConcurrentHashMap<>();
+    private final Counter suppressedCounter;
+    private final Counter droppedCounter;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param meterRegistry 件数を記録するレジストリ
+     * @param logInterval   同じ種類の例外のログを出力する間隔
+     * @param queueCapacity ログの出力待ちの最大件数
+     */
+    public ErrorReporter(MeterRegistry meterRegistry,
+            @Value("${app.errors.log-interval:10s}") Duration logInterval,
+            @Value("${app.errors.log-queue-capacity:1000}") int queueCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.intervalNanos = logInterval.toNanos();
+        this.suppressedCounter = Counter.builder("app.errors.log.suppressed")
+                .description("Error logs skipped by the logging interval limit")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("app.errors.log.dropped")
+                .description("Error logs dropped because the logging queue was full")
+                .register(meterRegistry);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "error-reporter");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> droppedCounter.increment());
+    }
+
+    /**
+     * エラーの件数を1増やす
+     *
+     * @param ex     発生した例外
+     * @param status レスポンスのステータスコード
+     */
+    public void count(Throwable ex, int status) {
+        String type = ex.getClass().getSimpleName();
+        errorCounters.computeIfAbsent(type + ":" + status, key -> Counter.builder("app.errors")
+                        .description("Error responses returned to clients")
+                        .tag("type", type)
+                        .tag("status", Integer.toString(status))
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * 予期しないエラーの件数を1増やし、間隔の制限の範囲内であればログに出力する
+     *
+     * @param ex     発生した例外
+     * @param status レスポンスのステータスコード
+     * @param method リクエストのHTTPメソッド
+     * @param path   リクエストのパス
+     */
+    public void reportUnexpected(Throwable ex, int status, String method, String path) {
+        count(ex, status);
+
+        LogWindow window = logWindows.computeIfAbsent(ex.getClass(), type -> new LogWindow());
+        long now = System.nanoTime();
+        long nextLogAt = window.nextLogAt.get();
+        if ((nextLogAt != Long.MIN_VALUE && now - nextLogAt < 0)
+                || !window.nextLogAt.compareAndSet(nextLogAt, now + intervalNanos)) {
+            // 間隔内に同じ種類の例外を出力済み（または他のスレッドが出力する）の場合は、件数だけを記録する
+            window.suppressed.incrementAndGet();
+            suppressedCounter.increment();
+            return;
+        }
+
+        long suppressed = window.suppressed.getAndSet(0);
+        executor.execute(() -> log.error("unexpected error: type={} status={} method={} path={} suppressed={}",
+                ex.getClass().getName(), status, method, path, suppressed, ex));
+    }
+
+    /**
+     * 終了時に、出力待ちのログを出力してからスレッドを停止する
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -1,12 +1,30 @@
 package com.example.simple_crud_spring.handler;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.HttpMediaTypeException;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.ServletRequestBindingException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.NoHandlerFoundException;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import com.example.simple_crud_spring.dto.ErrorResponseDto;
+import com.example.simple_crud_spring.exception.ApiException;
+import com.example.simple_crud_spring.exception.BatchValidationException;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -14,10 +32,23 @@ import java.util.stream.Collectors;
 /**
  * アプリケーション全体で発生する例外を一括で処理するためのクラス
  * バリデーションエラーや予期しないサーバーエラーを統一的に処理してレスポンスを返す
+ * ※すべてのエラーの件数を {@link ErrorReporter} で記録する。ログに出力するのは予期しないエラーのみ
+ * （Spring MVC がリクエストの不備に対してスローする例外も、500ではなく対応する4xxとして返す）
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final ErrorReporter errorReporter;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param errorReporter エラーの件数の記録・ログの出力を行うクラス
+     */
+    public GlobalExceptionHandler(ErrorReporter errorReporter) {
+        this.errorReporter = errorReporter;
+    }
+
     /**
      * バリデーション失敗時の例外を処理する
      *
@@ -26,6 +57,8 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<List<ErrorResponseDto>> handleValidationException(MethodArgumentNotValidException ex) {
+        errorReporter.count(ex, HttpStatus.BAD_REQUEST.value());
+
         // すべてのバリデーションエラーをフィールド名とメッセージのDTOに変換する
         List<ErrorResponseDto> errors = ex.getBindingResult()
                 .getFieldErrors()
@@ -38,16 +71,164 @@ public class GlobalExceptionHandler {
 
     }
 
+    /**
+     * 一括処理のバリデーション失敗時の例外を処理する
+     *
+     * @param ex 一括処理のバリデーション例外
+     * @return 各データ・各フィールドごとのエラーメッセージを含むレスポンス（ステータスコード400）
+     */
+    @ExceptionHandler(BatchValidationException.class)
+    public ResponseEntity<List<ErrorResponseDto>> handleBatchValidationException(BatchValidationException ex) {
+        errorReporter.count(ex, ex.getStatus().value());
+        return ResponseEntity.status(ex.getStatus()).body(ex.getErrors());
+    }
+
+    /**
+     * 更新中に、他のリクエストが同じデータを先に更新した場合の例外を処理する（楽観的ロックの失敗）
+     *
+     * @param ex 楽観的ロックの失敗を表す例外
+     * @return 再取得を促すエラーメッセージを含むレスポンス（ステータスコード409）
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        errorReporter.count(ex, HttpStatus.CONFLICT.value());
+        ErrorResponseDto error = new ErrorResponseDto("request",
+                "他のユーザーが同時に更新しました。最新の内容を取得してから更新してください");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * 想定されたエラー（存在しないデータの指定、重複、版の不一致など）の例外を処理する
+     *
+     * @param ex 想定されたエラーを表す例外
+     * @return 例外のフィールド名とメッセージを含むレスポンス（ステータスコードは例外に指定されたもの）
+     */
+    @ExceptionHandler(ApiException.class)
+    public ResponseEntity<ErrorResponseDto> handleApiException(ApiException ex) {
+        errorReporter.count(ex, ex.getStatus().value());
+        ErrorResponseDto error = new ErrorResponseDto(ex.getField(), ex.getMessage());
+        return ResponseEntity.status(ex.getStatus()).body(error);
+    }
+
+    /**
+     * 保存時に一意制約などのDBの制約に違反した場合の例外を処理する
+     * （同時に同じデータを登録した場合など、事前の確認では防げない競合）
+     *
+     * @param ex 制約違反を表す例外
+     * @return 競合を表すエラーメッセージを含むレスポンス（ステータスコード409）
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponseDto> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        errorReporter.count(ex, HttpStatus.CONFLICT.value());
+        ErrorResponseDto error = new ErrorResponseDto("request", "登録済みのデータと競合したため保存できませんでした");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * ステータスコードを指定してスローされた例外を処理する
+     * （Spring MVC が、リクエストの形式が不正な場合などにスローするもの）
+     *
+     * @param ex ステータスコードと理由を保持する例外
+     * @return 例外の理由を含むレスポンスDTO（ステータスコードは例外に指定されたもの）
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponseDto> handleResponseStatusException(ResponseStatusException ex) {
+        errorReporter.count(ex, ex.getStatusCode().value());
+        ErrorResponseDto error = new ErrorResponseDto("request", ex.getReason());
+        return ResponseEntity.status(ex.getStatusCode()).body(error);
+    }
+
+    /**
+     * リクエストの本文を読み取れなかった（JSONの形式が不正など）場合の例外を処理する
+     *
+     * @param ex 本文を読み取れなかったことを表す例外
+     * @return エラーメッセージを含むレスポンス（ステータスコード400）
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponseDto> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
+        errorReporter.count(ex, HttpStatus.BAD_REQUEST.value());
+        ErrorResponseDto error = new ErrorResponseDto("request", "リクエストの本文を読み取れませんでした");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    /**
+     * パスやクエリパラメーターの値を、指定された型に変換できなかった場合の例外を処理する
+     *
+     * @param ex 型の変換に失敗したことを表す例外
+     * @return パラメーター名とエラーメッセージを含むレスポンス（ステータスコード400）
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponseDto> handleMethodArgumentTypeMismatchException(
+            MethodArgumentTypeMismatchException ex) {
+        errorReporter.count(ex, HttpStatus.BAD_REQUEST.value());
+        ErrorResponseDto error = new ErrorResponseDto(ex.getName(), ex.getName() + "の形式が正しくありません");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    /**
+     * Spring MVC が、リクエストを処理するメソッドを呼び出す前にスローする例外を処理する
+     * （必須のパラメーター・ヘッダーがない、URLが存在しない、HTTPメソッド・Content-Type に対応していないなど）
+     *
+     * @param ex Spring MVC がスローした例外（{@link ErrorResponse} を実装し、ステータスコードとヘッダーを保持する）
+     * @return エラーメッセージを含むレスポンス（ステータスコードは例外に対応するもの。Allow などのヘッダーを含む）
+     */
+    @ExceptionHandler({
+            ServletRequestBindingException.class,
+            HttpRequestMethodNotSupportedException.class,
+            HttpMediaTypeException.class,
+            NoResourceFoundException.class,
+            NoHandlerFoundException.class
+    })
+    public ResponseEntity<ErrorResponseDto> handleSpringMvcException(Exception ex) {
+        ErrorResponse errorResponse = (ErrorResponse) ex;
+        errorReporter.count(ex, errorResponse.getStatusCode().value());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(errorResponse.getStatusCode())
+                .headers(errorResponse.getHeaders());
+        if (ex instanceof HttpMediaTypeNotAcceptableException) {
+            // クライアントが受け取れる形式で本文を返せないため、本文を含めない
+            return response.build();
+        }
+        return response.body(toErrorResponseDto(ex, errorResponse));
+    }
+
+    /**
+     * Spring MVC がスローした例外を、エラーの項目名とメッセージに変換する
+     *
+     * @param ex            Spring MVC がスローした例外
+     * @param errorResponse 同じ例外を {@link ErrorResponse} として参照したもの
+     * @return エラーの項目名とメッセージ
+     */
+    private static ErrorResponseDto toErrorResponseDto(Exception ex, ErrorResponse errorResponse) {
+        if (ex instanceof MissingServletRequestParameterException missing) {
+            return new ErrorResponseDto(missing.getParameterName(), missing.getParameterName() + "を指定してください");
+        }
+        if (ex instanceof MissingRequestHeaderException missing) {
+            return new ErrorResponseDto(missing.getHeaderName(), missing.getHeaderName() + "ヘッダーを指定してください");
+        }
+        if (ex instanceof HttpRequestMethodNotSupportedException notSupported) {
+            return new ErrorResponseDto("request", "このURLでは" + notSupported.getMethod() + "メソッドを使用できません");
+        }
+        if (ex instanceof HttpMediaTypeException) {
+            return new ErrorResponseDto("request", "この形式（Content-Type）の本文には対応していません");
+        }
+        if (ex instanceof NoResourceFoundException || ex instanceof NoHandlerFoundException) {
+            return new ErrorResponseDto("request", "指定されたURLは存在しません");
+        }
+        return new ErrorResponseDto("request", errorResponse.getBody().getDetail());
+    }
+
     /**
      * その他すべての例外を一括処理する
      *
-     * @param ex 予期しない例外
+     * @param ex      予期しない例外
+     * @param request 例外が発生したリクエスト（ログに出力する）
      * @return サーバーエラーを表すレスポンスDTO（ステータスコード500）
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponseDto> handleGenericException(Exception ex) {
-        // 開発用に例外スタックトレースを出力する
-        ex.printStackTrace();
+    public ResponseEntity<ErrorResponseDto> handleGenericException(Exception ex, HttpServletRequest request) {
+        // 例外のスタックトレースを、別スレッドで（同じ種類の例外は一定の間隔ごとに）ログに出力する
+        errorReporter.reportUnexpected(ex, HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                request.getMethod(), request.getRequestURI());
 
         // クライアントには簡潔なエラーメッセージのみ返す
         ErrorResponseDto error = new ErrorResponseDto("server", "エラーが発生しました");
@@ -0,0 +1,27 @@
+package com.example.simple_crud_spring.ingest;
+
+import com.example.simple_crud_spring.dto.PostRequestDto;
+
+/**
+ * 非同期作成のために受け付けた投稿（ログにはこのままJSONに変換して記録する）
+ *
+ * @param trackingId 受け付けた投稿の追跡ID（作成の状況の問い合わせに使用する）
+ * @param title      タイトル
+ * @param content    本文
+ * @param userId     投稿者のユーザーID
+ */
+public record IngestedPost(String trackingId, String title, String content, Long userId) {
+
+    /**
+     * 投稿の作成に使用するリクエストに変換する
+     *
+     * @return 投稿作成時のリクエスト
+     */
+    public PostRequestDto toRequest() {
+        PostRequestDto request = new PostRequestDto();
+        request.title = title;
+        request.content = content;
+        request.userId = userId;
+        return request;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.simple_crud_spring.ingest;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 投稿の非同期作成の設定クラス
+ * app.posts.ingest.enabled=true の場合のみ、設定（{@link PostIngestProperties}）を読み込む
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.posts.ingest.enabled", havingValue = "true")
+@EnableConfigurationProperties(PostIngestProperties.class)
+public class PostIngestConfig {
+}
@@ -0,0 +1,31 @@
+package com.example.simple_crud_spring.ingest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 投稿の非同期作成に関する設定（application.properties の app.posts.ingest.*）
+ *
+ * @param enabled       非同期作成を有効にするか（無効の場合、Prefer: respond-async を指定しても同期的に作成する）
+ * @param directory     受け付けた投稿を記録するログ（{@link WriteAheadLog}）のディレクトリ
+ * @param nodeId        アプリのインスタンスの識別子（処理済みの位置をインスタンスごとに記録するため、インスタンスごとに変えること）
+ * @param batchSize     1回のトランザクションでDBに書き込む最大件数（app.posts.batch-max-items 以下）
+ * @param flushInterval ログからDBへの書き込みを行う間隔
+ * @param segmentSize   1つのセグメントファイルの大きさの目安
+ * @param maxAttempts   投稿の内容が原因で書き込みに失敗した場合に、同じ位置から書き込み直す回数の上限
+ *                      （超えた場合は原因の投稿を作成せずに読み飛ばす）
+ */
+@ConfigurationProperties("app.posts.ingest")
+public record PostIngestProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/post-ingest") Path directory,
+        @DefaultValue("default") String nodeId,
+        @DefaultValue("200") int batchSize,
+        @DefaultValue("200ms") Duration flushInterval,
+        @DefaultValue("16MB") DataSize segmentSize,
+        @DefaultValue("5") int maxAttempts) {
+}
@@ -0,0 +1,395 @@
+package com.example.simple_crud_spring.ingest;
+
+import com.example.simple_crud_spring.config.CacheConfig;
+import com.example.simple_crud_spring.dto.ErrorResponseDto;
+import com.example.simple_crud_spring.dto.PostIngestStatusDto;
+import com.example.simple_crud_spring.dto.PostRequestDto;
+import com.example.simple_crud_spring.event.PostChangedEvent;
+import com.example.simple_crud_spring.exception.BatchValidationException;
+import com.example.simple_crud_spring.model.Post;
+import com.example.simple_crud_spring.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 投稿を非同期に作成するサービスクラス（app.posts.ingest.enabled=true の場合のみ有効）
+ * ・受け付けた投稿を検証してローカルディスクのログ（{@link WriteAheadLog}）に追記し、ディスクに書き込まれた時点で追跡IDを返す。
+ * リクエストのスレッドはDBへの書き込み（コミット）を待たない
+ * ・一定間隔（flush-interval）でログから投稿を読み取り、batch-size 件ずつまとめてDBに書き込む
+ * ・DBに書き込んだ位置はDB（job_checkpoints）に記録するため、アプリが停止しても、再起動後にログの続きから書き込む
+ * ・投稿の内容が原因で書き込めない（DBの制約に違反するなど）場合は、max-attempts 回まで書き込み直した後、
+ * 1件ずつ書き込んで原因の投稿を特定し、その投稿だけを作成できなかったもの（REJECTED）として読み飛ばす。
+ * 1件の不正な投稿のために、後続の投稿がいつまでも書き込まれないことがないようにする
+ * ・受け付けた件数（app.posts.ingest.accepted）、DBへの書き込みを待っている件数（app.posts.ingest.pending）、
+ * 書き込んだ件数（app.posts.ingest.written）、作成できなかった件数（app.posts.ingest.rejected）、
+ * ログへの追記の時間（app.posts.ingest.append）、1回分の書き込みの時間（app.posts.ingest.batch）をメトリクスとして記録する
+ * ※作成の状況は、このインスタンスで受け付けた（または再起動後に書き込んだ）投稿についてのみ、一定時間保持する
+ */
+@Service
+@ConditionalOnProperty(name = "app.posts.ingest.enabled", havingValue = "true")
+public class PostIngestService {
+
+    /** 処理済みの位置を記録する際の名前の接頭辞（後ろにインスタンスの識別子を付ける） */
+    public static final String JOB_NAME_PREFIX = "post-ingest:";
+
+    /** 作成の状況を保持する最大件数 */
+    private static final long MAX_TRACKED = 100_000;
+
+    /** 作成の状況を保持する時間 */
+    private static final Duration TRACKING_TTL = Duration.ofHours(1);
+
+    private static final Logger log = LoggerFactory.getLogger(PostIngestService.class);
+
+    private final PostIngestWriter writer;
+    private final UserRepository userRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final WriteAheadLog writeAheadLog;
+    private final String jobName;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Cache<String, PostIngestStatusDto> statuses;
+
+    private final Counter acceptedCounter;
+    private final Counter writtenCounter;
+    private final Counter rejectedCounter;
+    private final Counter failureCounter;
+    private final Timer appendTimer;
+    private final Timer batchTimer;
+
+    /** DBに書き込んだ最後のログの連番 */
+    private volatile long appliedSequence;
+
+    /** 投稿の内容が原因で書き込みに失敗した位置（appliedSequence）と、その位置で続けて失敗した回数 */
+    private long failedAt = -1;
+    private int failedAttempts;
+
+    /** この連番までは1件ずつ書き込む（原因の投稿を特定するため） */
+    private long isolateUntil;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     * DBに記録された処理済みの位置を読み込み、ログを開く（前回の停止時に書き込まれていなかった投稿は、この後の定期処理で書き込む）
+     *
+     * @param properties     非同期作成の設定
+     * @param writer         ログから読み取った投稿をDBに書き込むクラス
+     * @param userRepository 投稿者の存在の確認に使用するリポジトリ
+     * @param validator      投稿のバリデーションに使用する
+     * @param objectMapper   ログに記録する投稿のJSONへの変換に使用する
+     * @param eventPublisher 投稿を作成したことを通知するイベントの発行に使用する
+     * @param cacheManager   一覧の1ページ目のキャッシュの破棄に使用する
+     * @param meterRegistry  件数・処理時間を記録するレジストリ
+     * @param maxItems       一括作成で1回に処理できる最大件数
+     * @throws IOException ログを開けなかった場合
+     * @throws IllegalStateException batch-size が一括作成の最大件数を超えている場合
+     */
+    public PostIngestService(PostIngestProperties properties, PostIngestWriter writer,
+            UserRepository userRepository, Validator validator, ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher, CacheManager cacheManager, MeterRegistry meterRegistry,
+            @Value("${app.posts.batch-max-items}") int maxItems) throws IOException {
+        if (properties.batchSize() < 1 || properties.batchSize() > maxItems) {
+            throw new IllegalStateException("app.posts.ingest.batch-size は1～" + maxItems + "にしてください");
+        }
+        this.writer = writer;
+        this.userRepository = userRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.jobName = JOB_NAME_PREFIX + properties.nodeId();
+        this.batchSize = properties.batchSize();
+        this.maxAttempts = Math.max(1, properties.maxAttempts());
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED)
+                .expireAfterWrite(TRACKING_TTL)
+                .build();
+
+        this.appliedSequence = writer.appliedSequence(jobName);
+        this.writeAheadLog = new WriteAheadLog(properties.directory(), properties.segmentSize().toBytes(),
+                appliedSequence + 1);
+
+        this.acceptedCounter = Counter.builder("app.posts.ingest.accepted")
+                .description("Posts accepted for asynchronous creation")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("app.posts.ingest.written")
+                .description("Accepted posts written to the database")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("app.posts.ingest.rejected")
+                .description("Accepted posts that could not be created")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("app.posts.ingest.failures")
+                .description("Failed attempts to write accepted posts to the database")
+                .register(meterRegistry);
+        this.appendTimer = Timer.builder("app.posts.ingest.append")
+                .description("Time to append an accepted post to the write-ahead log, including fsync")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("app.posts.ingest.batch")
+                .description("Time to write one batch of accepted posts to the database")
+                .register(meterRegistry);
+        Gauge.builder("app.posts.ingest.pending", this, PostIngestService::pendingCount)
+                .description("Accepted posts not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("app.posts.ingest.segments", writeAheadLog, WriteAheadLog::segmentCount)
+                .description("Segment files of the write-ahead log")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 投稿を検証してログに追記する（DBには後から書き込む）
+     *
+     * @param request 作成する投稿
+     * @return 受け付けた投稿の作成の状況（PENDING）
+     * @throws BatchValidationException 投稿が不正な場合（フィールド名は PostRequestDto の項目名）
+     * @throws UncheckedIOException ログへの追記に失敗した場合
+     */
+    public PostIngestStatusDto accept(PostRequestDto request) {
+        validate(request);
+        return append(new IngestedPost(UUID.randomUUID().toString(), request.title, request.content, request.userId));
+    }
+
+    /**
+     * 検証済みの投稿をログに追記する
+     *
+     * @param post 作成する投稿
+     * @return 受け付けた投稿の作成の状況（PENDING）
+     * @throws UncheckedIOException ログへの追記に失敗した場合
+     */
+    PostIngestStatusDto append(IngestedPost post) {
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(post);
+            appendTimer.recordCallable(() -> writeAheadLog.append(payload));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("投稿をログに記録できませんでした", ex);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        PostIngestStatusDto status = PostIngestStatusDto.pending(post.trackingId());
+        statuses.put(post.trackingId(), status);
+        acceptedCounter.increment();
+        return status;
+    }
+
+    /**
+     * 受け付けた投稿の作成の状況を返す
+     *
+     * @param trackingId 追跡ID
+     * @return 作成の状況。保持していない（別のインスタンスで受け付けた、または保持期間を過ぎた）場合は空のOptional
+     */
+    public Optional<PostIngestStatusDto> status(String trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    /**
+     * DBへの書き込みを待っている投稿の件数を返す
+     *
+     * @return ログに追記され、まだDBに書き込まれていない投稿の件数
+     */
+    public long pendingCount() {
+        return Math.max(0, writeAheadLog.lastSequence() - appliedSequence);
+    }
+
+    /**
+     * ログからDBに書き込まれていない投稿を読み取り、batch-size 件ずつDBに書き込む（読み取る投稿がなくなるまで繰り返す）
+     * ※DBへの書き込みに失敗した場合は、次回の実行で同じ位置から書き込み直す
+     * （投稿の内容が原因で max-attempts 回続けて失敗した場合は、原因の投稿を読み飛ばして続ける）
+     *
+     * @return DBに書き込んだ（または作成できなかった）投稿の件数
+     */
+    @Scheduled(fixedDelayString = "${app.posts.ingest.flush-interval:200ms}")
+    public synchronized int drain() {
+        int processed = 0;
+        try {
+            List<WriteAheadLog.Entry> entries;
+            while (!(entries = writeAheadLog.read(appliedSequence,
+                    appliedSequence < isolateUntil ? 1 : batchSize)).isEmpty()) {
+                try {
+                    write(entries);
+                    processed += entries.size();
+                } catch (Exception ex) {
+                    failureCounter.increment();
+                    if (!isCausedByContent(ex) || !giveUp(entries, ex)) {
+                        log.warn("受け付けた投稿をDBに書き込めませんでした（次回の実行で再度書き込みます）: {}", ex.toString());
+                        return processed;
+                    }
+                    if (entries.size() == 1) {
+                        processed++;
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            failureCounter.increment();
+            log.warn("受け付けた投稿をログから読み取れませんでした（次回の実行で再度読み取ります）: {}", ex.toString());
+        }
+        return processed;
+    }
+
+    /**
+     * アプリの停止時に、受け付けた投稿をできるだけDBに書き込んでからログを閉じる
+     * ※書き込めなかった投稿は、次回の起動後に書き込む
+     *
+     * @throws IOException ログを閉じられなかった場合
+     */
+    @PreDestroy
+    public synchronized void shutdown() throws IOException {
+        drain();
+        writeAheadLog.close();
+    }
+
+    /**
+     * ログの連続した範囲の投稿を、1回のトランザクションでDBに書き込み、書き込み済みのログを削除する
+     */
+    private void write(List<WriteAheadLog.Entry> entries) throws Exception {
+        List<IngestedPost> posts = new ArrayList<>(entries.size());
+        for (WriteAheadLog.Entry entry : entries) {
+            posts.add(objectMapper.readValue(entry.payload(), IngestedPost.class));
+        }
+        long firstSequence = entries.get(0).sequence();
+        PostIngestWriter.Result result = batchTimer.recordCallable(
+                () -> writer.writeBatch(jobName, posts, firstSequence));
+        appliedSequence = entries.get(entries.size() - 1).sequence();
+        publish(result);
+        writeAheadLog.deleteUpTo(appliedSequence);
+    }
+
+    /**
+     * 書き込みの失敗が、一時的なもの（DBに接続できないなど）ではなく、投稿の内容によるものかどうかを判定する
+     * （書き込み直しても成功しないため、max-attempts 回で読み飛ばしてよい）
+     */
+    private static boolean isCausedByContent(Exception ex) {
+        return ex instanceof DataIntegrityViolationException
+                || ex instanceof BatchValidationException
+                || ex instanceof JsonProcessingException;
+    }
+
+    /**
+     * 投稿の内容が原因で書き込めなかった回数を数え、max-attempts 回に達した場合は書き込み直すのをやめる
+     * 複数件をまとめて書き込んでいた場合は、原因の投稿を特定するため、失敗した範囲を1件ずつ書き込み直す。
+     * 1件だけを書き込んでいた場合は、その投稿を作成できなかったものとして読み飛ばす
+     *
+     * @return 書き込み直すのをやめ、続けて書き込む場合はtrue（次回の実行で同じ位置から書き込み直す場合はfalse）
+     */
+    private boolean giveUp(List<WriteAheadLog.Entry> entries, Exception ex) throws IOException {
+        if (failedAt != appliedSequence) {
+            failedAt = appliedSequence;
+            failedAttempts = 0;
+        }
+        if (++failedAttempts < maxAttempts) {
+            return false;
+        }
+        failedAttempts = 0;
+
+        if (entries.size() > 1) {
+            isolateUntil = entries.get(entries.size() - 1).sequence();
+            log.warn("受け付けた投稿を{}回続けてDBに書き込めなかったため、原因の投稿を特定するまで1件ずつ書き込みます: {}",
+                    maxAttempts, ex.toString());
+            return true;
+        }
+
+        WriteAheadLog.Entry entry = entries.get(0);
+        writer.skip(jobName, entry.sequence());
+        appliedSequence = entry.sequence();
+        String trackingId = trackingIdOf(entry);
+        log.error("受け付けた投稿を{}回続けてDBに書き込めなかったため、作成せずに読み飛ばします（連番: {}、追跡ID: {}）: {}",
+                maxAttempts, entry.sequence(), trackingId, ex.toString());
+        publish(new PostIngestWriter.Result(Map.of(), trackingId == null ? List.of() : List.of(trackingId)));
+        if (trackingId == null) {
+            rejectedCounter.increment();
+        }
+        writeAheadLog.deleteUpTo(appliedSequence);
+        return true;
+    }
+
+    /**
+     * ログのレコードから追跡IDを取り出す（JSONとして読み取れない場合はnull）
+     */
+    private String trackingIdOf(WriteAheadLog.Entry entry) {
+        try {
+            return objectMapper.readValue(entry.payload(), IngestedPost.class).trackingId();
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 書き込みの結果を作成の状況に反映し、作成した投稿を通知する
+     */
+    private void publish(PostIngestWriter.Result result) {
+        if (!result.created().isEmpty()) {
+            // 新しい投稿は一覧の先頭に並ぶため、一覧の1ページ目のキャッシュを破棄する
+            org.springframework.cache.Cache firstPages = cacheManager.getCache(CacheConfig.POST_FIRST_PAGES);
+            if (firstPages != null) {
+                firstPages.clear();
+            }
+        }
+        result.created().forEach((trackingId, post) -> {
+            statuses.put(trackingId, new PostIngestStatusDto(trackingId, PostIngestStatusDto.Status.CREATED, post.id()));
+            eventPublisher.publishEvent(PostChangedEvent.created(post));
+        });
+        result.rejected().forEach(trackingId -> statuses.put(trackingId,
+                new PostIngestStatusDto(trackingId, PostIngestStatusDto.Status.REJECTED, null)));
+        writtenCounter.increment(result.created().size());
+        rejectedCounter.increment(result.rejected().size());
+    }
+
+    /**
+     * 受け付ける前に投稿を検証する（同期的に作成する場合と同じ内容を確認する）
+     */
+    private void validate(PostRequestDto request) {
+        Post post = new Post();
+        post.setTitle(request.title);
+        post.setContent(request.content);
+
+        List<ErrorResponseDto> errors = new ArrayList<>();
+        for (ConstraintViolation<Post> violation : validator.validateProperty(post, "title")) {
+            errors.add(new ErrorResponseDto("title", violation.getMessage()));
+        }
+        if (request.content == null) {
+            errors.add(new ErrorResponseDto("content", "本文を指定してください"));
+        } else if (request.content.getBytes(StandardCharsets.UTF_8).length > Post.CONTENT_MAX_BYTES) {
+            // DBに書き込めない投稿をログに記録しないよう、受け付ける前に確認する
+            errors.add(new ErrorResponseDto("content", "本文は" + Post.CONTENT_MAX_BYTES + "バイト以内で入力してください"));
+        }
+        if (request.userId == null) {
+            errors.add(new ErrorResponseDto("userId", "ユーザーIDを空にはできません（ログインしていますか？）"));
+        } else if (!userRepository.existsById(request.userId)) {
+            errors.add(new ErrorResponseDto("userId", "ユーザーが存在しません"));
+        }
+        if (!errors.isEmpty()) {
+            throw new BatchValidationException(errors);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.simple_crud_spring.ingest;
+
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.model.JobCheckpoint;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.JobCheckpointRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+import com.example.simple_crud_spring.service.PostWriteService;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * ログから読み取った投稿を、1回分ずつDBに書き込むクラス
+ * 投稿の作成と処理済みの位置（ログの連番）の記録を1つのトランザクションで行うため、
+ * 書き込みの途中でアプリが停止しても、同じ投稿を二重に作成することも、作成されないまま読み飛ばすこともない。
+ */
+@Component
+@ConditionalOnProperty(name = "app.posts.ingest.enabled", havingValue = "true")
+public class PostIngestWriter {
+
+    private final PostWriteService postWriteService;
+    private final UserRepository userRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param postWriteService        投稿の一括作成に使用するサービス
+     * @param userRepository          投稿者の存在の確認に使用するリポジトリ
+     * @param jobCheckpointRepository 処理済みの位置の記録に使用するリポジトリ
+     */
+    public PostIngestWriter(PostWriteService postWriteService, UserRepository userRepository,
+            JobCheckpointRepository jobCheckpointRepository) {
+        this.postWriteService = postWriteService;
+        this.userRepository = userRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+    }
+
+    /**
+     * 処理済みの位置を返す
+     *
+     * @param jobName 進捗を記録する名前
+     * @return 処理済みの最後の連番（まだ何も処理していない場合は0）
+     */
+    public long appliedSequence(String jobName) {
+        return jobCheckpointRepository.findById(jobName)
+                .map(JobCheckpoint::getLastId)
+                .orElse(0L);
+    }
+
+    /**
+     * ログの連続した範囲の投稿を、JDBCのバッチでまとめて作成し、処理済みの位置を進める
+     * ※処理済みの位置より前の投稿（前回書き込んだ後、ログから削除する前に停止した場合など）は作成しない
+     *
+     * @param jobName       進捗を記録する名前
+     * @param posts         作成する投稿のリスト（ログの順）
+     * @param firstSequence 先頭の投稿のログの連番
+     * @return 作成した投稿と、作成できなかった投稿の追跡ID
+     */
+    @Transactional
+    public Result writeBatch(String jobName, List<IngestedPost> posts, long firstSequence) {
+        // 進捗の行をロックし、同じ範囲を同時に書き込まないようにする
+        JobCheckpoint checkpoint = jobCheckpointRepository.findForUpdate(jobName)
+                .orElseGet(() -> jobCheckpointRepository.save(new JobCheckpoint(jobName)));
+        long applied = checkpoint.getLastId() == null ? 0 : checkpoint.getLastId();
+        long lastSequence = firstSequence + posts.size() - 1;
+        if (applied >= lastSequence) {
+            return new Result(Map.of(), List.of());
+        }
+        List<IngestedPost> pending = posts.subList((int) Math.max(0, applied - firstSequence + 1), posts.size());
+
+        // 受け付けた後に投稿者が削除された投稿は作成しない（一括作成では1件でも不正なデータがあると何も作成されないため）
+        Set<Long> userIds = userRepository.findAllById(pending.stream()
+                .map(IngestedPost::userId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()))
+                .stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+        List<IngestedPost> valid = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        for (IngestedPost post : pending) {
+            if (userIds.contains(post.userId())) {
+                valid.add(post);
+            } else {
+                rejected.add(post.trackingId());
+            }
+        }
+
+        Map<String, PostSummaryDto> created = new LinkedHashMap<>();
+        if (!valid.isEmpty()) {
+            List<PostSummaryDto> summaries = postWriteService.createAll(valid.stream().map(IngestedPost::toRequest).toList());
+            for (int i = 0; i < valid.size(); i++) {
+                created.put(valid.get(i).trackingId(), summaries.get(i));
+            }
+        }
+
+        // 一括作成で永続化コンテキストから切り離されている場合があるため、save で書き込む
+        checkpoint.advance(null, lastSequence, pending.size());
+        jobCheckpointRepository.save(checkpoint);
+        return new Result(created, rejected);
+    }
+
+    /**
+     * 作成できない投稿を作成せずに、処理済みの位置をその投稿まで進める
+     *
+     * @param jobName  進捗を記録する名前
+     * @param sequence 読み飛ばす投稿のログの連番（処理済みの位置の次の投稿であること）
+     */
+    @Transactional
+    public void skip(String jobName, long sequence) {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findForUpdate(jobName)
+                .orElseGet(() -> jobCheckpointRepository.save(new JobCheckpoint(jobName)));
+        long applied = checkpoint.getLastId() == null ? 0 : checkpoint.getLastId();
+        if (applied < sequence) {
+            checkpoint.advance(null, sequence, 1);
+            jobCheckpointRepository.save(checkpoint);
+        }
+    }
+
+    /**
+     * 1回分の書き込みの結果
+     *
+     * @param created  作成した投稿（キーは追跡ID。ログの順）
+     * @param rejected 作成できなかった投稿の追跡ID
+     */
+    public record Result(Map<String, PostSummaryDto> created, List<String> rejected) {
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.simple_crud_spring.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * ローカルディスク上の追記専用のログ（ライトアヘッドログ）
+ * レコードには1から始まる連番を付け、複数のセグメントファイル（segment-{最初の連番}.wal）に順に追記する。
+ * ・{@link #append} はレコードがディスクに書き込まれる（fsync）まで戻らないため、戻った時点でプロセスが停止しても失われない。
+ * 同時に追記された複数のレコードは、1回の fsync でまとめてディスクに書き込む（グループコミット）
+ * ・各レコードにはCRC32Cを付け、起動時に最後のセグメントを検査して、書き込みの途中で停止した末尾のレコードを切り捨てる
+ * ・読み取り（{@link #read}）と不要になったセグメントの削除（{@link #deleteUpTo}）は、1つのスレッドから行うこと
+ *
+ * <pre>
+ * レコードの形式: [本文の長さ(int)][CRC32C(int)][連番(long)][本文]
+ * </pre>
+ */
+public class WriteAheadLog implements Closeable {
+
+    /** レコードのヘッダーの長さ（本文の長さ・CRC32C・連番） */
+    static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    /** 1レコードの本文の最大長（破損したヘッダーを読んだ場合に、大きな領域を確保しないようにする） */
+    static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final Path directory;
+    private final long segmentSize;
+
+    /** セグメントの最初の連番の一覧（昇順） */
+    private final NavigableSet<Long> segments = new ConcurrentSkipListSet<>();
+
+    /** 追記のロック（書き込み中のセグメント・次の連番を保護する） */
+    private final Object writeLock = new Object();
+
+    /** ディスクへの書き込み（fsync）のロック。writeLock より先に取得する */
+    private final Object syncLock = new Object();
+
+    private FileChannel active;
+    private long activeFirstSequence;
+    private long activeSize;
+    private long nextSequence;
+
+    /** ディスクへの書き込みが完了した最後の連番（読み取りはこの連番までに限る） */
+    private volatile long durableSequence;
+
+    /** 前回の読み取りを終えた位置（続きから読む場合に、セグメントを先頭から読み直さないようにする） */
+    private ReadPosition readPosition;
+
+    /**
+     * ログを開く
+     * 既存のセグメントがあれば、最後のセグメントの末尾の壊れたレコードを切り捨て、続きの連番から追記する
+     *
+     * @param directory          セグメントファイルを保存するディレクトリ（存在しなければ作成する）
+     * @param segmentSize        1つのセグメントファイルの大きさの目安（超えると次のセグメントに切り替える）
+     * @param minimumNextSequence 次に付ける連番の最小値（処理済みの連番より大きい値を指定し、連番が処理済みの値と重複しないようにする）
+     * @throws IOException ファイルの読み書きに失敗した場合
+     */
+    public WriteAheadLog(Path directory, long segmentSize, long minimumNextSequence) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .forEach(segments::add);
+        }
+
+        long next = Math.max(minimumNextSequence, 1);
+        if (!segments.isEmpty()) {
+            long lastSequence = recover(segments.last());
+            next = Math.max(next, lastSequence + 1);
+        }
+        this.nextSequence = next;
+        this.durableSequence = next - 1;
+        openSegment(next);
+    }
+
+    /**
+     * レコードを追記し、ディスクに書き込まれるまで待つ
+     *
+     * @param payload レコードの本文
+     * @return レコードの連番
+     * @throws IOException 書き込みに失敗した場合（レコードは追記されていない）
+     */
+    public long append(byte[] payload) throws IOException {
+        if (payload.length > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("レコードが大きすぎます: " + payload.length + " バイト");
+        }
+        long sequence;
+        synchronized (writeLock) {
+            sequence = nextSequence;
+            ByteBuffer record = encode(sequence, payload);
+            try {
+                while (record.hasRemaining()) {
+                    active.write(record);
+                }
+            } catch (IOException ex) {
+                // 書きかけのレコードを取り除き、以降のレコードが壊れたレコードの後ろに追記されないようにする
+                active.truncate(activeSize);
+                active.position(activeSize);
+                throw ex;
+            }
+            activeSize += record.capacity();
+            nextSequence++;
+        }
+        sync(sequence);
+        return sequence;
+    }
+
+    /**
+     * 指定した連番より後ろのレコードを、連番の順に指定件数まで読み取る
+     * ※ディスクへの書き込みが完了したレコードだけを返す
+     *
+     * @param afterSequence この連番より後ろのレコードを読む（処理済みの最後の連番）
+     * @param maxEntries    読み取る最大件数
+     * @return レコードのリスト（読み取るレコードがなければ空のリスト）
+     * @throws IOException 読み取りに失敗した場合
+     */
+    public List<Entry> read(long afterSequence, int maxEntries) throws IOException {
+        long durable = durableSequence;
+        if (afterSequence >= durable || segments.isEmpty()) {
+            return List.of();
+        }
+
+        ReadPosition position = readPosition;
+        if (position == null || position.nextSequence() != afterSequence + 1
+                || !segments.contains(position.segment())) {
+            Long segment = segments.floor(afterSequence + 1);
+            position = new ReadPosition(segment == null ? segments.first() : segment, 0,
+                    segment == null ? segments.first() : segment);
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        while (entries.size() < maxEntries && position.nextSequence() <= durable) {
+            Entry entry;
+            try (FileChannel channel = FileChannel.open(segmentPath(position.segment()), StandardOpenOption.READ)) {
+                entry = readRecord(channel, position.offset());
+                while (entry != null && entry.sequence() == position.nextSequence()
+                        && entry.sequence() <= durable && entries.size() < maxEntries) {
+                    if (entry.sequence() > afterSequence) {
+                        entries.add(entry);
+                    }
+                    position = new ReadPosition(position.segment(),
+                            position.offset() + HEADER_SIZE + entry.payload().length, entry.sequence() + 1);
+                    entry = readRecord(channel, position.offset());
+                }
+            }
+            if (entries.size() >= maxEntries || position.nextSequence() > durable) {
+                break;
+            }
+            // セグメントの末尾まで読んだ場合は、続きの連番から始まる次のセグメントに進む
+            Long nextSegment = segments.higher(position.segment());
+            if (nextSegment == null || nextSegment > position.nextSequence()) {
+                break;
+            }
+            position = new ReadPosition(nextSegment, 0, nextSegment);
+        }
+        readPosition = position;
+        return entries;
+    }
+
+    /**
+     * 指定した連番までのレコードしか含まないセグメントを削除する（処理済みのレコードを消す）
+     * ※書き込み中のセグメントは削除しない
+     *
+     * @param sequence 処理済みの最後の連番
+     * @throws IOException 削除に失敗した場合
+     */
+    public void deleteUpTo(long sequence) throws IOException {
+        for (Long segment : segments.headSet(activeFirstSequence(), false)) {
+            Long next = segments.higher(segment);
+            if (next == null || next > sequence + 1) {
+                break;
+            }
+            Files.deleteIfExists(segmentPath(segment));
+            segments.remove(segment);
+        }
+    }
+
+    /**
+     * 最後に追記したレコードの連番を返す
+     *
+     * @return 最後に追記したレコードの連番（まだ追記していない場合は、次の連番の1つ前）
+     */
+    public long lastSequence() {
+        synchronized (writeLock) {
+            return nextSequence - 1;
+        }
+    }
+
+    /**
+     * セグメントファイルの数を返す
+     *
+     * @return セグメントファイルの数
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                active.force(false);
+                durableSequence = nextSequence - 1;
+                active.close();
+            }
+        }
+    }
+
+    /**
+     * 指定した連番までのレコードがディスクに書き込まれるまで待つ
+     * 他のスレッドが既に書き込んでいれば何もせず、書き込む場合はその時点までに追記されたすべてのレコードをまとめて書き込む
+     */
+    private void sync(long sequence) throws IOException {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            FileChannel channel;
+            long target;
+            boolean full;
+            synchronized (writeLock) {
+                channel = active;
+                target = nextSequence - 1;
+                full = activeSize >= segmentSize;
+            }
+            channel.force(false);
+            durableSequence = target;
+            if (full) {
+                roll();
+            }
+        }
+    }
+
+    /**
+     * 書き込み中のセグメントを閉じ、次の連番から始まる新しいセグメントに切り替える（syncLock を取得して呼び出すこと）
+     */
+    private void roll() throws IOException {
+        synchronized (writeLock) {
+            active.force(false);
+            durableSequence = nextSequence - 1;
+            active.close();
+            openSegment(nextSequence);
+        }
+    }
+
+    /**
+     * 指定した連番から始まるセグメントを開く（既にあれば末尾に追記する）
+     */
+    private void openSegment(long firstSequence) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(firstSequence),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        activeSize = channel.size();
+        channel.position(activeSize);
+        active = channel;
+        activeFirstSequence = firstSequence;
+        segments.add(firstSequence);
+    }
+
+    private long activeFirstSequence() {
+        synchronized (writeLock) {
+            return activeFirstSequence;
+        }
+    }
+
+    /**
+     * セグメントを先頭から検査し、壊れたレコード（CRC32Cが一致しない、連番が続いていない、途中で切れている）以降を切り捨てる
+     *
+     * @return セグメントの最後の正しいレコードの連番（レコードがない場合は、セグメントの最初の連番の1つ前）
+     */
+    private long recover(long firstSequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(firstSequence),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long offset = 0;
+            long expected = firstSequence;
+            Entry entry = readRecord(channel, offset);
+            while (entry != null && entry.sequence() == expected) {
+                offset += HEADER_SIZE + entry.payload().length;
+                expected++;
+                entry = readRecord(channel, offset);
+            }
+            if (channel.size() > offset) {
+                channel.truncate(offset);
+            }
+            // プロセスの停止前にOSのキャッシュまでしか書き込まれていなかったレコードも、ディスクに書き込んでから読み取らせる
+            channel.force(false);
+            return expected - 1;
+        }
+    }
+
+    /**
+     * 指定した位置からレコードを1件読み取る
+     *
+     * @return 読み取ったレコード。ファイルの末尾に達した場合や、レコードが壊れている場合はnull
+     */
+    private static Entry readRecord(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (!readFully(channel, header, offset)) {
+            return null;
+        }
+        header.flip();
+        int length = header.getInt();
+        int crc = header.getInt();
+        long sequence = header.getLong();
+        if (length < 0 || length > MAX_PAYLOAD_SIZE) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        if (!readFully(channel, payload, offset + HEADER_SIZE)) {
+            return null;
+        }
+        if (checksum(sequence, payload.array()) != crc) {
+            return null;
+        }
+        return new Entry(sequence, payload.array());
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ByteBuffer encode(long sequence, byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt(checksum(sequence, payload));
+        buffer.putLong(sequence);
+        buffer.put(payload);
+        return buffer.flip();
+    }
+
+    private static int checksum(long sequence, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * ログのレコード
+     *
+     * @param sequence 連番
+     * @param payload  本文
+     */
+    public record Entry(long sequence, byte[] payload) {
+    }
+
+    /**
+     * 読み取りを終えた位置
+     *
+     * @param segment      セグメントの最初の連番
+     * @param offset       セグメント内の位置（バイト）
+     * @param nextSequence 次に読むレコードの連番
+     */
+    private record ReadPosition(long segment, long offset, long nextSequence) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.simple_crud_spring.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * バッチ処理の進捗を表すエンティティクラス
+ * DB上の job_checkpoints テーブルとマッピングされる
+ * 処理済みの位置を処理と同じトランザクションの中で記録し、アプリを再起動しても続きから再開できるようにする
+ */
+@Entity
+@Table(name = "job_checkpoints")
+public class JobCheckpoint {
+
+    /** バッチ処理の名前（主キー） */
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    /** 最後に処理した行の削除日時（未処理の場合はnull） */
+    @Column(name = "last_deleted_at")
+    private LocalDateTime lastDeletedAt;
+
+    /** 最後に処理した行のID（未処理の場合はnull） */
+    @Column(name = "last_id")
+    private Long lastId;
+
+    /** これまでに処理した行の数 */
+    @Column(name = "processed_rows", nullable = false)
+    private long processedRows;
+
+    /** 最後に進捗を記録した日時 */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /** JPAが使用するコンストラクタ */
+    protected JobCheckpoint() {
+    }
+
+    /**
+     * まだ何も処理していない状態の進捗を生成する
+     *
+     * @param jobName バッチ処理の名前
+     */
+    public JobCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    /**
+     * 処理済みの位置を進める
+     *
+     * @param deletedAt 最後に処理した行の削除日時
+     * @param id        最後に処理した行のID
+     * @param rows      今回処理した行の数
+     */
+    public void advance(LocalDateTime deletedAt, Long id, int rows) {
+        this.lastDeletedAt = deletedAt;
+        this.lastId = id;
+        this.processedRows += rows;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // --- 以下、ゲッター群 ---
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public LocalDateTime getLastDeletedAt() {
+        return lastDeletedAt;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public long getProcessedRows() {
+        return processedRows;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.jdbc.Expectation;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -13,22 +14,55 @@ import jakarta.validation.constraints.Size;
 /**
  * 投稿データを表すエンティティクラス
  * DB上の posts テーブルとマッピングされる
- * タイトル・本文・投稿者・作成日時・更新日時・論理削除日時を持つ
+ * タイトル・本文・本文の抜粋・投稿者・作成日時・更新日時・論理削除日時・版を持つ
+ * ※一覧では本文（TEXT型）を読まず、本文を設定した時に生成する抜粋（excerpt）を表示する
+ * ※更新時は版（version）を条件にUPDATE文を発行するため、読み込んだ後に他のトランザクションが更新していた場合は
+ * 上書きせずに例外（OptimisticLockingFailureException）となる
  */
 @Entity // このクラスがJPAエンティティであることを示す
-@Table(name = "posts")
-@SQLDelete(sql = "UPDATE posts SET deleted_at = NOW() WHERE id = ?") // delete実行時に物理削除せず、deleted_at を更新する
+// 未削除の投稿の一覧・ユーザーごとの一覧で使用するインデックス（MySQLでは Flyway のマイグレーションで作成する）
+@Table(name = "posts", indexes = {
+        @Index(name = Post.INDEX_DELETED_AT_CREATED_AT, columnList = "deleted_at, created_at"),
+        @Index(name = Post.INDEX_USER_ID_DELETED_AT_CREATED_AT, columnList = "user_id, deleted_at, created_at")
+})
+// delete実行時に物理削除せず、deleted_at を更新する
+// ※版を持つエンティティのため、Hibernateは ID と版の2つを渡す。読み込んだ後に更新されていた場合は削除しない（版も1増やす）
+// ※アプリの削除処理は PostWriteService がアプリの時刻で一括して論理削除する。この文は remove された場合に物理削除しないためのもの
+// （独自のSQLは既定では更新件数を確認しないため、RowCount で1件も更新されなかった場合を失敗として扱う）
+@SQLDelete(sql = "UPDATE posts SET deleted_at = CURRENT_TIMESTAMP(6), version = version + 1 WHERE id = ? AND version = ?",
+        verify = Expectation.RowCount.class)
 @SQLRestriction("deleted_at IS NULL") // 通常のSELECT時に deleted_at がNULLのデータだけ取得されるよう制限
 public class Post {
 
+    /** 未削除の投稿を作成日時順に読むためのインデックスの名前 */
+    public static final String INDEX_DELETED_AT_CREATED_AT = "idx_posts_deleted_at_created_at";
+
+    /** ユーザーごとに未削除の投稿を作成日時順に読むためのインデックスの名前 */
+    public static final String INDEX_USER_ID_DELETED_AT_CREATED_AT = "idx_posts_user_id_deleted_at_created_at";
+
+    /** タイトル・本文の全文検索用のインデックスの名前（MySQLのみ） */
+    public static final String INDEX_FULLTEXT_TITLE_CONTENT = "ft_posts_title_content";
+
+    /** 本文の抜粋の最大文字数（超えた部分は省略し、末尾に {@link #EXCERPT_ELLIPSIS} を付ける） */
+    public static final int EXCERPT_LENGTH = 100;
+
+    /** 本文の抜粋で、省略した部分を表す文字 */
+    public static final String EXCERPT_ELLIPSIS = "…";
+
+    /** 本文の最大のバイト数（UTF-8。MySQLの TEXT 型に保存できる大きさ） */
+    public static final int CONTENT_MAX_BYTES = 65_535;
+
     /** 投稿のID（主キー） */
     @Id // 主キーであることを示す
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // 自動採番する
+    // シーケンスで採番する（IDをまとめて払い出すため、INSERTをJDBCのバッチでまとめて実行できる）
+    // ※MySQLにはシーケンスがないため、Hibernateが posts_seq テーブルで代用する
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "posts_seq")
+    @SequenceGenerator(name = "posts_seq", sequenceName = "posts_seq", allocationSize = 50)
     private Long id;
 
     /** 投稿者（Userエンティティと多対一で紐づく） */
     @NotNull(message = "ユーザーIDを空にはできません（ログインしていますか？）")
-    @ManyToOne // 多対一のリレーション（投稿：ユーザー = 多：1）
+    @ManyToOne(fetch = FetchType.LAZY) // 多対一のリレーション（投稿：ユーザー = 多：1）。投稿の取得時に投稿者を自動では読み込まない
     @JoinColumn(name = "user_id") // 外部キーとして user_id カラムと結びつける
     private User user;
 
@@ -43,6 +77,14 @@ public class Post {
     @Column(nullable = false, columnDefinition = "TEXT") // DBでは明示的にTEXT型
     private String content;
 
+    /**
+     * 本文の抜粋（本文の先頭 {@link #EXCERPT_LENGTH} 文字。本文を設定した時に生成する）
+     * ※MySQLでは長い本文（TEXT型）は行とは別のページに保存され、読むたびに追加のI/Oが発生するため、
+     * 一覧ではこの列だけを読み、本文は投稿の詳細（ID指定の取得）でのみ読む
+     */
+    @Column(length = 255)
+    private String excerpt;
+
     /** 作成日時（初回保存時に自動設定） */
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -55,6 +97,11 @@ public class Post {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
+    /** 版（更新のたびにHibernateが1増やす。楽観的ロックに使用する） */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     /** 新規作成時に createdAt・updatedAt を現在時刻で初期化 */
     @PrePersist // エンティティが初めて保存される直前に実行される処理
     protected void onCreate() {
@@ -96,6 +143,11 @@ public class Post {
 
     public void setContent(String content) {
         this.content = content;
+        this.excerpt = excerptOf(content);
+    }
+
+    public String getExcerpt() {
+        return excerpt;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -110,4 +162,27 @@ public class Post {
         return deletedAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 本文から抜粋を生成する
+     * 連続する空白・改行を1つの空白にまとめ、先頭から {@link #EXCERPT_LENGTH} 文字を取り出す
+     * （サロゲートペアの途中で切らないよう、コードポイント単位で数える）
+     *
+     * @param content 本文
+     * @return 本文の抜粋（本文がnullの場合はnull）
+     */
+    public static String excerptOf(String content) {
+        if (content == null) {
+            return null;
+        }
+        String normalized = content.replaceAll("\\s+", " ").trim();
+        if (normalized.codePointCount(0, normalized.length()) <= EXCERPT_LENGTH) {
+            return normalized;
+        }
+        return normalized.substring(0, normalized.offsetByCodePoints(0, EXCERPT_LENGTH)) + EXCERPT_ELLIPSIS;
+    }
+
 }
@@ -0,0 +1,83 @@
+package com.example.simple_crud_spring.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * アーカイブされた投稿を表すエンティティクラス
+ * DB上の posts_archive テーブルとマッピングされる
+ * 論理削除から一定期間が経過した投稿は、posts テーブルからこのテーブルへ移動される（PostArchiveJob）
+ * ※行の追加は posts テーブルからの INSERT ... SELECT で行うため、このクラスは参照専用である
+ */
+@Entity
+@Table(name = "posts_archive")
+public class PostArchive {
+
+    /** 投稿のID（posts テーブルでのIDをそのまま使用する） */
+    @Id
+    private Long id;
+
+    /** 投稿者のユーザーID */
+    @Column(name = "user_id")
+    private Long userId;
+
+    /** 投稿タイトル */
+    @Column(nullable = false, length = 255)
+    private String title;
+
+    /** 投稿本文 */
+    @Lob
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    /** 作成日時 */
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    /** 更新日時 */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /** 削除日時 */
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    /** アーカイブした日時 */
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // --- 以下、ゲッター群 ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
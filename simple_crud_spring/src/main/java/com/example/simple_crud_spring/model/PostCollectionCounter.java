@@ -0,0 +1,60 @@
+package com.example.simple_crud_spring.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 投稿全体の版（投稿が変更された回数と、最後に変更された日時）を表すエンティティクラス
+ * DB上の post_collection_versions テーブルの1行（ID {@link #ID}）とマッピングされる
+ * 投稿を作成・更新・削除するたびに1増やし、一覧のETag・最新の投稿一覧の読み込み直しの判定に使用する
+ * （投稿全体を集計せずに、主キーによる1行の読み込みで判定できるようにする）
+ */
+@Entity
+@Table(name = "post_collection_versions")
+public class PostCollectionCounter {
+
+    /** 版を保持する行のID（1行だけ使用する） */
+    public static final int ID = 1;
+
+    /** 主キー（常に {@link #ID}） */
+    @Id
+    private Integer id;
+
+    /** 投稿が変更された回数 */
+    @Column(nullable = false)
+    private long version;
+
+    /** 最後に投稿が変更された日時 */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /** JPAが使用するコンストラクタ */
+    protected PostCollectionCounter() {
+    }
+
+    /**
+     * 最初の変更を記録した行を生成する（行がまだ存在しない場合に使用する）
+     *
+     * @param updatedAt 変更した日時
+     */
+    public PostCollectionCounter(LocalDateTime updatedAt) {
+        this.id = ID;
+        this.version = 1;
+        this.updatedAt = updatedAt;
+    }
+
+    // --- 以下、ゲッター群 ---
+
+    public Integer getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.simple_crud_spring.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 発行済みのリフレッシュトークンを表すエンティティクラス
+ * DB上の refresh_tokens テーブルとマッピングされる
+ * ※トークンそのものではなく、SHA-256のハッシュ値（16進数の文字列）を主キーとして保存する
+ */
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+
+    /** トークンのハッシュ値（主キー） */
+    @Id
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    /** トークンを発行したユーザーのID */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /** 有効期限 */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /** 発行日時 */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /** JPAが使用するコンストラクタ */
+    protected RefreshToken() {
+    }
+
+    /**
+     * 発行したリフレッシュトークンを生成する
+     *
+     * @param tokenHash トークンのハッシュ値
+     * @param userId    トークンを発行したユーザーのID
+     * @param createdAt 発行日時
+     * @param expiresAt 有効期限
+     */
+    public RefreshToken(String tokenHash, Long userId, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
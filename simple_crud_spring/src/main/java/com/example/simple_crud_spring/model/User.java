@@ -4,6 +4,8 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import jakarta.persistence.*;
+
+import org.hibernate.annotations.ColumnDefault;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Size;
@@ -19,9 +21,10 @@ import java.util.List;
 @Table(name = "users")
 public class User implements UserDetails {
 
-    /** ユーザーID（主キー、自動採番） */
+    /** ユーザーID（主キー、シーケンスで採番） */
     @Id // 主キー
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // 自動採番
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq") // 自動採番（MySQLでは users_seq テーブルで代用）
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     /** ユーザー名（表示名） */
@@ -42,6 +45,15 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private String password;
 
+    /**
+     * 投稿数（論理削除された投稿を除く）
+     * ※同時に投稿された場合に増分が失われないよう、エンティティの保存では書き込まず、
+     * UserRepository#addPostCount のUPDATE文で増減させる
+     */
+    @ColumnDefault("0")
+    @Column(name = "post_count", nullable = false, insertable = false, updatable = false)
+    private long postCount;
+
     // --- 以下、ゲッター・セッター（ID以外書き換え可能） ---
 
     public Long getId() {
@@ -60,6 +72,10 @@ public class User implements UserDetails {
         return userName;
     }
 
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
     public String getPassword() {
         return password;
     }
@@ -68,6 +84,10 @@ public class User implements UserDetails {
         this.password = password;
     }
 
+    public long getPostCount() {
+        return postCount;
+    }
+
     // --- UserDetails インタフェースの実装 ---
 
     /**
@@ -0,0 +1,130 @@
+package com.example.simple_crud_spring.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * DB接続の取得待ち時間から、DBの負荷が高い（接続プールが枯渇しかけている）かを判定するクラス
+ * 接続プール（HikariCP）が記録する hikaricp.connections.acquire のメトリクスを一定間隔で読み取り、
+ * 前回から今回までに取得された接続の平均待ち時間が閾値を超えていれば、負荷が高いと判定する。
+ * ※接続がすべて使用中のまま返されない場合は、取得が1回も完了せず平均待ち時間を求められない。
+ * この間に取得された接続がなく、取得を待っているスレッドがあり、使用中の接続数が最大数に達している接続プールがあれば、負荷が高いと判定する
+ * ※レプリカを有効にしている場合は、すべての接続プールの合計で判定する
+ */
+public class DatabaseLoadMonitor {
+
+    /** 接続の取得待ち時間を記録するメトリクスの名前 */
+    static final String ACQUIRE_METRIC = "hikaricp.connections.acquire";
+
+    /** 接続の取得を待っているスレッド数のメトリクスの名前 */
+    static final String PENDING_METRIC = "hikaricp.connections.pending";
+
+    /** 使用中の接続数のメトリクスの名前 */
+    static final String ACTIVE_METRIC = "hikaricp.connections.active";
+
+    /** 接続プールの最大接続数のメトリクスの名前 */
+    static final String MAX_METRIC = "hikaricp.connections.max";
+
+    /** 接続プールの名前を表すメトリクスのタグ */
+    static final String POOL_TAG = "pool";
+
+    /** メトリクスを読み取る間隔 */
+    private static final long SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MeterRegistry meterRegistry;
+    private final double thresholdNanos;
+    private final LongSupplier clock;
+    private final AtomicLong lastSampledAt;
+
+    /** 前回読み取った時点の、接続の取得回数と取得待ち時間の合計（読み取りを行うスレッドだけが更新する） */
+    private long previousCount;
+    private double previousTotalNanos;
+
+    /** 直近の判定結果 */
+    private volatile boolean overloaded;
+
+    /**
+     * 平均待ち時間の閾値を指定して生成する
+     *
+     * @param meterRegistry     接続プールのメトリクスを読み取るレジストリ
+     * @param maxConnectionWait 平均待ち時間の閾値
+     */
+    public DatabaseLoadMonitor(MeterRegistry meterRegistry, Duration maxConnectionWait) {
+        this(meterRegistry, maxConnectionWait, System::nanoTime);
+    }
+
+    /**
+     * 現在時刻の取得方法を指定して生成する（テスト用）
+     */
+    DatabaseLoadMonitor(MeterRegistry meterRegistry, Duration maxConnectionWait, LongSupplier clock) {
+        this.meterRegistry = meterRegistry;
+        this.thresholdNanos = maxConnectionWait.toNanos();
+        this.clock = clock;
+        this.lastSampledAt = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * DBの負荷が高いかを判定する
+     * 前回の読み取りから一定時間が経過していれば、メトリクスを読み取って判定し直す（読み取りは1つのスレッドだけが行う）
+     *
+     * @return 直近の接続の平均待ち時間が閾値を超えている場合、または接続プールが詰まっている場合は true
+     */
+    public boolean isOverloaded() {
+        long now = clock.getAsLong();
+        long last = lastSampledAt.get();
+        if (now - last >= SAMPLE_INTERVAL_NANOS && lastSampledAt.compareAndSet(last, now)) {
+            sample();
+        }
+        return overloaded;
+    }
+
+    /**
+     * 前回の読み取りからの、接続の平均待ち時間を求めて判定結果を更新する
+     */
+    private synchronized void sample() {
+        long count = 0;
+        double totalNanos = 0;
+        for (Timer timer : meterRegistry.find(ACQUIRE_METRIC).timers()) {
+            count += timer.count();
+            totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+        }
+
+        long acquired = count - previousCount;
+        double waited = totalNanos - previousTotalNanos;
+        previousCount = count;
+        previousTotalNanos = totalNanos;
+
+        if (acquired > 0) {
+            overloaded = waited / acquired > thresholdNanos;
+        } else {
+            // この間に接続が取得されていない場合は、使われていないのか、すべての接続が返されずに詰まっているのかを区別する
+            overloaded = isAnyPoolStalled();
+        }
+    }
+
+    /**
+     * 取得を待っているスレッドがあり、使用中の接続数が最大数に達している接続プールがあるかを判定する
+     *
+     * @return 該当する接続プールがある場合は true
+     */
+    private boolean isAnyPoolStalled() {
+        for (Gauge pending : meterRegistry.find(PENDING_METRIC).gauges()) {
+            String pool = pending.getId().getTag(POOL_TAG);
+            if (pending.value() <= 0 || pool == null) {
+                continue;
+            }
+            Gauge active = meterRegistry.find(ACTIVE_METRIC).tag(POOL_TAG, pool).gauge();
+            Gauge max = meterRegistry.find(MAX_METRIC).tag(POOL_TAG, pool).gauge();
+            if (active != null && max != null && active.value() >= max.value()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.simple_crud_spring.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * リクエスト数の制限に使用するBeanを定義する設定クラス
+ * ※{@link RateLimitFilter} はサーブレットのフィルターとして自動登録されないよう、Beanにはせず
+ * {@code WebConfig} で Spring Security のフィルタチェーンに追加する
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    /**
+     * DB接続の取得待ち時間からDBの負荷を判定するクラスをBeanとして定義する
+     *
+     * @param properties    リクエスト数の制限に関する設定（閾値は app.rate-limit.max-connection-wait）
+     * @param meterRegistry 接続プールのメトリクスを読み取るレジストリ
+     * @return DBの負荷を判定するクラス
+     */
+    @Bean
+    public DatabaseLoadMonitor databaseLoadMonitor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new DatabaseLoadMonitor(meterRegistry, properties.maxConnectionWait());
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.simple_crud_spring.ratelimit;
+
+import com.example.simple_crud_spring.dto.ErrorResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 書き込み・ログインのエンドポイントへのリクエスト数を制限し、負荷が高い場合はリクエストを拒否するフィルター
+ * 1つのクライアントが大量のリクエストを送信して、DB接続やパスワードの照合（BCrypt）のCPUを使い切ることを防ぐ。
+ * 制限対象（app.rate-limit.rules）のリクエストに対して、次の順に確認する。
+ * 1. DB接続の取得待ち時間が閾値を超えている場合は、503（Service Unavailable）を返す
+ * 2. IPアドレスごと・ユーザーごとのトークンバケットに空きがない場合は、429（Too Many Requests）を返す
+ * 3. 制限対象のリクエストの同時処理数が上限に達している場合は、503を返す
+ * いずれの場合も、再送までに待つべき秒数を Retry-After ヘッダーで返す。
+ *
+ * ※ログイン済みのユーザーを参照するため、Spring Security のフィルタチェーンの中（ログイン処理の前）で実行する（{@code WebConfig} を参照）
+ * ※IPアドレスは request.getRemoteAddr() で取得する。リバースプロキシの後ろで動かす場合は
+ * server.forward-headers-strategy を設定し、クライアントのIPアドレスが取得されるようにする
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /** 拒否したリクエスト数を記録するメトリクスの名前（タグ: rule=制限の名前, reason=拒否の理由） */
+    static final String REJECTED_METRIC = "app.ratelimit.rejected";
+
+    /** 同時処理数の上限・DBの負荷により拒否した場合に返す、再送までの秒数 */
+    private static final long OVERLOADED_RETRY_AFTER_SECONDS = 1;
+
+    /**
+     * 判定に使用する形に変換した、エンドポイントごとの制限
+     *
+     * @param name          制限の名前
+     * @param methods       対象のHTTPメソッド（空の場合はすべて）
+     * @param pattern       対象のパスのパターン
+     * @param userParameter ユーザーを識別するリクエストパラメータ（null の場合はログイン済みのユーザーで識別する）
+     * @param rule          制限の設定
+     */
+    private record CompiledRule(String name, Set<String> methods, PathPattern pattern, String userParameter,
+            RateLimitProperties.Rule rule) {
+
+        boolean matches(String method, PathContainer path) {
+            return (methods.isEmpty() || methods.contains(method)) && pattern.matches(path);
+        }
+    }
+
+    private final List<CompiledRule> rules;
+    private final Cache<String, TokenBucket> buckets;
+    private final Semaphore concurrentRequests;
+    private final DatabaseLoadMonitor databaseLoadMonitor;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 設定をもとにフィルターを生成する
+     *
+     * @param properties          リクエスト数の制限に関する設定
+     * @param databaseLoadMonitor DBの負荷の判定に使用する
+     * @param meterRegistry       拒否したリクエスト数を記録するレジストリ
+     * @param objectMapper        拒否した場合のレスポンス（JSON）の生成に使用する
+     */
+    public RateLimitFilter(RateLimitProperties properties, DatabaseLoadMonitor databaseLoadMonitor,
+            MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.rules = compile(properties.rules());
+        // 保持するバケットの数を制限し、アクセスのなくなったIPアドレス・ユーザーのバケットは破棄してメモリを解放する
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxKeys())
+                .expireAfterAccess(properties.idleTimeout())
+                .build();
+        this.concurrentRequests = new Semaphore(properties.maxConcurrentRequests());
+        this.databaseLoadMonitor = databaseLoadMonitor;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 制限対象のリクエストであれば、制限を確認してから後続の処理を行う
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompiledRule rule = findRule(request);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (databaseLoadMonitor.isOverloaded()) {
+            reject(response, rule, "overloaded", HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_RETRY_AFTER_SECONDS,
+                    "サーバーが混み合っています。しばらくしてから再度お試しください");
+            return;
+        }
+
+        long waitNanos = consume(rule, "ip:" + request.getRemoteAddr());
+        String user = resolveUser(request, rule);
+        if (waitNanos == 0 && user != null) {
+            waitNanos = consume(rule, "user:" + user);
+        }
+        if (waitNanos > 0) {
+            reject(response, rule, "rate", HttpStatus.TOO_MANY_REQUESTS,
+                    Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1))),
+                    "リクエストの回数が多すぎます。しばらくしてから再度お試しください");
+            return;
+        }
+
+        if (!concurrentRequests.tryAcquire()) {
+            reject(response, rule, "concurrency", HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED_RETRY_AFTER_SECONDS,
+                    "サーバーが混み合っています。しばらくしてから再度お試しください");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            concurrentRequests.release();
+        }
+    }
+
+    /**
+     * リクエストに該当する制限を返す（複数該当する場合は、パスのパターンがより具体的なもの）
+     *
+     * @return 該当する制限。制限対象でなければ null
+     */
+    private CompiledRule findRule(HttpServletRequest request) {
+        if (rules.isEmpty()) {
+            return null;
+        }
+        String method = request.getMethod().toUpperCase(Locale.ROOT);
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        for (CompiledRule rule : rules) {
+            if (rule.matches(method, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 指定したキーのバケットからトークンを1個消費する（バケットがなければ満タンの状態で作成する）
+     *
+     * @return 消費できた場合は0。できなかった場合は次のトークンが補充されるまでの時間（ナノ秒）
+     */
+    private long consume(CompiledRule rule, String key) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(rule.name() + "|" + key,
+                k -> new TokenBucket(rule.rule().capacity(), rule.rule().refillPerSecond(), now));
+        return bucket.tryConsume(now);
+    }
+
+    /**
+     * ユーザーごとの制限に使用する、ユーザーの識別子を返す
+     * 制限にリクエストパラメータが指定されていればその値（ログイン処理で入力されたメールアドレスなど）、
+     * 指定されていなければログイン済みのユーザー名を返す
+     *
+     * @return ユーザーの識別子。識別できない（未ログインなど）場合は null
+     */
+    private static String resolveUser(HttpServletRequest request, CompiledRule rule) {
+        if (rule.userParameter() != null) {
+            String value = request.getParameter(rule.userParameter());
+            return (value == null || value.isBlank()) ? null : value.trim().toLowerCase(Locale.ROOT);
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * リクエストを拒否し、再送までの秒数とエラー内容を返す
+     */
+    private void reject(HttpServletResponse response, CompiledRule rule, String reason, HttpStatus status,
+            long retryAfterSeconds, String message) throws IOException {
+        meterRegistry.counter(REJECTED_METRIC, "rule", rule.name(), "reason", reason).increment();
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), List.of(new ErrorResponseDto("request", message)));
+    }
+
+    /**
+     * 設定された制限を、判定に使用する形に変換する（パスのパターンがより具体的なものから順に並べる）
+     */
+    private static List<CompiledRule> compile(Map<String, RateLimitProperties.Rule> rules) {
+        if (rules == null) {
+            return List.of();
+        }
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        return rules.entrySet().stream()
+                .map(entry -> new CompiledRule(
+                        entry.getKey(),
+                        entry.getValue().methods() == null ? Set.of()
+                                : entry.getValue().methods().stream()
+                                        .map(method -> method.toUpperCase(Locale.ROOT))
+                                        .collect(Collectors.toUnmodifiableSet()),
+                        parser.parse(entry.getValue().path()),
+                        entry.getValue().userParameter(),
+                        entry.getValue()))
+                .sorted(Comparator.comparing(CompiledRule::pattern, PathPattern.SPECIFICITY_COMPARATOR))
+                .toList();
+    }
+}
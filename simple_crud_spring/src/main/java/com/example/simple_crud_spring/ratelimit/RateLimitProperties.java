@@ -0,0 +1,44 @@
+package com.example.simple_crud_spring.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * リクエスト数の制限と、負荷が高い場合のリクエストの拒否に関する設定（application.properties の app.rate-limit.*）
+ *
+ * @param enabled               制限を有効にするか
+ * @param maxKeys               保持するバケット（IPアドレス・ユーザーごと）の最大数。超えた場合は使われていないものから破棄する
+ * @param idleTimeout           この時間アクセスのないバケットを破棄する
+ * @param maxConcurrentRequests 制限対象のエンドポイントで同時に処理するリクエストの最大数（超えた場合は503を返す）
+ * @param maxConnectionWait     DB接続の取得待ち時間の平均がこの時間を超えた場合、制限対象のリクエストを拒否する（503を返す）
+ * @param rules                 エンドポイントごとの制限（キーは制限の名前。メトリクスのタグに使用する）
+ */
+@ConfigurationProperties("app.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") long maxKeys,
+        @DefaultValue("10m") Duration idleTimeout,
+        @DefaultValue("50") int maxConcurrentRequests,
+        @DefaultValue("500ms") Duration maxConnectionWait,
+        Map<String, Rule> rules) {
+
+    /**
+     * エンドポイントごとの制限
+     * IPアドレスごと・ユーザーごと（ログイン済みの場合はユーザー、ログイン処理の場合は入力されたメールアドレス）に、
+     * それぞれ別のトークンバケットを使用する
+     *
+     * @param methods         対象のHTTPメソッド（指定しない場合はすべて）
+     * @param path            対象のパスのパターン（例: /api/posts/*）
+     * @param userParameter   ユーザーを識別するリクエストパラメータ（ログイン処理など、未ログインのリクエストで使用する。
+     *                        指定しない場合はログイン済みのユーザーで識別し、未ログインであればIPアドレスだけで制限する）
+     * @param capacity        短時間に連続して受け付けるリクエスト数の上限
+     * @param refillPerSecond 1秒あたりに受け付けるリクエスト数（長期的な上限）
+     */
+    public record Rule(List<String> methods, String path, String userParameter, double capacity,
+            double refillPerSecond) {
+    }
+}
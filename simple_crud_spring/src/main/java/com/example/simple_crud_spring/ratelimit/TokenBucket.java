@@ -0,0 +1,62 @@
+package com.example.simple_crud_spring.ratelimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * トークンバケット方式でリクエスト数を制限するクラス
+ * バケットには最大 capacity 個のトークンが入り、1秒あたり refillPerSecond 個ずつ補充される。
+ * リクエストごとにトークンを1個消費し、トークンがなければそのリクエストは拒否する。
+ * （短時間に capacity 回までの集中は許容し、長期的には1秒あたり refillPerSecond 回に制限する）
+ *
+ * ※状態（トークン数と最後に補充した時刻）を1つの不変オブジェクトにまとめ、CAS（compareAndSet）で更新するため、
+ * 同じバケットに同時にアクセスしてもロックを取得せずに済む
+ */
+final class TokenBucket {
+
+    /**
+     * バケットの状態
+     *
+     * @param tokens     残りのトークン数
+     * @param refilledAt 最後に補充した時刻（System.nanoTime() の値）
+     */
+    private record State(double tokens, long refilledAt) {
+    }
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    /**
+     * トークンが満タンの状態のバケットを生成する
+     *
+     * @param capacity        バケットに入るトークンの最大数
+     * @param refillPerSecond 1秒あたりに補充するトークンの数
+     * @param now             現在時刻（System.nanoTime() の値）
+     */
+    TokenBucket(double capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1_000_000_000.0;
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    /**
+     * トークンを1個消費する
+     *
+     * @param now 現在時刻（System.nanoTime() の値）
+     * @return 消費できた場合は0。トークンがない場合は、次のトークンが補充されるまでの時間（ナノ秒）
+     */
+    long tryConsume(long now) {
+        while (true) {
+            State current = state.get();
+            long refilledAt = Math.max(now, current.refilledAt());
+            double tokens = Math.min(capacity, current.tokens() + (refilledAt - current.refilledAt()) * tokensPerNano);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, refilledAt))) {
+                return 0;
+            }
+            // 他のスレッドが先に更新した場合は、最新の状態で計算し直す
+        }
+    }
+}
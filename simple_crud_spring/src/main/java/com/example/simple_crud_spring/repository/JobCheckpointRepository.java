@@ -0,0 +1,31 @@
+package com.example.simple_crud_spring.repository;
+
+import com.example.simple_crud_spring.model.JobCheckpoint;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * バッチ処理の進捗 {@link JobCheckpoint} に対するデータアクセス操作を定義するリポジトリインタフェース
+ */
+@Transactional(readOnly = true)
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+
+    /**
+     * 指定されたバッチ処理の進捗を、トランザクションの終了まで他のトランザクションから更新できないようロックして取得する
+     * ※アプリを複数台で動かしている場合に、同じバッチ処理が同じ行を重複して処理しないようにする
+     *
+     * @param jobName バッチ処理の名前
+     * @return 進捗が記録されていれば Optional に包んで返す 記録されていなければ空のOptional
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM JobCheckpoint c WHERE c.jobName = :jobName")
+    Optional<JobCheckpoint> findForUpdate(@Param("jobName") String jobName);
+}
@@ -0,0 +1,74 @@
+package com.example.simple_crud_spring.repository;
+
+import com.example.simple_crud_spring.dto.ArchivablePostRow;
+import com.example.simple_crud_spring.model.PostArchive;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * アーカイブされた投稿 {@link PostArchive} に対するデータアクセス操作と、
+ * posts テーブルからアーカイブへ移動するためのクエリを定義するリポジトリインタフェース
+ * ※論理削除された投稿は @SQLRestriction によりJPQLでは扱えないため、ネイティブクエリを使用する
+ */
+@Transactional(readOnly = true)
+public interface PostArchiveRepository extends JpaRepository<PostArchive, Long> {
+
+    /**
+     * 指定した期間に論理削除された投稿を、削除日時の昇順に指定件数取得する
+     * ※論理削除日時を先頭の列とするインデックス（{@code idx_posts_deleted_at_created_at}）の順に読むため、
+     * 対象が大量にあっても並べ替えは発生せず、指定件数を読んだ時点で終了する
+     * ※処理済みの投稿は posts テーブルから削除されるため、前回の位置と同じ削除日時の投稿を含めて取得しても重複しない
+     *
+     * @param deletedFrom   この日時以降に削除された投稿を対象とする（前回最後に処理した投稿の削除日時）
+     * @param deletedBefore この日時より前に削除された投稿を対象とする
+     * @param limit         取得する最大件数
+     * @return アーカイブ対象の投稿のIDと削除日時のリスト
+     */
+    @Query(value = """
+            SELECT id AS id, deleted_at AS deletedAt FROM posts
+            WHERE deleted_at >= :deletedFrom AND deleted_at < :deletedBefore
+            ORDER BY deleted_at
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ArchivablePostRow> findArchivable(@Param("deletedFrom") LocalDateTime deletedFrom,
+            @Param("deletedBefore") LocalDateTime deletedBefore, @Param("limit") int limit);
+
+    /**
+     * 指定されたIDの論理削除済みの投稿を、アーカイブテーブルへ複製する
+     * ※既にアーカイブされている投稿は複製しない（同じ投稿を再度処理しても重複しない）
+     *
+     * @param ids        対象の投稿IDのリスト
+     * @param archivedAt アーカイブした日時
+     * @return 複製した件数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO posts_archive (id, user_id, title, content, created_at, updated_at, deleted_at, archived_at)
+            SELECT p.id, p.user_id, p.title, p.content, p.created_at, p.updated_at, p.deleted_at, :archivedAt
+            FROM posts p
+            WHERE p.id IN (:ids) AND p.deleted_at IS NOT NULL
+                AND NOT EXISTS (SELECT 1 FROM posts_archive a WHERE a.id = p.id)
+            """, nativeQuery = true)
+    int copyToArchive(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * 指定されたIDの論理削除済みの投稿を、posts テーブルから物理削除する
+     * ※論理削除されていない投稿は削除しない
+     *
+     * @param ids 対象の投稿IDのリスト
+     * @return 削除した件数
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM posts WHERE id IN (:ids) AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purgeDeleted(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,43 @@
+package com.example.simple_crud_spring.repository;
+
+import com.example.simple_crud_spring.dto.PostCollectionVersion;
+import com.example.simple_crud_spring.model.PostCollectionCounter;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * 投稿全体の版 {@link PostCollectionCounter} に対するデータアクセス操作を定義するリポジトリインタフェース
+ * ※参照系のクエリは読み取り専用のトランザクションで実行する（レプリカが有効な場合はレプリカで実行される。
+ * 版は投稿の変更の後に更新するため、レプリカでも投稿より先に版が進むことはない）
+ */
+@Transactional(readOnly = true)
+public interface PostCollectionCounterRepository extends JpaRepository<PostCollectionCounter, Integer> {
+
+    /**
+     * 投稿全体の版を取得する（主キーによる1行の読み込み）
+     *
+     * @return 投稿全体の版。まだ1回も投稿が変更されていない（行がない）場合は空のOptional
+     */
+    @Query("SELECT new com.example.simple_crud_spring.dto.PostCollectionVersion(c.version, c.updatedAt)"
+            + " FROM PostCollectionCounter c WHERE c.id = " + PostCollectionCounter.ID)
+    Optional<PostCollectionVersion> findCurrent();
+
+    /**
+     * 投稿全体の版を1増やす
+     *
+     * @param updatedAt 変更した日時（アプリの時計の日時）
+     * @return 更新した件数（行がまだ存在しない場合は0）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PostCollectionCounter c SET c.version = c.version + 1, c.updatedAt = :updatedAt"
+            + " WHERE c.id = " + PostCollectionCounter.ID)
+    int increment(@Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -1,14 +1,305 @@
 package com.example.simple_crud_spring.repository;
 
+import com.example.simple_crud_spring.config.CacheConfig;
+import com.example.simple_crud_spring.dto.PostDetailDto;
+import com.example.simple_crud_spring.dto.PostSearchRow;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
 import com.example.simple_crud_spring.model.Post;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 投稿エンティティ {@link Post} に対するデータアクセス操作を定義するリポジトリインタフェース
- * ※現在は、{@link JpaRepository} によって提供される基本的なCRUD操作（保存、取得、削除など）のみを使用しており、
- * このインタフェース自体には独自のメソッド定義は存在しない。
- * 今後、特定の条件による検索やカスタムクエリの追加が必要になった場合に備え、拡張可能な形で作成している。
+ * {@link JpaRepository} によって提供される基本的なCRUD操作に加え、
+ * 投稿一覧をキーセット方式（作成日時・IDをカーソルとする方式）でページングするためのクエリを定義する。
+ * ※OFFSET方式と異なり、読み飛ばす行数に比例してクエリが遅くならない
+ * ※参照系のクエリは投稿と投稿者を結合して {@link PostSummaryDto} を直接生成するため、
+ * 件数に関わらず1回のSQLで完了する（投稿者ごとの追加クエリ、いわゆるN+1問題が発生しない）
+ * ※ID指定の取得と一覧の1ページ目はキャッシュされる。投稿を変更した場合は {@link CacheConfig} のキャッシュを破棄すること
+ * ※参照系のクエリは読み取り専用のトランザクションで実行する（レプリカが有効な場合はレプリカで実行される）
+ * ただしキャッシュするクエリは、遅れているレプリカの内容がキャッシュに入り、全員に返され続けないよう、
+ * 読み取り専用のトランザクションを開始せずに実行する（トランザクションの外ではプライマリから読む）。
+ * 読み取り専用のトランザクションの中から呼び出さないこと
+ * ※一覧のクエリは本文（TEXT型）を読まずに抜粋を読む。本文はID指定の取得（{@link #findDetailById}）でのみ読む
  */
+@Transactional(readOnly = true)
 public interface PostRepository extends JpaRepository<Post, Long> {
-    // 追加のメソッドは現在未定義（将来の拡張用）
+
+    /** ストリーミング取得時にJDBCドライバが1回の通信で取得する行数 */
+    String STREAM_FETCH_SIZE = "500";
+
+    /** 投稿と投稿者を結合して {@link PostSummaryDto} を生成するSELECT句・FROM句（本文は読まない） */
+    String SELECT_SUMMARY = """
+            SELECT new com.example.simple_crud_spring.dto.PostSummaryDto(
+                p.id, p.title, p.excerpt, u.id, u.userName, p.createdAt, p.updatedAt)
+            FROM Post p JOIN p.user u
+            """;
+
+    /** 投稿と投稿者を結合して {@link PostDetailDto} を生成するSELECT句・FROM句（本文を読む） */
+    String SELECT_DETAIL = """
+            SELECT new com.example.simple_crud_spring.dto.PostDetailDto(
+                p.id, p.title, p.content, u.id, u.userName, p.createdAt, p.updatedAt, p.version)
+            FROM Post p JOIN p.user u
+            """;
+
+    /** 新しい順（作成日時の降順、同時刻の場合はIDの降順）に並べるORDER BY句 */
+    String ORDER_BY_LATEST = " ORDER BY p.createdAt DESC, p.id DESC";
+
+    /**
+     * 全文検索用のSELECT句・FROM句・WHERE句（MySQLのネイティブクエリ）
+     * タイトル・本文のFULLTEXTインデックス（ngramパーサー）を使用して検索し、関連度を score として取得する
+     * ※ネイティブクエリには @SQLRestriction が適用されないため、論理削除された投稿を明示的に除外する
+     */
+    String SELECT_SEARCH = """
+            SELECT p.id AS id, p.title AS title, p.excerpt AS excerpt,
+                u.id AS userId, u.user_name AS userName,
+                p.created_at AS createdAt, p.updated_at AS updatedAt,
+                MATCH(p.title, p.content) AGAINST (:query IN BOOLEAN MODE) AS score
+            FROM posts p JOIN users u ON u.id = p.user_id
+            WHERE MATCH(p.title, p.content) AGAINST (:query IN BOOLEAN MODE)
+                AND p.deleted_at IS NULL
+            """;
+
+    /** 関連度の高い順（同じ関連度の場合はIDの降順）に並べて件数を制限するORDER BY句・LIMIT句 */
+    String ORDER_BY_SCORE = " ORDER BY score DESC, p.id DESC LIMIT :limit";
+
+    /**
+     * すべての投稿を新しい順に取得する
+     *
+     * @return 投稿のリスト
+     */
+    @Query(SELECT_SUMMARY + ORDER_BY_LATEST)
+    List<PostSummaryDto> findAllSummaries();
+
+    /**
+     * 指定されたIDの投稿を、本文を含めて取得する
+     * ※存在しなかった結果はキャッシュしない（後から同じIDで作成された場合に見つからなくなるため）
+     * ※キャッシュに入れるため、読み取り専用のトランザクションを開始せず、プライマリから読む
+     *
+     * @param id 取得対象の投稿ID
+     * @return 該当する投稿が存在すれば Optional に包んで返す 存在しなければ空のOptional
+     */
+    @Cacheable(cacheNames = CacheConfig.POSTS, unless = "#result == null")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    @Query(SELECT_DETAIL + " WHERE p.id = :id")
+    Optional<PostDetailDto> findDetailById(@Param("id") Long id);
+
+    /**
+     * 指定されたIDの投稿を、本文を含めずに取得する（部分更新の後の通知用）
+     * ※キャッシュしない
+     *
+     * @param id 取得対象の投稿ID
+     * @return 該当する投稿が存在すれば Optional に包んで返す 存在しなければ空のOptional
+     */
+    @Query(SELECT_SUMMARY + " WHERE p.id = :id")
+    Optional<PostSummaryDto> findSummaryById(@Param("id") Long id);
+
+    /**
+     * 指定されたIDの投稿の版を取得する
+     *
+     * @param id 取得対象の投稿ID
+     * @return 該当する投稿が存在すれば版を Optional に包んで返す 存在しなければ空のOptional
+     */
+    @Query("SELECT p.version FROM Post p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * 新しい順に先頭から指定件数の投稿を取得する（一覧の1ページ目）
+     * ※最も参照が多いページのため、取得件数ごとにキャッシュする
+     * ※キャッシュに入れるため、読み取り専用のトランザクションを開始せず、プライマリから読む
+     *
+     * @param limit 取得する最大件数
+     * @return 作成日時の降順（同時刻の場合はIDの降順）に並んだ投稿のリスト
+     */
+    @Cacheable(cacheNames = CacheConfig.POST_FIRST_PAGES, key = "#p0.max()")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    @Query(SELECT_SUMMARY + ORDER_BY_LATEST)
+    List<PostSummaryDto> findLatest(Limit limit);
+
+    /**
+     * 新しい順に先頭から指定件数の投稿を、キャッシュを使用せずに取得する
+     * ※最新の投稿一覧（LatestPostsTimeline）をDBの内容で作り直す際に使用する
+     *
+     * @param limit 取得する最大件数
+     * @return 作成日時の降順（同時刻の場合はIDの降順）に並んだ投稿のリスト
+     */
+    @Query(SELECT_SUMMARY + ORDER_BY_LATEST)
+    List<PostSummaryDto> findLatestUncached(Limit limit);
+
+    /**
+     * 指定したカーソル（作成日時・ID）より古い投稿を、新しい順に指定件数取得する（一覧の2ページ目以降）
+     *
+     * @param createdAt 前ページ最後の投稿の作成日時
+     * @param id        前ページ最後の投稿のID
+     * @param limit     取得する最大件数
+     * @return カーソルより後ろに並ぶ投稿のリスト
+     */
+    @Query(SELECT_SUMMARY
+            + " WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)"
+            + ORDER_BY_LATEST)
+    List<PostSummaryDto> findOlderThan(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+            Limit limit);
+
+    /**
+     * 指定されたユーザーの投稿を、新しい順に先頭から指定件数取得する（ユーザーごとの一覧の1ページ目）
+     * ※投稿者・論理削除日時・作成日時のインデックス（{@link Post#INDEX_USER_ID_DELETED_AT_CREATED_AT}）を使用する
+     *
+     * @param userId 投稿者のユーザーID
+     * @param limit  取得する最大件数
+     * @return 作成日時の降順（同時刻の場合はIDの降順）に並んだ投稿のリスト
+     */
+    @Query(SELECT_SUMMARY + " WHERE p.user.id = :userId" + ORDER_BY_LATEST)
+    List<PostSummaryDto> findLatestByUserId(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * 指定されたユーザーの投稿のうち、指定したカーソル（作成日時・ID）より古い投稿を、新しい順に指定件数取得する
+     * （ユーザーごとの一覧の2ページ目以降）
+     *
+     * @param userId    投稿者のユーザーID
+     * @param createdAt 前ページ最後の投稿の作成日時
+     * @param id        前ページ最後の投稿のID
+     * @param limit     取得する最大件数
+     * @return カーソルより後ろに並ぶ投稿のリスト
+     */
+    @Query(SELECT_SUMMARY
+            + " WHERE p.user.id = :userId"
+            + " AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id))"
+            + ORDER_BY_LATEST)
+    List<PostSummaryDto> findOlderThanByUserId(@Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    /**
+     * すべての投稿を新しい順にストリームとして取得する
+     * 結果セットはフェッチサイズ単位でDBから読み込まれるため、件数が多くても全件をメモリに載せることはない。
+     * ※呼び出し側はトランザクション内で使用し、使い終わったら必ずストリームをcloseすること
+     *
+     * @return 投稿のストリーム
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_SUMMARY + ORDER_BY_LATEST)
+    Stream<PostSummaryDto> streamAll();
+
+    /**
+     * 指定されたIDの投稿を、投稿者と合わせて1回のクエリで取得する（更新用）
+     * ※更新後のレスポンスに投稿者を含めるため、投稿者を遅延読み込みせずに済むよう結合して取得する
+     *
+     * @param id 取得対象の投稿ID
+     * @return 該当する投稿が存在すれば Optional に包んで返す 存在しなければ空のOptional
+     */
+    @Query("SELECT p FROM Post p JOIN FETCH p.user WHERE p.id = :id")
+    Optional<Post> findWithUserById(@Param("id") Long id);
+
+    /**
+     * 指定されたIDの投稿を、投稿者と合わせて1回のクエリで取得する（一括更新用）
+     *
+     * @param ids 取得対象の投稿IDのリスト
+     * @return 該当する投稿のリスト（存在しないIDの投稿は含まれない）
+     */
+    @Query("SELECT p FROM Post p JOIN FETCH p.user WHERE p.id IN :ids")
+    List<Post> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 指定されたIDの投稿を、トランザクションの終了まで他のトランザクションから更新できないようロックして取得する（削除用）
+     * ※同じ投稿を同時に削除した場合に、投稿者の投稿数が二重に減らされないようにする
+     * （後から削除する側は先に削除した側のコミットを待ち、削除済みの投稿は取得されない）
+     *
+     * @param ids 取得対象の投稿IDのリスト
+     * @return 該当する投稿のリスト（存在しないIDの投稿・削除済みの投稿は含まれない）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Post p WHERE p.id IN :ids")
+    List<Post> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 指定されたIDの投稿をまとめて論理削除する
+     * ※エンティティの削除（@SQLDelete）は1件ごとにUPDATE文を発行するため、一括削除ではこちらを使用する
+     * ※削除日時はDBの時計ではなく、作成日時・更新日時（@PrePersist・@PreUpdate）と同じくアプリの時計で決める
+     *
+     * @param ids 削除対象の投稿IDのリスト
+     * @param now 削除日時
+     * @return 削除した件数（既に削除されていた投稿・存在しない投稿は含まれない）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.deletedAt = :now WHERE p.id IN :ids AND p.deletedAt IS NULL")
+    int softDeleteAllByIdIn(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * 投稿のタイトル・本文のうち、指定された項目だけを1回のUPDATE文で更新する（部分更新）
+     * 投稿を読み込まずに更新するため、読み込み・更新の間に他のリクエストの更新が割り込むことがない。
+     * 版の指定がある場合は、版が一致する場合のみ更新する
+     * ※一括更新のUPDATE文では @PreUpdate・@Version が働かないため、更新日時・版はこのクエリで更新する
+     * （更新日時は @PreUpdate と同じくアプリの時計で決め、引数で受け取る。Last-Modified がDBとアプリの時計のずれで前後しないようにする）
+     *
+     * @param id              更新対象の投稿ID
+     * @param title           新しいタイトル（nullの場合は変更しない）
+     * @param content         新しい本文（nullの場合は変更しない）
+     * @param excerpt         新しい本文の抜粋（本文を変更しない場合はnull）
+     * @param expectedVersion 更新の条件とする版（nullの場合は版を確認しない）
+     * @param now             更新日時
+     * @return 更新した件数（投稿が存在しない、削除済み、または版が一致しない場合は0）
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE Post p SET
+                p.title = COALESCE(:title, p.title),
+                p.content = COALESCE(:content, p.content),
+                p.excerpt = COALESCE(:excerpt, p.excerpt),
+                p.updatedAt = :now,
+                p.version = p.version + 1
+            WHERE p.id = :id AND p.deletedAt IS NULL
+                AND (:expectedVersion IS NULL OR p.version = :expectedVersion)
+            """)
+    int patch(@Param("id") Long id, @Param("title") String title, @Param("content") String content,
+            @Param("excerpt") String excerpt, @Param("expectedVersion") Long expectedVersion,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * タイトル・本文を全文検索し、関連度の高い順に先頭から指定件数の投稿を取得する（検索結果の1ページ目）
+     *
+     * @param query MySQLのBOOLEAN MODEの検索式
+     * @param limit 取得する最大件数
+     * @return 関連度の降順（同じ関連度の場合はIDの降順）に並んだ検索結果のリスト
+     */
+    @Query(value = SELECT_SEARCH + ORDER_BY_SCORE, nativeQuery = true)
+    List<PostSearchRow> search(@Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * タイトル・本文を全文検索し、指定したカーソル（関連度・ID）より後ろの投稿を指定件数取得する（検索結果の2ページ目以降）
+     * ※SELECT句で求めた関連度を再計算しないよう、HAVING句で別名を参照して絞り込む
+     *
+     * @param query MySQLのBOOLEAN MODEの検索式
+     * @param score 前ページ最後の投稿の関連度
+     * @param id    前ページ最後の投稿のID
+     * @param limit 取得する最大件数
+     * @return カーソルより後ろに並ぶ検索結果のリスト
+     */
+    @Query(value = SELECT_SEARCH
+            + " HAVING score < :score OR (score = :score AND id < :id)"
+            + ORDER_BY_SCORE, nativeQuery = true)
+    List<PostSearchRow> searchAfter(@Param("query") String query, @Param("score") double score,
+            @Param("id") Long id, @Param("limit") int limit);
 }
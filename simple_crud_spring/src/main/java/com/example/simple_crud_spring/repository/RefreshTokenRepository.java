@@ -0,0 +1,43 @@
+package com.example.simple_crud_spring.repository;
+
+import com.example.simple_crud_spring.model.RefreshToken;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * リフレッシュトークン {@link RefreshToken} に対するデータアクセス操作を定義するリポジトリインタフェース
+ */
+@Transactional(readOnly = true)
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    /**
+     * 指定されたリフレッシュトークンを削除する（使用済みにする）
+     * ※同じトークンで同時に更新された場合でも、削除できる（1件を返す）のは一方だけのため、
+     * 削除件数を確認することでトークンが2回使われることを防ぐ
+     *
+     * @param tokenHash トークンのハッシュ値
+     * @param now       現在日時（有効期限が切れたトークンは削除せず、0件を返す）
+     * @return 削除した件数（0または1）
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.tokenHash = :tokenHash AND t.expiresAt > :now")
+    int consume(@Param("tokenHash") String tokenHash, @Param("now") LocalDateTime now);
+
+    /**
+     * 有効期限が切れたリフレッシュトークンをまとめて削除する
+     *
+     * @param now 現在日時
+     * @return 削除した件数
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
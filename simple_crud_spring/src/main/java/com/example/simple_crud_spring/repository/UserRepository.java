@@ -1,16 +1,43 @@
 package com.example.simple_crud_spring.repository;
 
+import com.example.simple_crud_spring.config.CacheConfig;
+import com.example.simple_crud_spring.dto.UserProfileDto;
 import com.example.simple_crud_spring.model.User;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * ユーザーエンティティに対するデータアクセス操作を定義するリポジトリインタフェース
  * Spring Data JPA により、自動的に実装が提供される。
+ * ※IDによる検索結果はキャッシュされる（見つからなかった結果はキャッシュしない）
+ * ※メールアドレスによる検索はログイン時に使用され、その結果は認証処理側（AppConfig の UserCache）でキャッシュされる
+ * ※参照系のクエリは読み取り専用のトランザクションで実行する（レプリカが有効な場合はレプリカで実行される）
  */
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * 指定されたIDのユーザーを検索する
+     *
+     * @param id 検索対象のユーザーID
+     * @return 該当するユーザーが存在すれば Optional に包んで返す 存在しなければ空のOptional
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_ID, unless = "#result == null")
+    Optional<User> findById(Long id);
+
     /**
      * 指定されたメールアドレスに一致するユーザーを検索する
      *
@@ -26,4 +53,41 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return 登録されていれば true、そうでなければ false
      */
     boolean existsByEmail(String email);
+
+    /**
+     * 登録済みのすべてのメールアドレスを、1件ずつ読み込むストリームとして取得する
+     * ※トランザクション内で使用し、使用後は必ず close すること
+     *
+     * @return メールアドレスのストリーム
+     */
+    @Query("SELECT u.email FROM User u")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = PostRepository.STREAM_FETCH_SIZE))
+    Stream<String> streamAllEmails();
+
+    /**
+     * 指定されたIDのユーザーのプロフィールを取得する
+     * ※投稿数は users テーブルに保持している値を返すため、投稿の件数は数えない
+     * ※投稿数は頻繁に変わるため、キャッシュしない
+     *
+     * @param id 取得対象のユーザーID
+     * @return 該当するユーザーが存在すれば Optional に包んで返す 存在しなければ空のOptional
+     */
+    @Query("SELECT new com.example.simple_crud_spring.dto.UserProfileDto(u.id, u.userName, u.postCount)"
+            + " FROM User u WHERE u.id = :id")
+    Optional<UserProfileDto> findProfileById(@Param("id") Long id);
+
+    /**
+     * 指定されたユーザーの投稿数を増減させる
+     * 1回のUPDATE文で現在の値に加算するため、同じユーザーが同時に投稿しても増分が失われない
+     * （更新した行は、トランザクションの終了までロックされる）
+     * ※投稿数が負にならない場合のみ更新する
+     *
+     * @param id    対象のユーザーID
+     * @param delta 増減させる数（減らす場合は負の数）
+     * @return 更新した件数（ユーザーが存在しない場合、または投稿数が負になる場合は0）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.postCount = u.postCount + :delta WHERE u.id = :id AND u.postCount + :delta >= 0")
+    int addPostCount(@Param("id") Long id, @Param("delta") long delta);
 }
@@ -1,15 +1,21 @@
 package com.example.simple_crud_spring.service;
 
+import com.example.simple_crud_spring.config.CacheConfig;
+import com.example.simple_crud_spring.model.User;
 import com.example.simple_crud_spring.repository.UserRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
 /**
  * Spring Security の認証処理において、指定されたユーザー情報をデータベースから取得するためのサービスクラス
  * UserDetailsServiceインターフェースを実装し、emailを用いたユーザーの検索と返却を行う
+ * また、UserDetailsPasswordServiceインターフェースを実装し、ログイン時のパスワードの再ハッシュ結果を保存する
+ * ※ログイン時は AppConfig で定義したキャッシュを経由して呼び出されるため、キャッシュにない場合のみ実行される
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -37,4 +43,25 @@ public class CustomUserDetailsService implements UserDetailsService {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
+
+    /**
+     * ハッシュし直したパスワードを保存する
+     * パスワードの強度の設定が変更された後、ログインに成功した際に Spring Security から自動で呼び出される
+     * ※古いハッシュを持つユーザー情報が使われないよう、該当ユーザーのキャッシュを破棄する
+     *
+     * @param user        ログインしたユーザー
+     * @param newPassword 新しい強度でハッシュしたパスワード
+     * @return パスワードを更新したユーザー情報
+     */
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#user.username"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_ID, key = "#result.id")
+    })
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User target = userRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        target.setPassword(newPassword);
+        return userRepository.save(target);
+    }
 }
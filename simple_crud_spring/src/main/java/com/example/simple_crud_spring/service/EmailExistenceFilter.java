@@ -0,0 +1,146 @@
+package com.example.simple_crud_spring.service;
+
+import com.example.simple_crud_spring.repository.UserRepository;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * 登録済みのメールアドレスを、メモリ上のブルームフィルタで管理するクラス
+ * 「登録されていない」と判定したアドレスは確実に未登録のため、新規登録時にDBへの存在確認を省略できる。
+ * 「登録されているかもしれない」と判定したアドレスは誤判定（偽陽性）を含むため、DBで確認する必要がある。
+ * ※フィルタはサーバーごとに保持するため、他のサーバーで登録されたアドレスは含まれない。
+ *   そのため重複の最終的な判定は users.email の一意制約で行い、このクラスは事前の確認を省略するためだけに使用する
+ * ※起動時に users.email をすべて読み込む。読み込みが終わるまでは、すべてのアドレスを「登録されているかもしれない」と判定する
+ */
+@Component
+public class EmailExistenceFilter implements SmartInitializingSingleton {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private final Counter absentCounter;
+    private final Counter mightExistCounter;
+
+    /** 読み込み済みのフィルタ（無効な場合・読み込み前は null） */
+    private volatile BloomFilter<CharSequence> filter;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param userRepository     登録済みのメールアドレスを読み込むリポジトリ
+     * @param transactionManager 読み込み時のトランザクションを管理するマネージャー
+     * @param meterRegistry      判定結果の件数を記録するレジストリ
+     * @param enabled            フィルタを使用するかどうか
+     * @param expectedInsertions 想定する登録件数（これを超えると誤判定の割合が設定値より高くなる）
+     * @param falsePositiveRate  未登録のアドレスを「登録されているかもしれない」と誤判定する割合
+     */
+    public EmailExistenceFilter(UserRepository userRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.users.email-filter.enabled:true}") boolean enabled,
+            @Value("${app.users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${app.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        // 読み取り専用にするとレプリカで実行されるため、レプリケーションの遅れで登録直後のアドレスが漏れないよう、
+        // 通常のトランザクション（プライマリ）で読み込む
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+
+        this.absentCounter = Counter.builder("app.users.email-filter.checks")
+                .description("Email address checks made by the registration filter")
+                .tag("result", "absent")
+                .register(meterRegistry);
+        this.mightExistCounter = Counter.builder("app.users.email-filter.checks")
+                .description("Email address checks made by the registration filter")
+                .tag("result", "might-exist")
+                .register(meterRegistry);
+        Gauge.builder("app.users.email-filter.expected-fpp", this,
+                        f -> f.filter == null ? 1.0 : f.filter.expectedFpp())
+                .description("Estimated false positive rate at the current number of registered users")
+                .register(meterRegistry);
+    }
+
+    /**
+     * すべてのBeanの生成後（マイグレーション・テーブル作成の後）に、登録済みのメールアドレスを読み込む
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * 登録済みのメールアドレスをすべて読み込み、フィルタを作り直す
+     * ※読み込み中に登録されたアドレスが含まれない場合があるが、その場合も一意制約で重複を検出できる
+     */
+    public void load() {
+        BloomFilter<CharSequence> loaded = transactionTemplate.execute(status -> {
+            // 登録件数が想定より多い場合は、誤判定の割合が上がらないよう余裕を持たせる
+            long size = Math.max(expectedInsertions, userRepository.count() * 2);
+            BloomFilter<CharSequence> created = BloomFilter.create(
+                    Funnels.stringFunnel(StandardCharsets.UTF_8), size, falsePositiveRate);
+            try (Stream<String> emails = userRepository.streamAllEmails()) {
+                emails.forEach(email -> created.put(normalize(email)));
+            }
+            return created;
+        });
+        this.filter = loaded;
+    }
+
+    /**
+     * 指定したメールアドレスが登録されているかもしれないかを判定する
+     *
+     * @param email 判定対象のメールアドレス
+     * @return 登録されているかもしれない場合は true（DBで確認が必要）。確実に未登録の場合は false
+     */
+    public boolean mightExist(String email) {
+        BloomFilter<CharSequence> current = filter;
+        if (current == null) {
+            return true;
+        }
+        boolean result = current.mightContain(normalize(email));
+        (result ? mightExistCounter : absentCounter).increment();
+        return result;
+    }
+
+    /**
+     * 登録したメールアドレスをフィルタに追加する
+     *
+     * @param email 登録したメールアドレス
+     */
+    public void add(String email) {
+        BloomFilter<CharSequence> current = filter;
+        if (current != null) {
+            // BloomFilter#put はスレッドセーフ
+            current.put(normalize(email));
+        }
+    }
+
+    /**
+     * 大文字・小文字を区別しないDB（MySQLの既定の照合順序）に合わせ、小文字に揃える
+     * ※区別するDBの場合も、誤判定（DBでの確認）が増えるだけで判定結果は変わらない
+     */
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.simple_crud_spring.service;
+
+import com.example.simple_crud_spring.dto.PostCollectionVersion;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.event.PostChangedEvent;
+import com.example.simple_crud_spring.repository.PostRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 新しい順の先頭 app.posts.timeline.capacity 件の投稿を、メモリ上に保持するクラス（トップページ用）
+ * 起動時にDBから読み込み、以降は投稿の変更（{@link PostChangedEvent}）ごとに差分を反映する。
+ * 読み込みはDBにアクセスせず、ロックも取得しない（不変のスナップショットを差し替えるため）。
+ *
+ * ※複数のサーバーで動作する場合、他のサーバーでの変更はイベントでは届かない。そのため次の規則でDBと一致させる
+ * ・スナップショットには、最後にDBから読み込んだ時点の投稿全体の版（{@link PostCollectionVersion}）を記録する
+ * ・app.posts.timeline.reconcile-interval ごとに投稿全体の版を取得し、記録した版と異なればDBから読み込み直す
+ *   （このサーバーでの変更でも版は変わるため、変更があった後は次の確認で1回読み込み直す）
+ * ・読み込みの途中でイベントによる変更が反映された場合は、読み込んだ内容で上書きしない（次の確認で読み込み直す）
+ * そのため、他のサーバーでの変更は最大 reconcile-interval 遅れて反映される。
+ * また、削除により保持件数が減った場合も、次に読み込み直すまでは保持している分だけを返す
+ */
+@Component
+public class LatestPostsTimeline implements SmartInitializingSingleton {
+
+    /** 保持件数の下限（1ページの最大件数100件と、次ページの有無の判定用の1件） */
+    static final int MIN_CAPACITY = 101;
+
+    /** 新しい順（作成日時の降順、同時刻の場合はIDの降順） */
+    private static final Comparator<PostSummaryDto> LATEST_FIRST = Comparator
+            .comparing(PostSummaryDto::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(PostSummaryDto::id, Comparator.reverseOrder());
+
+    /**
+     * 投稿をDBから読み込む処理
+     * ※単体テストでDBの代わりに差し替えられるよう、インタフェースとして分離する
+     */
+    interface Loader {
+
+        /**
+         * 投稿全体の版と、新しい順の先頭の投稿を読み込む
+         *
+         * @param limit 読み込む最大件数
+         * @return 読み込んだ結果
+         */
+        Loaded load(int limit);
+
+        /**
+         * 投稿全体の版を取得する
+         *
+         * @return 投稿全体の版
+         */
+        PostCollectionVersion version();
+    }
+
+    /**
+     * DBから読み込んだ結果
+     *
+     * @param version 読み込んだ時点の投稿全体の版
+     * @param posts   新しい順の先頭の投稿
+     */
+    record Loaded(PostCollectionVersion version, List<PostSummaryDto> posts) {
+    }
+
+    /**
+     * 保持している投稿の一覧（不変）
+     *
+     * @param posts         新しい順の投稿（変更できないリスト）
+     * @param syncedVersion 最後にDBから読み込んだ時点の投稿全体の版（読み込み前はnull）
+     */
+    private record Snapshot(List<PostSummaryDto> posts, PostCollectionVersion syncedVersion) {
+    }
+
+    private final Loader loader;
+    private final int capacity;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(List.of(), null));
+    private final Counter rebuildCounter;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     * ※レプリカの遅れで、このサーバーで反映済みの変更が読み込み直した際に消えないよう、プライマリから読み込む
+     *
+     * @param postRepository               投稿を読み込むリポジトリ
+     * @param postCollectionVersionService 投稿全体の版を取得するサービス
+     * @param transactionManager           読み込み時のトランザクションを管理するマネージャー
+     * @param meterRegistry                読み込み直した回数を記録するレジストリ
+     * @param capacity                     保持する件数
+     */
+    @Autowired
+    public LatestPostsTimeline(PostRepository postRepository, PostCollectionVersionService postCollectionVersionService,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${app.posts.timeline.capacity:200}") int capacity) {
+        this(repositoryLoader(postRepository, postCollectionVersionService, new TransactionTemplate(transactionManager)),
+                meterRegistry, capacity);
+    }
+
+    /**
+     * 読み込み処理を指定して生成する
+     *
+     * @param loader        投稿をDBから読み込む処理
+     * @param meterRegistry 読み込み直した回数を記録するレジストリ
+     * @param capacity      保持する件数
+     * @throws IllegalStateException 保持する件数が {@link #MIN_CAPACITY} 未満の場合
+     */
+    LatestPostsTimeline(Loader loader, MeterRegistry meterRegistry, int capacity) {
+        if (capacity < MIN_CAPACITY) {
+            throw new IllegalStateException("app.posts.timeline.capacity は" + MIN_CAPACITY + "以上にしてください");
+        }
+        this.loader = loader;
+        this.capacity = capacity;
+        this.rebuildCounter = Counter.builder("app.posts.timeline.rebuilds")
+                .description("Times the latest posts timeline was reloaded from the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * すべてのBeanの生成後（マイグレーション・テーブル作成の後）に、DBから読み込む
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * 新しい順に、指定した件数までの投稿を返す（DBにはアクセスしない）
+     *
+     * @param limit 返す最大件数
+     * @return 新しい順の投稿（変更できないリスト）
+     */
+    public List<PostSummaryDto> latest(int limit) {
+        List<PostSummaryDto> posts = snapshot.get().posts();
+        return posts.size() <= limit ? posts : posts.subList(0, limit);
+    }
+
+    /**
+     * 投稿の変更を反映する
+     *
+     * @param event 投稿の変更
+     */
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        // 他のスレッドが先に差し替えた場合は、最新のスナップショットに反映し直す
+        snapshot.updateAndGet(current -> new Snapshot(apply(current.posts(), event), current.syncedVersion()));
+    }
+
+    /**
+     * 投稿全体の版を確認し、最後に読み込んだ時点から変わっていればDBから読み込み直す
+     * （他のサーバーでの変更を反映する）
+     */
+    @Scheduled(fixedDelayString = "${app.posts.timeline.reconcile-interval:5s}")
+    public void reconcile() {
+        if (!Objects.equals(loader.version(), snapshot.get().syncedVersion())) {
+            rebuild();
+        }
+    }
+
+    /**
+     * DBから読み込み直す
+     * 読み込みの途中でイベントによる変更が反映された場合は、読み込んだ内容を破棄する
+     * （記録した版はDBと異なったままのため、次の確認で読み込み直す）
+     *
+     * @return 読み込んだ内容に差し替えた場合は true
+     */
+    boolean rebuild() {
+        Snapshot before = snapshot.get();
+        Loaded loaded = loader.load(capacity);
+        boolean replaced = snapshot.compareAndSet(before,
+                new Snapshot(List.copyOf(loaded.posts()), loaded.version()));
+        if (replaced) {
+            rebuildCounter.increment();
+        }
+        return replaced;
+    }
+
+    /**
+     * 投稿の一覧に変更を反映した、新しい一覧を返す
+     * ・作成: 新しい順の位置に追加し、保持件数を超えた分（最も古い投稿）を取り除く
+     * ・更新: 一覧に含まれていれば置き換える（作成日時は変わらないため、位置は変わらない）
+     * ・削除: 一覧に含まれていれば取り除く
+     */
+    private List<PostSummaryDto> apply(List<PostSummaryDto> posts, PostChangedEvent event) {
+        int index = indexOf(posts, event.postId());
+        switch (event.type()) {
+            case CREATED -> {
+                List<PostSummaryDto> updated = new ArrayList<>(posts);
+                if (index >= 0) {
+                    updated.remove(index);
+                }
+                int position = Collections.binarySearch(updated, event.post(), LATEST_FIRST);
+                updated.add(position < 0 ? -position - 1 : position, event.post());
+                if (updated.size() > capacity) {
+                    updated.remove(updated.size() - 1);
+                }
+                return Collections.unmodifiableList(updated);
+            }
+            case UPDATED -> {
+                if (index < 0) {
+                    return posts;
+                }
+                List<PostSummaryDto> updated = new ArrayList<>(posts);
+                updated.set(index, event.post());
+                return Collections.unmodifiableList(updated);
+            }
+            case DELETED -> {
+                if (index < 0) {
+                    return posts;
+                }
+                List<PostSummaryDto> updated = new ArrayList<>(posts);
+                updated.remove(index);
+                return Collections.unmodifiableList(updated);
+            }
+            default -> throw new IllegalStateException("未対応の変更の種類です: " + event.type());
+        }
+    }
+
+    private static int indexOf(List<PostSummaryDto> posts, Long postId) {
+        for (int i = 0; i < posts.size(); i++) {
+            if (posts.get(i).id().equals(postId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * リポジトリから読み込む処理を生成する
+     * ※版と投稿を同じトランザクションで読み込み、両者が同じ時点の内容になるようにする
+     */
+    private static Loader repositoryLoader(PostRepository postRepository,
+            PostCollectionVersionService postCollectionVersionService, TransactionTemplate transactionTemplate) {
+        return new Loader() {
+            @Override
+            public Loaded load(int limit) {
+                return transactionTemplate.execute(status -> new Loaded(postCollectionVersionService.current(),
+                        postRepository.findLatestUncached(Limit.of(limit))));
+            }
+
+            @Override
+            public PostCollectionVersion version() {
+                return transactionTemplate.execute(status -> postCollectionVersionService.current());
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.simple_crud_spring.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 論理削除から一定期間（app.posts.archive.retention-days）が経過した投稿を、
+ * 定期的に posts テーブルからアーカイブテーブル（posts_archive）へ移動するバッチ処理
+ * ・1回に移動する件数を制限し（batch-size）、1回ごとに一定時間待機する（pause-millis）ことで、
+ * 通常のリクエストの処理を妨げないようにする。1回の実行で処理する回数にも上限を設ける（max-batches-per-run）
+ * ・進捗は移動と同じトランザクションでDBに記録するため、途中で停止しても次回は続きから処理する
+ * ・移動した件数（app.posts.archive.rows）、1回分の処理時間（app.posts.archive.batch）、
+ * 直近の実行の1秒あたりの移動件数（app.posts.archive.rows.per.second）をメトリクスとして記録する
+ */
+@Component
+public class PostArchiveJob {
+
+    private final PostArchiveService postArchiveService;
+    private final Counter rowsCounter;
+    private final Timer batchTimer;
+    private final int retentionDays;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int maxBatchesPerRun;
+
+    /** 直近の実行の1秒あたりの移動件数 */
+    private volatile double lastRowsPerSecond;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param postArchiveService 投稿を1回分ずつ移動するサービス
+     * @param meterRegistry      移動件数・処理時間を記録するレジストリ
+     * @param retentionDays      論理削除されてからアーカイブするまでの日数
+     * @param batchSize          1回に移動する最大件数
+     * @param pauseMillis        1回ごとに待機する時間（ミリ秒）
+     * @param maxBatchesPerRun   1回の実行で処理する最大回数
+     */
+    public PostArchiveJob(PostArchiveService postArchiveService, MeterRegistry meterRegistry,
+            @Value("${app.posts.archive.retention-days}") int retentionDays,
+            @Value("${app.posts.archive.batch-size}") int batchSize,
+            @Value("${app.posts.archive.pause-millis}") long pauseMillis,
+            @Value("${app.posts.archive.max-batches-per-run}") int maxBatchesPerRun) {
+        this.postArchiveService = postArchiveService;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+
+        this.rowsCounter = Counter.builder("app.posts.archive.rows")
+                .description("Soft-deleted posts moved to posts_archive")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("app.posts.archive.batch")
+                .description("Time to move one batch of posts to posts_archive")
+                .register(meterRegistry);
+        Gauge.builder("app.posts.archive.rows.per.second", this, job -> job.lastRowsPerSecond)
+                .description("Rows moved per second in the last archive run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 定期的に実行され、対象の投稿がなくなるか、1回の実行の上限に達するまで移動を繰り返す
+     * ※実行する時刻は app.posts.archive.cron で指定する（"-" を指定すると実行しない）
+     *
+     * @return 移動した件数
+     */
+    @Scheduled(cron = "${app.posts.archive.cron}")
+    public long run() {
+        LocalDateTime deletedBefore = LocalDateTime.now().minusDays(retentionDays);
+        long startedAt = System.nanoTime();
+        long moved = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int rows = batchTimer.record(() -> postArchiveService.archiveNextBatch(deletedBefore, batchSize));
+            rowsCounter.increment(rows);
+            moved += rows;
+            if (rows < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        lastRowsPerSecond = moved / Math.max(seconds, 0.001);
+        return moved;
+    }
+
+    /**
+     * 次の1回分を処理する前に待機する
+     *
+     * @return 待機を終えた場合は true。アプリの停止などにより割り込まれた場合は false
+     */
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.simple_crud_spring.service;
+
+import com.example.simple_crud_spring.dto.ArchivablePostRow;
+import com.example.simple_crud_spring.model.JobCheckpoint;
+import com.example.simple_crud_spring.repository.JobCheckpointRepository;
+import com.example.simple_crud_spring.repository.PostArchiveRepository;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 論理削除された投稿を、1回分（指定件数）ずつアーカイブテーブルへ移動するサービスクラス
+ * 1回分の複製・物理削除・進捗の記録を1つの短いトランザクションで行うため、
+ * 途中でアプリが停止しても、移動済みの投稿と記録された進捗が食い違うことはない。
+ * また、行のロックはその1回分の投稿にしか掛からず、すぐに解放される。
+ */
+@Service
+public class PostArchiveService {
+
+    /** 進捗を記録する際のバッチ処理の名前 */
+    public static final String JOB_NAME = "posts-archive";
+
+    /** まだ何も処理していない場合の、処理済みの位置（これより前に削除された投稿は存在しない） */
+    private static final LocalDateTime INITIAL_POSITION = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final PostArchiveRepository postArchiveRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param postArchiveRepository   投稿の移動に使用するリポジトリ
+     * @param jobCheckpointRepository 進捗の記録に使用するリポジトリ
+     */
+    public PostArchiveService(PostArchiveRepository postArchiveRepository,
+            JobCheckpointRepository jobCheckpointRepository) {
+        this.postArchiveRepository = postArchiveRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+    }
+
+    /**
+     * 指定した日時より前に論理削除された投稿を、前回の続きから指定件数だけアーカイブテーブルへ移動する
+     *
+     * @param deletedBefore この日時より前に削除された投稿を対象とする
+     * @param batchSize     1回に移動する最大件数
+     * @return 移動した件数（0の場合、対象の投稿はもう残っていない）
+     */
+    @Transactional
+    public int archiveNextBatch(LocalDateTime deletedBefore, int batchSize) {
+        // 進捗の行をロックし、複数台で同時に実行しても1台ずつ処理されるようにする
+        JobCheckpoint checkpoint = jobCheckpointRepository.findForUpdate(JOB_NAME)
+                .orElseGet(() -> jobCheckpointRepository.save(new JobCheckpoint(JOB_NAME)));
+        LocalDateTime deletedFrom = checkpoint.getLastDeletedAt() == null
+                ? INITIAL_POSITION
+                : checkpoint.getLastDeletedAt();
+
+        List<ArchivablePostRow> rows = postArchiveRepository.findArchivable(deletedFrom, deletedBefore, batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = rows.stream().map(ArchivablePostRow::getId).toList();
+        postArchiveRepository.copyToArchive(ids, LocalDateTime.now());
+        int purged = postArchiveRepository.purgeDeleted(ids);
+
+        ArchivablePostRow last = rows.get(rows.size() - 1);
+        checkpoint.advance(last.getDeletedAt(), last.getId(), purged);
+        return purged;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.simple_crud_spring.service;
+
+import com.example.simple_crud_spring.dto.PostCollectionVersion;
+import com.example.simple_crud_spring.model.PostCollectionCounter;
+import com.example.simple_crud_spring.repository.PostCollectionCounterRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * 投稿全体の版（{@link PostCollectionVersion}）の取得と更新を行うサービスクラス
+ * 投稿を変更するすべての処理（{@link PostWriteService}）が、変更のコミット後に版を1増やす。
+ * 一覧のETag・Last-Modified と、最新の投稿一覧の読み込み直しの判定は、この版を主キーで1行読むだけで行える。
+ *
+ * ※版は変更をコミットした後に、別の短いトランザクションで増やす。
+ * 変更と同じトランザクションで増やすと、すべての投稿の書き込みがコミットまで版の行のロックを待つことになるため。
+ * コミット後に増やすため、版より先に投稿の変更が見えることはあっても、変更が見える前に版が進むことはない
+ * （古い内容に新しい版のETagが付くことはなく、クライアントが変更を見逃して304を受け取り続けることはない）
+ * ※コミット後、版を増やす前にアプリが停止した場合、その変更は次に投稿が変更されるまで版に反映されない
+ */
+@Service
+public class PostCollectionVersionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostCollectionVersionService.class);
+
+    private final PostCollectionCounterRepository counterRepository;
+    private final TransactionTemplate requiresNew;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param counterRepository  版の読み書きを行うリポジトリ
+     * @param transactionManager 版を増やす際のトランザクションを管理するマネージャー
+     */
+    public PostCollectionVersionService(PostCollectionCounterRepository counterRepository,
+            PlatformTransactionManager transactionManager) {
+        this.counterRepository = counterRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 現在の投稿全体の版を取得する
+     *
+     * @return 投稿全体の版（まだ1回も投稿が変更されていない場合は {@link PostCollectionVersion#INITIAL}）
+     */
+    public PostCollectionVersion current() {
+        return counterRepository.findCurrent().orElse(PostCollectionVersion.INITIAL);
+    }
+
+    /**
+     * 実行中のトランザクションのコミット後に、投稿全体の版を1増やす
+     * （トランザクションの外で呼び出された場合は、すぐに増やす。ロールバックされた場合は増やさない）
+     */
+    public void incrementAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment();
+            }
+        });
+    }
+
+    /**
+     * 投稿全体の版を、独立したトランザクションで1増やす
+     * ※投稿の変更はコミット済みのため、失敗してもリクエストは失敗させずにログに出力する
+     */
+    private void increment() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            try {
+                requiresNew.executeWithoutResult(status -> {
+                    if (counterRepository.increment(now) == 0) {
+                        counterRepository.saveAndFlush(new PostCollectionCounter(now));
+                    }
+                });
+            } catch (DataIntegrityViolationException ex) {
+                // 行がない状態で同時に作成しようとした場合は、先に作成された行の版を増やす
+                requiresNew.executeWithoutResult(status -> counterRepository.increment(now));
+            }
+        } catch (DataAccessException | TransactionException ex) {
+            log.warn("投稿全体の版を更新できませんでした（次に投稿が変更されるまで、一覧の変更が検出されない場合があります）", ex);
+        }
+    }
+}
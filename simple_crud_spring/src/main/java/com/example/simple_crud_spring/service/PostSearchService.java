@@ -0,0 +1,126 @@
+package com.example.simple_crud_spring.service;
+
+import com.example.simple_crud_spring.dto.PostPageResponseDto;
+import com.example.simple_crud_spring.dto.PostSearchCursor;
+import com.example.simple_crud_spring.dto.PostSearchRow;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.exception.InvalidRequestException;
+import com.example.simple_crud_spring.repository.PostRepository;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 投稿のタイトル・本文を全文検索するサービスクラス
+ * MySQLのFULLTEXTインデックス（ngramパーサー）を使用するため、単語の区切りがない日本語の文章も検索できる。
+ * 検索結果は関連度の高い順に並べ、関連度とIDをカーソルとするキーセット方式でページングする。
+ */
+@Service
+public class PostSearchService {
+
+    /** 検索語の最大数（これより多い検索語は無視する） */
+    private static final int MAX_TERMS = 10;
+
+    /** 検索語1つあたりの最大文字数 */
+    private static final int MAX_TERM_LENGTH = 100;
+
+    /**
+     * ngramパーサーが文章を分割する文字数（MySQLの ngram_token_size の既定値）
+     * ※これより短い検索語はフレーズとしては一致しないため、前方一致（X*）で検索する
+     */
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    /** BOOLEAN MODEで演算子として解釈される記号 */
+    private static final Pattern OPERATORS = Pattern.compile("[\"+\\-<>()~*@]");
+
+    private final PostRepository postRepository;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param postRepository 投稿データへのアクセスを提供するリポジトリ
+     */
+    public PostSearchService(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    /**
+     * 投稿を全文検索し、関連度の高い順に1ページ分取得する
+     *
+     * @param keywords 検索キーワード（空白区切りで複数指定した場合は、いずれかを含む投稿を検索する）
+     * @param cursor   前ページのレスポンスで返されたカーソル（1ページ目の場合はnull）
+     * @param pageSize 1ページあたりの件数
+     * @return 検索結果のリストと次ページのカーソル
+     * @throws InvalidRequestException キーワードが空の場合、カーソルの形式が不正な場合（ステータスコード400）
+     */
+    @Transactional(readOnly = true)
+    public PostPageResponseDto search(String keywords, String cursor, int pageSize) {
+        String query = toBooleanQuery(keywords);
+
+        // 次ページの有無を判定するため、1件多く取得する
+        int limit = pageSize + 1;
+        List<PostSearchRow> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = postRepository.search(query, limit);
+        } else {
+            PostSearchCursor after = PostSearchCursor.decode(cursor);
+            rows = postRepository.searchAfter(query, after.score(), after.id(), limit);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            // 余分に取得した1件は返さず、このページ最後の投稿を次ページのカーソルとする
+            rows = rows.subList(0, pageSize);
+            PostSearchRow last = rows.get(pageSize - 1);
+            nextCursor = new PostSearchCursor(last.getScore(), last.getId()).encode();
+        }
+        List<PostSummaryDto> items = rows.stream().map(PostSearchRow::toSummary).toList();
+        return new PostPageResponseDto(items, nextCursor);
+    }
+
+    /**
+     * 検索キーワードをMySQLのBOOLEAN MODEの検索式に変換する
+     * 各キーワードはフレーズ（"..."）として扱うため、ngramパーサーではキーワード内の文字の並び順も一致する投稿だけが該当する。
+     * ※キーワードに含まれる演算子（+ - * " など）は取り除くため、利用者が検索式を組み立てることはできない
+     * ※1文字のキーワードはngramパーサーの分割単位（2文字）より短く、フレーズでは一致しないため、その文字で始まる語の前方一致とする
+     *
+     * @param keywords 検索キーワード（半角・全角の空白区切り）
+     * @return BOOLEAN MODEの検索式（例: "東京" "天気" 雨*）
+     * @throws InvalidRequestException 演算子を取り除いた結果、キーワードが空になった場合（ステータスコード400）
+     */
+    static String toBooleanQuery(String keywords) {
+        String query = Arrays.stream(keywords == null ? new String[0] : keywords.split("[\\s\\u3000]+"))
+                .map(term -> OPERATORS.matcher(term).replaceAll(""))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_TERMS)
+                .map(PostSearchService::toBooleanTerm)
+                .collect(Collectors.joining(" "));
+        if (query.isEmpty()) {
+            throw new InvalidRequestException("q", "検索キーワードを入力してください");
+        }
+        return query;
+    }
+
+    /**
+     * 演算子を取り除いたキーワード1つを、BOOLEAN MODEの検索語に変換する
+     *
+     * @param term 演算子を含まないキーワード
+     * @return フレーズ（"..."）、またはngramの分割単位より短い場合は前方一致（X*）の検索語
+     */
+    private static String toBooleanTerm(String term) {
+        int length = term.codePointCount(0, term.length());
+        if (length > MAX_TERM_LENGTH) {
+            // サロゲートペアの途中で切らないよう、文字（コードポイント）単位で切り詰める
+            term = term.substring(0, term.offsetByCodePoints(0, MAX_TERM_LENGTH));
+        }
+        if (length < NGRAM_TOKEN_SIZE) {
+            return term + "*";
+        }
+        return "\"" + term + "\"";
+    }
+}
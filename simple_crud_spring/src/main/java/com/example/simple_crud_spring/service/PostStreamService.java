@@ -0,0 +1,63 @@
+package com.example.simple_crud_spring.service;
+
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.repository.PostRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 投稿をNDJSON（1行に1件のJSONを書き込む形式）としてレスポンスへ逐次書き出すサービスクラス
+ * DBから読み込んだ行をその場でシリアライズして書き出すため、投稿の件数に関わらずメモリ使用量は一定に保たれる
+ */
+@Service
+public class PostStreamService {
+
+    /** 何件書き込むごとにレスポンスをフラッシュするか */
+    private static final int FLUSH_INTERVAL = 100;
+
+    private final PostRepository postRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param postRepository 投稿データへのアクセスを提供するリポジトリ
+     * @param objectMapper   投稿をJSONに変換するために使用する
+     */
+    public PostStreamService(PostRepository postRepository, ObjectMapper objectMapper) {
+        this.postRepository = postRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * すべての投稿を新しい順にNDJSON形式で書き出す
+     * ※ストリームはトランザクションの中でしか読めないため、書き出しが終わるまでトランザクションを維持する
+     * ※DTOを直接生成するクエリのため、永続化コンテキストにエンティティが溜まることはない
+     *
+     * @param out 書き出し先（HTTPレスポンスの出力ストリーム）
+     * @throws IOException 書き出しに失敗した場合（クライアントが切断した場合など）
+     */
+    @Transactional(readOnly = true)
+    public void writeAllAsNdjson(OutputStream out) throws IOException {
+        try (Stream<PostSummaryDto> posts = postRepository.streamAll()) {
+            int count = 0;
+            Iterator<PostSummaryDto> iterator = posts.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+
+                if (++count % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        }
+    }
+}
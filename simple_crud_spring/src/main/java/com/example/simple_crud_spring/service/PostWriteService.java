@@ -0,0 +1,385 @@
+package com.example.simple_crud_spring.service;
+
+import com.example.simple_crud_spring.dto.ErrorResponseDto;
+import com.example.simple_crud_spring.dto.PostBatchUpdateRequestDto;
+import com.example.simple_crud_spring.dto.PostDetailDto;
+import com.example.simple_crud_spring.dto.PostPatchRequestDto;
+import com.example.simple_crud_spring.dto.PostPatchResult;
+import com.example.simple_crud_spring.dto.PostRequestDto;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.exception.BatchValidationException;
+import com.example.simple_crud_spring.exception.InvalidRequestException;
+import com.example.simple_crud_spring.exception.NotFoundException;
+import com.example.simple_crud_spring.exception.PreconditionFailedException;
+import com.example.simple_crud_spring.model.Post;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 投稿の作成・更新・削除と、一括作成・一括更新・一括削除を行うサービスクラス
+ * 1回のリクエストに含まれるすべての投稿を検証してから、1つのトランザクションの中でまとめて書き込む。
+ * 書き込みはJDBCのバッチ（app.posts.batch-size 件ずつ）で行い、1件ずつSQLを発行しない。
+ * ※投稿の作成・削除と同じトランザクションの中で、投稿者の投稿数（users.post_count）を増減させる。
+ * 投稿数はユーザーの行をロックしてから投稿を書き込む順序で更新する
+ * （MySQLでは投稿のINSERT時に外部キーの確認のため投稿者の行が共有ロックされ、
+ * その後に投稿数を更新すると、同じユーザーの同時投稿どうしでデッドロックになるため）
+ * ※投稿の更新は版（{@link Post#getVersion()}）による楽観的ロックで行う。読み込んだ後に他のトランザクションが
+ * 更新していた場合は上書きせずに OptimisticLockingFailureException をスローする（409として返す）
+ * ※投稿を変更した場合は、コミット後に投稿全体の版（{@link PostCollectionVersionService}）を1増やす
+ */
+@Service
+public class PostWriteService {
+
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final PostCollectionVersionService postCollectionVersionService;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxItems;
+
+    /**
+     * コンストラクタインジェクションによる依存オブジェクトの注入
+     *
+     * @param postRepository               投稿データへのアクセスを提供するリポジトリ
+     * @param userRepository               投稿者の取得に使用するリポジトリ
+     * @param postCollectionVersionService 投稿を変更した際に、投稿全体の版を増やすために使用する
+     * @param entityManager                書き込み済みのエンティティを永続化コンテキストから切り離すために使用する
+     * @param validator                    投稿のバリデーションに使用する
+     * @param batchSize                    1回のJDBCバッチで書き込む件数
+     * @param maxItems                     1回のリクエストで処理できる最大件数
+     */
+    public PostWriteService(PostRepository postRepository, UserRepository userRepository,
+            PostCollectionVersionService postCollectionVersionService,
+            EntityManager entityManager, Validator validator,
+            @Value("${app.posts.batch-size}") int batchSize,
+            @Value("${app.posts.batch-max-items}") int maxItems) {
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.postCollectionVersionService = postCollectionVersionService;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * 投稿を作成し、投稿者の投稿数を1増やす
+     *
+     * @param request 作成する投稿
+     * @return 作成した投稿（本文を含む）
+     * @throws NotFoundException 投稿者が存在しない場合（ステータスコード404）
+     */
+    @Transactional
+    public PostDetailDto create(PostRequestDto request) {
+        User user = userRepository.findById(request.userId)
+                .orElseThrow(PostWriteService::userNotFound);
+
+        Post post = new Post();
+        post.setTitle(request.title);
+        post.setContent(request.content);
+        post.setUser(user);
+
+        // 投稿者の行をロックしてから投稿を書き込む
+        if (userRepository.addPostCount(user.getId(), 1) == 0) {
+            throw userNotFound();
+        }
+        PostDetailDto created = PostDetailDto.from(postRepository.save(post));
+        postCollectionVersionService.incrementAfterCommit();
+        return created;
+    }
+
+    /**
+     * 複数の投稿をまとめて作成する
+     * 投稿者は1回のクエリでまとめて取得し、1件でも不正なデータがあれば何も作成しない
+     *
+     * @param requests 作成する投稿のリスト
+     * @return 作成した投稿のリスト（リクエストと同じ順序）
+     * @throws BatchValidationException 不正なデータが含まれていた場合
+     */
+    @Transactional
+    public List<PostSummaryDto> createAll(List<PostRequestDto> requests) {
+        checkItemCount(requests);
+
+        // 投稿者をまとめて取得する
+        Set<Long> userIds = requests.stream()
+                .map(request -> request.userId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        // すべての投稿を検証する
+        List<ErrorResponseDto> errors = new ArrayList<>();
+        List<Post> posts = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            PostRequestDto request = requests.get(i);
+            Post post = new Post();
+            post.setTitle(request.title);
+            post.setContent(request.content);
+            post.setUser(request.userId == null ? null : users.get(request.userId));
+            if (request.userId != null && post.getUser() == null) {
+                errors.add(new ErrorResponseDto(fieldName(i, "userId"), "ユーザーが存在しません"));
+            }
+            validate(post, i, errors);
+            posts.add(post);
+        }
+        throwIfInvalid(errors);
+
+        // 投稿者ごとに投稿数を増やす（複数の一括作成が同時に行われてもデッドロックしないよう、ユーザーIDの順にロックする）
+        Map<Long, Long> countsByUser = posts.stream()
+                .collect(Collectors.groupingBy(post -> post.getUser().getId(), TreeMap::new, Collectors.counting()));
+        countsByUser.forEach((userId, count) -> userRepository.addPostCount(userId, count));
+
+        // バッチサイズごとに書き込み、永続化コンテキストに大量のエンティティが溜まらないようにする
+        List<PostSummaryDto> created = new ArrayList<>(posts.size());
+        for (int from = 0; from < posts.size(); from += batchSize) {
+            List<Post> chunk = posts.subList(from, Math.min(from + batchSize, posts.size()));
+            postRepository.saveAll(chunk);
+            postRepository.flush();
+            chunk.forEach(post -> created.add(PostSummaryDto.from(post)));
+            entityManager.clear();
+        }
+        postCollectionVersionService.incrementAfterCommit();
+        return created;
+    }
+
+    /**
+     * 投稿のタイトル・本文を更新する
+     * 更新対象は投稿者と合わせて1回のクエリで取得し、同じトランザクションの中で更新後のレスポンスを生成する
+     * （トランザクションの外で投稿者を遅延読み込みすることがないようにする）
+     *
+     * @param id              更新対象の投稿ID
+     * @param request         更新内容
+     * @param expectedVersion 更新の条件とする版（クライアントが取得した時点の版。nullの場合は版を確認しない）
+     * @return 更新後の投稿（本文を含む）。該当する投稿が存在しなければ空のOptional
+     * @throws PreconditionFailedException 投稿の版が expectedVersion と一致しない場合（412）
+     * @throws org.springframework.dao.OptimisticLockingFailureException 読み込んだ後に他のトランザクションが更新した場合
+     */
+    @Transactional
+    public Optional<PostDetailDto> update(Long id, PostRequestDto request, Long expectedVersion) {
+        return postRepository.findWithUserById(id)
+                .map(post -> {
+                    if (expectedVersion != null && post.getVersion() != expectedVersion) {
+                        throw versionMismatch();
+                    }
+                    post.setTitle(request.title);
+                    post.setContent(request.content);
+
+                    // 更新日時（@PreUpdate で設定される）をレスポンスに含めるため、ここで書き込む
+                    postRepository.flush();
+                    postCollectionVersionService.incrementAfterCommit();
+                    return PostDetailDto.from(post);
+                });
+    }
+
+    /**
+     * 投稿のタイトル・本文のうち、指定された項目だけを更新する（部分更新）
+     * 投稿を読み込まずに1回のUPDATE文で更新するため、同じ投稿への同時の部分更新は、
+     * 版を指定しない限り失敗せずに順に適用される（後から適用された項目の値が残る）
+     *
+     * @param id              更新対象の投稿ID
+     * @param request         更新内容（nullの項目は変更しない）
+     * @param expectedVersion 更新の条件とする版（nullの場合は版を確認しない）
+     * @return 更新後の投稿と版。該当する投稿が存在しなければ空のOptional
+     * @throws InvalidRequestException 更新する項目が指定されていない場合（400）
+     * @throws PreconditionFailedException 投稿の版が expectedVersion と一致しない場合（412）
+     */
+    @Transactional
+    public Optional<PostPatchResult> patch(Long id, PostPatchRequestDto request, Long expectedVersion) {
+        if (request.title == null && request.content == null) {
+            throw new InvalidRequestException("request", "更新する項目を指定してください");
+        }
+
+        int updated = postRepository.patch(id, request.title, request.content, Post.excerptOf(request.content),
+                expectedVersion, LocalDateTime.now());
+        if (updated == 0) {
+            // 投稿が存在する場合は、版が一致しなかったため更新されなかった
+            if (expectedVersion != null && postRepository.findVersionById(id).isPresent()) {
+                throw versionMismatch();
+            }
+            return Optional.empty();
+        }
+        postCollectionVersionService.incrementAfterCommit();
+
+        // 更新した行はトランザクションの終了までロックされているため、他のリクエストの更新は含まれない
+        long version = expectedVersion != null
+                ? expectedVersion + 1
+                : postRepository.findVersionById(id).orElseThrow();
+        return postRepository.findSummaryById(id)
+                .map(post -> new PostPatchResult(post, version));
+    }
+
+    /**
+     * 複数の投稿のタイトル・本文をまとめて更新する
+     * 更新対象は1回のクエリでまとめて取得し、1件でも不正なデータがあれば何も更新しない
+     *
+     * @param requests 更新内容のリスト
+     * @return 更新後の投稿のリスト（リクエストと同じ順序）
+     * @throws BatchValidationException 不正なデータ、存在しない投稿、重複したIDが含まれていた場合
+     */
+    @Transactional
+    public List<PostSummaryDto> updateAll(List<PostBatchUpdateRequestDto> requests) {
+        checkItemCount(requests);
+
+        // 更新対象の投稿を投稿者と合わせてまとめて取得する
+        Set<Long> ids = requests.stream()
+                .map(request -> request.id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Post> posts = postRepository.findAllWithUserByIdIn(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+
+        // すべての更新内容を反映して検証する
+        List<ErrorResponseDto> errors = new ArrayList<>();
+        Set<Long> seenIds = new HashSet<>();
+        List<Post> updated = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            PostBatchUpdateRequestDto request = requests.get(i);
+            Post post = request.id == null ? null : posts.get(request.id);
+            if (post == null) {
+                errors.add(new ErrorResponseDto(fieldName(i, "id"), "投稿が見つかりません"));
+                continue;
+            }
+            if (!seenIds.add(request.id)) {
+                errors.add(new ErrorResponseDto(fieldName(i, "id"), "同じ投稿が複数回指定されています"));
+                continue;
+            }
+            post.setTitle(request.title);
+            post.setContent(request.content);
+            validate(post, i, errors);
+            updated.add(post);
+        }
+        // 不正なデータがあれば例外によりロールバックされ、変更内容は書き込まれない
+        throwIfInvalid(errors);
+
+        // 変更内容をまとめて書き込む（UPDATE文はJDBCのバッチで実行される）
+        postRepository.flush();
+        postCollectionVersionService.incrementAfterCommit();
+        return updated.stream().map(PostSummaryDto::from).toList();
+    }
+
+    /**
+     * 投稿を論理削除し、投稿者の投稿数を1減らす
+     *
+     * @param id 削除対象の投稿ID
+     * @return 削除した場合は true。該当する投稿が存在しない（削除済みの場合を含む）場合は false
+     */
+    @Transactional
+    public boolean delete(Long id) {
+        return softDelete(List.of(id)) > 0;
+    }
+
+    /**
+     * 複数の投稿をまとめて論理削除し、投稿者ごとに投稿数を減らす
+     * ※1件ごとにUPDATE文を発行せず、1回のUPDATE文で削除する
+     *
+     * @param ids 削除対象の投稿IDのリスト
+     * @return 削除した件数
+     */
+    @Transactional
+    public int deleteAll(List<Long> ids) {
+        checkItemCount(ids);
+        return softDelete(ids);
+    }
+
+    /**
+     * 投稿を論理削除し、実際に削除した投稿の数だけ投稿者の投稿数を減らす
+     * 削除対象の投稿をロックしてから削除するため、同じ投稿を同時に削除しても投稿数は1回しか減らない
+     */
+    private int softDelete(Collection<Long> ids) {
+        List<Post> posts = postRepository.findAllForUpdateByIdIn(ids);
+        if (posts.isEmpty()) {
+            return 0;
+        }
+        int deleted = postRepository.softDeleteAllByIdIn(posts.stream().map(Post::getId).toList(), LocalDateTime.now());
+
+        // ※投稿者は遅延読み込みの対象だが、IDの取得だけであればSQLは発行されない
+        Map<Long, Long> countsByUser = posts.stream()
+                .filter(post -> post.getUser() != null)
+                .collect(Collectors.groupingBy(post -> post.getUser().getId(), TreeMap::new, Collectors.counting()));
+        countsByUser.forEach((userId, count) -> userRepository.addPostCount(userId, -count));
+        if (deleted > 0) {
+            postCollectionVersionService.incrementAfterCommit();
+        }
+        return deleted;
+    }
+
+    /**
+     * 投稿者が存在しないことを表す例外を生成する
+     */
+    private static NotFoundException userNotFound() {
+        return new NotFoundException("userId", "ユーザーが存在しません");
+    }
+
+    /**
+     * 投稿の版が、クライアントが指定した版と一致しなかったことを表す例外を生成する
+     */
+    private static PreconditionFailedException versionMismatch() {
+        return new PreconditionFailedException(
+                "投稿は他のユーザーによって更新されています。最新の内容を取得してから更新してください");
+    }
+
+    /**
+     * 1回のリクエストで処理できる件数を超えていないか確認する
+     */
+    private void checkItemCount(List<?> items) {
+        if (items.isEmpty() || items.size() > maxItems) {
+            throw new BatchValidationException(List.of(new ErrorResponseDto("items",
+                    "一度に処理できる件数は1～" + maxItems + "件です")));
+        }
+    }
+
+    /**
+     * 投稿のバリデーションを行い、エラーがあればエラー内容のリストに追加する
+     * ※フィールド名はリクエストの項目名で返す（投稿者は userId）。同じ項目のエラーが既にあれば追加しない
+     * （存在しない投稿者を指定した場合に、投稿者が未指定のエラーを重ねて返さないようにする）
+     */
+    private void validate(Post post, int index, List<ErrorResponseDto> errors) {
+        for (ConstraintViolation<Post> violation : validator.validate(post)) {
+            String property = violation.getPropertyPath().toString();
+            String field = fieldName(index, "user".equals(property) ? "userId" : property);
+            if (errors.stream().noneMatch(error -> error.field().equals(field))) {
+                errors.add(new ErrorResponseDto(field, violation.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * エラー内容があれば例外をスローする
+     */
+    private void throwIfInvalid(List<ErrorResponseDto> errors) {
+        if (!errors.isEmpty()) {
+            throw new BatchValidationException(errors);
+        }
+    }
+
+    /**
+     * 何件目のどのフィールドのエラーかを表すフィールド名を返す（例: "[2].title"）
+     */
+    private static String fieldName(int index, String field) {
+        return "[" + index + "]." + field;
+    }
+}
@@ -0,0 +1,34 @@
+-- ユーザー・投稿のテーブルと、ID採番用のテーブルを作成する
+-- ※これまで spring.jpa.hibernate.ddl-auto=update で作成していたものと同じ定義にしている。
+--   既にテーブルがあるDBでは、このバージョンを適用済み（ベースライン）として扱い、V2以降だけを適用する
+CREATE TABLE users (
+    id BIGINT NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    user_name VARCHAR(50) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE posts (
+    id BIGINT NOT NULL,
+    content TEXT NOT NULL,
+    created_at DATETIME(6),
+    deleted_at DATETIME(6),
+    title VARCHAR(255) NOT NULL,
+    updated_at DATETIME(6),
+    user_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_posts_user_id FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+-- MySQLにはシーケンスがないため、Hibernateはテーブルで代用する（次に払い出すIDを next_val に保持する）
+CREATE TABLE users_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO users_seq VALUES (1);
+
+CREATE TABLE posts_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO posts_seq VALUES (1);
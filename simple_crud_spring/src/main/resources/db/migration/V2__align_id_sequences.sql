@@ -0,0 +1,21 @@
+-- ID採番用テーブルの値を、既存データの最大ID + (allocationSize + 1) 以上に合わせる
+-- ※IDの採番方式をIDENTITYからシーケンス（MySQLではテーブルで代用）に変更したため、
+--   既存のデータと重複するIDが払い出されないようにする。既に十分大きい場合は何もしない
+
+-- IDENTITYで採番していた頃（ddl-auto=update）に作成したDBには採番用のテーブルがなく、
+-- V1は適用済み（ベースライン）として扱われ実行されないため、ここで作成する（既にある場合は何もしない）
+CREATE TABLE IF NOT EXISTS posts_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO posts_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM posts_seq);
+
+CREATE TABLE IF NOT EXISTS users_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO users_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM users_seq);
+
+UPDATE posts_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 51 FROM posts)
+WHERE next_val < (SELECT COALESCE(MAX(id), 0) + 51 FROM posts);
+
+UPDATE users_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 51 FROM users)
+WHERE next_val < (SELECT COALESCE(MAX(id), 0) + 51 FROM users);
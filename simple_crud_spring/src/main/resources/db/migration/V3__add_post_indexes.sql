@@ -0,0 +1,24 @@
+-- 投稿の検索・一覧表示に使用するインデックスを作成する
+-- ※投稿に対するクエリには、論理削除のため常に deleted_at IS NULL の条件が付く（@SQLRestriction）。
+--   MySQLには部分インデックス（WHERE句付きのインデックス）がないため、deleted_at を先頭の列にして
+--   未削除の投稿だけを範囲で読めるようにする（InnoDBのセカンダリインデックスには主キーの id も含まれる）
+
+-- 投稿一覧（未削除の投稿を作成日時・IDの降順に並べ、キーセット方式でページングする）
+CREATE INDEX idx_posts_deleted_at_created_at ON posts (deleted_at, created_at);
+
+-- ユーザーごとの投稿一覧（投稿者で絞り込んだうえで、作成日時・IDの降順に並べる）
+-- ※外部キー user_id のインデックスも兼ねる
+CREATE INDEX idx_posts_user_id_deleted_at_created_at ON posts (user_id, deleted_at, created_at);
+
+-- タイトル・本文の全文検索用のFULLTEXTインデックス
+-- ※日本語は単語の区切りがないため、ngramパーサー（既定では2文字ずつに分割する。ngram_token_size で変更可能）を使用する
+-- ※以前は起動時のSQL（schema-mysql.sql）で作成していたため、既に存在する場合は何もしない。
+--   MySQLの CREATE INDEX には IF NOT EXISTS がないため、インデックスの有無を確認してから実行する
+SET @posts_fulltext_exists = (SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'posts' AND index_name = 'ft_posts_title_content');
+SET @posts_fulltext_ddl = IF(@posts_fulltext_exists = 0,
+    'CREATE FULLTEXT INDEX ft_posts_title_content ON posts (title, content) WITH PARSER ngram',
+    'DO 0');
+PREPARE posts_fulltext_stmt FROM @posts_fulltext_ddl;
+EXECUTE posts_fulltext_stmt;
+DEALLOCATE PREPARE posts_fulltext_stmt;
@@ -0,0 +1,7 @@
+-- ユーザーごとの投稿数（論理削除された投稿を除く）を users テーブルに保持する
+-- ※プロフィール画面の表示のたびに posts テーブルを COUNT(*) しないようにする。
+--   以降は投稿の作成・削除と同じトランザクションの中で増減させる（PostWriteService）
+ALTER TABLE users ADD COLUMN post_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE users u SET post_count = (
+    SELECT COUNT(*) FROM posts p WHERE p.user_id = u.id AND p.deleted_at IS NULL);
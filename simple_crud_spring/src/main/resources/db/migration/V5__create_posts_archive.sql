@@ -0,0 +1,23 @@
+-- 論理削除から一定期間が経過した投稿の移動先（アーカイブ）テーブルと、バッチ処理の進捗を記録するテーブルを作成する
+-- ※posts テーブルから削除済みの行を取り除き、テーブルとインデックスが増え続けないようにする（PostArchiveJob）
+CREATE TABLE posts_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT,
+    title VARCHAR(255) NOT NULL,
+    content TEXT NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    deleted_at DATETIME(6) NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- 中断したバッチ処理を、次回の起動時に続きから再開するための進捗（処理済みの位置）
+CREATE TABLE job_checkpoints (
+    job_name VARCHAR(100) NOT NULL,
+    last_deleted_at DATETIME(6),
+    last_id BIGINT,
+    processed_rows BIGINT NOT NULL,
+    updated_at DATETIME(6),
+    PRIMARY KEY (job_name)
+) ENGINE = InnoDB;
@@ -0,0 +1,12 @@
+-- 投稿一覧で表示する本文の抜粋を posts テーブルに保持する
+-- ※InnoDBでは長い本文（TEXT型）は行とは別のページに保存されるため、一覧で本文を読むと1行ごとに追加のI/Oが発生する。
+--   一覧ではこの列だけを読み、本文は投稿の詳細（ID指定の取得）でのみ読む。
+--   以降は投稿の作成・更新時にアプリ（Post#setContent）で生成する
+ALTER TABLE posts ADD COLUMN excerpt VARCHAR(255);
+
+-- 既存の投稿の抜粋を生成する（Post#excerptOf と同じく、空白をまとめて先頭100文字を取り出し、超えた場合は末尾に「…」を付ける）
+UPDATE posts SET excerpt = CASE
+    WHEN CHAR_LENGTH(TRIM(REGEXP_REPLACE(content, '[[:space:]]+', ' '))) > 100
+        THEN CONCAT(LEFT(TRIM(REGEXP_REPLACE(content, '[[:space:]]+', ' ')), 100), '…')
+    ELSE TRIM(REGEXP_REPLACE(content, '[[:space:]]+', ' '))
+END;
@@ -0,0 +1,12 @@
+-- トークン認証（app.security.token.enabled=true）で発行したリフレッシュトークンを保持するテーブルを作成する
+-- ※トークンそのものは保存せず、SHA-256のハッシュ値だけを保存する（DBの内容が漏れてもトークンとして使えないようにする）
+-- ※リフレッシュトークンは1回しか使えない。使用時・ログアウト時に行を削除し、期限切れの行は定期的に削除する
+CREATE TABLE refresh_tokens (
+    token_hash VARCHAR(64) NOT NULL,
+    user_id BIGINT NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (token_hash),
+    KEY idx_refresh_tokens_expires_at (expires_at),
+    CONSTRAINT fk_refresh_tokens_user_id FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
@@ -0,0 +1,4 @@
+-- 投稿の版（楽観的ロック用のバージョン番号）を posts テーブルに保持する
+-- ※投稿を更新するたびに1増やし、読み込んだ時点から他のリクエストに更新されていないかをUPDATE文の条件で確認する。
+--   クライアントには ETag（W/"post-{ID}-{版}"）として返し、If-Match で指定された版と一致する場合のみ更新する
+ALTER TABLE posts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- 投稿全体の版（投稿が変更された回数と、最後に変更された日時）を1行で保持するテーブルを作成する
+-- ※一覧のETag・Last-Modified と、最新の投稿一覧の読み込み直しの判定に使用する。
+--   これまでは posts テーブル全体の件数・更新日時の最大値を毎回集計していた（投稿数に比例して遅くなる）
+-- ※投稿を変更するたびに、アプリがコミット後に version を1増やす
+CREATE TABLE post_collection_versions (
+    id INT NOT NULL,
+    version BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO post_collection_versions (id, version, updated_at) VALUES (1, 0, NOW(6));
@@ -0,0 +1,117 @@
+package com.example.simple_crud_spring.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.simple_crud_spring.dto.TokenResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * トークン認証を有効にした場合に、HTTPセッションを使用せずにトークンで認証できることを確認するテスト
+ */
+@SpringBootTest(properties = {
+		"app.security.token.enabled=true",
+		"app.security.token.secret=MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=",
+		"app.rate-limit.enabled=false",
+})
+@AutoConfigureMockMvc
+class TokenAuthenticationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void loginIssuesTokensWithoutSession() throws Exception {
+		MvcResult result = register("token@example.com");
+
+		assertThat(result.getRequest().getSession(false)).isNull();
+		assertThat(result.getResponse().getCookie("JSESSIONID")).isNull();
+
+		TokenResponseDto tokens = tokens(result);
+		assertThat(tokens.tokenType()).isEqualTo("Bearer");
+		mockMvc.perform(me(tokens.accessToken()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.email").value("token@example.com"));
+	}
+
+	@Test
+	void refreshTokenCanBeUsedOnlyOnce() throws Exception {
+		TokenResponseDto tokens = tokens(register("refresh@example.com"));
+
+		TokenResponseDto refreshed = tokens(mockMvc.perform(refresh(tokens.refreshToken()))
+				.andExpect(status().isOk())
+				.andReturn());
+		assertThat(refreshed.refreshToken()).isNotEqualTo(tokens.refreshToken());
+		mockMvc.perform(me(refreshed.accessToken())).andExpect(status().isOk());
+
+		// 使用済みのリフレッシュトークンは使えない
+		mockMvc.perform(refresh(tokens.refreshToken())).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void logoutRevokesTokens() throws Exception {
+		TokenResponseDto tokens = tokens(register("logout@example.com"));
+
+		mockMvc.perform(post("/api/auth/logout")
+				.header("Authorization", "Bearer " + tokens.accessToken())
+				.contentType("application/json")
+				.content("{\"refreshToken\":\"" + tokens.refreshToken() + "\"}"))
+				.andExpect(status().isNoContent());
+
+		mockMvc.perform(me(tokens.accessToken()))
+				.andExpect(status().isUnauthorized())
+				.andExpect(header().string("WWW-Authenticate", "Bearer error=\"invalid_token\""));
+		mockMvc.perform(refresh(tokens.refreshToken())).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void rejectsInvalidToken() throws Exception {
+		mockMvc.perform(me("invalid.token.value"))
+				.andExpect(status().isUnauthorized())
+				.andExpect(jsonPath("$[0].field").value("token"));
+	}
+
+	/**
+	 * ユーザーを登録してログインし、ログインのレスポンスを返す
+	 */
+	private MvcResult register(String email) throws Exception {
+		mockMvc.perform(post("/api/users/register")
+				.contentType("application/json")
+				.content("{\"userName\":\"token\",\"email\":\"" + email + "\",\"password\":\"password\"}"))
+				.andExpect(status().isOk());
+		return mockMvc.perform(post("/login")
+				.param("username", email)
+				.param("password", "password"))
+				.andExpect(status().isOk())
+				.andReturn();
+	}
+
+	private TokenResponseDto tokens(MvcResult result) throws Exception {
+		return objectMapper.readValue(result.getResponse().getContentAsString(), TokenResponseDto.class);
+	}
+
+	private static MockHttpServletRequestBuilder me(String accessToken) {
+		return get("/api/users/me").header("Authorization", "Bearer " + accessToken);
+	}
+
+	private static MockHttpServletRequestBuilder refresh(String refreshToken) {
+		return post("/api/auth/refresh")
+				.contentType("application/json")
+				.content("{\"refreshToken\":\"" + refreshToken + "\"}");
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.simple_crud_spring.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * 監視用のエンドポイントのうち、/actuator/health 以外は監視用のアカウントでのみ参照・操作できることを確認するテスト
+ */
+@SpringBootTest(properties = {
+		"app.rate-limit.enabled=false",
+		"app.management.password=monitor-secret",
+})
+@AutoConfigureMockMvc
+class ActuatorSecurityTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void healthIsPublic() throws Exception {
+		mockMvc.perform(get("/actuator/health"))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void otherEndpointsRequireMonitoringAccount() throws Exception {
+		mockMvc.perform(delete("/actuator/caches"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/metrics"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, basic("monitor", "wrong")))
+				.andExpect(status().isUnauthorized());
+
+		mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, basic("monitor", "monitor-secret")))
+				.andExpect(status().isOk());
+		mockMvc.perform(delete("/actuator/caches").header(HttpHeaders.AUTHORIZATION, basic("monitor", "monitor-secret")))
+				.andExpect(status().isNoContent());
+	}
+
+	private static String basic(String username, String password) {
+		return "Basic " + Base64.getEncoder()
+				.encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.simple_crud_spring.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * マイグレーション導入前のDB（ddl-auto=update・IDENTITYで作成したもの）から、
+ * V1をベースラインとして V2（ID採番用テーブルの調整）を適用できることを確認するテスト
+ * ※V3以降はMySQL固有の構文（FULLTEXTインデックスなど）を含むため、H2（MySQLモード）では V2 までを適用する
+ */
+class FlywayBaselineMigrationTests {
+
+	@Test
+	void migratesSchemaCreatedBeforeFlyway() {
+		DataSource dataSource = newDatabase();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		// 以前の ddl-auto=update が作成していたテーブル（IDはIDENTITYで採番し、採番用のテーブルはない）
+		jdbcTemplate.execute("CREATE TABLE users (id BIGINT NOT NULL AUTO_INCREMENT, email VARCHAR(255) NOT NULL,"
+				+ " password VARCHAR(255) NOT NULL, user_name VARCHAR(50) NOT NULL, PRIMARY KEY (id),"
+				+ " CONSTRAINT uk_users_email UNIQUE (email)) ENGINE = InnoDB");
+		jdbcTemplate.execute("CREATE TABLE posts (id BIGINT NOT NULL AUTO_INCREMENT, content TEXT NOT NULL,"
+				+ " created_at DATETIME(6), deleted_at DATETIME(6), title VARCHAR(255) NOT NULL,"
+				+ " updated_at DATETIME(6), user_id BIGINT, PRIMARY KEY (id),"
+				+ " CONSTRAINT fk_posts_user_id FOREIGN KEY (user_id) REFERENCES users (id)) ENGINE = InnoDB");
+		jdbcTemplate.update("INSERT INTO users (email, password, user_name) VALUES ('old@example.com', 'x', 'old')");
+		for (int i = 0; i < 3; i++) {
+			jdbcTemplate.update("INSERT INTO posts (content, title, user_id) VALUES ('content', 'title', 1)");
+		}
+
+		flyway(dataSource).migrate();
+
+		assertThat(jdbcTemplate.queryForList("SELECT next_val FROM posts_seq", Long.class)).containsExactly(3L + 51);
+		assertThat(jdbcTemplate.queryForList("SELECT next_val FROM users_seq", Long.class)).containsExactly(1L + 51);
+	}
+
+	@Test
+	void migratesEmptyDatabaseFromV1() {
+		DataSource dataSource = newDatabase();
+
+		flyway(dataSource).migrate();
+
+		// V1で作成した採番用のテーブルに、行を追加しないこと
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		assertThat(jdbcTemplate.queryForList("SELECT next_val FROM posts_seq", Long.class)).containsExactly(51L);
+		assertThat(jdbcTemplate.queryForList("SELECT next_val FROM users_seq", Long.class)).containsExactly(51L);
+	}
+
+	/**
+	 * application.properties と同じベースラインの設定で、V2 までを適用する Flyway を生成する
+	 */
+	private static Flyway flyway(DataSource dataSource) {
+		return Flyway.configure()
+				.dataSource(dataSource)
+				.locations("classpath:db/migration")
+				.baselineOnMigrate(true)
+				.baselineVersion("1")
+				.target(MigrationVersion.fromVersion("2"))
+				.load();
+	}
+
+	private static DataSource newDatabase() {
+		return new DriverManagerDataSource(
+				"jdbc:h2:mem:flyway_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+	}
+}
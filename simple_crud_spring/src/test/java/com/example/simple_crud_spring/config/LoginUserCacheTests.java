@@ -0,0 +1,123 @@
+package com.example.simple_crud_spring.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * ログイン時のユーザー情報のキャッシュと、パスワードの強度を変更した場合の再ハッシュを確認するテスト
+ */
+@SpringBootTest(properties = {
+		"app.rate-limit.enabled=false",
+		"app.security.bcrypt-strength=5",
+})
+@AutoConfigureMockMvc
+class LoginUserCacheTests {
+
+	private static final String PASSWORD = "password";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void secondLoginDoesNotQueryUsers() throws Exception {
+		String email = createUser("cached", passwordEncoder.encode(PASSWORD));
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		statistics.clear();
+		mockMvc.perform(login(email, PASSWORD)).andExpect(status().isOk());
+		assertThat(statistics.getPrepareStatementCount()).isPositive();
+
+		statistics.clear();
+		mockMvc.perform(login(email, PASSWORD)).andExpect(status().isOk());
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void wrongPasswordIsRejectedWhileUserIsCached() throws Exception {
+		String email = createUser("wrong", passwordEncoder.encode(PASSWORD));
+		mockMvc.perform(login(email, PASSWORD)).andExpect(status().isOk());
+		assertThat(usersByEmail().get(email)).isNotNull();
+
+		mockMvc.perform(login(email, "wrong-password")).andExpect(status().isUnauthorized());
+		mockMvc.perform(login(email, PASSWORD)).andExpect(status().isOk());
+	}
+
+	@Test
+	void loginAfterStrengthChangeRehashesPasswordAndEvictsUser() throws Exception {
+		// 強度を5に上げる前（強度4）にハッシュしたパスワード
+		String email = createUser("rehash", new BCryptPasswordEncoder(4).encode(PASSWORD));
+
+		mockMvc.perform(login(email, PASSWORD)).andExpect(status().isOk());
+
+		String rehashed = userRepository.findByEmail(email).orElseThrow().getPassword();
+		assertThat(rehashed).startsWith("$2a$05$");
+		assertThat(passwordEncoder.matches(PASSWORD, rehashed)).isTrue();
+		// 古いハッシュを持つユーザー情報がキャッシュから使われないこと
+		assertThat(usersByEmail().get(email)).isNull();
+
+		mockMvc.perform(login(email, PASSWORD)).andExpect(status().isOk());
+		assertThat(userRepository.findByEmail(email).orElseThrow().getPassword()).isEqualTo(rehashed);
+	}
+
+	@Test
+	void upgradeEncodingDetectsLowerAndHigherStrength() {
+		StrengthAwareBCryptPasswordEncoder encoder = new StrengthAwareBCryptPasswordEncoder(5);
+
+		assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode(PASSWORD))).isTrue();
+		assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode(PASSWORD))).isTrue();
+		assertThat(encoder.upgradeEncoding(encoder.encode(PASSWORD))).isFalse();
+		assertThat(encoder.upgradeEncoding(null)).isFalse();
+	}
+
+	/**
+	 * 指定したハッシュのパスワードを持つユーザーを登録し、メールアドレスを返す
+	 */
+	private String createUser(String name, String encodedPassword) {
+		User user = new User();
+		user.setUserName(name);
+		user.setEmail(name + "-" + System.nanoTime() + "@example.com");
+		user.setPassword(encodedPassword);
+		return userRepository.save(user).getEmail();
+	}
+
+	private Cache usersByEmail() {
+		return cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+	}
+
+	private static MockHttpServletRequestBuilder login(String email, String password) {
+		return post("/login")
+				.param("username", email)
+				.param("password", password);
+	}
+}
@@ -0,0 +1,229 @@
+package com.example.simple_crud_spring.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.Cookie;
+
+/**
+ * 読み取り専用のトランザクションがレプリカへ、それ以外がプライマリへ振り分けられることを確認するテスト
+ * プライマリとレプリカの代わりに、2つのH2データベースを使用する。
+ * ※レプリカにはスキーマだけを複製し、データは複製しない（レプリケーションが遅れている状態を再現する）
+ */
+@SpringBootTest(properties = {
+		"app.datasource.replica.enabled=true",
+		"app.datasource.replica.url=" + ReadWriteRoutingDataSourceTests.REPLICA_URL,
+		"app.datasource.replica.username=sa",
+		"app.datasource.replica.password=",
+})
+@AutoConfigureMockMvc
+class ReadWriteRoutingDataSourceTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:replica_db;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private DataSource primaryDataSource;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@BeforeEach
+	void copySchemaToReplica() throws Exception {
+		List<String> statements = new ArrayList<>();
+		try (Connection primary = primaryDataSource.getConnection();
+				Statement statement = primary.createStatement();
+				ResultSet script = statement.executeQuery("SCRIPT NODATA")) {
+			while (script.next()) {
+				statements.add(script.getString(1));
+			}
+		}
+		try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+				Statement statement = replica.createStatement()) {
+			statement.execute("DROP ALL OBJECTS");
+			for (String sql : statements) {
+				statement.execute(sql);
+			}
+		}
+	}
+
+	@AfterEach
+	void clearRequest() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void readOnlyTransactionUsesReplicaAndOthersUsePrimary() {
+		assertThat(databaseName(true)).isEqualTo("REPLICA_DB");
+		assertThat(databaseName(false)).isEqualTo("LEARNING_DB");
+	}
+
+	@Test
+	void readAfterWriteInSameRequestUsesPrimary() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+
+		assertThat(databaseName(true)).isEqualTo("REPLICA_DB");
+		databaseName(false);
+		assertThat(databaseName(true)).isEqualTo("LEARNING_DB");
+		assertThat(response.getCookie(ReadYourWritesTracker.COOKIE_NAME)).isNotNull();
+	}
+
+	@Test
+	void readWithUnexpiredCookieUsesPrimary() {
+		assertThat(databaseNameWithCookie(System.currentTimeMillis() + 60_000)).isEqualTo("LEARNING_DB");
+		assertThat(databaseNameWithCookie(System.currentTimeMillis() - 1)).isEqualTo("REPLICA_DB");
+	}
+
+	@Test
+	void clientReadsItsOwnWritesWhileReplicaLags() throws Exception {
+		MvcResult registered = mockMvc.perform(post("/api/users/register")
+				.contentType("application/json")
+				.content("{\"userName\":\"routing\",\"email\":\"routing@example.com\",\"password\":\"password\"}"))
+				.andExpect(status().isOk())
+				.andExpect(cookie().exists(ReadYourWritesTracker.COOKIE_NAME))
+				.andReturn();
+		Cookie readYourWrites = registered.getResponse().getCookie(ReadYourWritesTracker.COOKIE_NAME);
+		Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'routing@example.com'", Long.class);
+
+		// 書き込んだクライアントは、レプリカに反映されていない投稿者を参照して投稿を作成・取得できる
+		MvcResult created = mockMvc.perform(post("/api/posts")
+				.cookie(readYourWrites)
+				.contentType("application/json")
+				.content("{\"title\":\"title\",\"content\":\"content\",\"userId\":" + userId + "}"))
+				.andExpect(status().isOk())
+				.andReturn();
+		String postId = created.getResponse().getContentAsString().replaceAll("^\\{\"id\":(\\d+),.*$", "$1");
+		mockMvc.perform(get("/api/posts/" + postId).cookie(readYourWrites))
+				.andExpect(status().isOk());
+
+		// 他のクライアントはレプリカから読み取るため、キャッシュしない一覧にはまだ現れない
+		mockMvc.perform(get("/api/posts/all"))
+				.andExpect(status().isOk())
+				.andExpect(content().json("[]"));
+	}
+
+	@Test
+	void cacheIsNotFilledFromLaggingReplica() throws Exception {
+		MvcResult registered = mockMvc.perform(post("/api/users/register")
+				.contentType("application/json")
+				.content("{\"userName\":\"lagging\",\"email\":\"lagging@example.com\",\"password\":\"password\"}"))
+				.andExpect(status().isOk())
+				.andReturn();
+		Cookie readYourWrites = registered.getResponse().getCookie(ReadYourWritesTracker.COOKIE_NAME);
+		Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'lagging@example.com'", Long.class);
+		MvcResult created = mockMvc.perform(post("/api/posts")
+				.cookie(readYourWrites)
+				.contentType("application/json")
+				.content("{\"title\":\"before\",\"content\":\"content\",\"userId\":" + userId + "}"))
+				.andExpect(status().isOk())
+				.andReturn();
+		Long postId = Long.valueOf(created.getResponse().getContentAsString().replaceAll("^\\{\"id\":(\\d+),.*$", "$1"));
+
+		// レプリカには更新前の投稿だけが反映されている状態で、投稿を更新する（キャッシュは破棄される）
+		copyRowToReplica("users", userId);
+		copyRowToReplica("posts", postId);
+		mockMvc.perform(put("/api/posts/" + postId)
+				.cookie(readYourWrites)
+				.contentType("application/json")
+				.content("{\"title\":\"after\",\"content\":\"content\"}"))
+				.andExpect(status().isOk());
+
+		// 破棄の直後に、書き込んでいないクライアントの読み取りがキャッシュを埋める
+		assertThat(cacheManager.getCache(CacheConfig.POSTS).get(postId)).isNull();
+		mockMvc.perform(get("/api/posts/" + postId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.title").value("after"));
+
+		// キャッシュにはプライマリの内容が入るため、書き込んだクライアントも更新後の内容を参照できる
+		mockMvc.perform(get("/api/posts/" + postId).cookie(readYourWrites))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.title").value("after"));
+	}
+
+	/**
+	 * プライマリの行を、そのままレプリカに複製する（レプリケーションがその時点まで進んだ状態を再現する）
+	 */
+	private void copyRowToReplica(String table, Long id) throws Exception {
+		Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM " + table + " WHERE id = ?", id);
+		String columns = String.join(", ", row.keySet());
+		String placeholders = String.join(", ", Collections.nCopies(row.size(), "?"));
+		try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+				PreparedStatement statement = replica.prepareStatement(
+						"INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")")) {
+			int index = 1;
+			for (Object value : row.values()) {
+				statement.setObject(index++, value);
+			}
+			statement.executeUpdate();
+		}
+	}
+
+	/**
+	 * トランザクションの中で接続先のデータベース名を取得する
+	 */
+	private String databaseName(boolean readOnly) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(readOnly);
+		return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT DATABASE()", String.class));
+	}
+
+	/**
+	 * プライマリで読み取る期限のクッキーを持つリクエストの中で、読み取り専用のトランザクションの接続先を取得する
+	 */
+	private String databaseNameWithCookie(long primaryReadUntil) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setCookies(new Cookie(ReadYourWritesTracker.COOKIE_NAME, String.valueOf(primaryReadUntil)));
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+		try {
+			return databaseName(true);
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+}
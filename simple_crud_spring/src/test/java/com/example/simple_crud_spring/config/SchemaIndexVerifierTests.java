@@ -0,0 +1,47 @@
+package com.example.simple_crud_spring.config;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.simple_crud_spring.model.Post;
+
+/**
+ * 必要なインデックスがない場合に、起動時の確認が失敗することを確認するテスト
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchemaIndexVerifierTests {
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	void passesWhenAllIndexesExist() {
+		assertThatCode(() -> new SchemaIndexVerifier(dataSource).afterSingletonsInstantiated())
+				.doesNotThrowAnyException();
+	}
+
+	@Test
+	void failsWhenIndexIsMissing() {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP INDEX " + Post.INDEX_USER_ID_DELETED_AT_CREATED_AT);
+		try {
+			assertThatThrownBy(() -> new SchemaIndexVerifier(dataSource).afterSingletonsInstantiated())
+					.isInstanceOf(IllegalStateException.class)
+					.hasMessageContaining(Post.INDEX_USER_ID_DELETED_AT_CREATED_AT);
+		} finally {
+			// 同じDBを使用する他のテストに影響しないよう、インデックスを作成し直す
+			jdbcTemplate.execute("CREATE INDEX " + Post.INDEX_USER_ID_DELETED_AT_CREATED_AT
+					+ " ON posts (user_id, deleted_at, created_at)");
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.example.simple_crud_spring.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * fast-startup プロファイルで起動した場合に、定期実行・起動時の処理を持つBeanだけが起動時に生成されることを確認するテスト
+ * ※テーブルはテスト用の設定（test プロファイル）で作成するため、fast-startup の後に test を指定する
+ */
+@SpringBootTest
+@ActiveProfiles({ "fast-startup", "test" })
+class StartupConfigTests {
+
+	@Autowired
+	private ConfigurableApplicationContext context;
+
+	@Test
+	void onlyStartupBeansAreCreatedEagerly() {
+		ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+
+		// 起動時にデータを読み込むBean・定期実行の処理を持つBeanは、起動時に生成されている
+		assertThat(beanFactory.containsSingleton("latestPostsTimeline")).isTrue();
+		assertThat(beanFactory.containsSingleton("emailExistenceFilter")).isTrue();
+		assertThat(beanFactory.containsSingleton("postArchiveJob")).isTrue();
+
+		// それ以外のBeanは、使用されるまで生成されない
+		assertThat(beanFactory.containsSingleton("postSearchService")).isFalse();
+
+		// スキーマの確認は行わない
+		assertThat(beanFactory.containsBeanDefinition("schemaIndexVerifier")).isFalse();
+	}
+}
@@ -0,0 +1,167 @@
+package com.example.simple_crud_spring.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.simple_crud_spring.model.Post;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 投稿の一括作成・更新・削除で、すべて書き込むか何も書き込まないかのどちらかになることを確認するテスト
+ * ※バッチサイズを小さくし、複数回に分けて書き込む（flush・clear する）場合も確認する
+ */
+@SpringBootTest(properties = {
+		"app.rate-limit.enabled=false",
+		"app.posts.batch-size=2",
+		"app.posts.batch-max-items=5",
+})
+@AutoConfigureMockMvc
+class PostControllerBatchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = new User();
+		user.setUserName("batch");
+		user.setEmail("batch-" + System.nanoTime() + "@example.com");
+		user.setPassword("password");
+		userRepository.save(user);
+	}
+
+	@Test
+	void validBatchIsWrittenInRequestOrder() throws Exception {
+		String body = mockMvc.perform(post("/api/posts/batch")
+				.contentType("application/json")
+				.content(createRequests(5)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(5))
+				.andReturn().getResponse().getContentAsString();
+
+		// IDは1回のバッチの中で採番され（SEQUENCE）、リクエストの順に振られる
+		List<Long> ids = new ArrayList<>();
+		List<String> titles = new ArrayList<>();
+		for (JsonNode created : objectMapper.readTree(body)) {
+			ids.add(created.get("id").asLong());
+			titles.add(created.get("title").asText());
+		}
+		assertThat(ids).doesNotHaveDuplicates().isSortedAccordingTo(Comparator.naturalOrder());
+		assertThat(titles).containsExactly("batch0", "batch1", "batch2", "batch3", "batch4");
+		assertThat(postRepository.findAllById(ids)).hasSize(5);
+		assertThat(userRepository.findProfileById(user.getId()).orElseThrow().postCount()).isEqualTo(5);
+
+		mockMvc.perform(put("/api/posts/batch")
+				.contentType("application/json")
+				.content("[{\"id\":" + ids.get(0) + ",\"title\":\"updated0\",\"content\":\"c\"},"
+						+ "{\"id\":" + ids.get(1) + ",\"title\":\"updated1\",\"content\":\"c\"}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].title").value("updated0"))
+				.andExpect(jsonPath("$[1].title").value("updated1"));
+		assertThat(postRepository.findById(ids.get(1))).map(Post::getTitle).hasValue("updated1");
+
+		mockMvc.perform(delete("/api/posts/batch")
+				.contentType("application/json")
+				.content(ids.subList(0, 3).toString()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.deletedCount").value(3));
+		assertThat(postRepository.findAllById(ids)).hasSize(2);
+		assertThat(userRepository.findProfileById(user.getId()).orElseThrow().postCount()).isEqualTo(2);
+	}
+
+	@Test
+	void partlyInvalidBatchWritesNothing() throws Exception {
+		long before = postRepository.count();
+
+		mockMvc.perform(post("/api/posts/batch")
+				.contentType("application/json")
+				.content("[{\"title\":\"ok\",\"content\":\"c\",\"userId\":" + user.getId() + "},"
+						+ "{\"title\":\" \",\"content\":\"c\",\"userId\":" + user.getId() + "},"
+						+ "{\"title\":\"ok\",\"content\":\"c\",\"userId\":" + Long.MAX_VALUE + "}]"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$[*].field", containsInAnyOrder("[1].title", "[2].userId")));
+		assertThat(postRepository.count()).isEqualTo(before);
+		assertThat(userRepository.findProfileById(user.getId()).orElseThrow().postCount()).isZero();
+
+		// 更新も、存在しない投稿・重複したIDが1件でもあれば何も更新しない
+		String created = mockMvc.perform(post("/api/posts/batch")
+				.contentType("application/json")
+				.content(createRequests(1)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		long id = objectMapper.readTree(created).get(0).get("id").asLong();
+
+		mockMvc.perform(put("/api/posts/batch")
+				.contentType("application/json")
+				.content("[{\"id\":" + id + ",\"title\":\"lost\",\"content\":\"c\"},"
+						+ "{\"id\":" + id + ",\"title\":\"lost\",\"content\":\"c\"},"
+						+ "{\"id\":" + Long.MAX_VALUE + ",\"title\":\"lost\",\"content\":\"c\"}]"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$[*].field", containsInAnyOrder("[1].id", "[2].id")));
+		assertThat(postRepository.findById(id)).map(Post::getTitle).hasValue("batch0");
+	}
+
+	@Test
+	void oversizedOrEmptyBatchIsRejected() throws Exception {
+		long before = postRepository.count();
+
+		mockMvc.perform(post("/api/posts/batch")
+				.contentType("application/json")
+				.content(createRequests(6)))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$[0].field").value("items"));
+		mockMvc.perform(post("/api/posts/batch")
+				.contentType("application/json")
+				.content("[]"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$[0].field").value("items"));
+		mockMvc.perform(delete("/api/posts/batch")
+				.contentType("application/json")
+				.content("[1,2,3,4,5,6]"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$[0].field").value("items"));
+
+		assertThat(postRepository.count()).isEqualTo(before);
+	}
+
+	/**
+	 * 指定した件数の投稿を作成するリクエスト（JSONの配列）を生成する
+	 */
+	private String createRequests(int count) {
+		return IntStream.range(0, count)
+				.mapToObj(i -> "{\"title\":\"batch" + i + "\",\"content\":\"content\",\"userId\":" + user.getId() + "}")
+				.toList()
+				.toString();
+	}
+}
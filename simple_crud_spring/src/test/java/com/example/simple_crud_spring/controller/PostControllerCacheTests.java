@@ -0,0 +1,147 @@
+package com.example.simple_crud_spring.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.simple_crud_spring.config.CacheConfig;
+import com.example.simple_crud_spring.model.Post;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 投稿のキャッシュが、更新した投稿の分だけ破棄されることと、ヒット数・ミス数・追い出し数が記録されることを確認するテスト
+ */
+@SpringBootTest(properties = {
+		"app.rate-limit.enabled=false",
+		// 追い出しを確認できるよう、投稿のキャッシュの上限（概算のバイト数）を小さくする
+		"app.cache.spec.posts=maximumWeight=5000,expireAfterWrite=10m,recordStats",
+})
+@AutoConfigureMockMvc
+class PostControllerCacheTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = new User();
+		user.setUserName("cache");
+		user.setEmail(UUID.randomUUID() + "@example.com");
+		user.setPassword("password");
+		userRepository.save(user);
+		// 他のテストで読み込んだ投稿に追い出されないよう、空の状態から始める
+		posts().clear();
+	}
+
+	@Test
+	void updateEvictsOnlyUpdatedPost() throws Exception {
+		Post target = createPost("target");
+		Post other = createPost("other");
+		double hits = gets("hit");
+		double misses = gets("miss");
+
+		mockMvc.perform(get("/api/posts/" + target.getId())).andExpect(status().isOk());
+		mockMvc.perform(get("/api/posts/" + other.getId())).andExpect(status().isOk());
+		mockMvc.perform(get("/api/posts/" + target.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.title").value("target"));
+		assertThat(gets("miss")).isEqualTo(misses + 2);
+		assertThat(gets("hit")).isEqualTo(hits + 1);
+		assertThat(isCached(target)).isTrue();
+
+		mockMvc.perform(put("/api/posts/" + target.getId())
+				.contentType("application/json")
+				.content("{\"title\":\"updated\",\"content\":\"content\"}"))
+				.andExpect(status().isOk());
+
+		// 更新した投稿のキャッシュだけを破棄し、他の投稿のキャッシュは残す
+		assertThat(isCached(target)).isFalse();
+		assertThat(isCached(other)).isTrue();
+
+		mockMvc.perform(get("/api/posts/" + target.getId()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.title").value("updated"));
+		mockMvc.perform(get("/api/posts/" + other.getId())).andExpect(status().isOk());
+		assertThat(gets("miss")).isEqualTo(misses + 3);
+		assertThat(gets("hit")).isEqualTo(hits + 2);
+	}
+
+	@Test
+	void evictionsOverMaximumWeightAreCounted() throws Exception {
+		double evictions = meterRegistry.get("cache.evictions").tag("cache", CacheConfig.POSTS).functionCounter().count();
+
+		List<Post> created = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			created.add(createPost("evict" + i));
+		}
+		for (Post post : created) {
+			mockMvc.perform(get("/api/posts/" + post.getId())).andExpect(status().isOk());
+		}
+		// 追い出しは非同期に行われるため、保留中の処理を実行させる
+		nativePosts().cleanUp();
+
+		assertThat(meterRegistry.get("cache.evictions").tag("cache", CacheConfig.POSTS).functionCounter().count())
+				.isGreaterThan(evictions);
+	}
+
+	private Post createPost(String title) {
+		Post post = new Post();
+		post.setUser(user);
+		post.setTitle(title);
+		post.setContent("content");
+		return postRepository.save(post);
+	}
+
+	private Cache posts() {
+		return cacheManager.getCache(CacheConfig.POSTS);
+	}
+
+	/**
+	 * 投稿がキャッシュにあるかを判定する（ヒット数・ミス数に含めないよう、Caffeineのキャッシュを直接参照する）
+	 */
+	private boolean isCached(Post post) {
+		return nativePosts().asMap().containsKey(post.getId());
+	}
+
+	private com.github.benmanes.caffeine.cache.Cache<?, ?> nativePosts() {
+		return (com.github.benmanes.caffeine.cache.Cache<?, ?>) posts().getNativeCache();
+	}
+
+	private double gets(String result) {
+		return meterRegistry.get("cache.gets").tag("cache", CacheConfig.POSTS).tag("result", result)
+				.functionCounter().count();
+	}
+}
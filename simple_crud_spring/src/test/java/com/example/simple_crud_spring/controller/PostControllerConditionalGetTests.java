@@ -0,0 +1,125 @@
+package com.example.simple_crud_spring.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.UserRepository;
+
+/**
+ * 投稿の一覧・ID指定の取得で、前回から変更がなければ条件付きリクエストに304を返し、
+ * 投稿が変更された後は新しい内容（200）を返すことを確認するテスト
+ */
+@SpringBootTest(properties = "app.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class PostControllerConditionalGetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private String postId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		User user = new User();
+		user.setUserName("conditional");
+		user.setEmail("conditional-" + System.nanoTime() + "@example.com");
+		user.setPassword("password");
+		userRepository.save(user);
+
+		String created = mockMvc.perform(post("/api/posts")
+				.contentType("application/json")
+				.content("{\"title\":\"title\",\"content\":\"content\",\"userId\":" + user.getId() + "}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		postId = created.replaceAll("^\\{\"id\":(\\d+),.*$", "$1");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "/api/posts", "/api/posts/all" })
+	void listIsNotModifiedUntilPostsChange(String path) throws Exception {
+		MockHttpServletResponse first = mockMvc.perform(get(path))
+				.andExpect(status().isOk())
+				.andReturn().getResponse();
+		String etag = first.getHeader(HttpHeaders.ETAG);
+		String lastModified = first.getHeader(HttpHeaders.LAST_MODIFIED);
+		assertThat(etag).startsWith("W/\"posts-");
+		assertThat(lastModified).isNotNull();
+
+		mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+		mockMvc.perform(get(path).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get(path).header(HttpHeaders.IF_MODIFIED_SINCE, hourBefore(lastModified)))
+				.andExpect(status().isOk());
+
+		// 投稿を変更すると版が変わり、以前のETagでは新しい内容が返される
+		mockMvc.perform(patch("/api/posts/" + postId)
+				.contentType("application/json")
+				.content("{\"title\":\"patched\"}"))
+				.andExpect(status().isOk());
+		String newEtag = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(newEtag).isNotEqualTo(etag);
+		mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, newEtag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void detailIsNotModifiedUntilPostChanges() throws Exception {
+		String path = "/api/posts/" + postId;
+		MockHttpServletResponse first = mockMvc.perform(get(path))
+				.andExpect(status().isOk())
+				.andReturn().getResponse();
+		String etag = first.getHeader(HttpHeaders.ETAG);
+		String lastModified = first.getHeader(HttpHeaders.LAST_MODIFIED);
+
+		mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+		mockMvc.perform(get(path).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+				.andExpect(status().isNotModified());
+
+		mockMvc.perform(put(path)
+				.contentType("application/json")
+				.content("{\"title\":\"updated\",\"content\":\"content\"}"))
+				.andExpect(status().isOk());
+		String newEtag = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(newEtag).isEqualTo("W/\"post-" + postId + "-1\"");
+	}
+
+	/**
+	 * HTTPの日付の1時間前の日付を返す
+	 */
+	private static String hourBefore(String httpDate) {
+		ZonedDateTime date = ZonedDateTime.parse(httpDate, DateTimeFormatter.RFC_1123_DATE_TIME);
+		return DateTimeFormatter.RFC_1123_DATE_TIME.format(date.minusHours(1).withZoneSameInstant(ZoneOffset.UTC));
+	}
+}
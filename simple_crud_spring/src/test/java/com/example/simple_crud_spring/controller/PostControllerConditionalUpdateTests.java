@@ -0,0 +1,134 @@
+package com.example.simple_crud_spring.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.UserRepository;
+
+/**
+ * 投稿の更新で、If-Match に指定したETagが最新の版でない場合に412を返すことを確認するテスト
+ */
+@SpringBootTest(properties = "app.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class PostControllerConditionalUpdateTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void updateRequiresLatestEtag() throws Exception {
+		User user = new User();
+		user.setUserName("etag");
+		user.setEmail(UUID.randomUUID() + "@example.com");
+		user.setPassword("password");
+		userRepository.save(user);
+
+		String created = mockMvc.perform(post("/api/posts")
+				.contentType("application/json")
+				.content("{\"title\":\"title\",\"content\":\"content\",\"userId\":" + user.getId() + "}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		String id = created.replaceAll("^\\{\"id\":(\\d+),.*$", "$1");
+
+		String etag = mockMvc.perform(get("/api/posts/" + id))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isEqualTo("W/\"post-" + id + "-0\"");
+
+		// 取得時のETagを指定した更新は成功し、新しいETagが返される
+		String updatedEtag = mockMvc.perform(put("/api/posts/" + id)
+				.header(HttpHeaders.IF_MATCH, etag)
+				.contentType("application/json")
+				.content("{\"title\":\"updated\",\"content\":\"content\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.version").value(1))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(updatedEtag).isEqualTo("W/\"post-" + id + "-1\"");
+
+		// 古いETagを指定した更新は、全体の更新・部分更新ともに412となる
+		mockMvc.perform(put("/api/posts/" + id)
+				.header(HttpHeaders.IF_MATCH, etag)
+				.contentType("application/json")
+				.content("{\"title\":\"lost\",\"content\":\"content\"}"))
+				.andExpect(status().isPreconditionFailed());
+		mockMvc.perform(patch("/api/posts/" + id)
+				.header(HttpHeaders.IF_MATCH, etag)
+				.contentType("application/json")
+				.content("{\"title\":\"lost\"}"))
+				.andExpect(status().isPreconditionFailed());
+
+		// 最新のETagを指定した部分更新は、指定した項目だけを更新する
+		mockMvc.perform(patch("/api/posts/" + id)
+				.header(HttpHeaders.IF_MATCH, updatedEtag)
+				.contentType("application/json")
+				.content("{\"title\":\"patched\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.title").value("patched"))
+				.andExpect(jsonPath("$.excerpt").value("content"));
+		mockMvc.perform(get("/api/posts/" + id))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.title").value("patched"))
+				.andExpect(jsonPath("$.version").value(2));
+
+		mockMvc.perform(patch("/api/posts/" + id)
+				.contentType("application/json")
+				.content("{\"title\":\" \"}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void ifMatchAcceptsListOfEntityTags() throws Exception {
+		User user = new User();
+		user.setUserName("etag-list");
+		user.setEmail(UUID.randomUUID() + "@example.com");
+		user.setPassword("password");
+		userRepository.save(user);
+
+		String created = mockMvc.perform(post("/api/posts")
+				.contentType("application/json")
+				.content("{\"title\":\"title\",\"content\":\"content\",\"userId\":" + user.getId() + "}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		String id = created.replaceAll("^\\{\"id\":(\\d+),.*$", "$1");
+
+		// 他の投稿のETagと並べて指定しても、この投稿の最新のETagが含まれていれば更新される（強いETagの形式でもよい）
+		mockMvc.perform(patch("/api/posts/" + id)
+				.header(HttpHeaders.IF_MATCH, "W/\"post-0-0\", \"post-" + id + "-0\"")
+				.contentType("application/json")
+				.content("{\"title\":\"first\"}"))
+				.andExpect(status().isOk());
+
+		// この投稿のETagが含まれていなければ412となる
+		mockMvc.perform(patch("/api/posts/" + id)
+				.header(HttpHeaders.IF_MATCH, "W/\"post-0-1\", W/\"posts-1-0\"")
+				.contentType("application/json")
+				.content("{\"title\":\"lost\"}"))
+				.andExpect(status().isPreconditionFailed());
+
+		// * を含む場合は版を確認しない
+		mockMvc.perform(put("/api/posts/" + id)
+				.header(HttpHeaders.IF_MATCH, "*")
+				.contentType("application/json")
+				.content("{\"title\":\"second\",\"content\":\"content\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.version").value(2));
+	}
+}
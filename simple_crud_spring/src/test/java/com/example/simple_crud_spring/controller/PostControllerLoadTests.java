@@ -0,0 +1,192 @@
+package com.example.simple_crud_spring.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.simple_crud_spring.dto.PostCursor;
+import com.example.simple_crud_spring.model.Post;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+
+/**
+ * 投稿APIに同時に多数のリクエストを送り、スループットとp99レイテンシを計測する負荷テスト
+ * プラットフォームスレッドで処理する場合と、仮想スレッドで処理する場合（Java 21以上のみ）の結果を比較する。
+ * ※時間がかかるため通常のテストでは実行しない。gradle loadTest -PjavaVersion=21 で実行する
+ */
+@Tag("load")
+abstract class PostControllerLoadTests {
+
+	private static final Logger log = LoggerFactory.getLogger(PostControllerLoadTests.class);
+
+	/** 登録しておく投稿の件数 */
+	private static final int POST_COUNT = 2_000;
+
+	/** 同時に送信するリクエスト数（Tomcatの既定の最大スレッド数200を上回る数） */
+	private static final int CONCURRENCY = 400;
+
+	/** 計測するリクエストの総数 */
+	private static final int REQUEST_COUNT = 20_000;
+
+	/** 計測前に送信するウォームアップ用のリクエスト数 */
+	private static final int WARMUP_COUNT = 2_000;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	private final List<Long> postIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		if (postRepository.count() == 0) {
+			User user = new User();
+			user.setUserName("load");
+			user.setEmail("load@example.com");
+			user.setPassword("password");
+			userRepository.save(user);
+
+			List<Post> posts = new ArrayList<>();
+			for (int i = 0; i < POST_COUNT; i++) {
+				Post post = new Post();
+				post.setUser(user);
+				post.setTitle("title" + i);
+				post.setContent("content" + i);
+				posts.add(post);
+			}
+			postRepository.saveAll(posts);
+		}
+		postRepository.findAll().forEach(post -> postIds.add(post.getId()));
+	}
+
+	@Test
+	void measureThroughputAndLatency() throws Exception {
+		run(WARMUP_COUNT);
+		Result result = run(REQUEST_COUNT);
+
+		log.info("[load] mode={} requests={} errors={} throughput={} req/s p50={} ms p99={} ms",
+				mode(), REQUEST_COUNT, result.errors(), String.format("%.1f", result.throughput()),
+				String.format("%.1f", result.percentile(50)), String.format("%.1f", result.percentile(99)));
+		assertThat(result.errors()).isZero();
+	}
+
+	/**
+	 * 計測結果のラベル（プラットフォームスレッド / 仮想スレッド）を返す
+	 */
+	abstract String mode();
+
+	/**
+	 * 指定した数のリクエストを、同時実行数を保ちながら送信して計測する
+	 * ※キャッシュされない一覧の2ページ目以降と、ID指定の取得を交互に送信する（どちらもJDBCでブロックする処理）
+	 */
+	private Result run(int requestCount) throws Exception {
+		Semaphore inFlight = new Semaphore(CONCURRENCY);
+		AtomicInteger errors = new AtomicInteger();
+		long[] latencies = new long[requestCount];
+		List<CompletableFuture<?>> futures = new ArrayList<>(requestCount);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < requestCount; i++) {
+			int index = i;
+			inFlight.acquire();
+			long sentAt = System.nanoTime();
+			futures.add(client.sendAsync(request(i), HttpResponse.BodyHandlers.discarding())
+					.whenComplete((response, error) -> {
+						latencies[index] = System.nanoTime() - sentAt;
+						if (error != null || response.statusCode() != 200) {
+							errors.incrementAndGet();
+						}
+						inFlight.release();
+					}));
+		}
+		CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+		long elapsed = System.nanoTime() - start;
+
+		Arrays.sort(latencies);
+		return new Result(latencies, elapsed, errors.get());
+	}
+
+	private HttpRequest request(int i) {
+		Long id = postIds.get(i % postIds.size());
+		String path = (i % 2 == 0)
+				? "/api/posts/" + id
+				: "/api/posts?size=20&cursor=" + new PostCursor(LocalDateTime.now(), id).encode();
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+	}
+
+	/**
+	 * 計測結果
+	 *
+	 * @param sortedLatencies 昇順に並べた各リクエストのレイテンシ（ナノ秒）
+	 * @param elapsedNanos    全リクエストの送信開始から完了までの時間（ナノ秒）
+	 * @param errors          失敗したリクエストの数
+	 */
+	record Result(long[] sortedLatencies, long elapsedNanos, int errors) {
+
+		double throughput() {
+			return sortedLatencies.length / (elapsedNanos / 1_000_000_000.0);
+		}
+
+		double percentile(int percent) {
+			int index = (int) Math.ceil(percent / 100.0 * sortedLatencies.length) - 1;
+			return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+		}
+	}
+
+	/**
+	 * プラットフォームスレッド（Tomcatのスレッドプール）でリクエストを処理する場合
+	 */
+	@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+	@ActiveProfiles("test")
+	static class PlatformThreadTests extends PostControllerLoadTests {
+
+		@Override
+		String mode() {
+			return "platform-threads";
+		}
+	}
+
+	/**
+	 * 仮想スレッドでリクエストを処理する場合（Java 21以上でのみ実行する）
+	 */
+	@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+	@ActiveProfiles({ "test", "virtual-threads" })
+	@EnabledForJreRange(min = JRE.JAVA_21)
+	static class VirtualThreadTests extends PostControllerLoadTests {
+
+		@Override
+		String mode() {
+			return "virtual-threads";
+		}
+	}
+}
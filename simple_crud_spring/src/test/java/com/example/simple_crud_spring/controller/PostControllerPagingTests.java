@@ -0,0 +1,109 @@
+package com.example.simple_crud_spring.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.simple_crud_spring.model.Post;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 投稿一覧・検索結果のカーソルの検証と、NDJSON形式での全件の書き出しを確認するテスト
+ */
+@SpringBootTest(properties = "app.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class PostControllerPagingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void malformedCursorIsBadRequest() throws Exception {
+		// Base64としては正しいが、内容（作成日時_ID）が不正なカーソル
+		for (String raw : List.of("no-separator", "not-a-date_1", "2024-01-01T00:00_abc")) {
+			String cursor = Base64.getUrlEncoder().withoutPadding()
+					.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+			mockMvc.perform(get("/api/posts").param("cursor", cursor))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.field").value("cursor"));
+		}
+	}
+
+	@Test
+	void malformedSearchCursorIsBadRequest() throws Exception {
+		// Base64としては正しいが、内容（関連度_ID）が不正なカーソル
+		for (String raw : List.of("no-separator", "not-a-number_1", "0x1.0p0_abc")) {
+			String cursor = Base64.getUrlEncoder().withoutPadding()
+					.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+			mockMvc.perform(get("/api/posts/search").param("q", "東京").param("cursor", cursor))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.field").value("cursor"));
+		}
+		mockMvc.perform(get("/api/posts/search").param("q", "\"+-\""))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.field").value("q"));
+	}
+
+	@Test
+	void streamAllWritesOneJsonObjectPerLine() throws Exception {
+		User user = new User();
+		user.setUserName("ndjson");
+		user.setEmail("ndjson-" + System.nanoTime() + "@example.com");
+		user.setPassword("password");
+		userRepository.save(user);
+
+		List<Post> posts = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Post post = new Post();
+			post.setUser(user);
+			post.setTitle("ndjson" + i);
+			// 改行を含む本文も、1件が1行に収まる
+			post.setContent("line1\nline2");
+			posts.add(post);
+		}
+		postRepository.saveAll(posts);
+
+		String body = mockMvc.perform(get("/api/posts").accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+		assertThat(body).endsWith("\n");
+		String[] lines = body.split("\n");
+		assertThat(lines).hasSize((int) postRepository.count());
+		List<String> titles = new ArrayList<>();
+		for (String line : lines) {
+			JsonNode post = objectMapper.readTree(line);
+			assertThat(post.isObject()).isTrue();
+			assertThat(post.has("id")).isTrue();
+			titles.add(post.get("title").asText());
+		}
+		assertThat(titles).contains("ndjson0", "ndjson1", "ndjson2");
+	}
+}
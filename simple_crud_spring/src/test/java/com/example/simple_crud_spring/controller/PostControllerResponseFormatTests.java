@@ -0,0 +1,101 @@
+package com.example.simple_crud_spring.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.example.simple_crud_spring.model.Post;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * 投稿一覧のレスポンスを、Acceptヘッダーに応じた形式（JSON・CBOR）で、必要に応じてgzipで圧縮して返すことを確認するテスト
+ * ※圧縮は組み込みのTomcatが行うため、実際にサーバーを起動して確認する
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PostControllerResponseFormatTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeEach
+	void setUp() {
+		User user = new User();
+		user.setUserName("format");
+		user.setEmail("format-" + System.nanoTime() + "@example.com");
+		user.setPassword("password");
+		userRepository.save(user);
+
+		List<Post> posts = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			Post post = new Post();
+			post.setUser(user);
+			post.setTitle("format" + i);
+			post.setContent("圧縮の確認用の本文です。".repeat(50));
+			posts.add(post);
+		}
+		postRepository.saveAll(posts);
+	}
+
+	@Test
+	void compressesJsonWhenClientAcceptsGzip() throws Exception {
+		HttpResponse<InputStream> response = get("application/json", "gzip");
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+		assertThat(response.headers().firstValue("ETag")).hasValueSatisfying(etag -> assertThat(etag).startsWith("W/"));
+		try (InputStream body = new GZIPInputStream(response.body())) {
+			JsonNode page = new ObjectMapper().readTree(body);
+			assertThat(page.get("items")).hasSize(20);
+		}
+	}
+
+	@Test
+	void returnsCborWhenRequested() throws Exception {
+		HttpResponse<InputStream> response = get("application/cbor", "identity");
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue("Content-Type")).hasValue("application/cbor");
+		assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+		assertThat(response.headers().allValues("Vary")).anySatisfy(vary -> assertThat(vary).containsIgnoringCase("accept"));
+		try (InputStream body = response.body()) {
+			JsonNode page = new ObjectMapper(new CBORFactory()).readTree(body);
+			assertThat(page.get("items")).hasSize(20);
+			assertThat(page.get("items").get(0).get("createdAt").isTextual()).isTrue();
+		}
+	}
+
+	private HttpResponse<InputStream> get(String accept, String acceptEncoding) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/posts?size=20"))
+				.header("Accept", accept)
+				.header("Accept-Encoding", acceptEncoding)
+				.GET()
+				.build();
+		return client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+	}
+}
@@ -0,0 +1,107 @@
+package com.example.simple_crud_spring.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.UserRepository;
+import com.example.simple_crud_spring.service.EmailExistenceFilter;
+
+/**
+ * 登録済みのメールアドレスでの新規登録が、事前の確認・一意制約のどちらで検出しても409になることを確認するテスト
+ */
+@SpringBootTest(properties = "app.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class UserControllerRegistrationTests {
+
+	/** 同時に登録するスレッド数 */
+	private static final int THREADS = 8;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EmailExistenceFilter emailExistenceFilter;
+
+	@Test
+	void registeredEmailIsRejectedBeforeHashing() throws Exception {
+		String email = UUID.randomUUID() + "@example.com";
+		assertThat(emailExistenceFilter.mightExist(email)).isFalse();
+
+		register(email).andExpect(status().isOk());
+		assertThat(emailExistenceFilter.mightExist(email)).isTrue();
+
+		register(email)
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.field").value("email"));
+	}
+
+	@Test
+	void emailUnknownToFilterIsRejectedByUniqueConstraint() throws Exception {
+		// 他のサーバーで登録された場合と同様に、フィルタに含まれないユーザーを直接登録する
+		String email = UUID.randomUUID() + "@example.com";
+		User user = new User();
+		user.setUserName("other");
+		user.setEmail(email);
+		user.setPassword("password");
+		userRepository.save(user);
+		assertThat(emailExistenceFilter.mightExist(email)).isFalse();
+
+		register(email)
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.field").value("email"));
+		assertThat(emailExistenceFilter.mightExist(email)).isTrue();
+	}
+
+	@Test
+	void concurrentRegistrationsCreateOnlyOneUser() throws Exception {
+		String email = UUID.randomUUID() + "@example.com";
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return register(email).andReturn().getResponse().getStatus();
+				}));
+			}
+			start.countDown();
+
+			List<Integer> statuses = new ArrayList<>();
+			for (Future<Integer> result : results) {
+				statuses.add(result.get());
+			}
+			assertThat(statuses).filteredOn(status -> status == 200).hasSize(1);
+			assertThat(statuses).filteredOn(status -> status == 409).hasSize(THREADS - 1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private ResultActions register(String email) throws Exception {
+		return mockMvc.perform(post("/api/users/register")
+				.contentType("application/json")
+				.content("{\"userName\":\"register\",\"email\":\"" + email + "\",\"password\":\"password\"}"));
+	}
+}
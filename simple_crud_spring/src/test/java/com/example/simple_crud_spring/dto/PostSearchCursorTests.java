@@ -0,0 +1,46 @@
+package com.example.simple_crud_spring.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.example.simple_crud_spring.exception.InvalidRequestException;
+
+/**
+ * 全文検索のカーソルの変換と、不正なカーソルの拒否を確認するテスト
+ */
+class PostSearchCursorTests {
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 0.0, 0.1, 1.0 / 3, 0.9062504768371582, 1e-300, Double.MIN_VALUE, 12345.678 })
+	void roundTripKeepsExactScore(double score) {
+		PostSearchCursor cursor = new PostSearchCursor(score, 42L);
+
+		PostSearchCursor decoded = PostSearchCursor.decode(cursor.encode());
+
+		// DBの関連度と等号で比較するため、丸められていないこと
+		assertThat(Double.doubleToRawLongBits(decoded.score())).isEqualTo(Double.doubleToRawLongBits(score));
+		assertThat(decoded.id()).isEqualTo(42L);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "no-separator", "0x1.0p0_", "0x1.0p0_abc", "not-a-number_1", "_1" })
+	void malformedContentIsRejected(String raw) {
+		String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+		assertThatThrownBy(() -> PostSearchCursor.decode(cursor))
+				.isInstanceOfSatisfying(InvalidRequestException.class,
+						ex -> assertThat(ex.getField()).isEqualTo("cursor"));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "not base64!", "a" })
+	void nonBase64IsRejected(String cursor) {
+		assertThatThrownBy(() -> PostSearchCursor.decode(cursor)).isInstanceOf(InvalidRequestException.class);
+	}
+}
@@ -0,0 +1,284 @@
+package com.example.simple_crud_spring.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 投稿の変更の配信で、再接続時の再送、受信が追いつかないクライアントへの再取得の促し・購読の終了、
+ * 送信が止まったクライアントの切り離し、ハートビートによる切断済みのクライアントの削除を確認するテスト
+ * 実際の接続の代わりに、送信した内容を記録する（または送信を止める・失敗させる）エミッターを使用する
+ */
+class PostEventHubTests {
+
+	private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)");
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	/** 次に subscribe した際に返すエミッター */
+	private final BlockingQueue<RecordingEmitter> nextEmitters = new LinkedBlockingQueue<>();
+
+	private PostEventHub hub;
+
+	/**
+	 * 送信した内容を記録するエミッター
+	 */
+	private static final class RecordingEmitter extends SseEmitter {
+
+		final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+		/** 設定した場合、送信のたびに解放されるまで待つ（受信しないクライアントを再現する） */
+		volatile CountDownLatch stall;
+
+		/** trueの場合、割り込まれても送信から戻らない */
+		volatile boolean ignoreInterrupts;
+
+		/** trueの場合、送信に失敗する（切断済みのクライアントを再現する） */
+		volatile boolean dead;
+
+		volatile boolean completed;
+
+		/** 最初の送信が始まった時点で解放される */
+		final CountDownLatch sending = new CountDownLatch(1);
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			sending.countDown();
+			if (dead) {
+				throw new IOException("Broken pipe");
+			}
+			CountDownLatch latch = stall;
+			if (latch != null) {
+				await(latch);
+			}
+			sent.add(builder.build().stream()
+					.map(data -> data.getData().toString())
+					.collect(Collectors.joining()));
+		}
+
+		private void await(CountDownLatch latch) throws IOException {
+			while (true) {
+				try {
+					latch.await();
+					return;
+				} catch (InterruptedException ex) {
+					if (!ignoreInterrupts) {
+						throw new IOException("Interrupted", ex);
+					}
+				}
+			}
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+			super.complete();
+		}
+
+		void awaitSending() throws InterruptedException {
+			assertThat(sending.await(5, TimeUnit.SECONDS)).as("送信の開始").isTrue();
+		}
+
+		String next() throws InterruptedException {
+			String text = sent.poll(5, TimeUnit.SECONDS);
+			assertThat(text).as("送信された内容").isNotNull();
+			return text;
+		}
+	}
+
+	private PostEventHub newHub(int bufferSize, int historySize, int dispatcherThreads, long sendTimeoutMillis) {
+		hub = new PostEventHub(() -> {
+			RecordingEmitter emitter = nextEmitters.poll();
+			return emitter != null ? emitter : new RecordingEmitter();
+		}, meterRegistry, bufferSize, historySize, dispatcherThreads, sendTimeoutMillis);
+		return hub;
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (hub != null) {
+			hub.shutdown();
+		}
+	}
+
+	private RecordingEmitter subscribe(Long lastEventId) {
+		return subscribe(lastEventId, new RecordingEmitter());
+	}
+
+	private RecordingEmitter subscribe(Long lastEventId, RecordingEmitter emitter) {
+		nextEmitters.add(emitter);
+		assertThat(hub.subscribe(lastEventId)).isSameAs(emitter);
+		return emitter;
+	}
+
+	private void publish(long postId) {
+		hub.onPostChanged(PostChangedEvent.deleted(postId));
+	}
+
+	private double subscriberCount() {
+		return meterRegistry.get("app.posts.stream.subscribers").gauge().value();
+	}
+
+	private static long eventId(String text) {
+		Matcher matcher = EVENT_ID.matcher(text);
+		assertThat(matcher.find()).as(text).isTrue();
+		return Long.parseLong(matcher.group(1));
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("条件を満たすまで待つ").isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	void reconnectReplaysEventsAfterLastEventId() throws Exception {
+		newHub(16, 5, 2, 10_000);
+		RecordingEmitter first = subscribe(null);
+		publish(1);
+		long firstId = eventId(first.next());
+		publish(2);
+		publish(3);
+
+		RecordingEmitter reconnected = subscribe(firstId);
+		List<Long> replayed = new ArrayList<>();
+		replayed.add(eventId(reconnected.next()));
+		replayed.add(eventId(reconnected.next()));
+		assertThat(replayed).containsExactly(firstId + 1, firstId + 2);
+
+		// 履歴（5件）に残っていないほど古いIDで再接続した場合は、再取得を促す
+		for (long postId = 4; postId <= 8; postId++) {
+			publish(postId);
+		}
+		RecordingEmitter stale = subscribe(firstId);
+		assertThat(stale.next()).contains("event:resync");
+		assertThat(stale.sent.poll(100, TimeUnit.MILLISECONDS)).isNull();
+	}
+
+	@Test
+	void overflowDropsQueuedEventsAndRequestsResync() throws Exception {
+		newHub(2, 100, 2, 10_000);
+		RecordingEmitter slow = subscribe(null);
+		CountDownLatch release = new CountDownLatch(1);
+		slow.stall = release;
+
+		// 1件目の送信中に4件を積むと、上限（2件）を超えた時点で溜まっている2件を捨てる
+		publish(1);
+		slow.awaitSending();
+		publish(2);
+		publish(3);
+		publish(4);
+		release.countDown();
+
+		long firstId = eventId(slow.next());
+		assertThat(slow.next()).contains("event:resync");
+		assertThat(eventId(slow.next())).isEqualTo(firstId + 3);
+		assertThat(meterRegistry.get("app.posts.stream.dropped").counter().count()).isEqualTo(2);
+		assertThat(subscriberCount()).isEqualTo(1);
+	}
+
+	@Test
+	void subscriberThatKeepsOverflowingIsDisconnected() throws Exception {
+		newHub(2, 100, 2, 10_000);
+		RecordingEmitter slow = subscribe(null);
+		CountDownLatch release = new CountDownLatch(1);
+		slow.stall = release;
+
+		publish(1);
+		slow.awaitSending();
+		// 再取得を促す印を送信できないうちに、再び上限を超える
+		for (long postId = 2; postId <= 6; postId++) {
+			publish(postId);
+		}
+		assertThat(subscriberCount()).isZero();
+		assertThat(meterRegistry.get("app.posts.stream.disconnected").tag("reason", "overflow").counter().count())
+				.isEqualTo(1);
+
+		// 送信から戻った時点でエミッターを完了し、それ以降は送信しない
+		release.countDown();
+		slow.next();
+		awaitUntil(() -> slow.completed);
+		assertThat(slow.sent.poll(100, TimeUnit.MILLISECONDS)).isNull();
+	}
+
+	@Test
+	void stalledSendDoesNotBlockOtherSubscribers() throws Exception {
+		newHub(16, 100, 1, 50);
+		RecordingEmitter stuck = new RecordingEmitter();
+		CountDownLatch release = new CountDownLatch(1);
+		stuck.stall = release;
+		stuck.ignoreInterrupts = true;
+		subscribe(null, stuck);
+
+		// 唯一の配信用スレッドが、受信しないクライアントへの送信で止まる
+		publish(1);
+		stuck.awaitSending();
+		RecordingEmitter healthy = subscribe(null);
+		publish(2);
+		assertThat(healthy.sent.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+		Thread.sleep(100);
+		hub.disconnectStalledSubscribers();
+		assertThat(subscriberCount()).isEqualTo(1);
+		assertThat(meterRegistry.get("app.posts.stream.disconnected").tag("reason", "stalled").counter().count())
+				.isEqualTo(1);
+		// 割り込んでも戻らない送信の代わりに追加したスレッドで、他のクライアントへの送信が続く
+		assertThat(healthy.next()).contains("event:post");
+
+		release.countDown();
+		awaitUntil(() -> stuck.completed);
+		publish(3);
+		assertThat(healthy.next()).contains("event:post");
+		assertThat(stuck.sent).hasSize(1);
+	}
+
+	@Test
+	void stalledSendIsInterrupted() throws Exception {
+		newHub(16, 100, 1, 50);
+		RecordingEmitter stuck = subscribe(null);
+		stuck.stall = new CountDownLatch(1);
+
+		publish(1);
+		stuck.awaitSending();
+		Thread.sleep(100);
+		hub.disconnectStalledSubscribers();
+		awaitUntil(() -> stuck.completed);
+		assertThat(stuck.sent).isEmpty();
+		assertThat(subscriberCount()).isZero();
+	}
+
+	@Test
+	void heartbeatRemovesDeadSubscribers() throws Exception {
+		newHub(16, 100, 2, 10_000);
+		RecordingEmitter alive = subscribe(null);
+		RecordingEmitter dead = subscribe(null);
+		dead.dead = true;
+		assertThat(subscriberCount()).isEqualTo(2);
+
+		hub.sendHeartbeats();
+		assertThat(alive.next()).contains("heartbeat");
+		awaitUntil(() -> dead.completed);
+		awaitUntil(() -> subscriberCount() == 1);
+
+		publish(1);
+		assertThat(alive.next()).contains("event:post");
+	}
+}
@@ -0,0 +1,153 @@
+package com.example.simple_crud_spring.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.simple_crud_spring.dto.ErrorResponseDto;
+import com.example.simple_crud_spring.exception.BatchValidationException;
+import com.example.simple_crud_spring.exception.NotFoundException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 想定されたエラーが適切なステータスコードで返され、エラーの種類ごとに件数が記録されることを確認するテスト
+ */
+@SpringBootTest(properties = "app.rate-limit.enabled=false")
+@AutoConfigureMockMvc
+class GlobalExceptionHandlerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void unknownUserIsNotFoundAndCounted() throws Exception {
+		double before = errorCount(meterRegistry, "NotFoundException", "404");
+
+		for (int i = 0; i < 3; i++) {
+			mockMvc.perform(post("/api/posts")
+					.contentType("application/json")
+					.content("{\"title\":\"title\",\"content\":\"content\",\"userId\":" + Long.MAX_VALUE + "}"))
+					.andExpect(status().isNotFound())
+					.andExpect(jsonPath("$.field").value("userId"));
+		}
+
+		assertThat(errorCount(meterRegistry, "NotFoundException", "404")).isEqualTo(before + 3);
+	}
+
+	@Test
+	void malformedCursorIsBadRequest() throws Exception {
+		mockMvc.perform(get("/api/posts").param("cursor", "%%%"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.field").value("cursor"));
+	}
+
+	@Test
+	void springMvcRequestErrorsAreClientErrors() throws Exception {
+		double unexpected = errorCount(meterRegistry, "HttpMessageNotReadableException", "500")
+				+ errorCount(meterRegistry, "MethodArgumentTypeMismatchException", "500")
+				+ errorCount(meterRegistry, "MissingServletRequestParameterException", "500")
+				+ errorCount(meterRegistry, "HttpRequestMethodNotSupportedException", "500")
+				+ errorCount(meterRegistry, "HttpMediaTypeNotSupportedException", "500")
+				+ errorCount(meterRegistry, "NoResourceFoundException", "500");
+		double methodNotAllowed = errorCount(meterRegistry, "HttpRequestMethodNotSupportedException", "405");
+
+		mockMvc.perform(post("/api/posts")
+				.contentType("application/json")
+				.content("{\"title\":"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.field").value("request"));
+		mockMvc.perform(get("/api/posts/not-a-number"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.field").value("id"));
+		mockMvc.perform(get("/api/posts").param("size", "many"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.field").value("size"));
+		mockMvc.perform(get("/api/posts/search"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.field").value("q"));
+		mockMvc.perform(post("/api/users/me"))
+				.andExpect(status().isMethodNotAllowed())
+				.andExpect(header().exists("Allow"))
+				.andExpect(jsonPath("$.field").value("request"));
+		mockMvc.perform(post("/api/posts")
+				.contentType("text/plain")
+				.content("title"))
+				.andExpect(status().isUnsupportedMediaType());
+		mockMvc.perform(get("/api/posts/1/unknown"))
+				.andExpect(status().isNotFound())
+				.andExpect(jsonPath("$.field").value("request"));
+
+		// 4xxとして件数を記録し、予期しないエラー（500）としては扱わない
+		assertThat(errorCount(meterRegistry, "HttpRequestMethodNotSupportedException", "405"))
+				.isEqualTo(methodNotAllowed + 1);
+		assertThat(errorCount(meterRegistry, "HttpMessageNotReadableException", "500")
+				+ errorCount(meterRegistry, "MethodArgumentTypeMismatchException", "500")
+				+ errorCount(meterRegistry, "MissingServletRequestParameterException", "500")
+				+ errorCount(meterRegistry, "HttpRequestMethodNotSupportedException", "500")
+				+ errorCount(meterRegistry, "HttpMediaTypeNotSupportedException", "500")
+				+ errorCount(meterRegistry, "NoResourceFoundException", "500")).isEqualTo(unexpected);
+	}
+
+	@Test
+	void invalidBatchIsBadRequestAndCounted() throws Exception {
+		double before = errorCount(meterRegistry, "BatchValidationException", "400");
+
+		mockMvc.perform(post("/api/posts/batch")
+				.contentType("application/json")
+				.content("[{\"title\":\" \",\"content\":\"content\",\"userId\":1}]"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$[0].field").value("[0].title"));
+
+		assertThat(errorCount(meterRegistry, "BatchValidationException", "400")).isEqualTo(before + 1);
+	}
+
+	@Test
+	void expectedErrorsHaveNoStackTrace() {
+		assertThat(new NotFoundException("id", "not found").getStackTrace()).isEmpty();
+		assertThat(new BatchValidationException(List.of(new ErrorResponseDto("[0].title", "invalid")))
+				.getStackTrace()).isEmpty();
+	}
+
+	@Test
+	void unexpectedErrorsAreLoggedOncePerInterval() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		ErrorReporter reporter = new ErrorReporter(registry, Duration.ofHours(1), 10);
+		try {
+			for (int i = 0; i < 100; i++) {
+				reporter.reportUnexpected(new IllegalStateException("storm"), 500, "GET", "/api/posts");
+			}
+			reporter.reportUnexpected(new UnsupportedOperationException("other"), 500, "GET", "/api/posts");
+		} finally {
+			reporter.destroy();
+		}
+
+		// すべての件数は記録し、ログは種類ごとに最初の1件だけを出力する
+		assertThat(errorCount(registry, "IllegalStateException", "500")).isEqualTo(100);
+		assertThat(errorCount(registry, "UnsupportedOperationException", "500")).isEqualTo(1);
+		assertThat(registry.get("app.errors.log.suppressed").counter().count()).isEqualTo(99);
+		assertThat(registry.get("app.errors.log.dropped").counter().count()).isZero();
+	}
+
+	private static double errorCount(MeterRegistry registry, String type, String status) {
+		Counter counter = registry.find("app.errors").tag("type", type).tag("status", status).counter();
+		return counter == null ? 0 : counter.count();
+	}
+}
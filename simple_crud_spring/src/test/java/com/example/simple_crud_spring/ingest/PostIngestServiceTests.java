@@ -0,0 +1,192 @@
+package com.example.simple_crud_spring.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.simple_crud_spring.dto.PostIngestStatusDto.Status;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.model.Post;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+
+/**
+ * 非同期作成で受け付けた投稿が、後からDBに1回だけ書き込まれることを確認するテスト
+ * ※書き込みの間隔を長くし、テストの中で書き込み（drain）を実行する
+ */
+@SpringBootTest(properties = {
+		"app.posts.ingest.enabled=true",
+		"app.posts.ingest.flush-interval=1h",
+		"app.posts.ingest.batch-size=2",
+		"app.posts.ingest.max-attempts=2",
+		"app.rate-limit.enabled=false",
+})
+@AutoConfigureMockMvc
+class PostIngestServiceTests {
+
+	@TempDir
+	static Path directory;
+
+	@DynamicPropertySource
+	static void properties(DynamicPropertyRegistry registry) {
+		registry.add("app.posts.ingest.directory", () -> directory.toString());
+	}
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PostIngestService postIngestService;
+
+	@Autowired
+	private PostIngestWriter postIngestWriter;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = new User();
+		user.setUserName("ingest");
+		user.setEmail(UUID.randomUUID() + "@example.com");
+		user.setPassword("password");
+		userRepository.save(user);
+	}
+
+	@Test
+	void acceptedPostsAreWrittenInBatches() throws Exception {
+		String location = null;
+		for (int i = 0; i < 5; i++) {
+			location = mockMvc.perform(post("/api/posts")
+					.header("Prefer", "respond-async")
+					.contentType("application/json")
+					.content("{\"title\":\"async" + i + "\",\"content\":\"content\",\"userId\":" + user.getId() + "}"))
+					.andExpect(status().isAccepted())
+					.andExpect(header().string("Preference-Applied", "respond-async"))
+					.andExpect(jsonPath("$.status").value("PENDING"))
+					.andReturn().getResponse().getHeader("Location");
+		}
+		assertThat(postIngestService.pendingCount()).isEqualTo(5);
+		assertThat(postRepository.findLatestByUserId(user.getId(), Limit.of(10))).isEmpty();
+
+		assertThat(postIngestService.drain()).isEqualTo(5);
+
+		assertThat(postIngestService.pendingCount()).isZero();
+		assertThat(postRepository.findLatestByUserId(user.getId(), Limit.of(10))).hasSize(5);
+		assertThat(userRepository.findProfileById(user.getId()).orElseThrow().postCount()).isEqualTo(5);
+		mockMvc.perform(get(location))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("CREATED"))
+				.andExpect(jsonPath("$.postId").isNumber());
+	}
+
+	@Test
+	void respondAsyncAmongOtherPreferencesIsAccepted() throws Exception {
+		String body = "{\"title\":\"prefer\",\"content\":\"content\",\"userId\":" + user.getId() + "}";
+
+		// 複数の希望を1つのヘッダーに指定した場合・ヘッダーを分けて指定した場合も、非同期に受け付ける
+		mockMvc.perform(post("/api/posts")
+				.header("Prefer", "respond-async, wait=5")
+				.contentType("application/json")
+				.content(body))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string("Preference-Applied", "respond-async"));
+		mockMvc.perform(post("/api/posts")
+				.header("Prefer", "return=minimal")
+				.header("Prefer", "Respond-Async; foo=bar")
+				.contentType("application/json")
+				.content(body))
+				.andExpect(status().isAccepted());
+		assertThat(postIngestService.pendingCount()).isEqualTo(2);
+
+		// respond-async を含まない場合は、これまでどおり同期的に作成する
+		mockMvc.perform(post("/api/posts")
+				.header("Prefer", "return=minimal, wait=5")
+				.contentType("application/json")
+				.content(body))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist("Preference-Applied"))
+				.andExpect(jsonPath("$.id").isNumber());
+		postIngestService.drain();
+	}
+
+	@Test
+	void invalidPostIsRejectedBeforeLogging() throws Exception {
+		mockMvc.perform(post("/api/posts")
+				.header("Prefer", "respond-async")
+				.contentType("application/json")
+				.content("{\"title\":\"\",\"content\":\"content\",\"userId\":" + user.getId() + "}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$[0].field").value("title"));
+
+		// DBの TEXT 型に保存できない長さの本文は、ログに記録する前に拒否する
+		mockMvc.perform(post("/api/posts")
+				.header("Prefer", "respond-async")
+				.contentType("application/json")
+				.content("{\"title\":\"title\",\"content\":\"" + "あ".repeat(Post.CONTENT_MAX_BYTES / 3 + 1)
+						+ "\",\"userId\":" + user.getId() + "}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$[0].field").value("content"));
+		assertThat(postIngestService.pendingCount()).isZero();
+	}
+
+	@Test
+	void postThatCannotBeWrittenDoesNotBlockLaterPosts() {
+		// 受け付けた時点の検証を通った後で書き込めなくなった投稿（ここでは空のタイトル）を、正しい投稿の間に記録する
+		List<String> trackingIds = List.of("ok-1", "poison", "ok-2", "ok-3").stream()
+				.map(title -> postIngestService.append(new IngestedPost(UUID.randomUUID().toString(),
+						title.equals("poison") ? " " : title, "content", user.getId())).trackingId())
+				.toList();
+
+		// 書き込み直す回数（2回）の上限まで失敗した後、1件ずつ書き込んで原因の投稿を特定し、読み飛ばす
+		int processed = 0;
+		for (int attempt = 0; attempt < 10 && postIngestService.pendingCount() > 0; attempt++) {
+			processed += postIngestService.drain();
+		}
+		assertThat(processed).isEqualTo(4);
+		assertThat(postIngestService.pendingCount()).isZero();
+		assertThat(postRepository.findLatestByUserId(user.getId(), Limit.of(10)))
+				.extracting(PostSummaryDto::title)
+				.containsExactlyInAnyOrder("ok-1", "ok-2", "ok-3");
+		assertThat(trackingIds).extracting(id -> postIngestService.status(id).orElseThrow().status())
+				.containsExactly(Status.CREATED, Status.REJECTED, Status.CREATED, Status.CREATED);
+	}
+
+	@Test
+	void batchAlreadyAppliedIsNotWrittenTwice() {
+		String jobName = "post-ingest:test-" + UUID.randomUUID();
+		List<IngestedPost> posts = List.of(
+				new IngestedPost("t1", "title1", "content", user.getId()),
+				new IngestedPost("t2", "title2", "content", user.getId()));
+
+		assertThat(postIngestWriter.writeBatch(jobName, posts, 1).created()).hasSize(2);
+		// 書き込んだ後、ログから削除する前に停止して再起動した場合は、同じ範囲をもう一度書き込もうとする
+		assertThat(postIngestWriter.writeBatch(jobName, posts, 1).created()).isEmpty();
+		assertThat(postIngestWriter.appliedSequence(jobName)).isEqualTo(2);
+		assertThat(postRepository.findLatestByUserId(user.getId(), Limit.of(10))).hasSize(2);
+	}
+}
@@ -0,0 +1,115 @@
+package com.example.simple_crud_spring.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ログの追記・読み取りと、停止後に開き直した場合の復旧を確認するテスト
+ */
+class WriteAheadLogTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsAppendedRecordsInOrder() throws Exception {
+		try (WriteAheadLog log = new WriteAheadLog(directory, 1024 * 1024, 1)) {
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			List<Future<Long>> futures = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				byte[] payload = ("record" + i).getBytes(StandardCharsets.UTF_8);
+				futures.add(executor.submit(() -> log.append(payload)));
+			}
+			for (Future<Long> future : futures) {
+				future.get();
+			}
+			executor.shutdown();
+
+			assertThat(log.lastSequence()).isEqualTo(100);
+			List<WriteAheadLog.Entry> first = log.read(0, 60);
+			List<WriteAheadLog.Entry> rest = log.read(60, 60);
+			assertThat(first).extracting(WriteAheadLog.Entry::sequence).containsExactlyElementsOf(range(1, 60));
+			assertThat(rest).extracting(WriteAheadLog.Entry::sequence).containsExactlyElementsOf(range(61, 100));
+			assertThat(log.read(100, 10)).isEmpty();
+		}
+	}
+
+	@Test
+	void reopenTruncatesTornRecordAndContinuesSequence() throws Exception {
+		try (WriteAheadLog log = new WriteAheadLog(directory, 1024 * 1024, 1)) {
+			log.append(bytes("a"));
+			log.append(bytes("b"));
+		}
+		// 書き込みの途中で停止した場合を再現するため、ヘッダーの途中までのレコードを末尾に追加する
+		Path segment = segments().get(0);
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 0, 0, 0, 5, 1, 2 }));
+		}
+
+		try (WriteAheadLog log = new WriteAheadLog(directory, 1024 * 1024, 1)) {
+			assertThat(log.lastSequence()).isEqualTo(2);
+			assertThat(log.append(bytes("c"))).isEqualTo(3);
+			assertThat(log.read(0, 10))
+					.extracting(entry -> new String(entry.payload(), StandardCharsets.UTF_8))
+					.containsExactly("a", "b", "c");
+		}
+	}
+
+	@Test
+	void rollsSegmentsAndDeletesProcessedOnes() throws Exception {
+		try (WriteAheadLog log = new WriteAheadLog(directory, 64, 1)) {
+			for (int i = 0; i < 10; i++) {
+				log.append(bytes("payload-" + i + "-0123456789012345678901234567890123456789"));
+			}
+			assertThat(log.segmentCount()).isGreaterThan(5);
+			assertThat(log.read(0, 100)).hasSize(10);
+
+			log.deleteUpTo(10);
+			assertThat(log.segmentCount()).isEqualTo(1);
+			assertThat(segments()).hasSize(1);
+			assertThat(log.read(10, 100)).isEmpty();
+		}
+	}
+
+	@Test
+	void startsAfterProcessedSequenceWhenLogIsEmpty() throws Exception {
+		try (WriteAheadLog log = new WriteAheadLog(directory, 1024, 51)) {
+			assertThat(log.append(bytes("x"))).isEqualTo(51);
+			assertThat(log.read(50, 10)).extracting(WriteAheadLog.Entry::sequence).containsExactly(51L);
+		}
+	}
+
+	private List<Path> segments() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.sorted().toList();
+		}
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static List<Long> range(long from, long to) {
+		List<Long> values = new ArrayList<>();
+		for (long i = from; i <= to; i++) {
+			values.add(i);
+		}
+		return values;
+	}
+}
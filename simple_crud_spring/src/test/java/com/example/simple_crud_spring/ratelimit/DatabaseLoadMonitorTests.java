@@ -0,0 +1,85 @@
+package com.example.simple_crud_spring.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * DB接続の取得待ち時間の平均と、接続プールの状態から、DBの負荷が高いかを判定できることを確認するテスト
+ */
+class DatabaseLoadMonitorTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final AtomicLong now = new AtomicLong();
+
+	private final DatabaseLoadMonitor monitor = new DatabaseLoadMonitor(registry, Duration.ofMillis(100), now::get);
+
+	private final Timer acquire = registry.timer(DatabaseLoadMonitor.ACQUIRE_METRIC, "pool", "primary");
+
+	@Test
+	void detectsOverloadFromRecentAverageWait() {
+		acquire.record(10, TimeUnit.MILLISECONDS);
+		advance();
+		assertThat(monitor.isOverloaded()).isFalse();
+
+		acquire.record(300, TimeUnit.MILLISECONDS);
+		acquire.record(100, TimeUnit.MILLISECONDS);
+		advance();
+		assertThat(monitor.isOverloaded()).isTrue();
+
+		// 前回の読み取り以降の平均で判定するため、待ち時間が短くなれば負荷が高い状態は解除される
+		acquire.record(20, TimeUnit.MILLISECONDS);
+		advance();
+		assertThat(monitor.isOverloaded()).isFalse();
+	}
+
+	@Test
+	void keepsPreviousResultUntilNextSample() {
+		acquire.record(500, TimeUnit.MILLISECONDS);
+		advance();
+		assertThat(monitor.isOverloaded()).isTrue();
+
+		// 読み取りの間隔が経過するまでは、直近の判定結果を返す
+		acquire.record(1, TimeUnit.MILLISECONDS);
+		assertThat(monitor.isOverloaded()).isTrue();
+	}
+
+	@Test
+	void stalledPoolIsOverloadedEvenWithoutAcquisitions() {
+		AtomicInteger pending = gauge(DatabaseLoadMonitor.PENDING_METRIC, 0);
+		AtomicInteger active = gauge(DatabaseLoadMonitor.ACTIVE_METRIC, 10);
+		gauge(DatabaseLoadMonitor.MAX_METRIC, 10);
+
+		// 接続の取得がなく、待っているスレッドもない場合は、使われていないだけとする
+		advance();
+		assertThat(monitor.isOverloaded()).isFalse();
+
+		// すべての接続が使用中のまま返されず、取得が1回も完了しない
+		pending.set(5);
+		advance();
+		assertThat(monitor.isOverloaded()).isTrue();
+
+		// 空いている接続があれば、待っているスレッドはすぐに取得できる
+		active.set(9);
+		advance();
+		assertThat(monitor.isOverloaded()).isFalse();
+	}
+
+	private AtomicInteger gauge(String name, int value) {
+		return registry.gauge(name, Tags.of(DatabaseLoadMonitor.POOL_TAG, "primary"), new AtomicInteger(value));
+	}
+
+	private void advance() {
+		now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+	}
+}
@@ -0,0 +1,116 @@
+package com.example.simple_crud_spring.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.oneOf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * ログインのリクエスト数が、IPアドレスごと・入力されたメールアドレスごとに制限されることと、
+ * DBの負荷が高い場合に503を返すことを確認するテスト
+ */
+@SpringBootTest(properties = {
+		"app.rate-limit.rules.login.capacity=2",
+		"app.rate-limit.rules.login.refill-per-second=0.01",
+		// 接続の取得がない間に接続プールの状態で判定されるよう、定期的な読み込み直しでDBに接続しないようにする
+		"app.posts.timeline.reconcile-interval=1h",
+})
+@AutoConfigureMockMvc
+class RateLimitFilterTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private DatabaseLoadMonitor databaseLoadMonitor;
+
+	@Test
+	void rejectsRequestsOverLimitPerIpAddress() throws Exception {
+		mockMvc.perform(login("10.0.0.1", "a@example.com")).andExpect(status().isUnauthorized());
+		mockMvc.perform(login("10.0.0.1", "b@example.com")).andExpect(status().isUnauthorized());
+
+		mockMvc.perform(login("10.0.0.1", "c@example.com"))
+				.andExpect(status().isTooManyRequests())
+				// 1個補充されるまで100秒（1回目のリクエストからの経過時間によっては99秒に切り上がる）
+				.andExpect(header().string("Retry-After", oneOf("99", "100")))
+				.andExpect(jsonPath("$[0].field").value("request"));
+
+		// 別のIPアドレスからのリクエストは制限されない
+		mockMvc.perform(login("10.0.0.2", "c@example.com")).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void rejectsRequestsOverLimitPerUser() throws Exception {
+		mockMvc.perform(login("10.0.1.1", "target@example.com")).andExpect(status().isUnauthorized());
+		mockMvc.perform(login("10.0.1.2", "target@example.com")).andExpect(status().isUnauthorized());
+
+		// IPアドレスを変えても、同じメールアドレスへのログインは制限される
+		mockMvc.perform(login("10.0.1.3", "TARGET@example.com"))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().exists("Retry-After"));
+	}
+
+	@Test
+	void rejectsRequestsWhileConnectionPoolIsStalled() throws Exception {
+		// すべての接続が使用中のまま返されず、取得を待っているスレッドがある接続プール
+		List<Gauge> gauges = List.of(
+				poolGauge(DatabaseLoadMonitor.PENDING_METRIC, 5),
+				poolGauge(DatabaseLoadMonitor.ACTIVE_METRIC, 10),
+				poolGauge(DatabaseLoadMonitor.MAX_METRIC, 10));
+		try {
+			awaitUntil(databaseLoadMonitor::isOverloaded);
+
+			mockMvc.perform(login("10.0.2.1", "overload@example.com"))
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string("Retry-After", "1"))
+					.andExpect(jsonPath("$[0].field").value("request"));
+		} finally {
+			gauges.forEach(meterRegistry::remove);
+			// 他のテストが拒否されないよう、判定が元に戻るまで待つ
+			awaitUntil(() -> !databaseLoadMonitor.isOverloaded());
+		}
+	}
+
+	private Gauge poolGauge(String name, int value) {
+		return Gauge.builder(name, () -> value)
+				.tag(DatabaseLoadMonitor.POOL_TAG, "stalled")
+				.register(meterRegistry);
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("条件を満たすまで待つ").isLessThan(deadline);
+			Thread.sleep(50);
+		}
+	}
+
+	private static MockHttpServletRequestBuilder login(String remoteAddr, String email) {
+		return post("/login")
+				.param("username", email)
+				.param("password", "wrong-password")
+				.with(request -> {
+					request.setRemoteAddr(remoteAddr);
+					return request;
+				});
+	}
+}
@@ -0,0 +1,203 @@
+package com.example.simple_crud_spring.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+
+import com.example.simple_crud_spring.dto.PostCursor;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.model.Post;
+import com.example.simple_crud_spring.model.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * 投稿一覧の取得が、投稿数・投稿者数に関わらず一定回数のSQLで完了することを確認するテスト
+ */
+@DataJpaTest
+class PostRepositoryTests {
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private TestEntityManager testEntityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void findAllSummariesRunsSingleStatementRegardlessOfAuthorCount() {
+		createPosts(3, 10);
+		assertThat(countStatements(() -> postRepository.findAllSummaries())).isEqualTo(1);
+
+		createPosts(20, 5);
+		assertThat(countStatements(() -> postRepository.findAllSummaries())).isEqualTo(1);
+	}
+
+	@Test
+	void findLatestRunsSingleStatementAndReturnsAuthor() {
+		createPosts(5, 4);
+
+		List<PostSummaryDto> page = postRepository.findLatest(Limit.of(10));
+		assertThat(page).hasSize(10);
+		assertThat(page.get(0).user().userName()).isNotNull();
+
+		assertThat(countStatements(() -> postRepository.findLatest(Limit.of(10)))).isEqualTo(1);
+	}
+
+	@Test
+	void findOlderThanContinuesFromCursor() {
+		createPosts(2, 5);
+
+		List<PostSummaryDto> firstPage = postRepository.findLatest(Limit.of(4));
+		PostSummaryDto last = firstPage.get(firstPage.size() - 1);
+		List<PostSummaryDto> secondPage = postRepository.findOlderThan(last.createdAt(), last.id(), Limit.of(10));
+
+		assertThat(secondPage).hasSize(6);
+		assertThat(secondPage).extracting(PostSummaryDto::id).doesNotContainAnyElementsOf(
+				firstPage.stream().map(PostSummaryDto::id).toList());
+	}
+
+	@Test
+	void findOlderThanBreaksTiesById() {
+		// 作成日時がすべて同じ投稿を、他のテストの投稿より前に並ぶ日時で登録する
+		LocalDateTime createdAt = LocalDateTime.of(2100, 1, 1, 0, 0);
+		createPosts(1, 5);
+		List<Long> ids = postRepository.findLatestUncached(Limit.of(5)).stream().map(PostSummaryDto::id).toList();
+		testEntityManager.getEntityManager()
+				.createQuery("UPDATE Post p SET p.createdAt = :createdAt WHERE p.id IN :ids")
+				.setParameter("createdAt", createdAt)
+				.setParameter("ids", ids)
+				.executeUpdate();
+		testEntityManager.clear();
+
+		// 2件ずつページングしても、同時刻の投稿がIDの降順に重複・欠落なく返される
+		List<Long> paged = new ArrayList<>();
+		PostCursor cursor = new PostCursor(createdAt, Long.MAX_VALUE);
+		while (paged.size() < ids.size()) {
+			List<PostSummaryDto> page = postRepository.findOlderThan(cursor.createdAt(), cursor.id(), Limit.of(2));
+			assertThat(page).isNotEmpty().allSatisfy(post -> assertThat(post.createdAt()).isEqualTo(createdAt));
+			page.forEach(post -> paged.add(post.id()));
+			PostSummaryDto last = page.get(page.size() - 1);
+			cursor = PostCursor.decode(new PostCursor(last.createdAt(), last.id()).encode());
+		}
+		assertThat(paged).doesNotHaveDuplicates()
+				.isSortedAccordingTo(Comparator.reverseOrder())
+				.containsExactlyInAnyOrderElementsOf(ids);
+	}
+
+	@Test
+	void listReturnsExcerptAndDetailReturnsFullContent() {
+		User user = new User();
+		user.setUserName("excerpt");
+		user.setEmail("excerpt-" + System.nanoTime() + "@example.com");
+		user.setPassword("password");
+		testEntityManager.persist(user);
+
+		String content = "本文\n\n".repeat(100);
+		Post post = new Post();
+		post.setUser(user);
+		post.setTitle("long");
+		post.setContent(content);
+		testEntityManager.persist(post);
+		testEntityManager.flush();
+		testEntityManager.clear();
+
+		PostSummaryDto summary = postRepository.findLatest(Limit.of(1)).get(0);
+		assertThat(summary.excerpt()).hasSize(Post.EXCERPT_LENGTH + Post.EXCERPT_ELLIPSIS.length())
+				.startsWith("本文 本文 ")
+				.endsWith(Post.EXCERPT_ELLIPSIS);
+		assertThat(postRepository.findDetailById(post.getId())).hasValueSatisfying(
+				detail -> assertThat(detail.content()).isEqualTo(content));
+	}
+
+	@Test
+	void deleteMarksPostAsDeletedInsteadOfRemovingRow() {
+		createPosts(1, 1);
+		Post post = postRepository.findById(postRepository.findLatestUncached(Limit.of(1)).get(0).id()).orElseThrow();
+		long version = post.getVersion();
+
+		postRepository.delete(post);
+		testEntityManager.flush();
+		testEntityManager.clear();
+
+		assertThat(postRepository.findById(post.getId())).isEmpty();
+		Object[] row = (Object[]) testEntityManager.getEntityManager()
+				.createNativeQuery("SELECT deleted_at, version FROM posts WHERE id = :id")
+				.setParameter("id", post.getId())
+				.getSingleResult();
+		assertThat(row[0]).isNotNull();
+		assertThat(((Number) row[1]).longValue()).isEqualTo(version + 1);
+	}
+
+	@Test
+	void deleteOfStaleVersionIsRejected() {
+		createPosts(1, 1);
+		Post post = postRepository.findById(postRepository.findLatestUncached(Limit.of(1)).get(0).id()).orElseThrow();
+		// 読み込んだ後に、他のトランザクションが更新した状態にする
+		testEntityManager.getEntityManager()
+				.createNativeQuery("UPDATE posts SET version = version + 1 WHERE id = :id")
+				.setParameter("id", post.getId())
+				.executeUpdate();
+
+		assertThatThrownBy(() -> {
+			postRepository.delete(post);
+			postRepository.flush();
+		}).isInstanceOf(OptimisticLockingFailureException.class);
+	}
+
+	/**
+	 * 指定した人数のユーザーと、ユーザーごとに指定した件数の投稿を登録し、永続化コンテキストをクリアする
+	 */
+	private void createPosts(int userCount, int postsPerUser) {
+		for (int i = 0; i < userCount; i++) {
+			User user = new User();
+			user.setUserName("user" + i);
+			user.setEmail("user" + i + "-" + System.nanoTime() + "@example.com");
+			user.setPassword("password");
+			testEntityManager.persist(user);
+
+			for (int j = 0; j < postsPerUser; j++) {
+				Post post = new Post();
+				post.setUser(user);
+				post.setTitle("title" + j);
+				post.setContent("content" + j);
+				testEntityManager.persist(post);
+			}
+		}
+		testEntityManager.flush();
+		testEntityManager.clear();
+	}
+
+	/**
+	 * 処理の実行中に発行されたSQLの数を返す
+	 */
+	private long countStatements(Runnable action) {
+		testEntityManager.clear();
+		statistics.clear();
+		action.run();
+		return statistics.getPrepareStatementCount();
+	}
+}
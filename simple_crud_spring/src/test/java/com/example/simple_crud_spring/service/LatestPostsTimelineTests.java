@@ -0,0 +1,148 @@
+package com.example.simple_crud_spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.simple_crud_spring.dto.PostAuthorDto;
+import com.example.simple_crud_spring.dto.PostCollectionVersion;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.event.PostChangedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 最新の投稿一覧に、イベントによる差分と、DBの版が変わった場合の読み込み直しが反映されることを確認するテスト
+ * DBの代わりに、投稿の一覧と版を保持するスタブを使用する（他のサーバーでの変更は、スタブの内容だけを変えて再現する）
+ */
+class LatestPostsTimelineTests {
+
+	private static final int CAPACITY = LatestPostsTimeline.MIN_CAPACITY;
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+	/**
+	 * DBの代わりのスタブ（投稿はIDが大きいほど新しい）
+	 */
+	private static final class StubLoader implements LatestPostsTimeline.Loader {
+
+		private final List<PostSummaryDto> rows = new ArrayList<>();
+
+		private long writes;
+
+		private int loads;
+
+		/** 読み込みの途中で実行する処理（読み込み中の変更を再現する） */
+		private Runnable duringLoad = () -> {
+		};
+
+		void insert(PostSummaryDto post) {
+			rows.add(post);
+			writes++;
+		}
+
+		@Override
+		public LatestPostsTimeline.Loaded load(int limit) {
+			loads++;
+			PostCollectionVersion version = version();
+			List<PostSummaryDto> latest = rows.stream()
+					.sorted(Comparator.comparing(PostSummaryDto::id).reversed())
+					.limit(limit)
+					.toList();
+			duringLoad.run();
+			return new LatestPostsTimeline.Loaded(version, latest);
+		}
+
+		@Override
+		public PostCollectionVersion version() {
+			return new PostCollectionVersion(writes, BASE.plusSeconds(writes));
+		}
+	}
+
+	private StubLoader loader;
+
+	private LatestPostsTimeline timeline;
+
+	@BeforeEach
+	void setUp() {
+		loader = new StubLoader();
+		for (long id = 1; id <= CAPACITY + 10; id++) {
+			loader.insert(post(id, "title" + id));
+		}
+		timeline = new LatestPostsTimeline(loader, new SimpleMeterRegistry(), CAPACITY);
+		timeline.afterSingletonsInstantiated();
+	}
+
+	@Test
+	void warmsUpWithNewestPosts() {
+		List<PostSummaryDto> latest = timeline.latest(CAPACITY);
+		assertThat(latest).hasSize(CAPACITY);
+		assertThat(latest.get(0).id()).isEqualTo(CAPACITY + 10L);
+		assertThat(latest.get(CAPACITY - 1).id()).isEqualTo(11L);
+		assertThat(timeline.latest(3)).extracting(PostSummaryDto::id).containsExactly(111L, 110L, 109L);
+	}
+
+	@Test
+	void appliesEventsWithoutLoading() {
+		int loads = loader.loads;
+
+		timeline.onPostChanged(PostChangedEvent.created(post(500L, "created")));
+		timeline.onPostChanged(PostChangedEvent.updated(post(110L, "updated")));
+		timeline.onPostChanged(PostChangedEvent.deleted(109L));
+		// 保持している範囲より古い投稿の変更は無視する
+		timeline.onPostChanged(PostChangedEvent.updated(post(1L, "old")));
+
+		assertThat(timeline.latest(4)).extracting(PostSummaryDto::id).containsExactly(500L, 111L, 110L, 108L);
+		assertThat(timeline.latest(4).get(2).title()).isEqualTo("updated");
+		// 作成で保持件数を超えた分は取り除き、削除した分は読み込み直すまで減ったままにする
+		assertThat(timeline.latest(CAPACITY + 10)).hasSize(CAPACITY - 1);
+		assertThat(loader.loads).isEqualTo(loads);
+	}
+
+	@Test
+	void reloadsOnlyWhenVersionChanges() {
+		int loads = loader.loads;
+		timeline.reconcile();
+		assertThat(loader.loads).isEqualTo(loads);
+
+		// 他のサーバーで作成された投稿は、イベントは届かないが版が変わるため、次の確認で反映される
+		loader.insert(post(600L, "other node"));
+		assertThat(timeline.latest(1)).extracting(PostSummaryDto::id).containsExactly(111L);
+		timeline.reconcile();
+		assertThat(loader.loads).isEqualTo(loads + 1);
+		assertThat(timeline.latest(1)).extracting(PostSummaryDto::id).containsExactly(600L);
+
+		timeline.reconcile();
+		assertThat(loader.loads).isEqualTo(loads + 1);
+	}
+
+	@Test
+	void eventDuringLoadIsNotOverwritten() {
+		loader.insert(post(700L, "other node"));
+
+		// 読み込みの途中で、このサーバーでの作成が反映された場合
+		loader.duringLoad = () -> {
+			loader.duringLoad = () -> {
+			};
+			loader.insert(post(701L, "local"));
+			timeline.onPostChanged(PostChangedEvent.created(post(701L, "local")));
+		};
+		assertThat(timeline.rebuild()).isFalse();
+		assertThat(timeline.latest(1)).extracting(PostSummaryDto::id).containsExactly(701L);
+
+		// 版は読み込み前のままのため、次の確認で両方の変更を含む内容に読み込み直す
+		timeline.reconcile();
+		assertThat(timeline.latest(2)).extracting(PostSummaryDto::id).containsExactly(701L, 700L);
+	}
+
+	private static PostSummaryDto post(long id, String title) {
+		LocalDateTime createdAt = BASE.plusMinutes(id);
+		return new PostSummaryDto(id, title, "", new PostAuthorDto(1L, "user"), createdAt, createdAt);
+	}
+}
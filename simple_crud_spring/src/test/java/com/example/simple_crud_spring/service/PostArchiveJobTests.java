@@ -0,0 +1,113 @@
+package com.example.simple_crud_spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.simple_crud_spring.dto.PostRequestDto;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.JobCheckpointRepository;
+import com.example.simple_crud_spring.repository.PostArchiveRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 論理削除から一定期間が経過した投稿だけがアーカイブテーブルへ移動され、
+ * 1回の実行の上限に達した場合は次回の実行で続きから処理されることを確認するテスト
+ */
+@SpringBootTest(properties = {
+		"app.posts.archive.retention-days=30",
+		"app.posts.archive.batch-size=3",
+		"app.posts.archive.pause-millis=0",
+		"app.posts.archive.max-batches-per-run=2",
+})
+class PostArchiveJobTests {
+
+	@Autowired
+	private PostArchiveJob postArchiveJob;
+
+	@Autowired
+	private PostWriteService postWriteService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostArchiveRepository postArchiveRepository;
+
+	@Autowired
+	private JobCheckpointRepository jobCheckpointRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final List<Long> ids = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		postArchiveRepository.deleteAll();
+		jobCheckpointRepository.deleteAll();
+
+		User user = new User();
+		user.setUserName("archive");
+		user.setEmail(UUID.randomUUID() + "@example.com");
+		user.setPassword("password");
+		userRepository.save(user);
+
+		for (int i = 0; i < 10; i++) {
+			PostRequestDto request = new PostRequestDto();
+			request.title = "title" + i;
+			request.content = "content" + i;
+			request.userId = user.getId();
+			ids.add(postWriteService.create(request).id());
+		}
+
+		// 8件を論理削除し、そのうち7件は保持期間より前に削除されたことにする（残りの1件は最近削除された投稿）
+		postWriteService.deleteAll(ids.subList(0, 8));
+		for (int i = 0; i < 7; i++) {
+			jdbcTemplate.update("UPDATE posts SET deleted_at = ? WHERE id = ?",
+					LocalDateTime.now().minusDays(40).plusMinutes(i), ids.get(i));
+		}
+	}
+
+	@Test
+	void movesExpiredPostsInBatchesAndResumesFromCheckpoint() {
+		double rowsBefore = meterRegistry.counter("app.posts.archive.rows").count();
+
+		// 1回目の実行は上限（3件 × 2回）で打ち切られる
+		assertThat(postArchiveJob.run()).isEqualTo(6);
+		assertThat(jobCheckpointRepository.findById(PostArchiveService.JOB_NAME).orElseThrow().getProcessedRows())
+				.isEqualTo(6);
+
+		// 2回目の実行で残りの1件を移動する
+		assertThat(postArchiveJob.run()).isEqualTo(1);
+		assertThat(postArchiveJob.run()).isZero();
+
+		assertThat(postArchiveRepository.findAllById(ids)).extracting("id")
+				.containsExactlyInAnyOrderElementsOf(ids.subList(0, 7));
+		assertThat(postsRowCount()).isEqualTo(3);
+		assertThat(meterRegistry.counter("app.posts.archive.rows").count() - rowsBefore).isEqualTo(7);
+	}
+
+	/**
+	 * posts テーブルに残っている行の数（論理削除された投稿を含む）
+	 */
+	private int postsRowCount() {
+		String placeholders = String.join(",", ids.stream().map(id -> "?").toList());
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM posts WHERE id IN (" + placeholders + ")",
+				Integer.class, ids.toArray());
+	}
+}
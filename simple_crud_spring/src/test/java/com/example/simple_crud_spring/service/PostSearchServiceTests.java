@@ -0,0 +1,57 @@
+package com.example.simple_crud_spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.example.simple_crud_spring.exception.InvalidRequestException;
+
+/**
+ * 検索キーワードから、BOOLEAN MODEの検索式を組み立てる処理を確認するテスト
+ */
+class PostSearchServiceTests {
+
+	@Test
+	void eachKeywordBecomesPhrase() {
+		assertThat(PostSearchService.toBooleanQuery("東京 天気")).isEqualTo("\"東京\" \"天気\"");
+		// 全角の空白・連続した空白も区切りとして扱う
+		assertThat(PostSearchService.toBooleanQuery("  東京　　天気  ")).isEqualTo("\"東京\" \"天気\"");
+	}
+
+	@Test
+	void operatorsAndQuotesAreRemoved() {
+		assertThat(PostSearchService.toBooleanQuery("+東京 -天気 (大阪) ~雨* <晴れ> @3"))
+				.isEqualTo("\"東京\" \"天気\" \"大阪\" 雨* \"晴れ\" 3*");
+		// 二重引用符でフレーズを閉じて、演算子を差し込むことはできない
+		assertThat(PostSearchService.toBooleanQuery("東京\" -\"天気")).isEqualTo("\"東京\" \"天気\"");
+	}
+
+	@Test
+	void singleCharacterKeywordIsPrefixSearch() {
+		// ngramパーサー（2文字ずつに分割）では1文字のフレーズは一致しないため、前方一致とする
+		assertThat(PostSearchService.toBooleanQuery("雨 東京")).isEqualTo("雨* \"東京\"");
+		// サロゲートペアの文字も1文字として扱う
+		assertThat(PostSearchService.toBooleanQuery("𠮷")).isEqualTo("𠮷*");
+	}
+
+	@Test
+	void keywordCountAndLengthAreLimited() {
+		String query = PostSearchService.toBooleanQuery("ab ".repeat(20) + "x".repeat(150));
+		assertThat(query.split(" ")).hasSize(10);
+
+		assertThat(PostSearchService.toBooleanQuery("x".repeat(150))).isEqualTo("\"" + "x".repeat(100) + "\"");
+	}
+
+	@ParameterizedTest
+	@NullSource
+	@ValueSource(strings = { "", "   ", "　", "\"\"", "+ - * ( )" })
+	void blankKeywordsAreRejected(String keywords) {
+		assertThatThrownBy(() -> PostSearchService.toBooleanQuery(keywords))
+				.isInstanceOfSatisfying(InvalidRequestException.class,
+						ex -> assertThat(ex.getField()).isEqualTo("q"));
+	}
+}
@@ -0,0 +1,197 @@
+package com.example.simple_crud_spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+
+import com.example.simple_crud_spring.dto.PostPatchRequestDto;
+import com.example.simple_crud_spring.dto.PostRequestDto;
+import com.example.simple_crud_spring.exception.PreconditionFailedException;
+import com.example.simple_crud_spring.model.Post;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+
+/**
+ * 同じ投稿を複数のスレッドから同時に更新しても、更新が失われないことを確認するテスト
+ * 全体の更新（版を指定した読み込み・書き込み）と、部分更新（1回のUPDATE文）のそれぞれについて、
+ * すべての更新が反映されることと、1秒あたりの更新数を確認する
+ */
+@SpringBootTest
+class PostUpdateConcurrencyTests {
+
+	private static final Logger log = LoggerFactory.getLogger(PostUpdateConcurrencyTests.class);
+
+	/** 同時に実行するスレッド数 */
+	private static final int THREADS = 8;
+
+	/** スレッドごとに行う更新の数 */
+	private static final int UPDATES_PER_THREAD = 20;
+
+	/** 同時に更新する投稿の数（スレッドはすべての投稿を順に更新する） */
+	private static final int POSTS = 2;
+
+	@Autowired
+	private PostWriteService postWriteService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+	private final List<Long> postIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		User user = new User();
+		user.setUserName("concurrent");
+		user.setEmail(UUID.randomUUID() + "@example.com");
+		user.setPassword("password");
+		userRepository.save(user);
+
+		for (int i = 0; i < POSTS; i++) {
+			PostRequestDto request = new PostRequestDto();
+			request.title = "post" + i;
+			request.content = "";
+			request.userId = user.getId();
+			postIds.add(postWriteService.create(request).id());
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void versionedUpdatesDoNotLoseWrites() throws Exception {
+		AtomicInteger retries = new AtomicInteger();
+		long elapsed = runConcurrently(thread -> {
+			for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+				Long id = postIds.get(i % POSTS);
+				String marker = "[" + thread + "-" + i + "]";
+				// 読み込んだ時点の版を指定して本文に追記し、他のスレッドに先を越された場合は読み込みからやり直す
+				while (true) {
+					Post current = postRepository.findById(id).orElseThrow();
+					PostRequestDto request = new PostRequestDto();
+					request.title = current.getTitle();
+					request.content = current.getContent() + marker;
+					try {
+						postWriteService.update(id, request, current.getVersion());
+						break;
+					} catch (PreconditionFailedException | OptimisticLockingFailureException ex) {
+						retries.incrementAndGet();
+					}
+				}
+			}
+		});
+		report("versioned-put", elapsed, retries.get());
+
+		for (int p = 0; p < POSTS; p++) {
+			Post post = postRepository.findById(postIds.get(p)).orElseThrow();
+			assertThat(post.getVersion()).isEqualTo(THREADS * UPDATES_PER_THREAD / POSTS);
+			for (int thread = 0; thread < THREADS; thread++) {
+				for (int i = p; i < UPDATES_PER_THREAD; i += POSTS) {
+					assertThat(post.getContent()).containsOnlyOnce("[" + thread + "-" + i + "]");
+				}
+			}
+		}
+	}
+
+	@Test
+	void concurrentPatchesAreAllApplied() throws Exception {
+		long elapsed = runConcurrently(thread -> {
+			for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+				PostPatchRequestDto request = new PostPatchRequestDto();
+				request.title = "thread" + thread + "-" + i;
+				assertThat(postWriteService.patch(postIds.get(i % POSTS), request, null)).isPresent();
+			}
+		});
+		report("patch", elapsed, 0);
+
+		// すべての部分更新が1回ずつ適用され、版が更新の回数だけ増えている
+		for (Long id : postIds) {
+			Post post = postRepository.findById(id).orElseThrow();
+			assertThat(post.getVersion()).isEqualTo(THREADS * UPDATES_PER_THREAD / POSTS);
+			assertThat(post.getContent()).isEmpty();
+		}
+	}
+
+	@Test
+	void patchWithStaleVersionIsRejected() {
+		Long id = postIds.get(0);
+		PostPatchRequestDto request = new PostPatchRequestDto();
+		request.content = "updated";
+
+		assertThat(postWriteService.patch(id, request, 0L)).get()
+				.satisfies(result -> {
+					assertThat(result.version()).isEqualTo(1);
+					assertThat(result.post().excerpt()).isEqualTo("updated");
+				});
+		assertThatThrownBy(() -> postWriteService.patch(id, request, 0L))
+				.isInstanceOfSatisfying(PreconditionFailedException.class,
+						ex -> assertThat(ex.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED));
+		assertThat(postWriteService.patch(Long.MAX_VALUE, request, null)).isEmpty();
+	}
+
+	/**
+	 * 指定した処理を、すべてのスレッドで同時に開始して完了を待つ
+	 *
+	 * @return すべてのスレッドの処理が完了するまでの時間（ナノ秒）
+	 */
+	private long runConcurrently(ThreadTask task) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Void>> futures = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			int index = thread;
+			futures.add(executor.submit((Callable<Void>) () -> {
+				start.await();
+				task.run(index);
+				return null;
+			}));
+		}
+		long startedAt = System.nanoTime();
+		start.countDown();
+		for (Future<Void> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+		return System.nanoTime() - startedAt;
+	}
+
+	private static void report(String mode, long elapsedNanos, int retries) {
+		int updates = THREADS * UPDATES_PER_THREAD;
+		log.info("[concurrency] mode={} updates={} retries={} throughput={} updates/s",
+				mode, updates, retries, String.format("%.1f", updates / (elapsedNanos / 1_000_000_000.0)));
+	}
+
+	/**
+	 * スレッドごとに実行する処理
+	 */
+	@FunctionalInterface
+	private interface ThreadTask {
+		void run(int thread) throws Exception;
+	}
+}
@@ -0,0 +1,150 @@
+package com.example.simple_crud_spring.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import com.example.simple_crud_spring.dto.PostRequestDto;
+import com.example.simple_crud_spring.dto.PostSummaryDto;
+import com.example.simple_crud_spring.model.User;
+import com.example.simple_crud_spring.repository.PostRepository;
+import com.example.simple_crud_spring.repository.UserRepository;
+
+/**
+ * 同じユーザーの投稿を複数のスレッドから同時に作成・削除しても、投稿数が実際の投稿の数と一致することを確認するテスト
+ */
+@SpringBootTest
+class PostWriteServiceConcurrencyTests {
+
+	/** 同時に実行するスレッド数 */
+	private static final int THREADS = 8;
+
+	/** スレッドごとに作成する投稿の数 */
+	private static final int POSTS_PER_THREAD = 25;
+
+	@Autowired
+	private PostWriteService postWriteService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		user = new User();
+		user.setUserName("concurrent");
+		user.setEmail(UUID.randomUUID() + "@example.com");
+		user.setPassword("password");
+		userRepository.save(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void concurrentCreatesDoNotLoseIncrements() throws Exception {
+		runConcurrently(thread -> {
+			for (int i = 0; i < POSTS_PER_THREAD; i++) {
+				postWriteService.create(request("thread" + thread + "-" + i));
+			}
+		});
+
+		assertThat(postCount()).isEqualTo(THREADS * POSTS_PER_THREAD);
+		assertThat(actualPostCount()).isEqualTo(THREADS * POSTS_PER_THREAD);
+	}
+
+	@Test
+	void concurrentDeletesOfSamePostsDecrementOnce() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			ids.add(postWriteService.create(request("post" + i)).id());
+		}
+
+		// すべてのスレッドが、先頭20件の削除（1件ずつの削除と一括削除）を同時に行う
+		List<Long> targets = ids.subList(0, 20);
+		runConcurrently(thread -> {
+			if (thread % 2 == 0) {
+				postWriteService.deleteAll(targets);
+			} else {
+				targets.forEach(postWriteService::delete);
+			}
+		});
+
+		assertThat(postCount()).isEqualTo(10);
+		assertThat(actualPostCount()).isEqualTo(10);
+	}
+
+	/**
+	 * 指定した処理を、すべてのスレッドで同時に開始して完了を待つ
+	 */
+	private void runConcurrently(ThreadTask task) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Void>> futures = new ArrayList<>();
+		for (int thread = 0; thread < THREADS; thread++) {
+			int index = thread;
+			futures.add(executor.submit((Callable<Void>) () -> {
+				start.await();
+				task.run(index);
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<Void> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+	}
+
+	private PostRequestDto request(String title) {
+		PostRequestDto request = new PostRequestDto();
+		request.title = title;
+		request.content = "content";
+		request.userId = user.getId();
+		return request;
+	}
+
+	/**
+	 * users テーブルに保持している投稿数
+	 */
+	private long postCount() {
+		return userRepository.findProfileById(user.getId()).orElseThrow().postCount();
+	}
+
+	/**
+	 * 実際の（論理削除されていない）投稿の数
+	 */
+	private int actualPostCount() {
+		List<PostSummaryDto> posts = postRepository.findLatestByUserId(user.getId(), Limit.of(1_000));
+		return posts.size();
+	}
+
+	/**
+	 * スレッドごとに実行する処理
+	 */
+	@FunctionalInterface
+	private interface ThreadTask {
+		void run(int thread) throws Exception;
+	}
+}